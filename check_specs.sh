@@ -12,8 +12,4 @@ SPECS[2]="$SPECS_DIR/guava-19.0"
 SPECS[3]="$SPECS_DIR/jgrapht-core-0.9.2"
 SPECS[4]="$SPECS_DIR/plume-lib-1.1.0"
 
-for DIR in ${SPECS[@]}; do
-    for SPEC in "$DIR"/*_goal.json; do
-	java -cp "$TORADOCU_JAR" org.toradocu.util.SpecsChecker "$SPEC"
-    done
-done
+java -cp "$TORADOCU_JAR" org.toradocu.util.SpecsTool check "${SPECS[@]}"
@@ -1,7 +1,7 @@
 #!/bin/sh
 
 TORADOCU=build/libs/toradocu-1.0-all.jar
-CONVERTER=org.toradocu.util.GoalFileConverter
+CONVERTER=org.toradocu.util.SpecsTool
 
 if [ "$#" -ne 3 ]; then
     echo "You must invoke this script with exactly 3 arguments:"
@@ -13,11 +13,4 @@ fi
 
 ./gradlew shadowJar
 
-mkdir -p "$3"
-
-for JSON in "$1"/*_goal.json; do
-    BASENAME=$(basename "$JSON" _goal.json)
-    OUTPUT_FILENAME="${BASENAME##*.}"_expected.txt
-    echo "Converting $JSON to $3/$OUTPUT_FILENAME"
-    java -cp "$TORADOCU" "$CONVERTER" "$JSON" "$3/$OUTPUT_FILENAME" "$2"
-done
+java -cp "$TORADOCU" "$CONVERTER" convert --class-dir "$2" "$3" "$1"
@@ -0,0 +1,139 @@
+package org.toradocu;
+
+import java.util.Map;
+
+/**
+ * Progress of a running {@code ToradocuSession}, readable through JMX (e.g., with jconsole) under
+ * the name {@code org.toradocu:type=Session,target=<target class>,id=<n>}.
+ */
+public interface SessionMXBean {
+
+  /**
+   * Returns the target class of the session.
+   *
+   * @return the target class of the session
+   */
+  String getTargetClass();
+
+  /**
+   * Returns the stage the session is running: {@code EXTRACTION}, {@code TRANSLATION}, {@code
+   * OUTPUT}, {@code ORACLE_GENERATION}, or {@code DONE}. Returns null if the session has not
+   * started yet.
+   *
+   * @return the stage the session is running
+   */
+  String getStage();
+
+  /**
+   * Returns the time elapsed since the current stage started.
+   *
+   * @return the time elapsed since the current stage started, in milliseconds
+   */
+  long getStageMillis();
+
+  /**
+   * Returns the number of bytes allocated on the heap by the thread of the session since the
+   * current stage started, or -1 if the JVM cannot measure allocations.
+   *
+   * @return the number of bytes allocated since the current stage started, or -1
+   */
+  long getStageAllocatedBytes();
+
+  /**
+   * Returns the number of bytes of heap used by the JVM.
+   *
+   * @return the number of bytes of heap used by the JVM
+   */
+  long getHeapUsed();
+
+  /**
+   * Returns the number of documented methods of the target class.
+   *
+   * @return the number of documented methods of the target class
+   */
+  int getMethods();
+
+  /**
+   * Returns the number of methods whose tags have all been processed by the translators.
+   *
+   * @return the number of processed methods
+   */
+  int getProcessedMethods();
+
+  /**
+   * Returns the number of methods with tags still to be processed by the translators.
+   *
+   * @return the number of remaining methods
+   */
+  int getRemainingMethods();
+
+  /**
+   * Returns the number of tags of the documented methods.
+   *
+   * @return the number of tags of the documented methods
+   */
+  int getTags();
+
+  /**
+   * Returns the number of tags processed by the translators: translated, or left untranslated by
+   * the whole chain.
+   *
+   * @return the number of processed tags
+   */
+  int getProcessedTags();
+
+  /**
+   * Returns the number of tags still to be processed by the translators.
+   *
+   * @return the number of remaining tags
+   */
+  int getRemainingTags();
+
+  /**
+   * Returns the number of translated tags.
+   *
+   * @return the number of translated tags
+   */
+  int getTranslatedTags();
+
+  /**
+   * Returns the number of tags processed per second since the translation started.
+   *
+   * @return the number of tags processed per second
+   */
+  double getTagsPerSecond();
+
+  /**
+   * Returns the sentence being parsed, if any. If several sentences are being parsed at once (see
+   * {@code --translation-threads}), returns the one that has been parsed for the longest time.
+   *
+   * @return the sentence being parsed, or null if no sentence is being parsed
+   */
+  String getCurrentSentence();
+
+  /**
+   * Returns the time elapsed since the parsing of the current sentence (see {@code
+   * getCurrentSentence}) started.
+   *
+   * @return the time spent on the current sentence in milliseconds, or 0 if no sentence is being
+   *     parsed
+   */
+  long getCurrentSentenceMillis();
+
+  /**
+   * Returns the hit rate of each cache used by the session, between 0 and 1: {@code fastPath}
+   * (comments translated without parsing), {@code parsedCode} (conditions parsed once for many
+   * aspects), and {@code classLoaders} (class loaders reused).
+   *
+   * @return the hit rate of each cache used so far, by cache name
+   */
+  Map<String, Double> getCacheHitRates();
+
+  /**
+   * Returns the number of occurrences of each event recorded by the session, such as the comments
+   * translated by each fast-path rule and the sentences exceeding the parser limits.
+   *
+   * @return the number of occurrences of each event recorded so far, by event name
+   */
+  Map<String, Long> getEventCounts();
+}
@@ -0,0 +1,417 @@
+package org.toradocu;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.toradocu.extractor.DocumentedMethod;
+
+/**
+ * Tracks the progress of a {@code ToradocuSession}, and exposes it through JMX while the session is
+ * run by {@code Toradocu.run}. Components report their progress with the methods of the monitor of
+ * the session running on the current thread (see {@code current}); they do nothing if there is no
+ * such session.
+ */
+public final class SessionMonitor implements SessionMXBean {
+
+  /** Stages of a session. */
+  public enum Stage {
+    /** Extraction of the documented methods. */
+    EXTRACTION,
+    /** Translation of the comments. */
+    TRANSLATION,
+    /** Output of the translated conditions, statistics, and Randoop specifications. */
+    OUTPUT,
+    /** Generation of the aspects. */
+    ORACLE_GENERATION,
+    /** The session is over. */
+    DONE
+  }
+
+  /** {@code Logger} for this class. */
+  private static final Logger log = LoggerFactory.getLogger(SessionMonitor.class);
+  /** Source of the measures of threads. */
+  private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+  /** Number of monitors registered so far, used to name them uniquely. */
+  private static final AtomicInteger registrations = new AtomicInteger();
+
+  /** The target class of the session. */
+  private final String targetClass;
+  /** The current stage, or null if the session has not started. */
+  private volatile Stage stage;
+  /** Time the current stage started at, in nanoseconds. */
+  private volatile long stageStart;
+  /** Thread running the current stage. */
+  private volatile long stageThread;
+  /** Bytes allocated by {@code stageThread} when the current stage started, or -1. */
+  private volatile long stageStartAllocatedBytes = -1;
+  /** Number of documented methods. */
+  private volatile int methods;
+  /** Number of tags. */
+  private volatile int tags;
+  /** Number of methods whose tags have all been processed. */
+  private final AtomicInteger processedMethods = new AtomicInteger();
+  /** Number of processed tags. */
+  private final AtomicInteger processedTags = new AtomicInteger();
+  /** Number of translated tags. */
+  private final AtomicInteger translatedTags = new AtomicInteger();
+  /** Number of tags to be processed, for each method with tags. Guarded by itself. */
+  private final Map<DocumentedMethod, Integer> remainingTags = new IdentityHashMap<>();
+  /** Time the translation started at, in nanoseconds. */
+  private volatile long translationStart;
+  /** Time the translation ended at, in nanoseconds, or 0 if the translation is running. */
+  private volatile long translationEnd;
+  /**
+   * Sentences being parsed, by id of the parsing thread: with {@code --translation-threads},
+   * several sentences can be parsed at once.
+   */
+  private final Map<Long, ParsedSentence> parsedSentences = new ConcurrentHashMap<>();
+  /** Hits and misses of each cache, by cache name. */
+  private final Map<String, AtomicLong[]> cacheAccesses = new ConcurrentHashMap<>();
+  /** Number of occurrences of each event, by event name. */
+  private final Map<String, AtomicLong> events = new ConcurrentHashMap<>();
+  /** The name this monitor is registered with, or null if it is not registered. */
+  private ObjectName name;
+
+  /**
+   * Creates a new monitor for a session analyzing the given class.
+   *
+   * @param targetClass the target class of the session
+   */
+  SessionMonitor(String targetClass) {
+    this.targetClass = targetClass;
+  }
+
+  /**
+   * Returns the monitor of the session running on the current thread.
+   *
+   * @return the monitor of the session running on the current thread, or null if there is none
+   */
+  public static SessionMonitor current() {
+    ToradocuSession session = ToradocuSession.current();
+    return session == null ? null : session.getMonitor();
+  }
+
+  /**
+   * Records an access to the given cache by the session running on the current thread, if any.
+   *
+   * @param cache the name of the cache
+   * @param hit true if the accessed entry was in the cache
+   */
+  public static void recordCacheAccess(String cache, boolean hit) {
+    SessionMonitor monitor = current();
+    if (monitor != null) {
+      AtomicLong[] accesses =
+          monitor.cacheAccesses.computeIfAbsent(
+              cache, c -> new AtomicLong[] {new AtomicLong(), new AtomicLong()});
+      accesses[hit ? 0 : 1].incrementAndGet();
+    }
+  }
+
+  /**
+   * Records an occurrence of the given event in the session running on the current thread, if any.
+   *
+   * @param event the name of the event
+   */
+  public static void recordEvent(String event) {
+    SessionMonitor monitor = current();
+    if (monitor != null) {
+      monitor.events.computeIfAbsent(event, e -> new AtomicLong()).incrementAndGet();
+    }
+  }
+
+  /**
+   * Returns the number of occurrences of the given event recorded so far (see {@code
+   * recordEvent}).
+   *
+   * @param event the name of the event
+   * @return the number of occurrences of the event
+   */
+  public long getEventCount(String event) {
+    AtomicLong count = events.get(event);
+    return count == null ? 0 : count.get();
+  }
+
+  /**
+   * Registers this monitor with the platform MBean server. Failures are logged: monitoring is not
+   * essential to the session.
+   */
+  synchronized void register() {
+    try {
+      name =
+          new ObjectName(
+              "org.toradocu:type=Session,target="
+                  + targetClass
+                  + ",id="
+                  + registrations.incrementAndGet());
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+    } catch (JMException e) {
+      log.warn("Unable to register the session monitor", e);
+      name = null;
+    }
+  }
+
+  /** Unregisters this monitor from the platform MBean server, if it is registered. */
+  synchronized void unregister() {
+    if (name == null) {
+      return;
+    }
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      server.unregisterMBean(name);
+    } catch (JMException e) {
+      log.warn("Unable to unregister the session monitor", e);
+    }
+    name = null;
+  }
+
+  /**
+   * Records that the session starts the given stage on the current thread.
+   *
+   * @param stage the stage the session starts
+   */
+  public void startStage(Stage stage) {
+    stageThread = Thread.currentThread().getId();
+    stageStartAllocatedBytes = allocatedBytes(stageThread);
+    stageStart = System.nanoTime();
+    this.stage = stage;
+  }
+
+  /**
+   * Records that the translation of the tags of the given methods starts.
+   *
+   * @param documentedMethods the methods whose tags are going to be translated
+   */
+  public void startTranslation(List<DocumentedMethod> documentedMethods) {
+    int total = 0;
+    int withoutTags = 0;
+    synchronized (remainingTags) {
+      remainingTags.clear();
+      for (DocumentedMethod method : documentedMethods) {
+        int count = method.throwsTags().size() + method.paramTags().size();
+        if (method.returnTag() != null) {
+          count++;
+        }
+        if (count == 0) {
+          withoutTags++;
+        } else {
+          remainingTags.put(method, count);
+          total += count;
+        }
+      }
+    }
+    methods = documentedMethods.size();
+    tags = total;
+    processedMethods.set(withoutTags);
+    processedTags.set(0);
+    translatedTags.set(0);
+    translationEnd = 0;
+    translationStart = System.nanoTime();
+  }
+
+  /**
+   * Records that a tag of the given method has been processed: it has been translated, or no
+   * translator of the chain could translate it.
+   *
+   * @param method the method the tag belongs to
+   * @param translated true if the tag has been translated
+   */
+  public void tagProcessed(DocumentedMethod method, boolean translated) {
+    processedTags.incrementAndGet();
+    if (translated) {
+      translatedTags.incrementAndGet();
+    }
+    synchronized (remainingTags) {
+      Integer remaining = remainingTags.get(method);
+      if (remaining != null) {
+        if (remaining == 1) {
+          remainingTags.remove(method);
+          processedMethods.incrementAndGet();
+        } else {
+          remainingTags.put(method, remaining - 1);
+        }
+      }
+    }
+  }
+
+  /** Records that the translation of the tags is over. */
+  public void endTranslation() {
+    translationEnd = System.nanoTime();
+  }
+
+  /**
+   * Records that the parsing of the given sentence starts.
+   *
+   * @param sentence the sentence to be parsed
+   */
+  public void startParsing(String sentence) {
+    parsedSentences.put(
+        Thread.currentThread().getId(), new ParsedSentence(sentence, System.nanoTime()));
+  }
+
+  /** Records that the parsing of the sentence of the current thread is over. */
+  public void endParsing() {
+    parsedSentences.remove(Thread.currentThread().getId());
+  }
+
+  @Override
+  public String getTargetClass() {
+    return targetClass;
+  }
+
+  @Override
+  public String getStage() {
+    Stage current = stage;
+    return current == null ? null : current.name();
+  }
+
+  @Override
+  public long getStageMillis() {
+    return stage == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stageStart);
+  }
+
+  @Override
+  public long getStageAllocatedBytes() {
+    long start = stageStartAllocatedBytes;
+    long now = allocatedBytes(stageThread);
+    return start < 0 || now < 0 ? -1 : now - start;
+  }
+
+  @Override
+  public long getHeapUsed() {
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  @Override
+  public int getMethods() {
+    return methods;
+  }
+
+  @Override
+  public int getProcessedMethods() {
+    return processedMethods.get();
+  }
+
+  @Override
+  public int getRemainingMethods() {
+    return methods - processedMethods.get();
+  }
+
+  @Override
+  public int getTags() {
+    return tags;
+  }
+
+  @Override
+  public int getProcessedTags() {
+    return processedTags.get();
+  }
+
+  @Override
+  public int getRemainingTags() {
+    return tags - processedTags.get();
+  }
+
+  @Override
+  public int getTranslatedTags() {
+    return translatedTags.get();
+  }
+
+  @Override
+  public double getTagsPerSecond() {
+    long start = translationStart;
+    if (start == 0) {
+      return 0;
+    }
+    long end = translationEnd == 0 ? System.nanoTime() : translationEnd;
+    double seconds = (end - start) / 1e9;
+    return seconds > 0 ? processedTags.get() / seconds : 0;
+  }
+
+  @Override
+  public String getCurrentSentence() {
+    ParsedSentence longest = longestParsedSentence();
+    return longest == null ? null : longest.sentence;
+  }
+
+  @Override
+  public long getCurrentSentenceMillis() {
+    ParsedSentence longest = longestParsedSentence();
+    return longest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - longest.start);
+  }
+
+  /**
+   * Returns the sentence that has been parsed for the longest time.
+   *
+   * @return the sentence being parsed since the earliest time, or null if no sentence is being
+   *     parsed
+   */
+  private ParsedSentence longestParsedSentence() {
+    ParsedSentence longest = null;
+    for (ParsedSentence parsed : parsedSentences.values()) {
+      if (longest == null || parsed.start - longest.start < 0) {
+        longest = parsed;
+      }
+    }
+    return longest;
+  }
+
+  @Override
+  public Map<String, Double> getCacheHitRates() {
+    Map<String, Double> rates = new TreeMap<>();
+    for (Map.Entry<String, AtomicLong[]> cache : cacheAccesses.entrySet()) {
+      long hits = cache.getValue()[0].get();
+      long total = hits + cache.getValue()[1].get();
+      rates.put(cache.getKey(), total == 0 ? 0 : (double) hits / total);
+    }
+    return rates;
+  }
+
+  @Override
+  public Map<String, Long> getEventCounts() {
+    Map<String, Long> counts = new TreeMap<>();
+    events.forEach((event, count) -> counts.put(event, count.get()));
+    return counts;
+  }
+
+  /**
+   * Returns the number of bytes allocated by the given thread.
+   *
+   * @param threadId the id of a thread
+   * @return the number of bytes allocated by the thread, or -1 if it cannot be measured
+   */
+  private static long allocatedBytes(long threadId) {
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+      if (sunThreads.isThreadAllocatedMemorySupported()
+          && sunThreads.isThreadAllocatedMemoryEnabled()) {
+        return sunThreads.getThreadAllocatedBytes(threadId);
+      }
+    }
+    return -1;
+  }
+
+  /** A sentence being parsed. */
+  private static final class ParsedSentence {
+    /** The sentence. */
+    final String sentence;
+    /** Time the parsing of the sentence started at, in nanoseconds. */
+    final long start;
+
+    ParsedSentence(String sentence, long start) {
+      this.sentence = sentence;
+      this.start = start;
+    }
+  }
+}
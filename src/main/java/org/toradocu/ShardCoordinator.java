@@ -0,0 +1,552 @@
+package org.toradocu;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
+import com.google.gson.reflect.TypeToken;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.apache.commons.io.FileUtils;
+import org.toradocu.conf.Configuration;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.generator.OracleGenerator;
+import org.toradocu.util.GsonInstance;
+
+/**
+ * Runs Toradocu on many target classes with a pool of local worker JVMs ({@code ShardWorker}). The
+ * target classes are split into one shard per worker, balanced by their estimated cost (see {@code
+ * estimateCost}). A worker that crashes is restarted on the classes of its shard it did not
+ * complete, resuming the class it was translating from its checkpoint; a class that crashes its
+ * worker more than {@code --max-restarts} times is given up. Once all the workers are done, the
+ * translations of all the classes are merged into a single condition translator output, from which
+ * the Randoop specifications and the aspects (with a single {@code aop.xml}) are generated.
+ *
+ * <p>The outputs of the classes left in the work directory by a previous run are discarded, unless
+ * {@code --resume} is given: then the classes the previous run completed are not translated again,
+ * and the classes it was translating are resumed from their checkpoints. A run can be resumed only
+ * with the target classes and the Toradocu options of the previous run.
+ *
+ * <p>Usage: {@code java -cp toradocu.jar org.toradocu.ShardCoordinator --targets classes.txt
+ * [--workers N] [--work-dir DIR] [--max-restarts K] [--jvm-option OPTION]... [--resume] --
+ * <Toradocu options>}, where {@code classes.txt} lists one target class per line. The Toradocu
+ * options apply to all the classes; their output options ({@code --condition-translator-output},
+ * {@code --randoop-specs}, {@code --aspects-output-dir}) name the merged outputs.
+ */
+public class ShardCoordinator {
+
+  /** Options of Toradocu that are set by the coordinator for each class, with their arity. */
+  private static final Map<String, Integer> PER_CLASS_OPTIONS = new HashMap<>();
+
+  static {
+    for (String option :
+        Arrays.asList(
+            "--target-class",
+            "--condition-translator-input",
+            "--condition-translator-output",
+            "--javadoc-extractor-output",
+            "--expected-output",
+            "--randoop-specs",
+            "--aspects-output-dir",
+            "--oracle-generation",
+            "--checkpoint")) {
+      PER_CLASS_OPTIONS.put(option, 1);
+    }
+    PER_CLASS_OPTIONS.put("--resume", 0);
+  }
+
+  /** Estimated cost of a tag of a Javadoc comment. */
+  private static final long TAG_COST = 1;
+  /** Number of characters of Javadoc comments whose estimated cost is the one of a tag. */
+  private static final long CHARS_PER_COST_UNIT = 80;
+  /** Block tags translated by Toradocu. */
+  private static final Pattern TAG = Pattern.compile("@(param|return|throws|exception)\\b");
+  /** Javadoc comments. */
+  private static final Pattern JAVADOC = Pattern.compile("/\\*\\*.*?\\*/", Pattern.DOTALL);
+  /** File of the work directory recording the target classes and the options of the run. */
+  private static final String MANIFEST = "manifest.txt";
+
+  /** The target classes, in the order their translations are merged. */
+  private final List<String> targets;
+  /** Number of worker JVMs. */
+  private final int workers;
+  /** Directory containing the shards, the logs of the workers, and the output of each class. */
+  private final File workDir;
+  /** Number of times a worker can be restarted after crashing on the same class. */
+  private final int maxRestarts;
+  /** Whether the run in the work directory is resumed instead of started over. */
+  private final boolean resume;
+  /** Options of the worker JVMs. */
+  private final List<String> jvmOptions;
+  /** Toradocu options shared by all the classes. */
+  private final List<String> toradocuOptions;
+  /** Reasons of the failure of the classes Toradocu failed on, by class. */
+  private final Map<String, String> failures = new LinkedHashMap<>();
+
+  /**
+   * Creates a new coordinator.
+   *
+   * @param targets the target classes
+   * @param workers the number of worker JVMs
+   * @param workDir the directory where to save the intermediate results
+   * @param maxRestarts the number of restarts of a worker crashing on the same class
+   * @param resume whether to resume the run in {@code workDir} instead of starting over
+   * @param jvmOptions the options of the worker JVMs
+   * @param toradocuOptions the Toradocu options shared by all the classes
+   */
+  ShardCoordinator(
+      List<String> targets,
+      int workers,
+      File workDir,
+      int maxRestarts,
+      boolean resume,
+      List<String> jvmOptions,
+      List<String> toradocuOptions) {
+    this.targets = targets;
+    this.workers = workers;
+    this.workDir = workDir;
+    this.maxRestarts = maxRestarts;
+    this.resume = resume;
+    this.jvmOptions = jvmOptions;
+    this.toradocuOptions = toradocuOptions;
+  }
+
+  public static void main(String[] args) throws Exception {
+    File targetsFile = null;
+    int workers = Runtime.getRuntime().availableProcessors();
+    File workDir = new File("toradocu-shards");
+    int maxRestarts = 2;
+    boolean resume = false;
+    List<String> jvmOptions = new ArrayList<>();
+    List<String> toradocuOptions = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--")) {
+        toradocuOptions.addAll(Arrays.asList(args).subList(i + 1, args.length));
+        break;
+      } else if (args[i].equals("--targets") && i + 1 < args.length) {
+        targetsFile = new File(args[++i]);
+      } else if (args[i].equals("--workers") && i + 1 < args.length) {
+        workers = Integer.parseInt(args[++i]);
+      } else if (args[i].equals("--work-dir") && i + 1 < args.length) {
+        workDir = new File(args[++i]);
+      } else if (args[i].equals("--max-restarts") && i + 1 < args.length) {
+        maxRestarts = Integer.parseInt(args[++i]);
+      } else if (args[i].equals("--jvm-option") && i + 1 < args.length) {
+        jvmOptions.add(args[++i]);
+      } else if (args[i].equals("--resume")) {
+        resume = true;
+      } else {
+        targetsFile = null;
+        break;
+      }
+    }
+    if (targetsFile == null || workers < 1) {
+      System.out.println(
+          "Usage: java -cp toradocu.jar org.toradocu.ShardCoordinator --targets <file> "
+              + "[--workers <n>] [--work-dir <dir>] [--max-restarts <n>] "
+              + "[--jvm-option <option>]... [--resume] -- <Toradocu options>");
+      System.exit(1);
+    }
+
+    List<String> targets =
+        Files.readAllLines(targetsFile.toPath(), StandardCharsets.UTF_8)
+            .stream()
+            .map(String::trim)
+            .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+            .distinct()
+            .collect(Collectors.toList());
+    ShardCoordinator coordinator =
+        new ShardCoordinator(
+            targets,
+            workers,
+            workDir,
+            maxRestarts,
+            resume,
+            jvmOptions,
+            workerOptions(toradocuOptions));
+    Configuration configuration;
+    try {
+      configuration = coordinator.mergeConfiguration(toradocuOptions);
+    } catch (ParameterException e) {
+      System.out.println(e.getMessage());
+      System.exit(1);
+      return;
+    }
+
+    if (!coordinator.prepareWorkDir()) {
+      System.out.println(
+          "Unable to resume: "
+              + workDir
+              + " contains the run of other target classes or Toradocu options");
+      System.exit(1);
+    }
+    final long start = System.nanoTime();
+    coordinator.run(configuration.getSourceDir());
+    coordinator.merge(configuration);
+    System.out.println(
+        "=== Shards ===\nClasses: "
+            + targets.size()
+            + "\nWorkers: "
+            + workers
+            + "\nWall-clock time: "
+            + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)
+            + " s\nFailed classes: "
+            + coordinator.failures.size());
+    coordinator.failures.forEach((c, reason) -> System.out.println(c + ": " + reason));
+    System.exit(coordinator.failures.isEmpty() ? 0 : 1);
+  }
+
+  /**
+   * Returns the given Toradocu options without the ones the coordinator sets for each class.
+   *
+   * @param options Toradocu options
+   * @return {@code options} without the per-class options
+   */
+  static List<String> workerOptions(List<String> options) {
+    List<String> shared = new ArrayList<>();
+    for (int i = 0; i < options.size(); i++) {
+      Integer arity = PER_CLASS_OPTIONS.get(options.get(i));
+      if (arity == null) {
+        shared.add(options.get(i));
+      } else {
+        i += arity;
+      }
+    }
+    return shared;
+  }
+
+  /**
+   * Estimates the cost of translating the comments of the given class: one unit for each tag of
+   * its Javadoc comments, plus one unit for every {@code CHARS_PER_COST_UNIT} characters of
+   * comments (long comments take longer to parse). Nested classes are estimated from the source
+   * file of their outermost class. The cost of a class whose source file cannot be found is one
+   * unit.
+   *
+   * @param sourceDir the directory containing the source files
+   * @param targetClass the fully-qualified name of the class
+   * @return the estimated cost of the class
+   */
+  static long estimateCost(Path sourceDir, String targetClass) {
+    Path source = Configuration.findSourceFile(sourceDir, targetClass);
+    if (source == null) {
+      return TAG_COST;
+    }
+    String code;
+    try {
+      code = new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      return TAG_COST;
+    }
+    long tags = 0;
+    long chars = 0;
+    Matcher javadoc = JAVADOC.matcher(code);
+    while (javadoc.find()) {
+      chars += javadoc.end() - javadoc.start();
+      Matcher tag = TAG.matcher(javadoc.group());
+      while (tag.find()) {
+        tags++;
+      }
+    }
+    return Math.max(TAG_COST, tags * TAG_COST + chars / CHARS_PER_COST_UNIT);
+  }
+
+  /**
+   * Splits the given classes into shards of similar total cost: classes are assigned, from the most
+   * expensive, to the shard with the lowest total cost so far.
+   *
+   * @param costs the estimated cost of each class
+   * @param shards the number of shards
+   * @return the shards, some of which may be empty
+   */
+  static List<List<String>> shard(Map<String, Long> costs, int shards) {
+    List<List<String>> result = new ArrayList<>();
+    long[] totals = new long[shards];
+    for (int i = 0; i < shards; i++) {
+      result.add(new ArrayList<>());
+    }
+    List<Map.Entry<String, Long>> byCost = new ArrayList<>(costs.entrySet());
+    byCost.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+    for (Map.Entry<String, Long> entry : byCost) {
+      int lightest = 0;
+      for (int i = 1; i < shards; i++) {
+        if (totals[i] < totals[lightest]) {
+          lightest = i;
+        }
+      }
+      result.get(lightest).add(entry.getKey());
+      totals[lightest] += entry.getValue();
+    }
+    return result;
+  }
+
+  /**
+   * Returns the configuration used to merge the results of the classes, i.e., the configuration
+   * given on the command line, bound to the first target class.
+   *
+   * @param options Toradocu options given on the command line
+   * @return the initialized configuration
+   * @throws ParameterException if the options are not valid
+   */
+  private Configuration mergeConfiguration(List<String> options) {
+    List<String> args = new ArrayList<>(options);
+    if (!options.contains("--target-class")) {
+      args.add("--target-class");
+      args.add(targets.isEmpty() ? "" : targets.get(0));
+    }
+    Configuration configuration = new Configuration();
+    new JCommander(configuration, args.toArray(new String[0]));
+    configuration.initialize();
+    return configuration;
+  }
+
+  /**
+   * Prepares the work directory for a run. Unless the run is resumed, the outputs of the classes
+   * and the logs of the workers of a previous run are deleted. The target classes and the Toradocu
+   * options of the run are recorded in the work directory, so that a resumed run can be checked
+   * against them.
+   *
+   * @return false if the run is resumed but the work directory contains the run of other target
+   *     classes or Toradocu options, true otherwise
+   * @throws IOException if the work directory cannot be cleared or written
+   */
+  boolean prepareWorkDir() throws IOException {
+    final File manifestFile = new File(workDir, MANIFEST);
+    final List<String> manifest = new ArrayList<>(toradocuOptions);
+    manifest.add("--");
+    manifest.addAll(targets);
+    if (resume) {
+      if (manifestFile.exists()
+          && !Files.readAllLines(manifestFile.toPath(), StandardCharsets.UTF_8).equals(manifest)) {
+        return false;
+      }
+    } else {
+      FileUtils.deleteDirectory(outputDir());
+      File[] logs = workDir.listFiles((dir, name) -> name.matches("worker-\\d+\\.log"));
+      if (logs != null) {
+        for (File logFile : logs) {
+          Files.delete(logFile.toPath());
+        }
+      }
+    }
+    Files.createDirectories(outputDir().toPath());
+    Files.write(manifestFile.toPath(), manifest, StandardCharsets.UTF_8);
+    return true;
+  }
+
+  /**
+   * Runs the workers on the shards of the target classes, and waits for them to finish. The work
+   * directory must have been prepared with {@code prepareWorkDir}.
+   *
+   * @param sourceDir the directory containing the source files, used to estimate costs
+   * @throws IOException if the shard files cannot be written
+   * @throws InterruptedException if interrupted while waiting for the workers
+   */
+  private void run(Path sourceDir) throws IOException, InterruptedException {
+    Map<String, Long> costs = new LinkedHashMap<>();
+    for (String target : targets) {
+      costs.put(target, estimateCost(sourceDir, target));
+    }
+    List<List<String>> shards = shard(costs, workers);
+    ExecutorService slots = Executors.newFixedThreadPool(workers);
+    try {
+      List<Future<Map<String, String>>> results = new ArrayList<>();
+      for (int i = 0; i < shards.size(); i++) {
+        final int worker = i;
+        final List<String> shard = shards.get(i);
+        if (!shard.isEmpty()) {
+          results.add(slots.submit(() -> runShard(worker, shard)));
+        }
+      }
+      for (Future<Map<String, String>> result : results) {
+        try {
+          failures.putAll(result.get());
+        } catch (ExecutionException e) {
+          throw new IllegalStateException("Unable to run a worker", e.getCause());
+        }
+      }
+    } finally {
+      slots.shutdownNow();
+    }
+  }
+
+  /**
+   * Runs a worker on the given shard, restarting it when it crashes, until all the classes of the
+   * shard have been translated or given up.
+   *
+   * @param worker the number of the worker
+   * @param shard the classes of the shard
+   * @return the reasons of the failure of the classes of the shard Toradocu failed on, by class
+   * @throws IOException if the worker cannot be started
+   * @throws InterruptedException if interrupted while waiting for the worker
+   */
+  private Map<String, String> runShard(int worker, List<String> shard)
+      throws IOException, InterruptedException {
+    final File shardFile = new File(workDir, "shard-" + worker + ".txt");
+    final File logFile = new File(workDir, "worker-" + worker + ".log");
+    final Map<String, Integer> crashes = new HashMap<>();
+    int crashesWithoutProgress = 0;
+    List<String> remaining = remaining(shard);
+    while (!remaining.isEmpty()) {
+      Files.write(shardFile.toPath(), remaining, StandardCharsets.UTF_8);
+      Process process =
+          new ProcessBuilder(workerCommand(shardFile))
+              .redirectErrorStream(true)
+              .redirectOutput(ProcessBuilder.Redirect.appendTo(logFile))
+              .start();
+      final int exitCode = process.waitFor();
+      final List<String> previous = remaining;
+      remaining = remaining(shard);
+      if (remaining.isEmpty()) {
+        break;
+      }
+
+      String crashed =
+          remaining
+              .stream()
+              .filter(c -> marker(c, ShardWorker.STARTED).exists())
+              .findFirst()
+              .orElse(null);
+      String reason = "worker crashed with exit code " + exitCode + " (see " + logFile + ")";
+      if (crashed != null && crashes.merge(crashed, 1, Integer::sum) > maxRestarts) {
+        Files.write(
+            marker(crashed, ShardWorker.FAILED).toPath(),
+            reason.getBytes(StandardCharsets.UTF_8));
+        remaining = remaining(shard);
+      } else if (remaining.size() == previous.size()
+          && crashed == null
+          && ++crashesWithoutProgress > maxRestarts) {
+        for (String target : remaining) {
+          Files.write(
+              marker(target, ShardWorker.FAILED).toPath(),
+              reason.getBytes(StandardCharsets.UTF_8));
+        }
+        break;
+      }
+      System.out.println(
+          "Worker " + worker + " " + reason + ": restarting on " + remaining.size() + " classes");
+    }
+
+    Map<String, String> shardFailures = new LinkedHashMap<>();
+    for (String target : shard) {
+      File failed = marker(target, ShardWorker.FAILED);
+      if (failed.exists()) {
+        shardFailures.put(
+            target, new String(Files.readAllBytes(failed.toPath()), StandardCharsets.UTF_8));
+      }
+    }
+    return shardFailures;
+  }
+
+  /**
+   * Returns the classes of the given shard that have been neither translated nor given up.
+   *
+   * @param shard the classes of a shard
+   * @return the classes of {@code shard} still to be translated
+   */
+  List<String> remaining(List<String> shard) {
+    return shard
+        .stream()
+        .filter(
+            c -> !marker(c, ShardWorker.DONE).exists() && !marker(c, ShardWorker.FAILED).exists())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the command launching a worker on the given shard file.
+   *
+   * @param shardFile the file listing the classes of the shard
+   * @return the command launching the worker
+   */
+  private List<String> workerCommand(File shardFile) {
+    List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    command.addAll(jvmOptions);
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(ShardWorker.class.getName());
+    command.add(shardFile.getPath());
+    command.add(outputDir().getPath());
+    command.addAll(toradocuOptions);
+    return command;
+  }
+
+  /**
+   * Merges the translations of all the classes, in the order of the targets, and writes the merged
+   * condition translator output, Randoop specifications, and aspects.
+   *
+   * @param configuration the configuration naming the merged outputs
+   * @throws IOException if the merged condition translator output cannot be written
+   */
+  private void merge(Configuration configuration) throws IOException {
+    java.lang.reflect.Type listType = new TypeToken<List<DocumentedMethod>>() {}.getType();
+    List<DocumentedMethod> methods = new ArrayList<>();
+    for (String target : targets) {
+      File output = marker(target, ShardWorker.OUTPUT);
+      if (!marker(target, ShardWorker.DONE).exists() || !output.exists()) {
+        continue;
+      }
+      try (BufferedReader reader = Files.newBufferedReader(output.toPath())) {
+        List<DocumentedMethod> classMethods = GsonInstance.gson().fromJson(reader, listType);
+        if (classMethods != null) {
+          methods.addAll(classMethods);
+        }
+      }
+    }
+
+    File mergedOutput = configuration.getConditionTranslatorOutput();
+    if (mergedOutput != null) {
+      try (BufferedWriter writer =
+          Files.newBufferedWriter(mergedOutput.toPath(), StandardCharsets.UTF_8)) {
+        writer.write(GsonInstance.gson().toJson(methods));
+      }
+    }
+    new ToradocuSession(configuration)
+        .call(
+            () -> {
+              if (configuration.isConditionTranslationEnabled()) {
+                Toradocu.generateRandoopSpecs(methods);
+              }
+              OracleGenerator.createAspects(methods);
+              return null;
+            });
+  }
+
+  /**
+   * Returns the file with the given extension in the output directory of the given class.
+   *
+   * @param targetClass a target class
+   * @param extension the extension of the file (e.g., {@code ShardWorker.DONE})
+   * @return the file of {@code targetClass} with the given extension
+   */
+  File marker(String targetClass, String extension) {
+    return new File(outputDir(), targetClass + extension);
+  }
+
+  /**
+   * Returns the directory where workers save the output of each class.
+   *
+   * @return the directory where workers save the output of each class
+   */
+  private File outputDir() {
+    return new File(workDir, "classes");
+  }
+}
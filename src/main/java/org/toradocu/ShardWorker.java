@@ -0,0 +1,138 @@
+package org.toradocu;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.toradocu.conf.Configuration;
+
+/**
+ * Worker JVM launched by {@code ShardCoordinator}: translates the comments of the classes of a
+ * shard, one {@code ToradocuSession} after the other, so that the parser models are loaded once per
+ * worker. Each session runs the javadoc tool on the source file of its class only, and the
+ * documentation of a class is released before the next class is extracted: the memory used by a
+ * worker does not grow with the size of the packages of the classes. For each class {@code C}, the
+ * worker writes in the output directory:
+ *
+ * <ul>
+ *   <li>{@code C.started}, before starting the class;
+ *   <li>{@code C.json}, the condition translator output;
+ *   <li>{@code C.checkpoint}, the journal of the translated methods (see {@code --checkpoint}),
+ *       from which a restarted worker resumes the class;
+ *   <li>{@code C.done} if the class has been translated, or {@code C.failed} (containing the error)
+ *       if Toradocu failed on the class.
+ * </ul>
+ *
+ * A class that brings the whole JVM down (e.g., with an {@code OutOfMemoryError}) is left {@code
+ * started}, so that the coordinator can tell which class crashed the worker.
+ */
+public class ShardWorker {
+
+  /** Extension of the marker of the classes the worker started. */
+  static final String STARTED = ".started";
+  /** Extension of the marker of the translated classes. */
+  static final String DONE = ".done";
+  /** Extension of the marker of the classes Toradocu failed on. */
+  static final String FAILED = ".failed";
+  /** Extension of the condition translator output of a class. */
+  static final String OUTPUT = ".json";
+  /** Extension of the checkpoint journal of a class. */
+  static final String CHECKPOINT = ".checkpoint";
+
+  /** Logger of this class. */
+  private static Logger log;
+
+  /**
+   * Entry point of a worker.
+   *
+   * @param args the shard file (one class per line), the output directory, and the Toradocu
+   *     options shared by all the classes
+   * @throws IOException if the shard file cannot be read, or a marker cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.out.println("This program must be invoked with the following parameters:");
+      System.out.println("1) Path to the file listing the classes of the shard.");
+      System.out.println("2) Path to the directory where to save the output of each class.");
+      System.out.println("3...n) Toradocu options shared by all the classes.");
+      System.exit(1);
+    }
+    final List<String> classes = Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8);
+    final File outputDir = new File(args[1]);
+    final List<String> options = Arrays.asList(args).subList(2, args.length);
+
+    // Same logging setup as Toradocu.main.
+    System.setProperty(org.slf4j.impl.SimpleLogger.LOG_KEY_PREFIX + "edu.stanford", "error");
+    log = LoggerFactory.getLogger(ShardWorker.class);
+
+    for (String targetClass : classes) {
+      if (targetClass.isEmpty()) {
+        continue;
+      }
+      touch(new File(outputDir, targetClass + STARTED), "");
+      String failure = null;
+      try {
+        Toradocu.run(new ToradocuSession(configure(targetClass, outputDir, options)));
+      } catch (ParameterException e) {
+        failure = "Invalid options: " + e.getMessage();
+      } catch (RuntimeException | LinkageError e) {
+        // A LinkageError (e.g., NoClassDefFoundError) is specific to the classes of the target.
+        failure = e.toString();
+        log.error("Toradocu failed on " + targetClass, e);
+      }
+      if (failure == null) {
+        touch(new File(outputDir, targetClass + DONE), "");
+      } else {
+        touch(new File(outputDir, targetClass + FAILED), failure);
+      }
+    }
+  }
+
+  /**
+   * Returns the configuration of the session translating the given class.
+   *
+   * @param targetClass the class to translate
+   * @param outputDir the directory where to save the output of the class
+   * @param options the Toradocu options shared by all the classes
+   * @return the initialized configuration of the session
+   * @throws ParameterException if the options are not valid
+   */
+  static Configuration configure(String targetClass, File outputDir, List<String> options) {
+    List<String> args = new ArrayList<>(options);
+    args.addAll(
+        Arrays.asList(
+            "--target-class",
+            targetClass,
+            "--condition-translator-output",
+            new File(outputDir, targetClass + OUTPUT).getPath(),
+            "--checkpoint",
+            new File(outputDir, targetClass + CHECKPOINT).getPath(),
+            "--resume",
+            // Aspects are generated once by the coordinator, from the merged translations.
+            "--oracle-generation",
+            "false"));
+    Configuration configuration = new Configuration();
+    new JCommander(configuration, args.toArray(new String[0]));
+    configuration.initialize();
+    return configuration;
+  }
+
+  /**
+   * Writes a marker file with the given content.
+   *
+   * @param marker the marker file
+   * @param content the content of the marker
+   * @throws IOException if the marker cannot be written
+   */
+  private static void touch(File marker, String content) throws IOException {
+    Files.write(marker.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,29 @@
+package org.toradocu;
+
+/** Thrown when the javadoc tool cannot find the target class of a {@code ToradocuSession}. */
+public class TargetClassNotFoundException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  /** The qualified name of the target class. */
+  private final String targetClass;
+
+  /**
+   * Creates a new exception for the given target class.
+   *
+   * @param targetClass the qualified name of the target class that cannot be found
+   */
+  public TargetClassNotFoundException(String targetClass) {
+    super("Unable to find the target class: " + targetClass);
+    this.targetClass = targetClass;
+  }
+
+  /**
+   * Returns the qualified name of the target class that cannot be found.
+   *
+   * @return the qualified name of the target class
+   */
+  public String getTargetClass() {
+    return targetClass;
+  }
+}
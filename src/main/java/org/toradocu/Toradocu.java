@@ -4,13 +4,12 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.ParameterException;
 import com.google.gson.reflect.TypeToken;
 import com.sun.javadoc.ClassDoc;
-import com.sun.tools.javadoc.Main;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -18,38 +17,36 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
-import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.toradocu.conf.Configuration;
 import org.toradocu.doclet.formats.html.ConfigurationImpl;
 import org.toradocu.extractor.DocumentedMethod;
-import org.toradocu.extractor.JavadocExtractor;
 import org.toradocu.extractor.Tag;
 import org.toradocu.generator.OracleGenerator;
-import org.toradocu.translator.ConditionTranslator;
+import org.toradocu.translator.UnknownTranslatorException;
 import org.toradocu.util.GsonInstance;
-import org.toradocu.util.NullOutputStream;
+import org.toradocu.util.Profiler;
+import org.toradocu.util.Profiler.Stage;
 import org.toradocu.util.RandoopSpecs;
 import org.toradocu.util.Stats;
 import randoop.condition.specification.OperationSpecification;
 
 /**
  * Entry point of Toradocu. {@code Toradocu.main} is automatically executed running the command:
- * {@code java -jar toradocu.jar}.
+ * {@code java -jar toradocu.jar}. It runs a {@code ToradocuSession} configured by the command line,
+ * and writes its results to the files specified on the command line.
  */
 public class Toradocu {
 
-  /** Doclet class used when javadoc command is run. */
-  private static final String DOCLET = "org.toradocu.doclet.standard.Standard";
   /** Command to run Toradocu. This string is used only in output messages. */
   private static final String TORADOCU_COMMAND = "java -jar toradocu.jar";
-  /** Toradocu's configurations. */
-  public static Configuration configuration = null;
+  /** Toradocu's configurations, as given on the command line. See also {@code getConfiguration}. */
+  private static Configuration configuration = null;
   /** Logger of this class. */
   private static Logger log;
-  /** Documented methods that will be processed by the condition translator. */
-  private static List<DocumentedMethod> methods;
+  /** Lock held while appending to the statistics file. */
+  private static final Object STATS_FILE_LOCK = new Object();
 
   /**
    * Entry point for Toradocu. Takes several command-line arguments that configure its behavior.
@@ -61,12 +58,12 @@ public class Toradocu {
     JCommander options = null;
     try {
       options = new JCommander(configuration, args);
+      configuration.initialize();
     } catch (ParameterException e) {
       System.out.println(e.getMessage());
       System.exit(1);
     }
     options.setProgramName(TORADOCU_COMMAND);
-    configuration.initialize();
 
     if (configuration.help()) {
       options.usage();
@@ -83,38 +80,15 @@ public class Toradocu {
     System.setProperty(org.slf4j.impl.SimpleLogger.LOG_KEY_PREFIX + "edu.stanford", "error");
     log = LoggerFactory.getLogger(Toradocu.class);
 
-    // === Javadoc Extractor ===
-
-    // Populate the methods field.
-    if (configuration.getConditionTranslatorInput() == null) {
-      // Obtain list of methods by running Javadoc. Our doclet invokes method Toradocu.process
-      // which side-effects the methods field.
-
-      // Suppress all the output of the Javadoc tool.
-      PrintWriter nullPrintWriter = new PrintWriter(new NullOutputStream());
-
-      Main.execute(
-          TORADOCU_COMMAND + " - Javadoc Extractor",
-          nullPrintWriter,
-          nullPrintWriter,
-          nullPrintWriter,
-          DOCLET,
-          configuration.getJavadocOptions());
-    } else {
-      // List of methods to analyze are read from a file specified with a command line option.
-      try (BufferedReader reader =
-          Files.newBufferedReader(configuration.getConditionTranslatorInput().toPath())) {
-        methods = new ArrayList<>();
-        methods.addAll(
-            GsonInstance.gson()
-                .fromJson(reader, new TypeToken<List<DocumentedMethod>>() {}.getType()));
-      } catch (IOException e) {
-        log.error("Unable to read the file: " + configuration.getConditionTranslatorInput(), e);
-        System.exit(1);
-      }
-    }
-
-    if (methods == null) {
+    try {
+      run(new ToradocuSession(configuration));
+    } catch (UncheckedIOException e) {
+      log.error(e.getMessage(), e.getCause());
+      System.exit(1);
+    } catch (UnknownTranslatorException e) {
+      log.error(e.getMessage());
+      System.exit(1);
+    } catch (TargetClassNotFoundException e) {
       log.error(
           "Unable to find the target class: "
               + configuration.getTargetClass()
@@ -130,33 +104,77 @@ public class Toradocu {
               + "https://github.com/albertogoffi/toradocu/issues");
       System.exit(1);
     }
+  }
+
+  /**
+   * Runs the given session, and writes its results to the files specified in its configuration
+   * (e.g., the condition translator output, the statistics file, and the aspects). Different
+   * sessions can run at the same time on different threads. While the session runs, its progress
+   * can be read through JMX (see {@code SessionMXBean}).
+   *
+   * @param session the session to run
+   * @throws TargetClassNotFoundException if the target class cannot be found
+   * @throws UnknownTranslatorException if an unknown translator is configured
+   * @throws UncheckedIOException if the condition translator input file or the checkpoint journal
+   *     cannot be read
+   */
+  public static void run(ToradocuSession session) {
+    final SessionMonitor monitor = session.getMonitor();
+    monitor.register();
+    try {
+      session.call(
+          () -> {
+            runSession(session);
+            return null;
+          });
+    } finally {
+      monitor.startStage(SessionMonitor.Stage.DONE);
+      monitor.unregister();
+    }
+  }
+
+  /**
+   * Runs the given session, as {@code run} does, on the current thread, which must be bound to
+   * {@code session}.
+   *
+   * @param session the session to run
+   */
+  private static void runSession(ToradocuSession session) {
+    final Configuration configuration = session.getConfiguration();
+    final SessionMonitor monitor = session.getMonitor();
+
+    // === Javadoc Extractor ===
+
+    monitor.startStage(SessionMonitor.Stage.EXTRACTION);
+    List<DocumentedMethod> methods = session.extract();
 
     if (configuration.getJavadocExtractorOutput() != null) { // Print collection to the output file.
       try (BufferedWriter writer =
           Files.newBufferedWriter(
               configuration.getJavadocExtractorOutput().toPath(), StandardCharsets.UTF_8)) {
-        writer.write(GsonInstance.gson().toJson(methods));
+        writer.write(toJson(methods));
       } catch (Exception e) {
-        log.error(
-            "Unable to write the output on file "
-                + configuration.getJavadocExtractorOutput().getAbsolutePath(),
-            e);
+        logger()
+            .error(
+                "Unable to write the output on file "
+                    + configuration.getJavadocExtractorOutput().getAbsolutePath(),
+                e);
       }
     }
     if (configuration.debug()) {
-      log.debug("Methods with Javadoc documentation found in source code: " + methods.toString());
+      logger()
+          .debug("Methods with Javadoc documentation found in source code: " + methods.toString());
     }
 
     // === Condition Translator ===
 
     if (configuration.isConditionTranslationEnabled()) {
 
-      // Use @tComment or the standard condition translator to translate comments.
-      if (configuration.useTComment()) {
-        tcomment.TcommentKt.translate(methods);
-      } else {
-        ConditionTranslator.translate(methods);
-      }
+      // Run the chain of translators selected by the user on the comments, and drop the
+      // translated conditions that do not compile, if requested.
+      monitor.startStage(SessionMonitor.Stage.TRANSLATION);
+      session.translate(methods);
+      monitor.startStage(SessionMonitor.Stage.OUTPUT);
 
       // Output the result on a file or on the standard output, if silent mode is disabled.
       if (!configuration.isSilent() || configuration.isSilent() && translationsPresentIn(methods)) {
@@ -164,18 +182,18 @@ public class Toradocu {
           try (BufferedWriter writer =
               Files.newBufferedWriter(
                   configuration.getConditionTranslatorOutput().toPath(), StandardCharsets.UTF_8)) {
-            String jsonOutput = GsonInstance.gson().toJson(methods);
+            String jsonOutput = toJson(methods);
             writer.write(jsonOutput);
             printConditionLines(jsonOutput);
           } catch (Exception e) {
-            log.error(
-                "Unable to write the output on file "
-                    + configuration.getConditionTranslatorOutput().getAbsolutePath(),
-                e);
+            logger()
+                .error(
+                    "Unable to write the output on file "
+                        + configuration.getConditionTranslatorOutput().getAbsolutePath(),
+                    e);
           }
         } else {
-          System.out.println(
-              "Condition translator output:\n" + GsonInstance.gson().toJson(methods));
+          System.out.println("Condition translator output:\n" + toJson(methods));
         }
       }
 
@@ -183,39 +201,106 @@ public class Toradocu {
       File expectedResultFile = configuration.getExpectedOutput();
       if (expectedResultFile != null) {
         Type collectionType = new TypeToken<List<DocumentedMethod>>() {}.getType();
-        try (BufferedReader reader = Files.newBufferedReader(expectedResultFile.toPath());
-            BufferedWriter resultsFile =
+        try (BufferedReader reader = Files.newBufferedReader(expectedResultFile.toPath())) {
+          List<DocumentedMethod> expectedResult =
+              GsonInstance.gson().fromJson(reader, collectionType);
+          List<Stats> targetClassResults = Stats.getStats(methods, expectedResult);
+          // Sessions running at the same time may share the statistics file.
+          synchronized (STATS_FILE_LOCK) {
+            try (BufferedWriter resultsFile =
                 Files.newBufferedWriter(
                     configuration.getStatsFile().toPath(),
                     StandardOpenOption.CREATE,
                     StandardOpenOption.APPEND)) {
-          List<DocumentedMethod> expectedResult =
-              GsonInstance.gson().fromJson(reader, collectionType);
-          List<Stats> targetClassResults = Stats.getStats(methods, expectedResult);
-          for (Stats result : targetClassResults) {
-            if (result.numberOfConditions() != 0) { // Ignore methods with no tags.
-              resultsFile.write(result.asCSV());
-              resultsFile.newLine();
+              for (Stats result : targetClassResults) {
+                if (result.numberOfConditions() != 0) { // Ignore methods with no tags.
+                  resultsFile.write(result.asCSV());
+                  resultsFile.newLine();
+                }
+              }
             }
           }
         } catch (IOException e) {
-          log.error("Unable to read the file: " + configuration.getConditionTranslatorInput(), e);
+          logger()
+              .error("Unable to read the file: " + configuration.getConditionTranslatorInput(), e);
         }
       }
 
       // Export generated specifications as Randoop specifications if requested.
-      generateRandoopSpecs(methods);
+      Profiler.measure(
+          Stage.RANDOOP_EXPORT,
+          () -> {
+            generateRandoopSpecs(methods);
+            return null;
+          });
     }
 
     // === Oracle Generator ===
-    OracleGenerator.createAspects(methods);
+    monitor.startStage(SessionMonitor.Stage.ORACLE_GENERATION);
+    Profiler.measure(
+        Stage.ORACLE_GENERATION,
+        () -> {
+          OracleGenerator.createAspects(methods);
+          return null;
+        });
+
+    if (session.getProfiler() != null) {
+      writeProfile(session.getProfiler(), configuration);
+    }
+  }
+
+  /**
+   * Serializes the given methods to JSON.
+   *
+   * @param methods the methods to serialize
+   * @return the JSON representation of {@code methods}
+   */
+  private static String toJson(List<DocumentedMethod> methods) {
+    return Profiler.measure(Stage.JSON_SERIALIZATION, () -> GsonInstance.gson().toJson(methods));
+  }
+
+  /**
+   * Writes the report of the given profiler to the profile file, in the configured format.
+   *
+   * @param profiler the profiler of a session
+   * @param configuration the configuration of the session
+   */
+  private static void writeProfile(Profiler profiler, Configuration configuration) {
+    File profileFile = configuration.getProfileFile();
+    String report =
+        configuration.getProfileFormat() == Configuration.ProfileFormat.CSV
+            ? profiler.toCsv()
+            : profiler.toJson();
+    try {
+      Files.createDirectories(profileFile.getParentFile().toPath());
+      Files.write(profileFile.toPath(), report.getBytes(StandardCharsets.UTF_8));
+      logger().info("Profile saved to " + profileFile);
+    } catch (IOException e) {
+      logger().error("Unable to write the profile on file " + profileFile.getAbsolutePath(), e);
+    }
+  }
 
-    deleteTemporaryFiles();
+  /**
+   * Returns the logger of this class.
+   *
+   * @return the logger of this class
+   */
+  private static Logger logger() {
+    if (log == null) {
+      log = LoggerFactory.getLogger(Toradocu.class);
+    }
+    return log;
+  }
 
-    // Needed for testing: multiple executions (tests) of Toradocu run in the same JVM.
-    // This can be improved making {@code methods} non-static and changing the way Toradocu
-    // interacts with the javadoc tool.
-    clearMethods();
+  /**
+   * Returns the configuration of the {@code ToradocuSession} running on the current thread or, if
+   * no session is running on it, the configuration of the command line ({@code configuration}).
+   *
+   * @return the configuration in use on the current thread, or null if there is none
+   */
+  public static Configuration getConfiguration() {
+    ToradocuSession session = ToradocuSession.current();
+    return session != null ? session.getConfiguration() : configuration;
   }
 
   /**
@@ -224,7 +309,8 @@ public class Toradocu {
    *
    * @param methods the documented methods containing the specifications to export
    */
-  private static void generateRandoopSpecs(List<DocumentedMethod> methods) {
+  static void generateRandoopSpecs(List<DocumentedMethod> methods) {
+    final Configuration configuration = getConfiguration();
     File randoopSpecsFile = configuration.randoopSpecsFile();
     if (!configuration.isSilent() && randoopSpecsFile != null) {
       if (!randoopSpecsFile.exists()) {
@@ -235,7 +321,8 @@ public class Toradocu {
           }
 
         } catch (IOException e) {
-          log.error("Error occurred during creation of the file " + randoopSpecsFile.getPath(), e);
+          logger()
+              .error("Error occurred during creation of the file " + randoopSpecsFile.getPath(), e);
         }
       }
       List<OperationSpecification> specs =
@@ -253,10 +340,11 @@ public class Toradocu {
                 StandardOpenOption.CREATE)) {
           writer.write(GsonInstance.gson().toJson(specs));
         } catch (IOException e) {
-          log.error(
-              "Error occurred during the export of generated specifications to file "
-                  + randoopSpecsFile.getPath(),
-              e);
+          logger()
+              .error(
+                  "Error occurred during the export of generated specifications to file "
+                      + randoopSpecsFile.getPath(),
+                  e);
         }
       }
     }
@@ -271,7 +359,7 @@ public class Toradocu {
    */
   private static void printConditionLines(String jsonOutput) {
     BufferedReader reader = new BufferedReader(new StringReader(jsonOutput));
-    String fileName = configuration.getConditionTranslatorOutput().toString();
+    String fileName = getConfiguration().getConditionTranslatorOutput().toString();
     int lineNumber = 1;
     try {
       String line;
@@ -293,42 +381,20 @@ public class Toradocu {
   }
 
   /**
-   * This method populates the static field {@code methods} using {@code JavadocExtractor} when the
-   * given {@code classDoc} is the target class specified in {@code configuration}. This method is
-   * intended to be invoked by the Javadoc doclet.
+   * Hands the methods of the given {@code classDoc} to the session running the javadoc tool, if it
+   * is the target class of that session. This method is intended to be invoked by the Javadoc
+   * doclet.
    *
    * @param classDoc the class from which methods are extracted, but only if it is the target class
-   *     specified in {@code configuration}
+   *     specified in the configuration of the session
    * @param docletConfiguration configuration options for the Javadoc doclet
    * @throws IOException if there is an error while reading/generating class documentation
    */
   public static void process(ClassDoc classDoc, ConfigurationImpl docletConfiguration)
       throws IOException {
-    if (!classDoc.qualifiedName().equals(configuration.getTargetClass())) {
-      return;
-    }
-    methods = new ArrayList<>();
-    JavadocExtractor extractor = new JavadocExtractor(docletConfiguration);
-    methods.addAll(extractor.extract(classDoc));
-  }
-
-  /**
-   * Clears the list of methods that are extracted and processed by Toradocu. This method is used
-   * when multiple sequential Toradocu executions are performed (e.g., during the precision/recall
-   * test suite execution).
-   */
-  public static void clearMethods() {
-    methods.clear();
-  }
-
-  /** Deletes any temporary files created by Toradocu to store Javadoc output. */
-  private static void deleteTemporaryFiles() {
-    if (configuration.getJavadocOutputDir() != null) {
-      try {
-        FileUtils.deleteDirectory(new File(configuration.getJavadocOutputDir()));
-      } catch (IOException e) {
-        log.warn("Unable to delete temporary Javadoc output", e);
-      }
+    ToradocuSession session = ToradocuSession.current();
+    if (session != null) {
+      session.process(classDoc, docletConfiguration);
     }
   }
 
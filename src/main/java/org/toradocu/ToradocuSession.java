@@ -0,0 +1,313 @@
+package org.toradocu;
+
+import com.google.gson.reflect.TypeToken;
+import com.sun.javadoc.ClassDoc;
+import com.sun.tools.javadoc.Main;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.toradocu.conf.Configuration;
+import org.toradocu.doclet.formats.html.ConfigurationImpl;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.JavadocExtractor;
+import org.toradocu.generator.ConditionValidator;
+import org.toradocu.generator.OracleGenerator;
+import org.toradocu.translator.Translator;
+import org.toradocu.translator.TranslatorChain;
+import org.toradocu.translator.UnknownTranslatorException;
+import org.toradocu.util.Checks;
+import org.toradocu.util.ClassLoaderCache;
+import org.toradocu.util.GsonInstance;
+import org.toradocu.util.NullOutputStream;
+import org.toradocu.util.Profiler;
+import org.toradocu.util.Profiler.Stage;
+
+/**
+ * A run of Toradocu with its own configuration: extraction of the Javadoc comments of the target
+ * class, translation of the comments, and generation of the aspects. Each step returns its result
+ * instead of writing files, so that Toradocu can be embedded in other tools.
+ *
+ * <p>Sessions are independent of each other, and can run side by side on different threads. While a
+ * session runs a step, the Toradocu components called by the step (including the threads working
+ * for the step) see the configuration of the session through {@code Toradocu.getConfiguration}.
+ * Only the extraction of comments is serialized among sessions, because the javadoc tool is not
+ * reentrant.
+ */
+public final class ToradocuSession {
+
+  /** {@code Logger} for this class. */
+  private static final Logger log = LoggerFactory.getLogger(ToradocuSession.class);
+  /** Doclet class used when javadoc command is run. */
+  private static final String DOCLET = "org.toradocu.doclet.standard.Standard";
+  /** Name of the javadoc run, used only in output messages. */
+  private static final String JAVADOC_NAME = "java -jar toradocu.jar - Javadoc Extractor";
+  /** Lock held while the javadoc tool runs. */
+  private static final Object JAVADOC_LOCK = new Object();
+  /** The session running on each thread, if any. */
+  private static final ThreadLocal<ToradocuSession> current = new ThreadLocal<>();
+
+  /** The configuration of this session. */
+  private final Configuration configuration;
+  /** Monitor of the progress of this session. */
+  private final SessionMonitor monitor;
+  /** Profiler of this session, or null if profiling is disabled. */
+  private final Profiler profiler;
+  /** Class loaders for the binaries of this session, possibly shared with other sessions. */
+  private final ClassLoaderCache classLoaders;
+  /** Methods of the target class, set by the doclet while this session runs the javadoc tool. */
+  private List<DocumentedMethod> extractedMethods;
+
+  /**
+   * Creates a new session with the given configuration, which must have been initialized (see
+   * {@code Configuration#initialize}) and must not be changed while the session runs.
+   *
+   * @param configuration the configuration of the session
+   * @throws NullPointerException if {@code configuration} is null
+   */
+  public ToradocuSession(Configuration configuration) {
+    this(configuration, new ClassLoaderCache());
+  }
+
+  /**
+   * Creates a new session with the given configuration, as {@code ToradocuSession(Configuration)}
+   * does, that loads the classes of the binaries with the class loaders of {@code classLoaders}.
+   * Sessions sharing a cache load the classes of the same binaries only once; the cache is not
+   * closed by the session.
+   *
+   * @param configuration the configuration of the session
+   * @param classLoaders the cache of the class loaders used by the session
+   * @throws NullPointerException if {@code configuration} or {@code classLoaders} is null
+   */
+  public ToradocuSession(Configuration configuration, ClassLoaderCache classLoaders) {
+    Checks.nonNullParameter(configuration, "configuration");
+    Checks.nonNullParameter(classLoaders, "classLoaders");
+    this.configuration = configuration;
+    this.classLoaders = classLoaders;
+    monitor = new SessionMonitor(configuration.getTargetClass());
+    profiler = configuration.isProfilingEnabled() ? new Profiler() : null;
+  }
+
+  /**
+   * Returns the configuration of this session.
+   *
+   * @return the configuration of this session
+   */
+  public Configuration getConfiguration() {
+    return configuration;
+  }
+
+  /**
+   * Returns the monitor of the progress of this session.
+   *
+   * @return the monitor of the progress of this session
+   */
+  public SessionMonitor getMonitor() {
+    return monitor;
+  }
+
+  /**
+   * Returns the cache of the class loaders used by this session to load the classes of the
+   * binaries specified with option --class-dir.
+   *
+   * @return the cache of the class loaders used by this session
+   */
+  public ClassLoaderCache getClassLoaders() {
+    return classLoaders;
+  }
+
+  /**
+   * Returns the profiler of this session (see {@code --profile}).
+   *
+   * @return the profiler of this session, or null if profiling is disabled
+   */
+  public Profiler getProfiler() {
+    return profiler;
+  }
+
+  /**
+   * Returns the session running on the current thread.
+   *
+   * @return the session running on the current thread, or null if no session is running on it
+   */
+  public static ToradocuSession current() {
+    return current.get();
+  }
+
+  /**
+   * Runs the given task on the current thread as part of this session: the Toradocu components the
+   * task calls see the configuration of this session. Threads working for a session step use this
+   * method to take part in the session.
+   *
+   * @param <T> the type of the result of the task
+   * @param task the task to run
+   * @return the result of {@code task}
+   * @throws NullPointerException if {@code task} is null
+   */
+  public <T> T call(Supplier<T> task) {
+    Checks.nonNullParameter(task, "task");
+    ToradocuSession previous = current.get();
+    current.set(this);
+    try {
+      return task.get();
+    } finally {
+      if (previous == null) {
+        current.remove();
+      } else {
+        current.set(previous);
+      }
+    }
+  }
+
+  /**
+   * Extracts the documented methods of the target class, running the javadoc tool on the source
+   * code. If a condition translator input file is configured, the methods are read from that file
+   * instead.
+   *
+   * @return the documented methods of the target class
+   * @throws TargetClassNotFoundException if the target class cannot be found
+   * @throws UncheckedIOException if the condition translator input file cannot be read
+   */
+  public List<DocumentedMethod> extract() {
+    return call(
+        () -> {
+          File input = configuration.getConditionTranslatorInput();
+          if (input != null) {
+            try (BufferedReader reader = Files.newBufferedReader(input.toPath())) {
+              return new ArrayList<>(
+                  GsonInstance.gson()
+                      .<List<DocumentedMethod>>fromJson(
+                          reader, new TypeToken<List<DocumentedMethod>>() {}.getType()));
+            } catch (IOException e) {
+              throw new UncheckedIOException("Unable to read the file: " + input, e);
+            }
+          }
+
+          // The doclet invokes Toradocu.process, which hands the methods to this session.
+          extractedMethods = null;
+          try {
+            // Suppress all the output of the Javadoc tool.
+            PrintWriter nullPrintWriter = new PrintWriter(new NullOutputStream());
+            synchronized (JAVADOC_LOCK) {
+              Profiler.measure(
+                  Stage.JAVADOC,
+                  () ->
+                      Main.execute(
+                          JAVADOC_NAME,
+                          nullPrintWriter,
+                          nullPrintWriter,
+                          nullPrintWriter,
+                          DOCLET,
+                          configuration.getJavadocOptions()));
+            }
+          } finally {
+            deleteTemporaryFiles();
+          }
+          if (extractedMethods == null) {
+            throw new TargetClassNotFoundException(configuration.getTargetClass());
+          }
+          List<DocumentedMethod> methods = extractedMethods;
+          extractedMethods = null;
+          return methods;
+        });
+  }
+
+  /**
+   * Translates the comments of the given methods with the configured chain of translators, and
+   * drops the translated conditions that do not compile, if requested. Translated conditions are
+   * set in the tags of {@code methods}. If a checkpoint journal is configured, translated methods
+   * are appended to it and, when resuming, the methods already in the journal are not translated
+   * again.
+   *
+   * @param methods the methods whose comments have to be translated
+   * @return {@code methods}, with translated conditions
+   * @throws NullPointerException if {@code methods} is null
+   * @throws UnknownTranslatorException if an unknown translator is configured
+   * @throws UncheckedIOException if the checkpoint journal cannot be read or written
+   */
+  public List<DocumentedMethod> translate(List<DocumentedMethod> methods) {
+    Checks.nonNullParameter(methods, "methods");
+    return call(
+        () -> {
+          final List<Translator> translators =
+              TranslatorChain.load(configuration.getTranslators());
+          final File checkpoint = configuration.getCheckpointFile();
+          if (checkpoint == null) {
+            TranslatorChain.translate(methods, translators);
+          } else {
+            try (TranslationJournal journal =
+                TranslationJournal.open(checkpoint, configuration.isResumeEnabled())) {
+              List<DocumentedMethod> pending = new ArrayList<>();
+              for (DocumentedMethod method : methods) {
+                if (!journal.restore(method)) {
+                  pending.add(method);
+                }
+              }
+              if (pending.size() < methods.size()) {
+                log.info(
+                    (methods.size() - pending.size())
+                        + " methods restored from checkpoint "
+                        + checkpoint);
+              }
+              TranslatorChain.translate(pending, translators, journal::record);
+            } catch (IOException e) {
+              throw new UncheckedIOException("Unable to use the checkpoint file: " + checkpoint, e);
+            }
+          }
+          if (configuration.isConditionValidationEnabled()) {
+            ConditionValidator.validate(methods, configuration.getClassDir());
+          }
+          return methods;
+        });
+  }
+
+  /**
+   * Generates the aspects checking the translated conditions of the given methods.
+   *
+   * @param methods the methods with translated conditions
+   * @return the source code of the aspects and the content of the file aop.xml, by file name
+   * @throws NullPointerException if {@code methods} is null
+   * @see OracleGenerator#generateAspects(List)
+   */
+  public Map<String, String> generate(List<DocumentedMethod> methods) {
+    Checks.nonNullParameter(methods, "methods");
+    return call(() -> OracleGenerator.generateAspects(methods));
+  }
+
+  /**
+   * Extracts the methods of the given class if it is the target class of this session. This method
+   * is invoked by the doclet, on the thread of the session running the javadoc tool.
+   *
+   * @param classDoc a class documented by the javadoc tool
+   * @param docletConfiguration configuration options for the Javadoc doclet
+   * @throws IOException if there is an error while reading/generating class documentation
+   */
+  void process(ClassDoc classDoc, ConfigurationImpl docletConfiguration) throws IOException {
+    if (!classDoc.qualifiedName().equals(configuration.getTargetClass())) {
+      return;
+    }
+    JavadocExtractor extractor = new JavadocExtractor(docletConfiguration);
+    extractedMethods =
+        new ArrayList<>(Profiler.measure(Stage.EXTRACTION, () -> extractor.extract(classDoc)));
+  }
+
+  /** Deletes any temporary files created by Toradocu to store Javadoc output. */
+  private void deleteTemporaryFiles() {
+    if (configuration.getJavadocOutputDir() != null) {
+      try {
+        FileUtils.deleteDirectory(new File(configuration.getJavadocOutputDir()));
+      } catch (IOException e) {
+        log.warn("Unable to delete temporary Javadoc output", e);
+      }
+    }
+  }
+}
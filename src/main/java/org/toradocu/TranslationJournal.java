@@ -0,0 +1,210 @@
+package org.toradocu;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.Tag;
+
+/**
+ * Append-only journal of the methods whose comments have been translated (see {@code
+ * --checkpoint}). Each translated method is appended to the journal, as a line of JSON, as soon as
+ * the chain of translators is done with all its tags, and the journal is flushed right away: if a
+ * run dies, the journal contains all the methods translated so far. A run started with {@code
+ * --resume} restores the conditions of those methods from the journal instead of translating their
+ * comments again.
+ */
+final class TranslationJournal implements Closeable {
+
+  /** {@code Logger} for this class. */
+  private static final Logger log = LoggerFactory.getLogger(TranslationJournal.class);
+  /** Gson instance writing each method on a single line. */
+  private static final Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+
+  /** The journal file. */
+  private final File file;
+  /** Methods read from the journal, by key (see {@code key}). */
+  private final Map<String, DocumentedMethod> journaled = new HashMap<>();
+  /** Writer appending to the journal, or null if the journal can no longer be written. */
+  private BufferedWriter writer;
+
+  /**
+   * Opens the given journal. If {@code resume} is false, the content of the journal is discarded.
+   *
+   * @param file the journal file
+   * @param resume true if the methods already in the journal have to be restored
+   * @return the journal
+   * @throws IOException if the journal cannot be read or opened for writing
+   */
+  static TranslationJournal open(File file, boolean resume) throws IOException {
+    TranslationJournal journal = new TranslationJournal(file);
+    if (resume && file.exists()) {
+      journal.read();
+    }
+    File parentDir = file.getAbsoluteFile().getParentFile();
+    if (parentDir != null) {
+      Files.createDirectories(parentDir.toPath());
+    }
+    journal.writer =
+        Files.newBufferedWriter(
+            file.toPath(),
+            StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            resume ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+    return journal;
+  }
+
+  /**
+   * Creates a new journal stored in the given file.
+   *
+   * @param file the journal file
+   */
+  private TranslationJournal(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Reads the methods in the journal. A malformed line (e.g., the last line, if a run died while
+   * writing it) ends the reading, and is removed from the journal together with the following
+   * lines: the methods from that line on are translated again.
+   *
+   * @throws IOException if the journal cannot be read or rewritten
+   */
+  private void read() throws IOException {
+    List<String> valid = new ArrayList<>();
+    try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty()) {
+          continue;
+        }
+        DocumentedMethod method;
+        try {
+          method = gson.fromJson(line, DocumentedMethod.class);
+        } catch (JsonParseException e) {
+          method = null;
+        }
+        if (method == null) {
+          log.warn("Ignoring the truncated checkpoint entry: " + line);
+          break;
+        }
+        journaled.put(key(method), method);
+        valid.add(line);
+      }
+    }
+    // Rewrite the valid entries, so that new entries are not appended to a malformed line.
+    Files.write(file.toPath(), valid, StandardCharsets.UTF_8);
+    log.info("Read " + journaled.size() + " translated methods from checkpoint " + file);
+  }
+
+  /**
+   * Sets the conditions of the tags of the given method to the ones in the journal, if the method
+   * is in the journal with the same tags (i.e., its comments did not change since it was
+   * translated).
+   *
+   * @param method a method whose comments have to be translated
+   * @return true if the conditions of {@code method} have been restored from the journal
+   */
+  boolean restore(DocumentedMethod method) {
+    DocumentedMethod previous = journaled.get(key(method));
+    if (previous == null) {
+      return false;
+    }
+    List<Tag> tags = tagsOf(method);
+    List<Tag> previousTags = tagsOf(previous);
+    if (tags.size() != previousTags.size()) {
+      return false;
+    }
+    for (int i = 0; i < tags.size(); i++) {
+      Tag tag = tags.get(i);
+      Tag previousTag = previousTags.get(i);
+      if (tag.getKind() != previousTag.getKind()
+          || !tag.getComment().equals(previousTag.getComment())) {
+        return false;
+      }
+    }
+    for (int i = 0; i < tags.size(); i++) {
+      previousTags.get(i).getCondition().ifPresent(tags.get(i)::setCondition);
+    }
+    return true;
+  }
+
+  /**
+   * Appends the given method, whose tags have all been translated, to the journal. Failures are
+   * logged, and stop the journaling: checkpointing is not essential to the translation.
+   *
+   * @param method a translated method
+   */
+  synchronized void record(DocumentedMethod method) {
+    if (writer == null) {
+      return;
+    }
+    try {
+      writer.write(gson.toJson(method));
+      writer.newLine();
+      writer.flush();
+    } catch (IOException e) {
+      log.error("Unable to write the checkpoint file " + file + ". Checkpointing stops.", e);
+      closeQuietly();
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (writer != null) {
+      BufferedWriter w = writer;
+      writer = null;
+      w.close();
+    }
+  }
+
+  /** Closes this journal, ignoring errors. */
+  private void closeQuietly() {
+    try {
+      close();
+    } catch (IOException e) {
+      // The journal is already unusable.
+    }
+  }
+
+  /**
+   * Returns the key identifying the given method in the journal.
+   *
+   * @param method a method
+   * @return the qualified name of the class of {@code method} followed by its signature
+   */
+  private static String key(DocumentedMethod method) {
+    return method.getContainingClass().getQualifiedName() + "." + method.getSignature();
+  }
+
+  /**
+   * Returns the tags of the given method, in the order they are translated: @throws, @param, and
+   * then @return.
+   *
+   * @param method a method
+   * @return the tags of {@code method}
+   */
+  private static List<Tag> tagsOf(DocumentedMethod method) {
+    List<Tag> tags = new ArrayList<>(method.throwsTags());
+    tags.addAll(method.paramTags());
+    if (method.returnTag() != null) {
+      tags.add(method.returnTag());
+    }
+    return tags;
+  }
+}
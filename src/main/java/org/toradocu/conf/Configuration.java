@@ -2,6 +2,7 @@ package org.toradocu.conf;
 
 import com.beust.jcommander.DynamicParameter;
 import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
 import com.beust.jcommander.converters.FileConverter;
 import com.beust.jcommander.converters.PathConverter;
 import java.io.File;
@@ -10,6 +11,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -73,6 +75,28 @@ public class Configuration {
   )
   private boolean silent = false;
 
+  /** Formats of the profiling report. */
+  public enum ProfileFormat {
+    /** JSON format. */
+    JSON,
+    /** CSV format. */
+    CSV
+  }
+
+  @Parameter(
+    names = "--profile",
+    description =
+        "Measure wall time, CPU time, and allocated bytes of each stage, method, and tag, and "
+            + "save them next to the statistics file"
+  )
+  private boolean profile = false;
+
+  @Parameter(
+    names = "--profile-format",
+    description = "Format of the profiling report: JSON or CSV"
+  )
+  private ProfileFormat profileFormat = ProfileFormat.JSON;
+
   // Javadoc extractor options
 
   @Parameter(
@@ -154,6 +178,91 @@ public class Configuration {
   )
   private boolean tcomment = false;
 
+  @Parameter(
+    names = "--fast-path-translation",
+    description = "Translate common comment shapes without running the NLP parser",
+    arity = 1,
+    hidden = true
+  )
+  private boolean fastPathTranslation = true;
+
+  @Parameter(
+    names = "--condition-templates",
+    description = "JSON file with condition templates (mined from goal files) for the fast path",
+    converter = FileConverter.class,
+    hidden = true
+  )
+  private File conditionTemplates;
+
+  /** Parsers that can be used to analyze the Javadoc comments. */
+  public enum Parser {
+    /** The englishPCFG constituency parser, whose trees are converted into dependencies. */
+    PCFG,
+    /** The transition-based neural dependency parser: faster, but less accurate. */
+    NNDEP
+  }
+
+  @Parameter(
+    names = "--parser",
+    description = "Parser used to analyze Javadoc comments: PCFG (default) or NNDEP (faster)"
+  )
+  private Parser parser = Parser.PCFG;
+
+  @Parameter(
+    names = "--parser-max-length",
+    description = "Maximum number of words of a sentence parsed as a whole (0 for no limit)",
+    hidden = true
+  )
+  private int parserMaxLength = 50;
+
+  @Parameter(
+    names = "--parser-timeout",
+    description =
+        "Maximum time in milliseconds to parse a sentence, including its clauses (0 for no limit,"
+            + " the default). Translations may then depend on the load of the machine",
+    hidden = true
+  )
+  private long parserTimeout = 0;
+
+  @Parameter(
+    names = "--translators",
+    description =
+        "Comma-separated chain of translators: each translator handles only the tags the previous "
+            + "ones left untranslated (available: toradocu, fastpath, tcomment)"
+  )
+  private List<String> translators = new ArrayList<>();
+
+  @Parameter(
+    names = "--translation-threads",
+    description =
+        "Number of threads translating the comments, the most expensive first (translators "
+            + "that are not thread-safe always use one thread)"
+  )
+  private int translationThreads = 1;
+
+  @Parameter(
+    names = "--validate-conditions",
+    description =
+        "Compile the translated conditions (against --class-dir) and drop the ones that do not "
+            + "compile"
+  )
+  private boolean validateConditions = false;
+
+  @Parameter(
+    names = "--checkpoint",
+    description =
+        "Journal file where each method is appended as soon as its comments are translated",
+    converter = FileConverter.class
+  )
+  private File checkpoint;
+
+  @Parameter(
+    names = "--resume",
+    description =
+        "Restore the methods already in the --checkpoint journal instead of translating them again"
+  )
+  private boolean resume = false;
+
   @Parameter(
     names = "--randoop-specs",
     description = "Path to file where to export comment translations as Randoop specifications.",
@@ -177,15 +286,58 @@ public class Configuration {
   )
   private String testClass;
 
+  @Parameter(
+    names = "--test-packages",
+    description =
+        "Comma-separated packages of the tests that will be instrumented with aspects, used when "
+            + "--test-class is not specified"
+  )
+  private List<String> testPackages = new ArrayList<>();
+
+  @Parameter(
+    names = "--weaver-verbose",
+    description = "Make the AspectJ weaver report the woven join points (slows weaving down)"
+  )
+  private boolean weaverVerbose = false;
+
   @Parameter(
     names = "--aspects-output-dir",
     description = "Specifies a directory where Toradocu will output aspects"
   )
   private String aspectsOutputDir = "aspects";
 
+  /** How specified methods are grouped into generated aspects. */
+  public enum AspectGranularity {
+    /** One aspect for each specified method. */
+    METHOD,
+    /** One dispatching aspect for each class with specified methods. */
+    CLASS,
+    /** A single dispatching aspect for all the specified methods. */
+    SINGLE
+  }
+
+  @Parameter(
+    names = "--aspect-granularity",
+    description =
+        "Generate one aspect per specified method (METHOD), one dispatching aspect per class "
+            + "(CLASS), or a single dispatching aspect (SINGLE)"
+  )
+  private AspectGranularity aspectGranularity = AspectGranularity.METHOD;
+
+  @Parameter(
+    names = "--oracle-sampling",
+    description =
+        "Generate aspects that check only a sample of the calls, as configured at run time by "
+            + "the system properties toradocu.sampling.rate and toradocu.sampling.budget"
+  )
+  private boolean oracleSampling = false;
+
   /** File used as template for generated aspects. */
   private static final String ASPECT_TEMPLATE = "AspectTemplate.java";
 
+  /** File used as template for generated aspects dispatching to the checks of many methods. */
+  private static final String DISPATCHING_ASPECT_TEMPLATE = "DispatchingAspectTemplate.java";
+
   /** Aspect to instrument JUnit test cases. */
   private static final String JUNIT_TC_ASPECT = "TestCaseAspect.java";
 
@@ -201,6 +353,8 @@ public class Configuration {
   /**
    * Initializes the configuration based on the given command-line options. This method must be
    * called before Javadoc options or the temporary Javadoc output directory are retrieved.
+   *
+   * @throws ParameterException if the given options are inconsistent with each other
    */
   public void initialize() {
     if (help) {
@@ -208,6 +362,10 @@ public class Configuration {
       return;
     }
 
+    if (resume && checkpoint == null) {
+      throw new ParameterException("--resume requires a --checkpoint file");
+    }
+
     if (statsFile == null) {
       statsFile = new File("stats.csv");
     }
@@ -248,8 +406,37 @@ public class Configuration {
       javadocOptions.add("-encoding");
       javadocOptions.add("UTF-8");
     }
-    // Specify the target package on which to run Javadoc.
-    javadocOptions.add(getTargetPackage());
+    // Run Javadoc only on the source file of the target class: its supertypes are loaded, with
+    // their comments, from the source path when needed. This way Javadoc does not keep in memory
+    // the whole target package. If the source file cannot be found, run Javadoc on the package.
+    Path targetSourceFile = findSourceFile(sourceDir, targetClass);
+    javadocOptions.add(targetSourceFile != null ? targetSourceFile.toString() : getTargetPackage());
+  }
+
+  /**
+   * Returns the source file declaring the given class in the given source directory. The source
+   * file of a nested class is the one of its outermost class.
+   *
+   * @param sourceDir a directory containing source files
+   * @param className the fully-qualified name of a class
+   * @return the source file declaring {@code className}, or null if there is no such file
+   */
+  public static Path findSourceFile(Path sourceDir, String className) {
+    if (sourceDir == null || className == null) {
+      return null;
+    }
+    String name = className;
+    while (true) {
+      Path source = sourceDir.resolve(name.replace('.', File.separatorChar) + ".java");
+      if (Files.isRegularFile(source)) {
+        return source;
+      }
+      int lastDot = name.lastIndexOf('.');
+      if (lastDot <= 0) {
+        return null;
+      }
+      name = name.substring(0, lastDot);
+    }
   }
 
   /**
@@ -279,6 +466,34 @@ public class Configuration {
     return ASPECT_TEMPLATE;
   }
 
+  /**
+   * Returns the name of the file used as a template for generated aspects that dispatch to the
+   * checks of many methods.
+   *
+   * @return the name of the file used as a template for generated dispatching aspects
+   */
+  public String getDispatchingAspectTemplate() {
+    return DISPATCHING_ASPECT_TEMPLATE;
+  }
+
+  /**
+   * Returns how specified methods are grouped into generated aspects.
+   *
+   * @return how specified methods are grouped into generated aspects
+   */
+  public AspectGranularity getAspectGranularity() {
+    return aspectGranularity;
+  }
+
+  /**
+   * Returns whether generated aspects check only a sample of the calls they advise.
+   *
+   * @return true if the sampled checking is enabled, false otherwise
+   */
+  public boolean isOracleSamplingEnabled() {
+    return oracleSampling;
+  }
+
   /**
    * Returns the name of the aspect used to instrument JUnit test cases.
    *
@@ -400,6 +615,25 @@ public class Configuration {
     return testClass;
   }
 
+  /**
+   * Returns the packages of the tests that will be instrumented with aspects. The packages are
+   * ignored if a test class is specified.
+   *
+   * @return the packages of the tests that will be instrumented with aspects
+   */
+  public List<String> getTestPackages() {
+    return testPackages;
+  }
+
+  /**
+   * Returns true if the generated aop.xml makes the AspectJ weaver report the woven join points.
+   *
+   * @return true if the AspectJ weaver must be verbose
+   */
+  public boolean isWeaverVerbose() {
+    return weaverVerbose;
+  }
+
   /**
    * Returns the path to the directory in which generated aspects should be output.
    *
@@ -467,6 +701,37 @@ public class Configuration {
     return statsFile;
   }
 
+  /**
+   * Returns whether the stages of Toradocu have to be profiled.
+   *
+   * @return true if the stages of Toradocu have to be profiled, false otherwise
+   */
+  public boolean isProfilingEnabled() {
+    return profile;
+  }
+
+  /**
+   * Returns the file in which to save the profiling report: the file {@code <target
+   * class>-profile.json} (or {@code .csv}, depending on {@code --profile-format}) in the directory
+   * of the statistics file.
+   *
+   * @return the file in which to save the profiling report
+   */
+  public File getProfileFile() {
+    return new File(
+        statsFile.getAbsoluteFile().getParentFile(),
+        targetClass + "-profile." + profileFormat.name().toLowerCase());
+  }
+
+  /**
+   * Returns the format of the profiling report.
+   *
+   * @return the format of the profiling report
+   */
+  public ProfileFormat getProfileFormat() {
+    return profileFormat;
+  }
+
   /**
    * Returns whether commas characters will be removed from the Javadoc comments, before they are
    * parsed by the Stanford parser.
@@ -487,6 +752,107 @@ public class Configuration {
     return tcomment;
   }
 
+  /**
+   * Returns whether common comment shapes are translated by the fast-path rules, before (and
+   * instead of) being parsed by the Stanford parser.
+   *
+   * @return true if the fast-path translation is enabled, false otherwise
+   */
+  public boolean isFastPathTranslationEnabled() {
+    return fastPathTranslation;
+  }
+
+  /**
+   * Returns the JSON file containing the condition templates consulted by the fast-path
+   * translation, as produced by {@code org.toradocu.util.TemplateMiner}.
+   *
+   * @return the file containing the condition templates, or null if no templates are used
+   */
+  public File getConditionTemplates() {
+    return conditionTemplates;
+  }
+
+  /**
+   * Returns the parser used to analyze the Javadoc comments.
+   *
+   * @return the parser used to analyze the Javadoc comments
+   */
+  public Parser getParser() {
+    return parser;
+  }
+
+  /**
+   * Returns the maximum number of words of a sentence that is parsed as a whole. Longer sentences
+   * are split into clauses before parsing.
+   *
+   * @return the maximum number of words of a sentence parsed as a whole, or 0 if there is no limit
+   */
+  public int getParserMaxLength() {
+    return parserMaxLength;
+  }
+
+  /**
+   * Returns the maximum time in milliseconds the Stanford parser can spend on a single sentence.
+   *
+   * @return the maximum time in milliseconds to parse a sentence, or 0 if there is no limit
+   */
+  public long getParserTimeout() {
+    return parserTimeout;
+  }
+
+  /**
+   * Returns the names of the translators to run in chain on the Javadoc comments. If no translator
+   * is specified, the chain is made by the @tComment translator when {@code --tcomment} is set, or
+   * by the standard Toradocu translator otherwise.
+   *
+   * @return the names of the translators to run in chain
+   */
+  public List<String> getTranslators() {
+    if (!translators.isEmpty()) {
+      return translators;
+    }
+    return Collections.singletonList(tcomment ? "tcomment" : "toradocu");
+  }
+
+  /**
+   * Returns the number of threads translating the comments.
+   *
+   * @return the number of threads translating the comments
+   */
+  public int getTranslationThreads() {
+    return translationThreads;
+  }
+
+  /**
+   * Returns whether the translated conditions are compiled, and dropped if they do not compile,
+   * before being used.
+   *
+   * @return true if the validation of the translated conditions is enabled, false otherwise
+   */
+  public boolean isConditionValidationEnabled() {
+    return validateConditions;
+  }
+
+  /**
+   * Returns the journal file where the translated methods are appended (see {@code
+   * org.toradocu.TranslationJournal}).
+   *
+   * @return the journal of the translated methods, or null if checkpointing is disabled
+   */
+  public File getCheckpointFile() {
+    return checkpoint;
+  }
+
+  /**
+   * Returns whether the methods already in the checkpoint journal are restored from it, instead of
+   * being translated again.
+   *
+   * @return true if the translation resumes from the checkpoint journal, false otherwise
+   */
+  public boolean isResumeEnabled() {
+    return resume;
+  }
+
   /**
    * Returns the file where to export Toradocu generated specifications as Randoop specifications.
    *
@@ -13,6 +13,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.toradocu.Toradocu;
+import org.toradocu.conf.Configuration;
 import org.toradocu.util.Checks;
 import org.toradocu.util.Reflection;
 
@@ -111,7 +112,8 @@ public final class DocumentedMethod {
     signature = signatureBuilder.toString();
 
     // Set the target class if command line options have been parsed.
-    targetClass = Toradocu.configuration != null ? Toradocu.configuration.getTargetClass() : null;
+    Configuration configuration = Toradocu.getConfiguration();
+    targetClass = configuration != null ? configuration.getTargetClass() : null;
   }
 
   /**
@@ -0,0 +1,29 @@
+package org.toradocu.generator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Flight Recorder event for the generation of an aspect. Fields are set only if it is recorded. */
+@Name("org.toradocu.AspectGeneration")
+@Label("Aspect Generation")
+@Category({"Toradocu", "Generator"})
+@Description("Generation of the source code of an aspect")
+final class AspectGenerationEvent extends Event {
+
+  @Label("Aspect")
+  String aspect;
+
+  @Label("Granularity")
+  String granularity;
+
+  @Label("Methods")
+  @Description("Number of methods checked by the aspect")
+  int methods;
+
+  @Label("Source Length")
+  @Description("Number of characters of the source code of the aspect")
+  int sourceLength;
+}
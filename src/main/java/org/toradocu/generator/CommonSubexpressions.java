@@ -0,0 +1,386 @@
+package org.toradocu.generator;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseException;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.VariableDeclaratorId;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.CastExpr;
+import com.github.javaparser.ast.expr.EnclosedExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.NullLiteralExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.IfStmt;
+import com.github.javaparser.ast.stmt.Statement;
+import com.github.javaparser.ast.visitor.ModifierVisitorAdapter;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares the subexpressions that the checks of a generated method (e.g., {@code
+ * getExpectedExceptions}) have in common. Casts of the arguments, target, and result of the advised
+ * method that occur more than once are evaluated once, and stored in typed local variables.
+ * Accessors of such variables that are documented as side-effect free (e.g., {@code size()} of the
+ * {@code java.util} collections) are shared as well, where their receiver is known to be non-null.
+ */
+final class CommonSubexpressions {
+
+  /** {@code Logger} for this class. */
+  private static final Logger log = LoggerFactory.getLogger(CommonSubexpressions.class);
+  /** Side-effect free accessors of strings, and their result types. */
+  private static final Map<String, String> STRING_ACCESSORS = new HashMap<>();
+  /** Side-effect free accessors of the {@code java.util} collections and maps. */
+  private static final Map<String, String> COLLECTION_ACCESSORS = new HashMap<>();
+
+  static {
+    STRING_ACCESSORS.put("length", "int");
+    STRING_ACCESSORS.put("isEmpty", "boolean");
+    COLLECTION_ACCESSORS.put("size", "int");
+    COLLECTION_ACCESSORS.put("isEmpty", "boolean");
+  }
+
+  /** The method whose checks share subexpressions. */
+  private final MethodDeclaration method;
+  /** Types of the casts of the arguments, target, and result, by cast expression. */
+  private final Map<String, String> castTypes = new LinkedHashMap<>();
+  /** Number of occurrences of the casts of the arguments, target, and result. */
+  private final Map<String, Integer> castCounts = new HashMap<>();
+  /** Names of the local variables holding the shared casts, by cast expression. */
+  private final Map<String, String> castVariables = new LinkedHashMap<>();
+  /** Number of occurrences of the accessors of the local variables, by accessor call. */
+  private final Map<String, Integer> accessorCounts = new HashMap<>();
+  /** Names of the local variables holding the shared accessors, by accessor call. */
+  private final Map<String, String> accessorVariables = new LinkedHashMap<>();
+  /** Names already used in the method. */
+  private final Set<String> usedNames = new HashSet<>();
+
+  private CommonSubexpressions(MethodDeclaration method) {
+    this.method = method;
+  }
+
+  /**
+   * Stores the common subexpressions of the checks in the given method in local variables declared
+   * at the beginning of the method.
+   *
+   * @param method a generated method whose body contains checks
+   */
+  static void share(MethodDeclaration method) {
+    if (method.getBody() != null) {
+      new CommonSubexpressions(method).share();
+    }
+  }
+
+  private void share() {
+    BlockStmt body = method.getBody();
+    BlockStmt originalBody = (BlockStmt) body.clone();
+    collectCasts(body);
+    for (Map.Entry<String, String> cast : castTypes.entrySet()) {
+      String variable = getVariableName(cast.getKey());
+      if (cast.getValue() != null
+          && castCounts.get(cast.getKey()) > 1
+          && variable != null
+          && usedNames.add(variable)) {
+        castVariables.put(cast.getKey(), variable);
+      }
+    }
+    if (castVariables.isEmpty()) {
+      return;
+    }
+    body.accept(new CastReplacer(), null);
+
+    // Accessors are counted first, and then replaced where they occur more than once.
+    AccessorReplacer accessorReplacer = new AccessorReplacer();
+    body.accept(accessorReplacer, Collections.emptySet());
+    for (Map.Entry<String, Integer> accessor : accessorCounts.entrySet()) {
+      String call = accessor.getKey();
+      String name = getAccessorName(call);
+      String variable =
+          call.substring(0, call.indexOf('.'))
+              + Character.toUpperCase(name.charAt(0))
+              + name.substring(1);
+      if (accessor.getValue() > 1 && usedNames.add(variable)) {
+        accessorVariables.put(accessor.getKey(), variable);
+      }
+    }
+    if (!accessorVariables.isEmpty()) {
+      body.accept(accessorReplacer, Collections.emptySet());
+    }
+
+    StringBuilder declarations = new StringBuilder("{");
+    for (Map.Entry<String, String> cast : castVariables.entrySet()) {
+      String type = castTypes.get(cast.getKey());
+      declarations.append(type).append(" ").append(cast.getValue());
+      declarations.append(" = (").append(type).append(") ").append(cast.getKey()).append(";");
+    }
+    // Accessors of null variables are never used: they are replaced where non-null only.
+    for (Map.Entry<String, String> accessor : accessorVariables.entrySet()) {
+      String call = accessor.getKey();
+      String receiver = call.substring(0, call.indexOf('.'));
+      String type = getAccessors(getVariableType(receiver)).get(getAccessorName(call));
+      declarations.append(type).append(" ").append(accessor.getValue()).append(" = ");
+      declarations.append(receiver).append(" == null ? ");
+      declarations.append(type.equals("int") ? "0" : "false").append(" : ").append(call);
+      declarations.append(";");
+    }
+    try {
+      List<Statement> statements =
+          JavaParser.parseBlock(declarations.append("}").toString()).getStmts();
+      statements.addAll(body.getStmts());
+      body.setStmts(statements);
+    } catch (ParseException e) {
+      log.error("Parsing error during the aspect creation.", e);
+      method.setBody(originalBody);
+    }
+  }
+
+  /**
+   * Collects the casts of the arguments, target, and result in the given node, together with the
+   * names already used.
+   *
+   * @param node the node to visit
+   */
+  private void collectCasts(Node node) {
+    node.accept(
+        new VoidVisitorAdapter<Void>() {
+          @Override
+          public void visit(EnclosedExpr enclosed, Void arg) {
+            super.visit(enclosed, arg);
+            if (!(enclosed.getInner() instanceof CastExpr)) {
+              return;
+            }
+            CastExpr cast = (CastExpr) enclosed.getInner();
+            String castee = cast.getExpr().toString();
+            if (getVariableName(castee) == null) {
+              return;
+            }
+            String type = cast.getType().toString();
+            if (castTypes.containsKey(castee) && !type.equals(castTypes.get(castee))) {
+              // The same value is cast to different types: it is not shared.
+              type = null;
+            }
+            castTypes.put(castee, type);
+            castCounts.merge(castee, 1, Integer::sum);
+          }
+
+          @Override
+          public void visit(NameExpr name, Void arg) {
+            usedNames.add(name.getName());
+          }
+
+          @Override
+          public void visit(VariableDeclaratorId id, Void arg) {
+            usedNames.add(id.getName());
+          }
+        },
+        null);
+  }
+
+  /**
+   * Returns the name of the local variable holding the cast of the given argument, target, or
+   * result of the advised method.
+   *
+   * @param castee the source code of the cast expression, e.g., {@code args[0]}
+   * @return the name of the local variable, or null if {@code castee} is not an argument, the
+   *     target, or the result
+   */
+  private static String getVariableName(String castee) {
+    if (castee.equals("target") || castee.equals("result")) {
+      return castee + "Value";
+    }
+    if (castee.startsWith("args[") && castee.endsWith("]")) {
+      String index = castee.substring("args[".length(), castee.length() - 1);
+      if (!index.isEmpty() && index.chars().allMatch(Character::isDigit)) {
+        return "arg" + index;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the type of the given local variable holding a cast.
+   *
+   * @param variable the name of a local variable holding a cast
+   * @return the type of {@code variable}, or null if it is not a local variable holding a cast
+   */
+  private String getVariableType(String variable) {
+    for (Map.Entry<String, String> cast : castVariables.entrySet()) {
+      if (cast.getValue().equals(variable)) {
+        return castTypes.get(cast.getKey());
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the name of the method invoked by the given accessor call.
+   *
+   * @param call the source code of an accessor call, e.g., {@code arg0.size()}
+   * @return the name of the invoked method, e.g., {@code size}
+   */
+  private static String getAccessorName(String call) {
+    return call.substring(call.indexOf('.') + 1, call.length() - "()".length());
+  }
+
+  /**
+   * Returns the side-effect free accessors of the given type, and their result types.
+   *
+   * @param type the source code of a type
+   * @return the accessors of {@code type}, or an empty map if no accessor is known to be
+   *     side-effect free
+   */
+  private static Map<String, String> getAccessors(String type) {
+    if (type == null || type.endsWith("]")) {
+      return Collections.emptyMap();
+    }
+    if (type.contains("<")) {
+      type = type.substring(0, type.indexOf('<'));
+    }
+    if (type.equals("java.lang.String")) {
+      return STRING_ACCESSORS;
+    }
+    // Only the collections of package java.util: implementations in other packages may be costly
+    // or have side effects.
+    if (type.startsWith("java.util.") && type.lastIndexOf('.') == "java.util".length()) {
+      try {
+        Class<?> clazz = Class.forName(type);
+        if (Collection.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz)) {
+          return COLLECTION_ACCESSORS;
+        }
+      } catch (ClassNotFoundException e) {
+        // The type is not a collection.
+      }
+    }
+    return Collections.emptyMap();
+  }
+
+  /** Replaces the shared casts with the local variables holding them. */
+  private class CastReplacer extends ModifierVisitorAdapter<Void> {
+    @Override
+    public Node visit(EnclosedExpr enclosed, Void arg) {
+      if (enclosed.getInner() instanceof CastExpr) {
+        CastExpr cast = (CastExpr) enclosed.getInner();
+        String variable = castVariables.get(cast.getExpr().toString());
+        if (variable != null
+            && cast.getType().toString().equals(castTypes.get(cast.getExpr().toString()))) {
+          return new NameExpr(variable);
+        }
+      }
+      return super.visit(enclosed, arg);
+    }
+  }
+
+  /**
+   * Counts the accessors of local variables known to be non-null where they are invoked, and
+   * replaces the shared ones with the local variables holding them. The argument of the visitor is
+   * the set of variables known to be non-null.
+   */
+  private class AccessorReplacer extends ModifierVisitorAdapter<Set<String>> {
+    @Override
+    public Node visit(MethodCallExpr call, Set<String> nonNull) {
+      Node visited = super.visit(call, nonNull);
+      if (!(visited instanceof MethodCallExpr)) {
+        return visited;
+      }
+      call = (MethodCallExpr) visited;
+      if (!(call.getScope() instanceof NameExpr)
+          || (call.getArgs() != null && !call.getArgs().isEmpty())) {
+        return call;
+      }
+      String receiver = ((NameExpr) call.getScope()).getName();
+      if (!nonNull.contains(receiver)
+          || !getAccessors(getVariableType(receiver)).containsKey(call.getName())) {
+        return call;
+      }
+      String key = receiver + "." + call.getName() + "()";
+      if (accessorVariables.isEmpty()) {
+        accessorCounts.merge(key, 1, Integer::sum);
+        return call;
+      }
+      String variable = accessorVariables.get(key);
+      return variable == null ? call : new NameExpr(variable);
+    }
+
+    @Override
+    public Node visit(BinaryExpr binary, Set<String> nonNull) {
+      BinaryExpr.Operator operator = binary.getOperator();
+      if (operator != BinaryExpr.Operator.and && operator != BinaryExpr.Operator.or) {
+        return super.visit(binary, nonNull);
+      }
+      // The right operand is evaluated only if the left one is true (&&) or false (||).
+      binary.setLeft((Expression) binary.getLeft().accept(this, nonNull));
+      Set<String> rightNonNull = new HashSet<>(nonNull);
+      rightNonNull.addAll(getNonNullVariables(binary.getLeft(), operator));
+      binary.setRight((Expression) binary.getRight().accept(this, rightNonNull));
+      return binary;
+    }
+
+    @Override
+    public Node visit(IfStmt ifStmt, Set<String> nonNull) {
+      Expression condition = ifStmt.getCondition();
+      ifStmt.setCondition((Expression) condition.accept(this, nonNull));
+      Set<String> thenNonNull = new HashSet<>(nonNull);
+      thenNonNull.addAll(getNonNullVariables(condition, BinaryExpr.Operator.and));
+      ifStmt.setThenStmt((Statement) ifStmt.getThenStmt().accept(this, thenNonNull));
+      if (ifStmt.getElseStmt() != null) {
+        Set<String> elseNonNull = new HashSet<>(nonNull);
+        elseNonNull.addAll(getNonNullVariables(condition, BinaryExpr.Operator.or));
+        ifStmt.setElseStmt((Statement) ifStmt.getElseStmt().accept(this, elseNonNull));
+      }
+      return ifStmt;
+    }
+  }
+
+  /**
+   * Returns the variables that are non-null if the given condition is true ({@code operator} is
+   * {@code and}) or false ({@code operator} is {@code or}). Only the operands of the outermost
+   * conjunction or disjunction are considered, respectively.
+   *
+   * @param condition a boolean condition
+   * @param operator the logical operator
+   * @return the names of the variables known to be non-null
+   */
+  private static Set<String> getNonNullVariables(
+      Expression condition, BinaryExpr.Operator operator) {
+    while (condition instanceof EnclosedExpr) {
+      condition = ((EnclosedExpr) condition).getInner();
+    }
+    Set<String> variables = new HashSet<>();
+    if (!(condition instanceof BinaryExpr)) {
+      return variables;
+    }
+    BinaryExpr binary = (BinaryExpr) condition;
+    if (binary.getOperator() == operator) {
+      variables.addAll(getNonNullVariables(binary.getLeft(), operator));
+      variables.addAll(getNonNullVariables(binary.getRight(), operator));
+      return variables;
+    }
+    BinaryExpr.Operator nullCheck =
+        operator == BinaryExpr.Operator.and
+            ? BinaryExpr.Operator.notEquals
+            : BinaryExpr.Operator.equals;
+    if (binary.getOperator() == nullCheck) {
+      for (Expression[] operands :
+          Arrays.asList(
+              new Expression[] {binary.getLeft(), binary.getRight()},
+              new Expression[] {binary.getRight(), binary.getLeft()})) {
+        if (operands[0] instanceof NameExpr && operands[1] instanceof NullLiteralExpr) {
+          variables.add(((NameExpr) operands[0]).getName());
+        }
+      }
+    }
+    return variables;
+  }
+}
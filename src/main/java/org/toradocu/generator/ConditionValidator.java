@@ -0,0 +1,179 @@
+package org.toradocu.generator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.ReturnTag;
+import org.toradocu.extractor.Tag;
+import org.toradocu.util.Checks;
+import org.toradocu.util.InMemoryCompiler;
+
+/**
+ * Checks that the conditions translated from the comments compile, before aspects are generated.
+ * The conditions of each class are put in a synthetic class, where they are cast as in the
+ * generated aspects, and the synthetic classes are compiled at once, in memory. Conditions that do
+ * not compile are dropped: a single wrong translation would otherwise break the compilation of the
+ * whole aspect.
+ */
+public final class ConditionValidator {
+
+  /** {@code Logger} for this class. */
+  private static final Logger log = LoggerFactory.getLogger(ConditionValidator.class);
+  /** Prefix of the names of the synthetic classes. */
+  private static final String CLASS_PREFIX = "ToradocuConditions_";
+  /** Beginning of the synthetic classes: the imports of the generated aspects. */
+  private static final String HEADER =
+      "import java.util.ArrayList;\nimport java.util.Collections;\nimport java.util.List;\n";
+
+  /** Disables construction of this class. */
+  private ConditionValidator() {}
+
+  /**
+   * Compiles the conditions translated for the given methods, and drops (i.e., sets to the empty
+   * string) the ones that do not compile.
+   *
+   * @param methods the methods whose conditions to check
+   * @param classpath paths to the binaries of the classes of the methods, and their dependencies
+   * @return the number of dropped conditions
+   * @throws NullPointerException if {@code methods} or {@code classpath} is null
+   */
+  public static int validate(List<DocumentedMethod> methods, List<String> classpath) {
+    Checks.nonNullParameter(methods, "methods");
+    Checks.nonNullParameter(classpath, "classpath");
+
+    Map<String, List<DocumentedMethod>> methodsByClass = new LinkedHashMap<>();
+    for (DocumentedMethod method : methods) {
+      methodsByClass
+          .computeIfAbsent(method.getContainingClass().getQualifiedName(), c -> new ArrayList<>())
+          .add(method);
+    }
+
+    // javac reports a limited number of errors: compile again until no more conditions are dropped.
+    Set<Tag> dropped = Collections.newSetFromMap(new IdentityHashMap<>());
+    int droppedBefore;
+    do {
+      droppedBefore = dropped.size();
+      if (!dropUncompilable(methodsByClass.values(), classpath, dropped)) {
+        break;
+      }
+    } while (dropped.size() > droppedBefore);
+    return dropped.size();
+  }
+
+  /**
+   * Compiles the conditions of the given methods in one batch, and drops the ones that do not
+   * compile.
+   *
+   * @param methodsByClass the methods whose conditions to check, grouped by containing class
+   * @param classpath paths to the binaries of the classes of the methods, and their dependencies
+   * @param dropped the tags whose conditions have been dropped, to which new ones are added
+   * @return false if the conditions could not be compiled at all, true otherwise
+   */
+  private static boolean dropUncompilable(
+      Collection<List<DocumentedMethod>> methodsByClass, List<String> classpath, Set<Tag> dropped) {
+    Map<String, String> sources = new LinkedHashMap<>();
+    Map<String, Map<Long, Tag>> tagLines = new HashMap<>();
+    Map<Tag, DocumentedMethod> tagMethods = new IdentityHashMap<>();
+    for (List<DocumentedMethod> classMethods : methodsByClass) {
+      String className = CLASS_PREFIX + (sources.size() + 1);
+      Map<Long, Tag> lines = new HashMap<>();
+      StringBuilder source = new StringBuilder(HEADER);
+      source.append("public final class ").append(className).append(" {\n");
+      long line = 5;
+      int conditionCount = 0;
+      for (DocumentedMethod method : classMethods) {
+        List<Tag> tags = new ArrayList<>();
+        tags.addAll(method.paramTags());
+        tags.addAll(method.throwsTags());
+        if (method.returnTag() != null) {
+          tags.add(method.returnTag());
+        }
+        for (Tag tag : tags) {
+          String condition = tag.getCondition().orElse("");
+          if (condition.isEmpty()) {
+            continue;
+          }
+          // Each tag is on a line of its own, so that compilation errors identify it.
+          for (String part : getCheckedConditions(tag, condition)) {
+            source.append("private static boolean condition_").append(++conditionCount);
+            source.append(tag instanceof ReturnTag ? "(Object result, " : "(");
+            source.append("Object target, Object[] args) { return (");
+            source.append(MethodChangerVisitor.addCasting(part, method).replaceAll("[\r\n]", " "));
+            source.append("); } ");
+          }
+          source.append("\n");
+          lines.put(line++, tag);
+          tagMethods.put(tag, method);
+        }
+      }
+      sources.put(className, source.append("}\n").toString());
+      tagLines.put(className, lines);
+    }
+
+    InMemoryCompiler.Result result;
+    try {
+      result = InMemoryCompiler.compile(sources, String.join(File.pathSeparator, classpath));
+    } catch (IllegalStateException e) {
+      log.error("Unable to validate the translated conditions: " + e.getMessage());
+      return false;
+    }
+    if (result.isSuccessful()) {
+      return true;
+    }
+
+    for (Map.Entry<String, Map<Long, Tag>> lines : tagLines.entrySet()) {
+      for (Diagnostic<? extends JavaFileObject> error : result.getErrors(lines.getKey())) {
+        Tag tag = lines.getValue().get(error.getLineNumber());
+        if (tag == null) {
+          log.error("Unable to validate the translated conditions: " + error.getMessage(null));
+          return false;
+        } else if (dropped.add(tag)) {
+          log.warn(
+              "Dropped condition \""
+                  + tag.getCondition().orElse("")
+                  + "\" of "
+                  + tagMethods.get(tag).getSignature()
+                  + ", which does not compile: "
+                  + error.getMessage(null));
+          tag.setCondition("");
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the boolean conditions the aspects check for the given tag. A return condition {@code
+   * guard ? property : property} is split like in {@code MethodChangerVisitor}.
+   *
+   * @param tag a tag
+   * @param condition the non-empty condition translated for {@code tag}
+   * @return the conditions checked by the aspects
+   */
+  private static List<String> getCheckedConditions(Tag tag, String condition) {
+    if (!(tag instanceof ReturnTag)) {
+      return Collections.singletonList(condition);
+    }
+    String spec = condition.replace(" ", "");
+    int guardEnd = spec.indexOf("?");
+    if (guardEnd < 0) {
+      return Collections.singletonList(spec);
+    }
+    List<String> conditions = new ArrayList<>();
+    conditions.add(spec.substring(0, guardEnd));
+    Collections.addAll(conditions, spec.substring(guardEnd + 1).split(":", 2));
+    return conditions;
+  }
+}
@@ -0,0 +1,282 @@
+package org.toradocu.generator;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseException;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.expr.CastExpr;
+import com.github.javaparser.ast.expr.EnclosedExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.LambdaExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.stmt.ExpressionStmt;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.PrimitiveType;
+import com.github.javaparser.ast.type.ReferenceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.WildcardType;
+import com.github.javaparser.ast.visitor.ModifierVisitorAdapter;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates the containment predicates of an aspect. Conditions about the elements of a container
+ * are translated to streams, such as {@code java.util.Arrays.stream(args[0]).anyMatch(e ->
+ * e==null)} for arrays and {@code args[0].stream().anyMatch(e -> e==null)} for collections. In
+ * aspects, such expressions are replaced with calls to predicates (static methods of the aspect)
+ * that iterate over the container with a plain loop: the evaluation of a predicate does not
+ * allocate a stream and a lambda, and a null container contains no element.
+ */
+final class ContainmentPredicates {
+
+  /** {@code Logger} for this class. */
+  private static final Logger log = LoggerFactory.getLogger(ContainmentPredicates.class);
+  /** Prefix of the names of the generated predicates. */
+  private static final String PREFIX = "anyMatch_";
+  /** Names of the variables that conditions in generated aspects refer to. */
+  private static final List<String> ROOTS = Arrays.asList("args", "target", "result");
+  /** Names of the local variables of the generated predicates. */
+  private static final List<String> LOCALS = Arrays.asList("container", "i", "iterator", "npe");
+
+  /** Source code of the generated predicates, by name. */
+  private final Map<String, String> predicates = new LinkedHashMap<>();
+  /** Names of the generated predicates, by source code from the parameters on. */
+  private final Map<String, String> names = new LinkedHashMap<>();
+
+  /**
+   * Returns true if the given method call invokes a predicate generated by this class. Predicates
+   * are null-safe: they never dereference a null argument.
+   *
+   * @param call a method call
+   * @return true if {@code call} invokes a generated predicate
+   */
+  static boolean isPredicate(MethodCallExpr call) {
+    return call.getScope() == null && call.getName().startsWith(PREFIX);
+  }
+
+  /**
+   * Replaces the stream-based containment checks in the given condition with calls to predicates,
+   * generating the predicates as needed. Checks whose container type is not known (i.e., the
+   * container is not cast) are left unchanged.
+   *
+   * @param condition the condition, which may be modified
+   * @return the condition with containment checks replaced
+   */
+  Expression rewrite(Expression condition) {
+    ModifierVisitorAdapter<Void> rewriter =
+        new ModifierVisitorAdapter<Void>() {
+          @Override
+          public Node visit(MethodCallExpr call, Void arg) {
+            Node visited = super.visit(call, arg);
+            if (visited instanceof MethodCallExpr) {
+              Expression predicateCall = createPredicateCall((MethodCallExpr) visited);
+              if (predicateCall != null) {
+                return predicateCall;
+              }
+            }
+            return visited;
+          }
+        };
+    return (Expression) condition.accept(rewriter, null);
+  }
+
+  /**
+   * Adds the predicates generated so far to the given aspect.
+   *
+   * @param aspect the class declaration of the aspect
+   */
+  void addPredicates(ClassOrInterfaceDeclaration aspect) {
+    List<BodyDeclaration> members = aspect.getMembers();
+    for (String predicate : predicates.values()) {
+      try {
+        members.add(JavaParser.parseClassBodyDeclaration(predicate));
+      } catch (ParseException e) {
+        log.error("Parsing error during the aspect creation.", e);
+      }
+    }
+    aspect.setMembers(members);
+  }
+
+  /**
+   * Returns a call to the predicate implementing the given containment check, generating the
+   * predicate if needed.
+   *
+   * @param call a method call
+   * @return the call to the predicate, or null if {@code call} is not a supported containment check
+   */
+  private Expression createPredicateCall(MethodCallExpr call) {
+    if (!call.getName().equals("anyMatch")
+        || call.getArgs().size() != 1
+        || !(call.getArgs().get(0) instanceof LambdaExpr)
+        || !(call.getScope() instanceof MethodCallExpr)) {
+      return null;
+    }
+    LambdaExpr lambda = (LambdaExpr) call.getArgs().get(0);
+    MethodCallExpr stream = (MethodCallExpr) call.getScope();
+    if (lambda.getParameters().size() != 1
+        || !(lambda.getBody() instanceof ExpressionStmt)
+        || !stream.getName().equals("stream")
+        || stream.getScope() == null) {
+      return null;
+    }
+
+    // Arrays: Arrays.stream(array) or Arrays.asList(array).stream(). Collections: c.stream().
+    Expression container;
+    boolean array;
+    boolean asListOfArray = false;
+    if (stream.getArgs().size() == 1 && isArrays(stream.getScope())) {
+      container = stream.getArgs().get(0);
+      array = true;
+    } else if (stream.getArgs().isEmpty()) {
+      container = stream.getScope();
+      array = false;
+      if (container instanceof MethodCallExpr) {
+        MethodCallExpr asList = (MethodCallExpr) container;
+        if (asList.getName().equals("asList")
+            && asList.getArgs().size() == 1
+            && asList.getScope() != null
+            && isArrays(asList.getScope())) {
+          container = asList.getArgs().get(0);
+          array = true;
+          asListOfArray = true;
+        }
+      }
+    } else {
+      return null;
+    }
+
+    Type containerType = getCastType(container);
+    if (!(containerType instanceof ReferenceType)) {
+      return null;
+    }
+    ReferenceType referenceType = (ReferenceType) containerType;
+    final String elementType;
+    String iteratorType = null;
+    if (array) {
+      // Arrays.asList of a primitive array is a list with a single element (the array).
+      if (referenceType.getArrayCount() == 0
+          || (asListOfArray
+              && referenceType.getArrayCount() == 1
+              && referenceType.getType() instanceof PrimitiveType)) {
+        return null;
+      }
+      String type = referenceType.toString();
+      elementType = type.substring(0, type.length() - 2);
+    } else {
+      if (referenceType.getArrayCount() != 0
+          || !(referenceType.getType() instanceof ClassOrInterfaceType)) {
+        return null;
+      }
+      List<Type> typeArgs = ((ClassOrInterfaceType) referenceType.getType()).getTypeArgs();
+      if (typeArgs != null && typeArgs.size() == 1 && !(typeArgs.get(0) instanceof WildcardType)) {
+        elementType = typeArgs.get(0).toString();
+        iteratorType = "java.util.Iterator<" + elementType + ">";
+      } else {
+        elementType = "Object";
+        iteratorType = "java.util.Iterator<?>";
+      }
+    }
+
+    String variable = lambda.getParameters().get(0).getId().getName();
+    Expression predicate = ((ExpressionStmt) lambda.getBody()).getExpression();
+    if (LOCALS.contains(variable) || ROOTS.contains(variable)) {
+      return null;
+    }
+    Set<String> roots = getRoots(predicate);
+
+    // Source code of the predicate, from the parameters on.
+    StringBuilder source = new StringBuilder("(");
+    source.append(referenceType).append(" container");
+    for (String root : roots) {
+      source.append(", ").append(root.equals("args") ? "Object[] " : "Object ").append(root);
+    }
+    source.append(") {if (container == null) {return false;}");
+    if (array) {
+      source.append("for (int i = 0; i < container.length; i++) {");
+      source.append(elementType).append(" ").append(variable).append(" = container[i];");
+    } else {
+      source.append("for (").append(iteratorType);
+      source.append(" iterator = container.iterator(); iterator.hasNext(); ) {");
+      source.append(elementType).append(" ").append(variable).append(" = iterator.next();");
+    }
+    // Elements that are null are checked like the arguments of the advised method.
+    Expression guardedPredicate = NullGuards.guard(predicate, variable);
+    if (guardedPredicate != null) {
+      source.append("if (").append(guardedPredicate).append(") {return true;}");
+    } else {
+      source.append("try {if (").append(predicate).append(") {return true;}}");
+      source.append(" catch (java.lang.NullPointerException npe) {}");
+    }
+    source.append("}return false;}");
+
+    String name = names.get(source.toString());
+    if (name == null) {
+      name = PREFIX + (names.size() + 1);
+      names.put(source.toString(), name);
+      predicates.put(name, "private static boolean " + name + source);
+    }
+
+    List<Expression> args = new ArrayList<>();
+    args.add((Expression) container.clone());
+    for (String root : roots) {
+      args.add(new NameExpr(root));
+    }
+    return new MethodCallExpr(null, name, args);
+  }
+
+  /**
+   * Returns true if the given expression refers to the class {@code java.util.Arrays}.
+   *
+   * @param expression an expression
+   * @return true if {@code expression} is {@code java.util.Arrays} or {@code Arrays}
+   */
+  private static boolean isArrays(Expression expression) {
+    String name = expression.toString();
+    return name.equals("java.util.Arrays") || name.equals("Arrays");
+  }
+
+  /**
+   * Returns the type to which the given expression is cast, ignoring enclosing parentheses.
+   *
+   * @param expression an expression
+   * @return the type to which {@code expression} is cast, or null if it is not cast
+   */
+  private static Type getCastType(Expression expression) {
+    while (expression instanceof EnclosedExpr) {
+      expression = ((EnclosedExpr) expression).getInner();
+    }
+    return expression instanceof CastExpr ? ((CastExpr) expression).getType() : null;
+  }
+
+  /**
+   * Returns the variables of the advice (arguments, target, and result) the given expression refers
+   * to.
+   *
+   * @param expression an expression
+   * @return the names of the variables {@code expression} refers to
+   */
+  private static Set<String> getRoots(Expression expression) {
+    Set<String> roots = new LinkedHashSet<>();
+    expression.accept(
+        new VoidVisitorAdapter<Set<String>>() {
+          @Override
+          public void visit(NameExpr name, Set<String> roots) {
+            if (ROOTS.contains(name.getName())) {
+              roots.add(name.getName());
+            }
+          }
+        },
+        roots);
+    return roots;
+  }
+}
@@ -0,0 +1,220 @@
+package org.toradocu.generator;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseException;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.InitializerDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.SingleMemberAnnotationExpr;
+import com.github.javaparser.ast.expr.StringLiteralExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.visitor.ModifierVisitorAdapter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.Parameter;
+import org.toradocu.util.Checks;
+
+/**
+ * Visitor that modifies the dispatching aspect template (see method {@code visit}) to generate a
+ * single aspect (oracle) for many {@code DocumentedMethod}s. The generated aspect has one combined
+ * pointcut matching all the methods, and dispatches each join point to the checks of the
+ * corresponding method through a table keyed by member signature.
+ */
+public class DispatcherChangerVisitor extends ModifierVisitorAdapter<List<DocumentedMethod>> {
+
+  /** {@code Logger} for this class. */
+  private static final Logger log = LoggerFactory.getLogger(DispatcherChangerVisitor.class);
+  /** Methods of the aspect template implementing the checks of a single method. */
+  private static final List<String> CHECKS =
+      Arrays.asList("paramTagsSatisfied", "getExpectedExceptions", "checkResult");
+
+  /** The parsed aspect template, from which the checks of each method are generated. */
+  private final CompilationUnit methodTemplate;
+  /** Expressions and blocks already parsed, by source code. */
+  private final Map<String, Node> parsedCode;
+
+  /**
+   * Creates a new visitor that generates the checks of each method from the given aspect template.
+   *
+   * @param methodTemplate the parsed aspect template, which is not modified
+   * @param parsedCode expressions and blocks already parsed, by source code, shared with the {@code
+   *     MethodChangerVisitor}s that generate the checks
+   */
+  DispatcherChangerVisitor(CompilationUnit methodTemplate, Map<String, Node> parsedCode) {
+    this.methodTemplate = methodTemplate;
+    this.parsedCode = parsedCode;
+  }
+
+  /**
+   * Adds the checks of each method in {@code methods} to the dispatching aspect template, together
+   * with the table that maps member signatures to checks and the combined pointcut.
+   *
+   * @param declaration the class declaration of the dispatching aspect template
+   * @param methods the methods for which to generate the aspect (oracle)
+   * @return the {@code declaration} modified as and when needed
+   * @throws NullPointerException if {@code declaration} or {@code methods} is null
+   */
+  @Override
+  public Node visit(ClassOrInterfaceDeclaration declaration, List<DocumentedMethod> methods) {
+    Checks.nonNullParameter(declaration, "declaration");
+    Checks.nonNullParameter(methods, "methods");
+
+    final List<BodyDeclaration> members = declaration.getMembers();
+    try {
+      for (BodyDeclaration member : members) {
+        if (member instanceof InitializerDeclaration) {
+          ((InitializerDeclaration) member).setBlock(createMemberTable(methods));
+        } else if (member instanceof MethodDeclaration) {
+          MethodDeclaration method = (MethodDeclaration) member;
+          if (method.getName().equals("advice")) {
+            addPointcut(method, methods);
+          } else if (CHECKS.contains(method.getName())) {
+            method.setBody(createDispatch(method.getName(), methods.size()));
+          }
+        }
+      }
+    } catch (ParseException e) {
+      log.error("Parsing error during the aspect creation.", e);
+    }
+
+    // A single visitor generates all the checks, so that each exception type is loaded once, and
+    // each containment predicate is generated once.
+    MethodChangerVisitor checksGenerator = new MethodChangerVisitor(parsedCode);
+    for (int index = 1; index <= methods.size(); index++) {
+      for (BodyDeclaration member : methodTemplate.getTypes().get(0).getMembers()) {
+        if (member instanceof MethodDeclaration
+            && CHECKS.contains(((MethodDeclaration) member).getName())) {
+          MethodDeclaration check = (MethodDeclaration) member.clone();
+          checksGenerator.visit(check, methods.get(index - 1));
+          check.setName(check.getName() + "_" + index);
+          members.add(check);
+        }
+      }
+    }
+    declaration.setMembers(members);
+    checksGenerator.addGeneratedMembers(declaration);
+    return declaration;
+  }
+
+  /**
+   * Creates the static block that fills the table mapping member signatures to the indexes of the
+   * corresponding checks.
+   *
+   * @param methods the methods with checks in the aspect
+   * @return the static block filling the table
+   * @throws ParseException if the generated block cannot be parsed
+   */
+  private static BlockStmt createMemberTable(List<DocumentedMethod> methods) throws ParseException {
+    StringBuilder block = new StringBuilder("{");
+    for (int index = 1; index <= methods.size(); index++) {
+      block
+          .append("MEMBERS.put(\"")
+          .append(getMemberKey(methods.get(index - 1)))
+          .append("\", ")
+          .append(index)
+          .append(");");
+    }
+    return JavaParser.parseBlock(block.append("}").toString());
+  }
+
+  /**
+   * Creates the body of a dispatching method, that invokes the check {@code check} of the member
+   * with the given index.
+   *
+   * @param check the name of the check
+   * @param methodsCount the number of methods with checks in the aspect
+   * @return the body of the dispatching method
+   * @throws ParseException if the generated body cannot be parsed
+   */
+  private static BlockStmt createDispatch(String check, int methodsCount) throws ParseException {
+    final String arguments =
+        check.equals("checkResult") ? "(result, target, args);" : "(target, args);";
+    StringBuilder body = new StringBuilder("{switch (member) {");
+    for (int index = 1; index <= methodsCount; index++) {
+      body.append("case ")
+          .append(index)
+          .append(": return ")
+          .append(check)
+          .append("_")
+          .append(index)
+          .append(arguments);
+    }
+    body.append("default: throw new IllegalStateException(\"Unknown member: \" + member);}}");
+    return JavaParser.parseBlock(body.toString());
+  }
+
+  /**
+   * Adds to the advice of the aspect a pointcut matching all the given methods. Calls to regular
+   * methods are matched by class, so that the pointcut does not grow with the number of methods.
+   *
+   * @param advice the advice of the aspect
+   * @param methods the methods with checks in the aspect
+   */
+  private static void addPointcut(MethodDeclaration advice, List<DocumentedMethod> methods) {
+    // For each class, whether it has specified methods (calls) and constructors (executions).
+    Map<String, boolean[]> classes = new LinkedHashMap<>();
+    for (DocumentedMethod method : methods) {
+      boolean[] kinds =
+          classes.computeIfAbsent(
+              method.getContainingClass().getQualifiedName(), c -> new boolean[2]);
+      kinds[method.isConstructor() ? 1 : 0] = true;
+    }
+
+    final String tests = WeavingScope.testsPointcut();
+    List<String> pointcuts = new ArrayList<>();
+    for (Map.Entry<String, boolean[]> aClass : classes.entrySet()) {
+      if (aClass.getValue()[0]) {
+        String call = "call(* " + aClass.getKey() + ".*(..))";
+        if (tests != null) {
+          call = "(" + call + " && " + tests + ")";
+        }
+        pointcuts.add(call);
+      }
+      if (aClass.getValue()[1]) {
+        pointcuts.add(
+            "(execution(" + aClass.getKey() + ".new(..)) && within(" + aClass.getKey() + "))");
+      }
+    }
+
+    AnnotationExpr annotation =
+        new SingleMemberAnnotationExpr(
+            new NameExpr("Around"), new StringLiteralExpr(String.join(" || ", pointcuts)));
+    List<AnnotationExpr> annotations = advice.getAnnotations();
+    annotations.add(annotation);
+    advice.setAnnotations(annotations);
+  }
+
+  /**
+   * Returns the key of the given method in the table of the dispatching aspect. The key is made by
+   * the canonical names of the containing class and of the parameter types, as returned at run time
+   * by {@code Class.getCanonicalName()}. For example, the key of the method {@code foo(int[] a,
+   * String b)} of class {@code C} is {@code C.foo(int[], java.lang.String)}, and the key of the
+   * constructor {@code C()} is {@code C.new()}.
+   *
+   * @param method a method
+   * @return the key of {@code method} in the table of the dispatching aspect
+   */
+  static String getMemberKey(DocumentedMethod method) {
+    String parameters =
+        method
+            .getParameters()
+            .stream()
+            .map(Parameter::getType)
+            .map(Object::toString)
+            .collect(Collectors.joining(", "));
+    String name = method.isConstructor() ? "new" : method.getName();
+    return method.getContainingClass().getQualifiedName() + "." + name + "(" + parameters + ")";
+  }
+}
@@ -6,16 +6,24 @@ import com.github.javaparser.ParseException;
 import com.github.javaparser.Position;
 import com.github.javaparser.Range;
 import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.VariableDeclaratorId;
 import com.github.javaparser.ast.comments.LineComment;
 import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.expr.AssignExpr;
+import com.github.javaparser.ast.expr.BinaryExpr;
 import com.github.javaparser.ast.expr.BooleanLiteralExpr;
+import com.github.javaparser.ast.expr.EnclosedExpr;
 import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ast.expr.NameExpr;
 import com.github.javaparser.ast.expr.SingleMemberAnnotationExpr;
 import com.github.javaparser.ast.expr.StringLiteralExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
 import com.github.javaparser.ast.stmt.CatchClause;
+import com.github.javaparser.ast.stmt.ExpressionStmt;
 import com.github.javaparser.ast.stmt.IfStmt;
 import com.github.javaparser.ast.stmt.ReturnStmt;
 import com.github.javaparser.ast.stmt.Statement;
@@ -23,18 +31,21 @@ import com.github.javaparser.ast.stmt.TryStmt;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
 import com.github.javaparser.ast.visitor.ModifierVisitorAdapter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.toradocu.Toradocu;
-import org.toradocu.conf.Configuration;
+import org.toradocu.SessionMonitor;
 import org.toradocu.extractor.DocumentedMethod;
 import org.toradocu.extractor.ParamTag;
 import org.toradocu.extractor.Parameter;
 import org.toradocu.extractor.ReturnTag;
 import org.toradocu.extractor.ThrowsTag;
+import org.toradocu.extractor.Type;
 import org.toradocu.util.Checks;
 
 /**
@@ -45,12 +56,53 @@ public class MethodChangerVisitor extends ModifierVisitorAdapter<DocumentedMetho
 
   /** {@code Logger} for this class. */
   private static final Logger log = LoggerFactory.getLogger(MethodChangerVisitor.class);
-  /** Holds Toradocu configuration options. */
-  private final Configuration conf = Toradocu.configuration;
+  /** Name under which accesses to {@code parsedCode} are reported to the session monitor. */
+  private static final String PARSED_CODE_CACHE = "parsedCode";
+  /**
+   * Expressions and blocks already parsed, by source code. Cached nodes are never added to an
+   * aspect: they are cloned instead, so that the cache can be shared among visitors.
+   */
+  private final Map<String, Node> parsedCode;
+  /** Names of the static fields holding the expected exception types, by exception type. */
+  private final Map<String, String> exceptionFields = new LinkedHashMap<>();
+  /** Predicates replacing the stream-based containment checks in conditions. */
+  private final ContainmentPredicates containmentPredicates = new ContainmentPredicates();
+
+  /** Creates a new visitor that does not share parsed code with other visitors. */
+  public MethodChangerVisitor() {
+    this(new ConcurrentHashMap<>());
+  }
+
+  /**
+   * Creates a new visitor that reuses (and adds to) the given expressions and blocks already
+   * parsed. Guards sharing the same condition are thus parsed only once.
+   *
+   * @param parsedCode expressions and blocks already parsed, by source code. Must be thread-safe if
+   *     shared by visitors running in parallel.
+   */
+  MethodChangerVisitor(Map<String, Node> parsedCode) {
+    this.parsedCode = parsedCode;
+  }
+
+  /**
+   * Modifies the methods of the aspect template, and adds the fields they use, to get an aspect
+   * (oracle) for the method arg.
+   *
+   * @param declaration the class declaration of the aspect template
+   * @param documentedMethod the {@code DocumentedMethod} for which to generate the aspect (oracle)
+   * @return the {@code declaration} modified as and when needed
+   */
+  @Override
+  public Node visit(ClassOrInterfaceDeclaration declaration, DocumentedMethod documentedMethod) {
+    Node node = super.visit(declaration, documentedMethod);
+    addGeneratedMembers(declaration);
+    return node;
+  }
 
   /**
    * Modifies the methods {@code advice} and {@code getExpectedExceptions} of the aspect template,
-   * injecting the appropriate source code to get an aspect (oracle) for the method arg.
+   * injecting the appropriate source code to get an aspect (oracle) for the method arg. Casts and
+   * accessors shared by the checks of a method are evaluated once per invocation.
    *
    * @param methodDeclaration the method declaration of the method to visit
    * @param documentedMethod the {@code DocumentedMethod} for which to generate the aspect (oracle)
@@ -68,12 +120,15 @@ public class MethodChangerVisitor extends ModifierVisitorAdapter<DocumentedMetho
         break;
       case "getExpectedExceptions":
         getExpectedExceptionChanger(methodDeclaration, documentedMethod);
+        CommonSubexpressions.share(methodDeclaration);
         break;
       case "paramTagsSatisfied":
         paramTagSatisfiedChanger(methodDeclaration, documentedMethod);
+        CommonSubexpressions.share(methodDeclaration);
         break;
       case "checkResult":
         checkResultChanger(methodDeclaration, documentedMethod);
+        CommonSubexpressions.share(methodDeclaration);
         break;
     }
     return methodDeclaration;
@@ -97,18 +152,22 @@ public class MethodChangerVisitor extends ModifierVisitorAdapter<DocumentedMetho
     String guardCondition = addCasting(spec.substring(0, spec.indexOf("?")), documentedMethod);
     String propertiesStr = spec.substring(spec.indexOf("?") + 1);
     String[] properties = propertiesStr.split(":", 2);
-    String castedProperty = addCasting(properties[0], documentedMethod);
-    String thenBlock = createBlock("if ((" + castedProperty + ")==false) { fail(\"Error!\"); }");
-
-    IfStmt ifStmt;
-    if (properties.length > 1) {
-      String castedProperty1 = addCasting(properties[1], documentedMethod);
-      String elseBlock = createBlock("if ((" + castedProperty1 + ")==false) { fail(\"Error!\"); }");
-      ifStmt = createIfStmt(guardCondition, tag.getComment(), thenBlock, elseBlock);
-    } else {
-      ifStmt = createIfStmt(guardCondition, tag.getComment(), thenBlock);
+    try {
+      String castedProperty = addCasting(properties[0], documentedMethod);
+      BlockStmt thenBlock = createFailBlock(parseCondition(castedProperty));
+
+      IfStmt ifStmt;
+      if (properties.length > 1) {
+        String castedProperty1 = addCasting(properties[1], documentedMethod);
+        BlockStmt elseBlock = createFailBlock(parseCondition(castedProperty1));
+        ifStmt = createIfStmt(guardCondition, tag.getComment(), thenBlock, elseBlock);
+      } else {
+        ifStmt = createIfStmt(guardCondition, tag.getComment(), thenBlock);
+      }
+      methodDeclaration.getBody().getStmts().add(ifStmt);
+    } catch (ParseException e) {
+      log.error("Parsing error during the aspect creation.", e);
     }
-    methodDeclaration.getBody().getStmts().add(ifStmt);
     methodDeclaration.getBody().getStmts().add(returnResultStmt);
   }
 
@@ -121,8 +180,8 @@ public class MethodChangerVisitor extends ModifierVisitorAdapter<DocumentedMetho
         continue;
       }
       condition = addCasting(condition, documentedMethod);
-      String thenBlock = createBlock("return true;");
-      String elseBlock = createBlock("return false;");
+      BlockStmt thenBlock = createReturnBlock(true);
+      BlockStmt elseBlock = createReturnBlock(false);
       IfStmt ifStmt = createIfStmt(condition, tag.toString(), thenBlock, elseBlock);
       methodDeclaration.getBody().getStmts().add(ifStmt);
       returnStmtNeeded = false;
@@ -145,27 +204,47 @@ public class MethodChangerVisitor extends ModifierVisitorAdapter<DocumentedMetho
 
       condition = addCasting(condition, documentedMethod);
 
-      IfStmt ifStmt = new IfStmt();
-      Expression conditionExpression;
       try {
-        conditionExpression = JavaParser.parseExpression(condition);
-        ifStmt.setCondition(conditionExpression);
-        // Add a try-catch block to prevent runtime error when looking for an exception type
-        // that is not on the classpath.
-        String addExpectedException =
-            "{try{expectedExceptions.add("
-                + "Class.forName(\""
-                + tag.exceptionType()
-                + "\")"
-                + ");} catch (ClassNotFoundException e) {"
-                + "System.err.println(\"Class not found!\" + e);}}";
-        ifStmt.setThenStmt(JavaParser.parseBlock(addExpectedException));
-
-        // Add a try-catch block to avoid NullPointerException to be raised while evaluating a
-        // boolean condition generated by Toradocu. For example, suppose that the first argument
-        // of a method is null, and that Toradocu generates a condition like
-        // args[0].isEmpty()==true. The condition generates a NullPointerException that we want
-        // to ignore.
+        Expression conditionExpression = parseCondition(condition);
+        // Exception types are loaded once, when the aspect is initialized.
+        List<Expression> addArgs = new ArrayList<>();
+        addArgs.add(new NameExpr("expectedExceptions"));
+        addArgs.add(new NameExpr(getExceptionField(tag.exceptionType().getQualifiedName())));
+        Statement addExpectedException =
+            new ExpressionStmt(
+                new AssignExpr(
+                    new NameExpr("expectedExceptions"),
+                    new MethodCallExpr(null, "addExpectedException", addArgs),
+                    AssignExpr.Operator.assign));
+
+        // Add comment to if condition. The comment is the original comment in the Java source
+        // code that has been translated by Toradocu in the commented boolean condition.
+        String comment = " " + tag.getKind() + " " + tag.exceptionType() + " " + tag.getComment();
+
+        // Guard the condition with explicit null checks, to avoid NullPointerException to be
+        // raised while evaluating a boolean condition generated by Toradocu. For example, suppose
+        // that the first argument of a method is null, and that Toradocu generates a condition
+        // like args[0].isEmpty()==true. The condition is evaluated only if args[0]!=null.
+        Expression guardedCondition = NullGuards.guard(conditionExpression);
+        if (guardedCondition != null) {
+          IfStmt ifStmt =
+              new IfStmt(
+                  guardedCondition,
+                  new BlockStmt(new ArrayList<>(Collections.singleton(addExpectedException))),
+                  null);
+          ifStmt.setComment(new LineComment(comment));
+          ASTHelper.addStmt(methodDeclaration.getBody(), ifStmt);
+          continue;
+        }
+
+        // Conditions that cannot be guarded in advance are wrapped in a try-catch block that
+        // ignores NullPointerException.
+        IfStmt ifStmt =
+            new IfStmt(
+                conditionExpression,
+                new BlockStmt(new ArrayList<>(Collections.singleton(addExpectedException))),
+                null);
+        ifStmt.setComment(new LineComment(comment));
         ClassOrInterfaceType nullPointerException =
             new ClassOrInterfaceType("java.lang.NullPointerException");
         Position position = new Position(0, 0);
@@ -177,29 +256,15 @@ public class MethodChangerVisitor extends ModifierVisitorAdapter<DocumentedMetho
                 null,
                 nullPointerException,
                 new VariableDeclaratorId("e"),
-                JavaParser.parseBlock("{}"));
+                new BlockStmt());
         List<CatchClause> catchClauses = new ArrayList<>();
         catchClauses.add(catchClause);
 
         TryStmt nullCheckTryCatch = new TryStmt();
-        nullCheckTryCatch.setTryBlock(JavaParser.parseBlock("{" + ifStmt.toString() + "}"));
+        nullCheckTryCatch.setTryBlock(
+            new BlockStmt(new ArrayList<>(Collections.singleton(ifStmt))));
         nullCheckTryCatch.setCatchs(catchClauses);
 
-        // Add comment to if condition. The comment is the original comment in the Java source
-        // code that has been translated by Toradocu in the commented boolean condition.
-        // Comment has to be added here, cause otherwise is ignored by JavaParser.parseBlock.
-        final Optional<Statement> ifCondition =
-            nullCheckTryCatch
-                .getTryBlock()
-                .getStmts()
-                .stream()
-                .filter(stm -> stm instanceof IfStmt)
-                .findFirst();
-        if (ifCondition.isPresent()) {
-          String comment = " " + tag.getKind() + " " + tag.exceptionType() + " " + tag.getComment();
-          ifCondition.get().setComment(new LineComment(comment));
-        }
-
         ASTHelper.addStmt(methodDeclaration.getBody(), nullCheckTryCatch);
       } catch (ParseException e) {
         log.error("Parsing error during the aspect creation.", e);
@@ -207,13 +272,48 @@ public class MethodChangerVisitor extends ModifierVisitorAdapter<DocumentedMetho
       }
     }
 
-    try {
-      ASTHelper.addStmt(
-          methodDeclaration.getBody(), JavaParser.parseStatement("return expectedExceptions;"));
-    } catch (ParseException e) {
-      log.error("Parsing error during the aspect creation.", e);
-      e.printStackTrace();
+    ASTHelper.addStmt(
+        methodDeclaration.getBody(), new ReturnStmt(new NameExpr("expectedExceptions")));
+  }
+
+  /**
+   * Returns the name of the static field of the aspect holding the given exception type, and
+   * registers the field if needed. Fields are added to the aspect by {@code addGeneratedMembers}.
+   *
+   * @param exceptionType the qualified name of an exception type
+   * @return the name of the field holding {@code exceptionType}
+   */
+  private String getExceptionField(String exceptionType) {
+    return exceptionFields.computeIfAbsent(
+        exceptionType, type -> "EXCEPTION_" + (exceptionFields.size() + 1));
+  }
+
+  /**
+   * Adds to the given aspect the members used by the checks generated so far by this visitor: the
+   * static fields holding the exception types, and the containment predicates. Exception types that
+   * are not on the classpath at run time are loaded as null, and ignored by the aspect.
+   *
+   * @param aspect the class declaration of the aspect
+   */
+  void addGeneratedMembers(ClassOrInterfaceDeclaration aspect) {
+    List<BodyDeclaration> members = aspect.getMembers();
+    int index = 0;
+    for (Map.Entry<String, String> field : exceptionFields.entrySet()) {
+      try {
+        members.add(
+            index++,
+            JavaParser.parseClassBodyDeclaration(
+                "private static final Class<?> "
+                    + field.getValue()
+                    + " = loadClass(\""
+                    + field.getKey()
+                    + "\");"));
+      } catch (ParseException e) {
+        log.error("Parsing error during the aspect creation.", e);
+      }
     }
+    aspect.setMembers(members);
+    containmentPredicates.addPredicates(aspect);
   }
 
   private void adviceChanger(
@@ -221,13 +321,12 @@ public class MethodChangerVisitor extends ModifierVisitorAdapter<DocumentedMetho
     String pointcut;
 
     if (documentedMethod.isConstructor()) {
-      pointcut = "execution(" + getPointcut(documentedMethod) + ")";
+      pointcut =
+          WeavingScope.scopeExecution(
+              "execution(" + getPointcut(documentedMethod) + ")",
+              documentedMethod.getContainingClass());
     } else {
-      pointcut = "call(" + getPointcut(documentedMethod) + ")";
-      String testClassName = conf.getTestClass();
-      if (testClassName != null) {
-        pointcut += " && within(" + testClassName + ")";
-      }
+      pointcut = WeavingScope.scopeCall("call(" + getPointcut(documentedMethod) + ")");
     }
 
     AnnotationExpr annotation =
@@ -237,24 +336,49 @@ public class MethodChangerVisitor extends ModifierVisitorAdapter<DocumentedMetho
     methodDeclaration.setAnnotations(annotations);
   }
 
-  private static String createBlock(String content) {
-    return "{" + content + "}";
+  /**
+   * Creates the block {@code { return value; }}.
+   *
+   * @param value the returned value
+   * @return the block returning {@code value}
+   */
+  private static BlockStmt createReturnBlock(boolean value) {
+    ReturnStmt returnStmt = new ReturnStmt(new BooleanLiteralExpr(value));
+    return new BlockStmt(new ArrayList<>(Collections.singleton(returnStmt)));
+  }
+
+  /**
+   * Creates the block {@code { if ((property)==false) { fail("Error!"); } }}.
+   *
+   * @param property the property that must hold
+   * @return the block failing when {@code property} does not hold
+   */
+  private static BlockStmt createFailBlock(Expression property) {
+    List<Expression> failArgs = new ArrayList<>();
+    failArgs.add(new StringLiteralExpr("Error!"));
+    Statement fail = new ExpressionStmt(new MethodCallExpr(null, "fail", failArgs));
+    Expression violated =
+        new BinaryExpr(
+            new EnclosedExpr(property), new BooleanLiteralExpr(false), BinaryExpr.Operator.equals);
+    IfStmt ifStmt =
+        new IfStmt(violated, new BlockStmt(new ArrayList<>(Collections.singleton(fail))), null);
+    return new BlockStmt(new ArrayList<>(Collections.singleton(ifStmt)));
   }
 
-  private static IfStmt createIfStmt(String condition, String comment, String thenBlock) {
-    return createIfStmt(condition, comment, thenBlock, "");
+  private IfStmt createIfStmt(String condition, String comment, BlockStmt thenBlock) {
+    return createIfStmt(condition, comment, thenBlock, null);
   }
 
-  private static IfStmt createIfStmt(
-      String condition, String comment, String thenBlock, String elseBlock) {
+  private IfStmt createIfStmt(
+      String condition, String comment, BlockStmt thenBlock, BlockStmt elseBlock) {
     IfStmt ifStmt = new IfStmt();
     Expression conditionExpression;
     try {
-      conditionExpression = JavaParser.parseExpression(condition);
+      conditionExpression = parseCondition(condition);
       ifStmt.setCondition(conditionExpression);
-      ifStmt.setThenStmt(JavaParser.parseBlock(thenBlock));
-      if (!elseBlock.isEmpty()) {
-        ifStmt.setElseStmt(JavaParser.parseBlock(elseBlock));
+      ifStmt.setThenStmt(thenBlock);
+      if (elseBlock != null) {
+        ifStmt.setElseStmt(elseBlock);
       }
       ifStmt.setComment(new LineComment(" " + comment));
     } catch (ParseException e) {
@@ -264,6 +388,34 @@ public class MethodChangerVisitor extends ModifierVisitorAdapter<DocumentedMetho
     return ifStmt;
   }
 
+  /**
+   * Parses the given condition, replacing its stream-based containment checks with predicates.
+   *
+   * @param condition the source code of the condition
+   * @return a new copy of the parsed condition
+   * @throws ParseException if {@code condition} is not a valid Java expression
+   */
+  private Expression parseCondition(String condition) throws ParseException {
+    return containmentPredicates.rewrite(parseExpression(condition));
+  }
+
+  /**
+   * Parses the given expression, or reuses the expression already parsed if any.
+   *
+   * @param expression the source code of the expression
+   * @return a new copy of the parsed expression
+   * @throws ParseException if {@code expression} is not a valid Java expression
+   */
+  private Expression parseExpression(String expression) throws ParseException {
+    Node parsed = parsedCode.get(expression);
+    SessionMonitor.recordCacheAccess(PARSED_CODE_CACHE, parsed != null);
+    if (parsed == null) {
+      parsed = JavaParser.parseExpression(expression);
+      parsedCode.putIfAbsent(expression, parsed);
+    }
+    return (Expression) parsed.clone();
+  }
+
   /**
    * Generates the AspectJ pointcut definition to be used to match the given {@code
    * DocumentedMethod}. A pointcut definition looks like {@code call(void C.foo())}. Given a {@code
@@ -310,7 +462,7 @@ public class MethodChangerVisitor extends ModifierVisitorAdapter<DocumentedMetho
    * @return the input condition with casted method arguments and target
    * @throws NullPointerException if {@code condition} or {@code method} is null
    */
-  private static String addCasting(String condition, DocumentedMethod method) {
+  static String addCasting(String condition, DocumentedMethod method) {
     Checks.nonNullParameter(condition, "condition");
     Checks.nonNullParameter(method, "method");
 
@@ -322,9 +474,9 @@ public class MethodChangerVisitor extends ModifierVisitorAdapter<DocumentedMetho
     }
 
     // Casting of result object in condition.
-    String returnType = method.getReturnType().toString();
-    if (returnType != null && !returnType.equals("void")) {
-      condition = condition.replace("result", "((" + method.getReturnType() + ") result)");
+    Type returnType = method.getReturnType();
+    if (returnType != null && !returnType.equals(Type.VOID)) {
+      condition = condition.replace("result", "((" + returnType + ") result)");
     }
 
     // Casting of target object in condition.
@@ -0,0 +1,281 @@
+package org.toradocu.generator;
+
+import com.github.javaparser.ast.expr.ArrayAccessExpr;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.CastExpr;
+import com.github.javaparser.ast.expr.ConditionalExpr;
+import com.github.javaparser.ast.expr.EnclosedExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.InstanceOfExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.NullLiteralExpr;
+import com.github.javaparser.ast.expr.UnaryExpr;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the null checks that make the evaluation of a condition in a generated aspect free of
+ * {@code NullPointerException}s caused by null receivers. Conditions refer to the arguments ({@code
+ * args[i]}), the receiver ({@code target}), and the result ({@code result}) of a method call: the
+ * values derived from them may be null, and are checked before being dereferenced.
+ */
+final class NullGuards {
+
+  /** Names of the variables that conditions in generated aspects refer to. */
+  private static final List<String> ROOTS = Arrays.asList("args", "target", "result");
+  /** Wrapper types, as they appear in casts added by {@code MethodChangerVisitor}. */
+  private static final List<String> WRAPPERS =
+      Arrays.asList(
+          "java.lang.Boolean",
+          "java.lang.Byte",
+          "java.lang.Character",
+          "java.lang.Short",
+          "java.lang.Integer",
+          "java.lang.Long",
+          "java.lang.Float",
+          "java.lang.Double",
+          "Boolean",
+          "Byte",
+          "Character",
+          "Short",
+          "Integer",
+          "Long",
+          "Float",
+          "Double");
+
+  /** Names of the variables whose values (and values derived from them) may be null. */
+  private final Collection<String> roots;
+
+  private NullGuards(Collection<String> roots) {
+    this.roots = roots;
+  }
+
+  /**
+   * Guards the given condition with the null checks of the values it dereferences. The returned
+   * condition evaluates to false whenever the evaluation of {@code condition} would raise a {@code
+   * NullPointerException} because of a null receiver. For example, the condition {@code ((String)
+   * args[0]).isEmpty()} is guarded as {@code args[0] != null && ((String) args[0]).isEmpty()}.
+   *
+   * @param condition the condition to guard, which is not modified
+   * @return the guarded condition (the same {@code condition} if no null check is needed), or null
+   *     if the condition cannot be guarded in advance: that is, if some value is dereferenced only
+   *     in the right operand of a conditional operator (and not checked before), or is passed to an
+   *     invoked method
+   */
+  static Expression guard(Expression condition) {
+    return new NullGuards(ROOTS).guardCondition(condition);
+  }
+
+  /**
+   * Guards the given condition with the null checks of the values it dereferences, considering also
+   * the values of {@code variable} (e.g., a loop variable) as possibly null.
+   *
+   * @param condition the condition to guard, which is not modified
+   * @param variable the name of a variable that {@code condition} refers to
+   * @return the guarded condition, or null if the condition cannot be guarded in advance
+   * @see #guard(Expression)
+   */
+  static Expression guard(Expression condition, String variable) {
+    List<String> roots = new ArrayList<>(ROOTS);
+    roots.add(variable);
+    return new NullGuards(roots).guardCondition(condition);
+  }
+
+  private Expression guardCondition(Expression condition) {
+    Map<String, Expression> checks = new LinkedHashMap<>();
+    if (!collect(condition, false, checks)) {
+      return null;
+    }
+    if (checks.isEmpty()) {
+      return condition;
+    }
+
+    Expression guarded = null;
+    for (Expression check : checks.values()) {
+      guarded = guarded == null ? check : new BinaryExpr(guarded, check, BinaryExpr.Operator.and);
+    }
+    Expression guardedCondition = (Expression) condition.clone();
+    if (guardedCondition instanceof BinaryExpr || guardedCondition instanceof ConditionalExpr) {
+      guardedCondition = new EnclosedExpr(guardedCondition);
+    }
+    return new BinaryExpr(guarded, guardedCondition, BinaryExpr.Operator.and);
+  }
+
+  /**
+   * Collects the null checks needed to evaluate the given expression, in evaluation order.
+   *
+   * @param expression the expression to evaluate
+   * @param conditional whether {@code expression} is evaluated only under some condition (i.e., it
+   *     is in the right operand of a conditional operator)
+   * @param checks the null checks collected so far, by source code
+   * @return false if {@code expression} cannot be guarded in advance
+   */
+  private boolean collect(
+      Expression expression, boolean conditional, Map<String, Expression> checks) {
+    if (expression instanceof BinaryExpr) {
+      BinaryExpr binaryExpr = (BinaryExpr) expression;
+      boolean shortCircuit =
+          binaryExpr.getOperator() == BinaryExpr.Operator.and
+              || binaryExpr.getOperator() == BinaryExpr.Operator.or;
+      if (!collect(binaryExpr.getLeft(), conditional, checks)
+          || !collect(binaryExpr.getRight(), conditional || shortCircuit, checks)) {
+        return false;
+      }
+      boolean identity =
+          binaryExpr.getOperator() == BinaryExpr.Operator.equals
+              || binaryExpr.getOperator() == BinaryExpr.Operator.notEquals;
+      if (shortCircuit
+          || binaryExpr.getLeft() instanceof NullLiteralExpr
+          || binaryExpr.getRight() instanceof NullLiteralExpr
+          || (identity && isWrapper(binaryExpr.getLeft()) && isWrapper(binaryExpr.getRight()))) {
+        return true;
+      }
+      // Operands cast to wrapper types (e.g., Integer) are unboxed, i.e., dereferenced.
+      return (!isWrapper(binaryExpr.getLeft())
+              || dereference(binaryExpr.getLeft(), conditional, checks))
+          && (!isWrapper(binaryExpr.getRight())
+              || dereference(binaryExpr.getRight(), conditional, checks));
+    } else if (expression instanceof ConditionalExpr) {
+      ConditionalExpr conditionalExpr = (ConditionalExpr) expression;
+      return collect(conditionalExpr.getCondition(), conditional, checks)
+          && collect(conditionalExpr.getThenExpr(), true, checks)
+          && collect(conditionalExpr.getElseExpr(), true, checks);
+    } else if (expression instanceof MethodCallExpr) {
+      MethodCallExpr methodCall = (MethodCallExpr) expression;
+      Expression scope = methodCall.getScope();
+      if (scope != null
+          && !(collect(scope, conditional, checks) && dereference(scope, conditional, checks))) {
+        return false;
+      }
+      for (Expression argument : methodCall.getArgs()) {
+        // The invoked method could dereference a null argument: that cannot be checked in advance,
+        // unless the method is a null-safe predicate generated along with the aspect.
+        if ((isDerivedFromRoots(argument) && !ContainmentPredicates.isPredicate(methodCall))
+            || !collect(argument, conditional, checks)) {
+          return false;
+        }
+      }
+      return true;
+    } else if (expression instanceof FieldAccessExpr) {
+      Expression scope = ((FieldAccessExpr) expression).getScope();
+      return collect(scope, conditional, checks) && dereference(scope, conditional, checks);
+    } else if (expression instanceof ArrayAccessExpr) {
+      ArrayAccessExpr arrayAccess = (ArrayAccessExpr) expression;
+      return collect(arrayAccess.getName(), conditional, checks)
+          && dereference(arrayAccess.getName(), conditional, checks)
+          && collect(arrayAccess.getIndex(), conditional, checks);
+    } else if (expression instanceof EnclosedExpr) {
+      return collect(((EnclosedExpr) expression).getInner(), conditional, checks);
+    } else if (expression instanceof CastExpr) {
+      return collect(((CastExpr) expression).getExpr(), conditional, checks);
+    } else if (expression instanceof UnaryExpr) {
+      return collect(((UnaryExpr) expression).getExpr(), conditional, checks);
+    } else if (expression instanceof InstanceOfExpr) {
+      return collect(((InstanceOfExpr) expression).getExpr(), conditional, checks);
+    }
+    return true;
+  }
+
+  /**
+   * Returns true if the given expression is cast to a wrapper type, and is therefore unboxed when
+   * used as operand of a numeric or relational operator.
+   *
+   * @param expression an expression
+   * @return true if {@code expression} is cast to a wrapper type
+   */
+  private static boolean isWrapper(Expression expression) {
+    while (expression instanceof EnclosedExpr) {
+      expression = ((EnclosedExpr) expression).getInner();
+    }
+    return expression instanceof CastExpr
+        && WRAPPERS.contains(((CastExpr) expression).getType().toString());
+  }
+
+  /**
+   * Adds the null check of {@code scope}, a value that is dereferenced, to {@code checks}.
+   *
+   * @param scope the dereferenced value
+   * @param conditional whether {@code scope} is dereferenced only under some condition
+   * @param checks the null checks collected so far, by source code
+   * @return false if {@code scope} needs a null check, but is dereferenced only under some
+   *     condition
+   */
+  private boolean dereference(
+      Expression scope, boolean conditional, Map<String, Expression> checks) {
+    Expression value = strip(scope);
+    if (!isDerivedFromRoots(value)
+        || (value instanceof NameExpr && ((NameExpr) value).getName().equals("args"))) {
+      // Type names (as in Integer.MAX_VALUE) and the array of the arguments are never null.
+      return true;
+    }
+    // Arguments and the receiver are checked without casts, other values as they are used.
+    Expression checked =
+        value instanceof NameExpr || isArgument(value) ? value : (Expression) scope;
+    Expression check =
+        new BinaryExpr(
+            (Expression) checked.clone(), new NullLiteralExpr(), BinaryExpr.Operator.notEquals);
+    if (conditional) {
+      // Values already checked unconditionally are safe to dereference everywhere.
+      return checks.containsKey(check.toString());
+    }
+    checks.putIfAbsent(check.toString(), check);
+    return true;
+  }
+
+  /**
+   * Returns true if the given expression is an argument, such as {@code args[0]}.
+   *
+   * @param expression an expression
+   * @return true if {@code expression} is an argument
+   */
+  private static boolean isArgument(Expression expression) {
+    return expression instanceof ArrayAccessExpr
+        && ((ArrayAccessExpr) expression).getName() instanceof NameExpr
+        && ((NameExpr) ((ArrayAccessExpr) expression).getName()).getName().equals("args");
+  }
+
+  /**
+   * Returns true if the value of the given expression is derived from the arguments, the receiver,
+   * or the result of the method call checked by the aspect.
+   *
+   * @param expression an expression
+   * @return true if the value of {@code expression} is derived from {@code args}, {@code target},
+   *     or {@code result}
+   */
+  private boolean isDerivedFromRoots(Expression expression) {
+    expression = strip(expression);
+    if (expression instanceof NameExpr) {
+      return roots.contains(((NameExpr) expression).getName());
+    } else if (expression instanceof ArrayAccessExpr) {
+      return isDerivedFromRoots(((ArrayAccessExpr) expression).getName());
+    } else if (expression instanceof MethodCallExpr) {
+      Expression scope = ((MethodCallExpr) expression).getScope();
+      return scope != null && isDerivedFromRoots(scope);
+    } else if (expression instanceof FieldAccessExpr) {
+      return isDerivedFromRoots(((FieldAccessExpr) expression).getScope());
+    }
+    return false;
+  }
+
+  /**
+   * Removes the parentheses and the casts around the given expression.
+   *
+   * @param expression an expression
+   * @return the expression without enclosing parentheses and casts
+   */
+  private static Expression strip(Expression expression) {
+    while (expression instanceof EnclosedExpr || expression instanceof CastExpr) {
+      expression =
+          expression instanceof EnclosedExpr
+              ? ((EnclosedExpr) expression).getInner()
+              : ((CastExpr) expression).getExpr();
+    }
+    return expression;
+  }
+}
@@ -1,69 +1,121 @@
 package org.toradocu.generator;
 
-import static org.toradocu.Toradocu.configuration;
-
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParseException;
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.toradocu.Toradocu;
+import org.toradocu.ToradocuSession;
+import org.toradocu.conf.Configuration;
+import org.toradocu.conf.Configuration.AspectGranularity;
 import org.toradocu.extractor.DocumentedMethod;
 import org.toradocu.extractor.ReturnTag;
 import org.toradocu.extractor.Tag;
 import org.toradocu.util.Checks;
+import org.toradocu.util.Profiler;
+import org.toradocu.util.Profiler.Stage;
 
 /**
- * The oracle generator. The method {@code createAspects} of this class creates the aspects for a
- * list of {@code DocumentedMethod}.
+ * The oracle generator. The method {@code generateAspects} of this class generates the aspects for
+ * a list of {@code DocumentedMethod}: one aspect per method, or (see {@code --aspect-granularity})
+ * dispatching aspects each checking many methods. The method {@code createAspects} writes them to
+ * the aspects output directory. The generation of each aspect is recorded as a {@code
+ * org.toradocu.AspectGeneration} event by the JDK Flight Recorder, if a recording is running.
  */
 public class OracleGenerator {
 
   /** {@code Logger} for this class. */
   private static final Logger log = LoggerFactory.getLogger(OracleGenerator.class);
+  /** Prefix of the names of the generated aspects, which are numbered from 1. */
+  static final String ASPECT_NAME_PREFIX = "Aspect_";
 
   /**
    * Creates one aspect for each method in the given {@code methods} list if the method has at least
-   * one comment translated by the condition translator.
+   * one comment translated by the condition translator. Depending on the configured aspect
+   * granularity, methods of the same class, or all the methods, are instead checked by the same
+   * dispatching aspect.
+   *
+   * <p>The aspects, and the file aop.xml that lists them, are written to the aspects output
+   * directory.
    *
    * @param methods the {@code List} of methods to create aspects for. Must not be null.
    */
   public static void createAspects(List<DocumentedMethod> methods) {
+    final Configuration configuration = Toradocu.getConfiguration();
     if (!configuration.isOracleGenerationEnabled()) {
       log.info("Oracle generator disabled: skipped aspect generation.");
       return;
     }
 
-    if (methods.isEmpty()) {
+    Map<String, String> files = generateAspects(methods);
+    if (files.isEmpty()) {
       return;
     }
-
     String aspectDir = configuration.getAspectsOutputDir();
     new File(aspectDir).mkdirs();
+    for (Map.Entry<String, String> file : files.entrySet()) {
+      try (FileOutputStream output =
+          new FileOutputStream(new File(aspectDir + File.separator + file.getKey()))) {
+        output.write(file.getValue().getBytes());
+      } catch (IOException e) {
+        log.error("Error while creating file " + file.getKey() + ".", e);
+      }
+    }
+  }
+
+  /**
+   * Generates the aspects for the given {@code methods}, as {@code createAspects} does, without
+   * writing them.
+   *
+   * @param methods the {@code List} of methods to generate aspects for. Must not be null.
+   * @return the source code of the aspects and the content of the file aop.xml, by file name (e.g.,
+   *     {@code Aspect_1.java}, {@code aop.xml}), or an empty map if no aspect is generated
+   */
+  public static Map<String, String> generateAspects(List<DocumentedMethod> methods) {
+    final Map<String, String> files = new LinkedHashMap<>();
+    if (methods.isEmpty()) {
+      return files;
+    }
 
+    final Configuration configuration = Toradocu.getConfiguration();
     final String junitAspect = configuration.getJUnitTestCaseAspect();
-    final String aspectPath = configuration.getAspectsOutputDir() + File.separator + junitAspect;
     try (InputStreamReader template =
-            new InputStreamReader(
-                Object.class.getResourceAsStream("/" + configuration.getJUnitTestCaseAspect()));
-        FileOutputStream output = new FileOutputStream(new File(aspectPath))) {
+        new InputStreamReader(Object.class.getResourceAsStream("/" + junitAspect))) {
       CompilationUnit cu = JavaParser.parse(template, true);
       new JUnitTestCaseAspectChangerVisitor().visit(cu, null);
-      output.write(cu.toString().getBytes());
+      files.put(junitAspect, cu.toString());
     } catch (IOException | ParseException e) {
-      log.error("Oracle generation stopped: Impossible to create file " + aspectPath);
-      return;
+      log.error("Oracle generation stopped: Impossible to create file " + junitAspect);
+      return new LinkedHashMap<>();
     }
 
-    final List<String> createdAspectNames = new ArrayList<>();
-    final String junitAspectName = junitAspect.substring(0, junitAspect.lastIndexOf("."));
-    createdAspectNames.add(junitAspectName);
-    int aspectNumber = 1;
+    // Aspect templates are parsed only once, and cloned for each aspect.
+    final AspectGranularity granularity = configuration.getAspectGranularity();
+    final CompilationUnit template = parseTemplate(configuration.getAspectTemplate());
+    final CompilationUnit dispatchingTemplate =
+        granularity == AspectGranularity.METHOD
+            ? null
+            : parseTemplate(configuration.getDispatchingAspectTemplate());
+    if (template == null
+        || (granularity != AspectGranularity.METHOD && dispatchingTemplate == null)) {
+      return new LinkedHashMap<>();
+    }
+
+    // Specified methods, grouped by aspect.
+    final Map<String, List<DocumentedMethod>> groups = new LinkedHashMap<>();
     for (DocumentedMethod method : methods) {
       List<Tag> tags = new ArrayList<>(method.paramTags());
       tags.addAll(method.throwsTags());
@@ -76,64 +128,188 @@ public class OracleGenerator {
       }
       boolean match = tags.stream().anyMatch(tag -> !tag.getCondition().orElse("").isEmpty());
       if (match) {
-        String aspectName = "Aspect_" + aspectNumber;
-        createAspect(method, aspectName);
-        createdAspectNames.add(aspectName);
-        aspectNumber++;
+        final String group;
+        switch (granularity) {
+          case CLASS:
+            group = method.getContainingClass().getQualifiedName();
+            break;
+          case SINGLE:
+            group = "";
+            break;
+          default:
+            group = String.valueOf(groups.size());
+        }
+        groups.computeIfAbsent(group, g -> new ArrayList<>()).add(method);
       }
     }
-    createAopXml(aspectDir, createdAspectNames);
+
+    final List<String> createdAspectNames = new ArrayList<>();
+    createdAspectNames.add(junitTestCaseAspectName(configuration));
+    final Map<String, List<DocumentedMethod>> aspects = new LinkedHashMap<>();
+    int aspectNumber = 1;
+    for (List<DocumentedMethod> group : groups.values()) {
+      String aspectName = ASPECT_NAME_PREFIX + aspectNumber;
+      aspects.put(aspectName, group);
+      createdAspectNames.add(aspectName);
+      aspectNumber++;
+    }
+
+    // Aspects are independent of each other: they are created in parallel, sharing the conditions
+    // already parsed. Worker threads take part in the session of the calling thread.
+    final ToradocuSession session = ToradocuSession.current();
+    final Map<String, Node> parsedCode = new ConcurrentHashMap<>();
+    final List<String> sources =
+        aspects
+            .entrySet()
+            .parallelStream()
+            .map(
+                aspect -> {
+                  Supplier<String> creation =
+                      () -> {
+                        AspectGenerationEvent event = new AspectGenerationEvent();
+                        event.begin();
+                        String source =
+                            granularity == AspectGranularity.METHOD
+                                ? createAspect(
+                                    template, aspect.getValue().get(0), aspect.getKey(), parsedCode)
+                                : createDispatchingAspect(
+                                    dispatchingTemplate,
+                                    template,
+                                    aspect.getValue(),
+                                    aspect.getKey(),
+                                    parsedCode);
+                        if (event.shouldCommit()) {
+                          event.aspect = aspect.getKey();
+                          event.granularity = granularity.name();
+                          event.methods = aspect.getValue().size();
+                          event.sourceLength = source.length();
+                          event.commit();
+                        }
+                        return source;
+                      };
+                  Supplier<String> measuredCreation =
+                      () -> Profiler.measure(Stage.ORACLE_GENERATION, creation::get);
+                  return session == null ? creation.get() : session.call(measuredCreation);
+                })
+            .collect(Collectors.toList());
+    int index = 0;
+    for (String aspectName : aspects.keySet()) {
+      files.put(aspectName + ".java", sources.get(index++));
+    }
+    final List<DocumentedMethod> specifiedMethods = new ArrayList<>();
+    groups.values().forEach(specifiedMethods::addAll);
+    files.put("aop.xml", createAopXml(createdAspectNames, specifiedMethods));
+    return files;
+  }
+
+  /**
+   * Returns the name of the aspect used to instrument JUnit test cases, i.e., the name of the file
+   * {@code Configuration#getJUnitTestCaseAspect()} without extension.
+   *
+   * @param configuration the configuration of Toradocu
+   * @return the name of the aspect used to instrument JUnit test cases
+   */
+  static String junitTestCaseAspectName(Configuration configuration) {
+    final String junitAspect = configuration.getJUnitTestCaseAspect();
+    return junitAspect.substring(0, junitAspect.lastIndexOf("."));
+  }
+
+  /**
+   * Parses the aspect template with the given name.
+   *
+   * @param templateName the name of the aspect template, as a resource on the classpath
+   * @return the parsed aspect template, or null if the template cannot be parsed
+   */
+  private static CompilationUnit parseTemplate(String templateName) {
+    try (InputStreamReader reader =
+        new InputStreamReader(Object.class.getResourceAsStream("/" + templateName))) {
+      return JavaParser.parse(reader, true);
+    } catch (IOException | ParseException e) {
+      log.error("Oracle generation stopped: Impossible to parse the aspect template.", e);
+      return null;
+    }
   }
 
   /**
    * Creates a new aspect for the given {@code method}.
    *
+   * @param template the parsed aspect template, which is not modified
    * @param method method for which an aspect will be created
-   * @param aspectName name of the file where the newly created aspect is saved
+   * @param aspectName name of the newly created aspect
+   * @param parsedCode expressions and blocks already parsed, shared among aspects
+   * @return the source code of the aspect
    * @throws NullPointerException if {@code method} or {@code aspectName} is null
    */
-  private static void createAspect(DocumentedMethod method, String aspectName) {
+  private static String createAspect(
+      CompilationUnit template,
+      DocumentedMethod method,
+      String aspectName,
+      Map<String, Node> parsedCode) {
     Checks.nonNullParameter(method, "method");
     Checks.nonNullParameter(aspectName, "aspectName");
 
-    String aspectPath = configuration.getAspectsOutputDir() + File.separator + aspectName;
+    CompilationUnit cu = (CompilationUnit) template.clone();
+    new MethodChangerVisitor(parsedCode).visit(cu, method);
+    new ClassChangerVisitor().visit(cu, aspectName);
+    if (Toradocu.getConfiguration().isOracleSamplingEnabled()) {
+      new SamplingChangerVisitor().visit(cu, null);
+    }
+    return cu.toString();
+  }
 
-    try (InputStreamReader template =
-            new InputStreamReader(
-                Object.class.getResourceAsStream("/" + configuration.getAspectTemplate()));
-        FileOutputStream output = new FileOutputStream(new File(aspectPath + ".java"))) {
-      CompilationUnit cu = JavaParser.parse(template, true);
+  /**
+   * Creates a new aspect for the given {@code methods}, that dispatches each join point to the
+   * checks of the corresponding method.
+   *
+   * @param dispatchingTemplate the parsed dispatching aspect template, which is not modified
+   * @param template the parsed aspect template, which is not modified
+   * @param methods methods for which an aspect will be created
+   * @param aspectName name of the newly created aspect
+   * @param parsedCode expressions and blocks already parsed, shared among aspects
+   * @return the source code of the aspect
+   * @throws NullPointerException if {@code methods} or {@code aspectName} is null
+   */
+  private static String createDispatchingAspect(
+      CompilationUnit dispatchingTemplate,
+      CompilationUnit template,
+      List<DocumentedMethod> methods,
+      String aspectName,
+      Map<String, Node> parsedCode) {
+    Checks.nonNullParameter(methods, "methods");
+    Checks.nonNullParameter(aspectName, "aspectName");
 
-      new MethodChangerVisitor().visit(cu, method);
-      new ClassChangerVisitor().visit(cu, aspectName);
-      output.write(cu.toString().getBytes());
-    } catch (IOException | ParseException e) {
-      log.error("Error during aspect creation.", e);
+    CompilationUnit cu = (CompilationUnit) dispatchingTemplate.clone();
+    new DispatcherChangerVisitor(template, parsedCode).visit(cu, methods);
+    new ClassChangerVisitor().visit(cu, aspectName);
+    if (Toradocu.getConfiguration().isOracleSamplingEnabled()) {
+      new SamplingChangerVisitor().visit(cu, null);
     }
+    return cu.toString();
   }
 
   /**
-   * Creates the file aop.xml needed by AspectJ compiler for the instrumentation. The file aop.xml
-   * lists all the aspects that must be woven into a target source code.
+   * Creates the content of the file aop.xml needed by AspectJ compiler for the instrumentation. The
+   * file aop.xml lists all the aspects that must be woven into a target source code, and the types
+   * they are woven into (see {@code WeavingScope}).
    *
-   * @param folder where the file aop.xml is created
    * @param createdAspects list of the aspects to be mentioned in the aop.xml file
+   * @param methods the methods checked by the aspects
+   * @return the content of the file aop.xml
    */
-  private static void createAopXml(String folder, List<String> createdAspects) {
-    final String HEADER =
-        "<aspectj>\n\t<weaver options=\"-verbose -showWeaveInfo\"/>\n\t<aspects>\n";
+  private static String createAopXml(List<String> createdAspects, List<DocumentedMethod> methods) {
+    final String WEAVER_OPTIONS =
+        Toradocu.getConfiguration().isWeaverVerbose() ? " options=\"-verbose -showWeaveInfo\"" : "";
+    final String HEADER = "<aspectj>\n\t<weaver" + WEAVER_OPTIONS + ">\n";
     final String FOOTER = "\t</aspects>\n</aspectj>";
     StringBuilder content = new StringBuilder(HEADER);
+    for (String element : WeavingScope.weaverScope(methods)) {
+      content.append("\t\t").append(element).append("\n");
+    }
+    content.append("\t</weaver>\n\t<aspects>\n");
     for (String aspect : createdAspects) {
       content.append("\t\t<aspect name=\"").append(aspect).append("\"/>\n");
     }
     content.append(FOOTER);
-    try (FileOutputStream output =
-        new FileOutputStream(new File(folder + File.separator + "aop.xml"))) {
-      output.write(content.toString().getBytes());
-    } catch (IOException e) {
-      log.error("Error while creating aop.xml file.", e);
-      System.exit(1);
-    }
+    return content.toString();
   }
 }
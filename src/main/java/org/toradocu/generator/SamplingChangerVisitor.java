@@ -0,0 +1,83 @@
+package org.toradocu.generator;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseException;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.ModifierSet;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.visitor.ModifierVisitorAdapter;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.toradocu.util.Checks;
+
+/**
+ * Visitor that modifies a generated aspect (see method {@code visit}) to check only a sample of the
+ * calls it advises. Sampling is configured at run time by the system properties read by {@code
+ * TestCaseAspect.Sampling}, which also counts the checked, skipped, and failed calls.
+ */
+public class SamplingChangerVisitor extends ModifierVisitorAdapter<Void> {
+
+  /** {@code Logger} for this class. */
+  private static final Logger log = LoggerFactory.getLogger(SamplingChangerVisitor.class);
+  /** Name of the method that checks an advised call, i.e., the advice of the original aspect. */
+  private static final String CHECK_ADVICE = "checkAdvice";
+  /** Advice deciding whether to check an advised call. */
+  private static final String SAMPLING_ADVICE =
+      "public Object advice(ProceedingJoinPoint jp) throws Throwable {"
+          + "  if (!TestCaseAspect.Sampling.isChecked(jp.getStaticPart())) {"
+          + "    return jp.proceed();"
+          + "  }"
+          + "  long start = TestCaseAspect.Sampling.start();"
+          + "  try {"
+          + "    return "
+          + CHECK_ADVICE
+          + "(jp);"
+          + "  } catch (AssertionError e) {"
+          + "    TestCaseAspect.Sampling.failed();"
+          + "    throw e;"
+          + "  } finally {"
+          + "    TestCaseAspect.Sampling.checked(start);"
+          + "  }"
+          + "}";
+
+  /**
+   * Renames the advice of the aspect to {@code checkAdvice}, and adds a new advice, with the same
+   * pointcut, that invokes {@code checkAdvice} only for the sampled calls.
+   *
+   * @param declaration the class declaration of a generated aspect
+   * @param arg unused
+   * @return the {@code declaration} modified as and when needed
+   * @throws NullPointerException if {@code declaration} is null
+   */
+  @Override
+  public Node visit(ClassOrInterfaceDeclaration declaration, Void arg) {
+    Checks.nonNullParameter(declaration, "declaration");
+
+    final List<BodyDeclaration> members = declaration.getMembers();
+    for (int i = 0; i < members.size(); i++) {
+      if (members.get(i) instanceof MethodDeclaration
+          && ((MethodDeclaration) members.get(i)).getName().equals("advice")) {
+        MethodDeclaration checkAdvice = (MethodDeclaration) members.get(i);
+        try {
+          MethodDeclaration advice =
+              (MethodDeclaration) JavaParser.parseClassBodyDeclaration(SAMPLING_ADVICE);
+          advice.setAnnotations(checkAdvice.getAnnotations());
+          checkAdvice.setAnnotations(new ArrayList<AnnotationExpr>());
+          checkAdvice.setName(CHECK_ADVICE);
+          checkAdvice.setModifiers(ModifierSet.PRIVATE);
+          members.add(i, advice);
+        } catch (ParseException e) {
+          log.error("Parsing error during the aspect creation.", e);
+        }
+        break;
+      }
+    }
+    declaration.setMembers(members);
+    return declaration;
+  }
+}
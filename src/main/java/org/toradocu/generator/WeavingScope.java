@@ -0,0 +1,124 @@
+package org.toradocu.generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.toradocu.Toradocu;
+import org.toradocu.conf.Configuration;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.Type;
+
+/**
+ * Restricts the code the generated aspects are woven into. AspectJ can reject a type without
+ * looking at its join points only if the pointcut has a scoping designator ({@code within}), and
+ * can skip a type altogether only if {@code aop.xml} excludes it. This class builds both from the
+ * configured test class (or test packages) and from the classes of the specified methods.
+ */
+final class WeavingScope {
+
+  /** Packages of libraries that never contain calls to be checked. */
+  private static final List<String> LIBRARY_PACKAGES =
+      Arrays.asList("org.aspectj", "org.junit", "junit", "org.hamcrest");
+
+  /** Disables construction of this class. */
+  private WeavingScope() {}
+
+  /**
+   * Returns the pointcut matching the code of the tests, i.e., {@code within(TestClass)}, or {@code
+   * within(tests..*)} for each test package. Returns null if neither a test class nor test packages
+   * are configured.
+   *
+   * @return the pointcut matching the code of the tests, or null if it is not configured
+   */
+  static String testsPointcut() {
+    Configuration configuration = Toradocu.getConfiguration();
+    String testClass = configuration.getTestClass();
+    if (testClass != null) {
+      return "within(" + testClass + ")";
+    }
+    List<String> testPackages = configuration.getTestPackages();
+    if (testPackages.isEmpty()) {
+      return null;
+    }
+    String pointcut =
+        testPackages.stream().map(p -> "within(" + p + "..*)").collect(Collectors.joining(" || "));
+    return testPackages.size() == 1 ? pointcut : "(" + pointcut + ")";
+  }
+
+  /**
+   * Restricts the given call pointcut to the code of the tests, if configured.
+   *
+   * @param call a {@code call} pointcut
+   * @return {@code call}, restricted to the code of the tests
+   */
+  static String scopeCall(String call) {
+    String tests = testsPointcut();
+    return tests == null ? call : call + " && " + tests;
+  }
+
+  /**
+   * Restricts the given pointcut, matching the execution of a constructor of the given class, to
+   * the code of that class.
+   *
+   * @param execution an {@code execution} pointcut
+   * @param containingClass the class whose constructors {@code execution} matches
+   * @return {@code execution}, restricted to the code of {@code containingClass}
+   */
+  static String scopeExecution(String execution, Type containingClass) {
+    return execution + " && within(" + containingClass.getQualifiedName() + ")";
+  }
+
+  /**
+   * Returns the {@code include} and {@code exclude} elements of the {@code weaver} element of
+   * {@code aop.xml}. The woven types are the tests and, if constructors are specified, the packages
+   * of their classes. If the tests are not configured, calls may come from anywhere: all types but
+   * the libraries Toradocu relies on are woven. The generated aspects are always woven: aspects
+   * compiled by javac get their {@code aspectOf} method from the weaver.
+   *
+   * @param methods the methods checked by the generated aspects
+   * @return the elements restricting the woven types, one per line
+   */
+  static List<String> weaverScope(List<DocumentedMethod> methods) {
+    Set<String> targetPackages = new LinkedHashSet<>();
+    Set<String> constructorTypes = new LinkedHashSet<>();
+    for (DocumentedMethod method : methods) {
+      String containingClass = method.getContainingClass().getQualifiedName();
+      String targetPackage = Type.getPackage(containingClass);
+      if (targetPackage != null) {
+        targetPackages.add(targetPackage);
+      }
+      if (method.isConstructor()) {
+        constructorTypes.add(targetPackage == null ? containingClass : targetPackage + "..*");
+      }
+    }
+
+    List<String> elements = new ArrayList<>();
+    Configuration configuration = Toradocu.getConfiguration();
+    String testClass = configuration.getTestClass();
+    List<String> testPackages = configuration.getTestPackages();
+    if (testClass != null || !testPackages.isEmpty()) {
+      Set<String> included = new LinkedHashSet<>();
+      if (testClass != null) {
+        included.add(testClass);
+      } else {
+        testPackages.forEach(p -> included.add(p + "..*"));
+      }
+      included.addAll(constructorTypes);
+      included.add(OracleGenerator.junitTestCaseAspectName(configuration));
+      included.add(OracleGenerator.ASPECT_NAME_PREFIX + "*");
+      included.forEach(type -> elements.add("<include within=\"" + type + "\"/>"));
+    } else {
+      for (String library : LIBRARY_PACKAGES) {
+        boolean target =
+            targetPackages.stream().anyMatch(p -> p.equals(library) || p.startsWith(library + "."));
+        if (!target) {
+          elements.add("<exclude within=\"" + library + "..*\"/>");
+        }
+      }
+    }
+    return elements;
+  }
+}
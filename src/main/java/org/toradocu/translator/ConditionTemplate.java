@@ -0,0 +1,324 @@
+package org.toradocu.translator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.ParamTag;
+import org.toradocu.extractor.Parameter;
+import org.toradocu.extractor.Tag;
+import org.toradocu.extractor.Type;
+
+/**
+ * A {@code ConditionTemplate} is a comment-to-condition pair generalized over the parameters of the
+ * documented method. For example, the comment "if values is null" of a method whose first parameter
+ * is {@code values}, translated as {@code args[0]==null}, is generalized into the template "if {0}
+ * is null" with condition {@code {0}==null}. Slots are numbered in the order the parameters appear
+ * in the comment; the slot {@code {param}} always denotes the parameter documented by an {@code
+ * @param} tag, whether or not the comment names it.
+ *
+ * <p>Templates are mined from goal files by {@code org.toradocu.util.TemplateMiner} and consulted
+ * (through {@code ConditionTemplates}) before the comment is parsed.
+ */
+public final class ConditionTemplate {
+
+  /** Slot denoting the parameter documented by an {@code @param} tag. */
+  static final String PARAM_SLOT = "{param}";
+
+  /** Conditions that can be safely instantiated for any method: no calls, receiver or result. */
+  private static final Pattern SAFE_CONDITION =
+      Pattern.compile("([\\s()<>=!|&\\-0-9.]|\\{\\w+\\}|\\.length|null|true|false)*");
+
+  /** Reference to an argument in a condition (e.g., args[2]). */
+  private static final Pattern ARGUMENT = Pattern.compile("args\\[([0-9]+)\\]");
+
+  /** Categories of parameter types a slot can be bound to. */
+  public enum SlotType {
+    ARRAY,
+    BOOLEAN,
+    NUMERIC,
+    REFERENCE;
+
+    /**
+     * Returns the category of the given type.
+     *
+     * @param type a parameter type
+     * @return the category of the given type
+     */
+    static SlotType of(Type type) {
+      if (type.isArray()) {
+        return ARRAY;
+      }
+      switch (type.getQualifiedName()) {
+        case "boolean":
+          return BOOLEAN;
+        case "byte":
+        case "short":
+        case "int":
+        case "long":
+        case "float":
+        case "double":
+        case "char":
+          return NUMERIC;
+        default:
+          return REFERENCE;
+      }
+    }
+  }
+
+  /** The kind of tag this template applies to. */
+  private final Tag.Kind kind;
+  /** Comment tokens: lowercase words, punctuation, and slots. */
+  private final List<String> tokens;
+  /** Categories of the slots, in slot order. For @param tags, the last is the {param} slot. */
+  private final List<SlotType> slotTypes;
+  /** The condition, where slots stand for the corresponding {@code args[i]}. */
+  private final String condition;
+  /** Number of distinct comment/condition pairs this template generalizes. */
+  private int support;
+
+  /**
+   * Creates a new template.
+   *
+   * @param kind the kind of tag this template applies to
+   * @param tokens the comment tokens, including slots
+   * @param slotTypes the categories of the slots
+   * @param condition the condition over the slots
+   */
+  ConditionTemplate(
+      Tag.Kind kind, List<String> tokens, List<SlotType> slotTypes, String condition) {
+    this.kind = kind;
+    this.tokens = Collections.unmodifiableList(new ArrayList<>(tokens));
+    this.slotTypes = Collections.unmodifiableList(new ArrayList<>(slotTypes));
+    this.condition = condition;
+    this.support = 1;
+  }
+
+  /**
+   * Generalizes the comment and condition of the given tag into a template. Returns null if the tag
+   * has no condition or if the condition cannot be generalized safely (e.g., it refers to
+   * parameters not named in the comment, or invokes methods).
+   *
+   * @param tag a tag with a (manually checked) condition
+   * @param method the method the tag belongs to
+   * @return the template generalizing the given tag, or null
+   */
+  public static ConditionTemplate generalize(Tag tag, DocumentedMethod method) {
+    if (tag.getKind() == Tag.Kind.RETURN) {
+      return null;
+    }
+    String condition = tag.getCondition().orElse("").trim();
+    if (condition.isEmpty()) {
+      return null;
+    }
+
+    final List<Parameter> parameters = method.getParameters();
+    int documented = -1;
+    if (tag.getKind() == Tag.Kind.PARAM) {
+      documented = indexOf(((ParamTag) tag).parameter().getName(), parameters);
+      if (documented == -1) {
+        return null;
+      }
+    }
+
+    // Parameters referred to by the condition. Other parameter names in the comment (e.g., a
+    // parameter named "to") are treated as plain words.
+    final List<Integer> referenced = new ArrayList<>();
+    java.util.regex.Matcher reference = ARGUMENT.matcher(condition);
+    while (reference.find()) {
+      referenced.add(Integer.parseInt(reference.group(1)));
+    }
+
+    final List<Integer> slotParameters = new ArrayList<>();
+    final List<String> tokens = new ArrayList<>();
+    for (String token : tokenize(tag.getComment())) {
+      final int index = indexOf(token, parameters);
+      if (index == -1 || (index != documented && !referenced.contains(index))) {
+        tokens.add(token.toLowerCase());
+      } else if (index == documented) {
+        tokens.add(PARAM_SLOT);
+      } else {
+        if (!slotParameters.contains(index)) {
+          slotParameters.add(index);
+        }
+        tokens.add("{" + slotParameters.indexOf(index) + "}");
+      }
+    }
+    if (tokens.isEmpty()) {
+      return null;
+    }
+
+    final List<SlotType> slotTypes = new ArrayList<>();
+    for (int index : slotParameters) {
+      slotTypes.add(SlotType.of(parameters.get(index).getType()));
+    }
+    if (documented != -1) {
+      slotTypes.add(SlotType.of(parameters.get(documented).getType()));
+    }
+
+    // Replace argument references with slots.
+    java.util.regex.Matcher argument = ARGUMENT.matcher(condition);
+    StringBuffer generalized = new StringBuffer();
+    while (argument.find()) {
+      final int index = Integer.parseInt(argument.group(1));
+      String slot;
+      if (index == documented) {
+        slot = PARAM_SLOT;
+      } else if (slotParameters.contains(index)) {
+        slot = "{" + slotParameters.indexOf(index) + "}";
+      } else {
+        return null;
+      }
+      argument.appendReplacement(generalized, java.util.regex.Matcher.quoteReplacement(slot));
+    }
+    argument.appendTail(generalized);
+    condition = generalized.toString();
+
+    if (!SAFE_CONDITION.matcher(condition).matches()) {
+      return null;
+    }
+    return new ConditionTemplate(tag.getKind(), tokens, slotTypes, condition);
+  }
+
+  /**
+   * Splits a comment into tokens: words and punctuation marks. Final periods are dropped.
+   *
+   * @param comment the comment to split
+   * @return the tokens of the comment
+   */
+  static List<String> tokenize(String comment) {
+    List<String> tokens = new ArrayList<>();
+    for (String token : comment.trim().replaceAll("([,;()])", " $1 ").split("\\s+")) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    while (!tokens.isEmpty()) {
+      final int last = tokens.size() - 1;
+      final String lastToken = tokens.get(last);
+      if (lastToken.endsWith(".")) {
+        final String stripped = lastToken.replaceAll("\\.+$", "");
+        if (stripped.isEmpty()) {
+          tokens.remove(last);
+          continue;
+        }
+        tokens.set(last, stripped);
+      }
+      break;
+    }
+    return tokens;
+  }
+
+  /**
+   * Returns the index of the parameter with the given name, or -1 if there is no such parameter.
+   *
+   * @param name a name
+   * @param parameters the parameters of a method
+   * @return the index of the parameter with the given name, or -1 if there is no such parameter
+   */
+  static int indexOf(String name, List<Parameter> parameters) {
+    for (int i = 0; i < parameters.size(); i++) {
+      if (parameters.get(i).getName().equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns true if this template and {@code other} generalize the same comments, i.e., they have
+   * the same kind, tokens, and slot types (their conditions may differ).
+   *
+   * @param other another template
+   * @return true if this template and {@code other} generalize the same comments
+   */
+  public boolean hasSameShape(ConditionTemplate other) {
+    return kind == other.kind && tokens.equals(other.tokens) && slotTypes.equals(other.slotTypes);
+  }
+
+  /**
+   * Returns the kind of tag this template applies to.
+   *
+   * @return the kind of tag this template applies to
+   */
+  public Tag.Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Returns the comment tokens of this template, including slots.
+   *
+   * @return the comment tokens of this template
+   */
+  public List<String> getTokens() {
+    return tokens;
+  }
+
+  /**
+   * Returns the categories of the slots of this template, in slot order.
+   *
+   * @return the categories of the slots of this template
+   */
+  public List<SlotType> getSlotTypes() {
+    return slotTypes;
+  }
+
+  /**
+   * Returns the condition of this template, expressed over the slots.
+   *
+   * @return the condition of this template
+   */
+  public String getCondition() {
+    return condition;
+  }
+
+  /**
+   * Returns the number of distinct comment/condition pairs this template generalizes.
+   *
+   * @return the number of distinct comment/condition pairs this template generalizes
+   */
+  public int getSupport() {
+    return support;
+  }
+
+  /** Increments by one the number of comment/condition pairs this template generalizes. */
+  public void incrementSupport() {
+    support++;
+  }
+
+  /**
+   * Returns true if this template and the specified object are equal. Support is not considered.
+   *
+   * @param obj the object to test for equality
+   * @return true if this object and {@code obj} are equal
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof ConditionTemplate)) return false;
+
+    ConditionTemplate that = (ConditionTemplate) obj;
+    return hasSameShape(that) && condition.equals(that.condition);
+  }
+
+  /**
+   * Returns the hash code of this object.
+   *
+   * @return the hash code of this object
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(kind, tokens, slotTypes, condition);
+  }
+
+  /**
+   * Returns a string representation of this template in the format "KIND TOKENS ==&gt; CONDITION".
+   *
+   * @return a string representation of this template
+   */
+  @Override
+  public String toString() {
+    return kind + " " + String.join(" ", tokens) + " ==> " + condition;
+  }
+}
@@ -0,0 +1,208 @@
+package org.toradocu.translator;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.ParamTag;
+import org.toradocu.extractor.Parameter;
+import org.toradocu.extractor.Tag;
+import org.toradocu.translator.ConditionTemplate.SlotType;
+import org.toradocu.util.GsonInstance;
+
+/**
+ * {@code ConditionTemplates} compiles a set of {@code ConditionTemplate}s into a trie over comment
+ * tokens, one for each kind of tag. Looking up a comment costs a walk of the trie proportional to
+ * the number of tokens in the comment: a token equal to the name of a parameter can follow either a
+ * literal edge or a slot edge.
+ */
+final class ConditionTemplates {
+
+  /** A set of templates that matches no comment. */
+  static final ConditionTemplates EMPTY = new ConditionTemplates(Collections.emptyList());
+
+  private static final Logger log = LoggerFactory.getLogger(ConditionTemplates.class);
+
+  /** A node of the trie. */
+  private static final class Node {
+    /** Children of this node, keyed by token (a lowercase word, a punctuation mark or a slot). */
+    private final Map<String, Node> children = new HashMap<>();
+    /** Templates whose tokens end at this node. */
+    private final List<ConditionTemplate> templates = new ArrayList<>();
+  }
+
+  /** Roots of the tries, one for each kind of tag. */
+  private final Map<Tag.Kind, Node> roots = new EnumMap<>(Tag.Kind.class);
+
+  /**
+   * Compiles the given templates.
+   *
+   * @param templates the templates to compile
+   */
+  ConditionTemplates(List<ConditionTemplate> templates) {
+    for (ConditionTemplate template : templates) {
+      Node node = roots.computeIfAbsent(template.getKind(), k -> new Node());
+      for (String token : template.getTokens()) {
+        node = node.children.computeIfAbsent(token, t -> new Node());
+      }
+      node.templates.add(template);
+    }
+  }
+
+  /**
+   * Loads and compiles the templates stored in the given JSON file. If the file cannot be read, the
+   * returned set is empty.
+   *
+   * @param file the JSON file containing the templates, as produced by {@code
+   *     org.toradocu.util.TemplateMiner}
+   * @return the compiled templates stored in the given file
+   */
+  static ConditionTemplates load(File file) {
+    List<ConditionTemplate> templates = new ArrayList<>();
+    try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      List<ConditionTemplate> loaded =
+          GsonInstance.gson()
+              .fromJson(reader, new TypeToken<List<ConditionTemplate>>() {}.getType());
+      if (loaded != null) {
+        templates.addAll(loaded);
+      }
+    } catch (IOException e) {
+      log.error("Unable to read condition templates from " + file, e);
+    }
+    log.debug("Loaded " + templates.size() + " condition templates from " + file);
+    return new ConditionTemplates(templates);
+  }
+
+  /**
+   * Translates the comment of the given tag with the first template matching it, if any.
+   *
+   * @param tag the tag whose comment has to be translated
+   * @param method the method the tag belongs to
+   * @return the translation of the comment, or null if no template matches the comment
+   */
+  String translate(Tag tag, DocumentedMethod method) {
+    final Node root = roots.get(tag.getKind());
+    if (root == null) {
+      return null;
+    }
+    final List<String> tokens = ConditionTemplate.tokenize(tag.getComment());
+    final List<Parameter> parameters = method.getParameters();
+    int documented = -1;
+    if (tag.getKind() == Tag.Kind.PARAM) {
+      documented = ConditionTemplate.indexOf(((ParamTag) tag).parameter().getName(), parameters);
+      if (documented == -1) {
+        return null;
+      }
+    }
+    return lookup(root, tokens, 0, new ArrayList<>(), parameters, documented);
+  }
+
+  /**
+   * Walks the trie from {@code node} matching {@code tokens} starting at {@code position}.
+   *
+   * @param node the current node
+   * @param tokens the tokens of the comment
+   * @param position index of the next token to match
+   * @param bindings indexes of the parameters bound to the slots, in slot order
+   * @param parameters the parameters of the documented method
+   * @param documented index of the parameter documented by a @param tag, or -1
+   * @return the instantiated condition of the first matching template, or null
+   */
+  private String lookup(
+      Node node,
+      List<String> tokens,
+      int position,
+      List<Integer> bindings,
+      List<Parameter> parameters,
+      int documented) {
+    if (position == tokens.size()) {
+      for (ConditionTemplate template : node.templates) {
+        String condition = instantiate(template, bindings, parameters, documented);
+        if (condition != null) {
+          return condition;
+        }
+      }
+      return null;
+    }
+
+    final String token = tokens.get(position);
+    final int parameter = ConditionTemplate.indexOf(token, parameters);
+    if (parameter != -1 && parameter == documented) {
+      final Node child = node.children.get(ConditionTemplate.PARAM_SLOT);
+      if (child != null) {
+        String result = lookup(child, tokens, position + 1, bindings, parameters, documented);
+        if (result != null) {
+          return result;
+        }
+      }
+    } else if (parameter != -1) {
+      final boolean bound = bindings.contains(parameter);
+      final String slot = "{" + (bound ? bindings.indexOf(parameter) : bindings.size()) + "}";
+      final Node child = node.children.get(slot);
+      if (child != null) {
+        if (!bound) {
+          bindings.add(parameter);
+        }
+        String result = lookup(child, tokens, position + 1, bindings, parameters, documented);
+        if (!bound) {
+          bindings.remove(bindings.size() - 1);
+        }
+        if (result != null) {
+          return result;
+        }
+      }
+    }
+    final Node child = node.children.get(token.toLowerCase());
+    return child == null
+        ? null
+        : lookup(child, tokens, position + 1, bindings, parameters, documented);
+  }
+
+  /**
+   * Instantiates the condition of {@code template} with the given slot bindings. Returns null if
+   * the types of the bound parameters are not those expected by the template.
+   *
+   * @param template the template to instantiate
+   * @param bindings indexes of the parameters bound to the slots, in slot order
+   * @param parameters the parameters of the documented method
+   * @param documented index of the parameter documented by a @param tag, or -1 for other tags
+   * @return the instantiated condition, or null
+   */
+  private String instantiate(
+      ConditionTemplate template,
+      List<Integer> bindings,
+      List<Parameter> parameters,
+      int documented) {
+    final List<SlotType> slotTypes = template.getSlotTypes();
+    final int paramSlots = documented == -1 ? 0 : 1;
+    if (slotTypes.size() != bindings.size() + paramSlots) {
+      return null;
+    }
+    String condition = template.getCondition();
+    for (int slot = 0; slot < bindings.size(); slot++) {
+      final int index = bindings.get(slot);
+      if (SlotType.of(parameters.get(index).getType()) != slotTypes.get(slot)) {
+        return null;
+      }
+      condition = condition.replace("{" + slot + "}", "args[" + index + "]");
+    }
+    if (documented != -1) {
+      if (SlotType.of(parameters.get(documented).getType()) != slotTypes.get(bindings.size())) {
+        return null;
+      }
+      condition = condition.replace(ConditionTemplate.PARAM_SLOT, "args[" + documented + "]");
+    }
+    return condition;
+  }
+}
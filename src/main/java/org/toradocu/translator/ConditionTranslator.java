@@ -18,11 +18,14 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.toradocu.Toradocu;
+import org.toradocu.conf.Configuration;
 import org.toradocu.extractor.DocumentedMethod;
 import org.toradocu.extractor.ParamTag;
 import org.toradocu.extractor.Parameter;
 import org.toradocu.extractor.Tag;
 import org.toradocu.extractor.ThrowsTag;
+import org.toradocu.util.Profiler;
+import org.toradocu.util.Profiler.Stage;
 
 /**
  * ConditionTranslator translates exception comments in method documentation to Java expressions.
@@ -44,6 +47,27 @@ public class ConditionTranslator {
       for (ParamTag tag : method.paramTags()) processTag(tag, method);
       if (method.returnTag() != null) processTag(method.returnTag(), method);
     }
+    logStatistics();
+  }
+
+  /**
+   * Logs statistics about the fast-path translation and the parsing of comments in the session
+   * running on the current thread.
+   */
+  static void logStatistics() {
+    log.debug(
+        "Fast-path rule hits: "
+            + FastPathTranslator.getHitCounts()
+            + ", misses: "
+            + FastPathTranslator.getMisses());
+    log.debug(
+        "Sentences exceeding parser limits: "
+            + StanfordParser.getTooLongCount()
+            + " too long, "
+            + StanfordParser.getTimedOutCount()
+            + " timed out, "
+            + StanfordParser.getSkippedCount()
+            + " skipped");
   }
 
   /**
@@ -56,13 +80,17 @@ public class ConditionTranslator {
    */
   private static List<PropositionSeries> getPropositionSeries(
       String comment, DocumentedMethod method) {
-    comment = addPlaceholders(comment);
+    List<String> inequalities = new ArrayList<>();
+    comment = addPlaceholders(comment, inequalities);
     List<PropositionSeries> result = new ArrayList<>();
 
     for (SemanticGraph semanticGraph : StanfordParser.getSemanticGraphs(comment, method))
-      result.add(new SentenceParser(semanticGraph).getPropositionSeries());
+      result.add(
+          Profiler.measure(
+              Stage.SENTENCE_PARSING,
+              () -> new SentenceParser(semanticGraph).getPropositionSeries()));
 
-    return removePlaceholders(result);
+    return removePlaceholders(result, inequalities);
   }
 
   /**
@@ -70,9 +98,10 @@ public class ConditionTranslator {
    * parsed.
    *
    * @param text the text containing inequalities
+   * @param inequalities the list to which the replaced inequalities are added, in placeholder order
    * @return text with inequalities replaced by placeholders
    */
-  private static String addPlaceholders(String text) {
+  private static String addPlaceholders(String text, List<String> inequalities) {
     // Replace written out inequalities with symbols.
     text =
         text.replace("greater than or equal to", ">=")
@@ -149,7 +178,7 @@ public class ConditionTranslator {
    */
   private static String findVerb(String placeholderText, int i) {
     // Verbs that could appear before (the inequality, or the keyword this, etc.).
-    //One of these most be present and will be added otherwise.
+    // One of these most be present and will be added otherwise.
     String[] possibleVerbs = {"is", "is not", "isn't", "are", "are not", "aren't"};
     boolean containsVerb = false;
     for (String possibleVerb : possibleVerbs) {
@@ -178,18 +207,17 @@ public class ConditionTranslator {
       " instanceof +[^ \\.]*"; // e.g. "instanceof BinaryMutation"
   private static final String INEQ_THIS = " this\\."; // e.g "<object> is this."
 
-  /** Stores the inequalities that are replaced by placeholders when addPlaceholders is called. */
-  private static List<String> inequalities = new ArrayList<>();
-
   /**
    * Returns a new list of {@code PropositionSeries} in which any placeholder text has been replaced
    * by the original inequalities. Original inequalities that were written out (e.g. "less than")
    * are replaced by their symbolic equivalent (e.g. "<").
    *
    * @param seriesList the list of {@code PropositionSeries} containing placeholder text
+   * @param inequalities the inequalities replaced by placeholders in {@code addPlaceholders}
    * @return a new list of {@code PropositionSeries} with placeholders replaced by inequalities
    */
-  private static List<PropositionSeries> removePlaceholders(List<PropositionSeries> seriesList) {
+  private static List<PropositionSeries> removePlaceholders(
+      List<PropositionSeries> seriesList, List<String> inequalities) {
     List<PropositionSeries> result = new ArrayList<>();
 
     for (PropositionSeries series : seriesList) {
@@ -211,7 +239,6 @@ public class ConditionTranslator {
       result.add(new PropositionSeries(inequalityPropositions, series.getConjunctions()));
     }
 
-    inequalities.clear();
     return result;
   }
 
@@ -228,7 +255,7 @@ public class ConditionTranslator {
       Set<CodeElement<?>> subjectMatches;
       subjectMatches = Matcher.subjectMatch(p.getSubject().getSubject(), method);
       if (subjectMatches.isEmpty()) {
-        log.debug("Failed subject translation for: " + p);
+        log.debug("Failed subject translation for: {}", p);
         return;
       }
       final Set<CodeElement<?>> matchingCodeElements = new LinkedHashSet<>();
@@ -243,7 +270,7 @@ public class ConditionTranslator {
         String currentTranslation =
             Matcher.predicateMatch(method, subjectMatch, p.getPredicate(), p.isNegative());
         if (currentTranslation == null) {
-          log.trace("Failed predicate translation for: " + p);
+          log.trace("Failed predicate translation for: {}", p);
           continue;
         }
         if (currentTranslation.contains("{") && currentTranslation.contains("}")) {
@@ -254,12 +281,12 @@ public class ConditionTranslator {
           Set<CodeElement<?>> argMatches;
           argMatches = Matcher.subjectMatch(argument, method);
           if (argMatches.isEmpty()) {
-            log.trace("Failed predicate translation for: " + p + " due to variable not found.");
+            log.trace("Failed predicate translation for: {} due to variable not found.", p);
             continue;
           } else {
             Iterator<CodeElement<?>> it = argMatches.iterator();
             String replaceTarget = "{" + argument + "}";
-            //Naive solution: picks the first match from the list.
+            // Naive solution: picks the first match from the list.
             String replacement = it.next().getJavaExpression();
             currentTranslation = currentTranslation.replace(replaceTarget, replacement);
           }
@@ -324,7 +351,7 @@ public class ConditionTranslator {
         log.warn("Failed translation for proposition " + p);
         p.setTranslation("");
       } else {
-        log.trace("Translated proposition " + p + " as: " + result);
+        log.trace("Translated proposition {} as: {}", p, result);
         p.setTranslation(result);
       }
     }
@@ -352,7 +379,7 @@ public class ConditionTranslator {
       // Subject match
       subjectMatches = Matcher.subjectMatch(p.getSubject().getSubject(), method);
       if (subjectMatches.isEmpty()) {
-        log.debug("Failed subject translation for: " + p);
+        log.debug("Failed subject translation for: {}", p);
         return LOOP_RETURN;
       }
       matchingCodeElements.addAll(subjectMatches);
@@ -360,7 +387,7 @@ public class ConditionTranslator {
       // Container match
       final CodeElement<?> containerMatch = Matcher.containerMatch(container, method);
       if (containerMatch == null) {
-        log.trace("Failed container translation for: " + p);
+        log.trace("Failed container translation for: {}", p);
         matchingCodeElements.clear();
         return LOOP_CONTINUE;
       }
@@ -431,10 +458,21 @@ public class ConditionTranslator {
    * @param tag the tag provided by the method. Must not be null.
    * @param method the method that contains the tag to analyze. Must not be null.
    */
-  private static void processTag(Tag tag, DocumentedMethod method) {
+  static void processTag(Tag tag, DocumentedMethod method) {
 
     log.trace(
-        "Identifying propositions from: \"" + tag.getComment() + "\" in " + method.getSignature());
+        "Identifying propositions from: \"{}\" in {}", tag.getComment(), method.getSignature());
+
+    // Translate common comment shapes without parsing them, when possible.
+    final Configuration configuration = Toradocu.getConfiguration();
+    if (configuration == null || configuration.isFastPathTranslationEnabled()) {
+      String fastPathTranslation = FastPathTranslator.translate(tag, method);
+      if (fastPathTranslation != null) {
+        log.trace("Fast-path translation for \"{}\": {}", tag.getComment(), fastPathTranslation);
+        tag.setCondition(fastPathTranslation);
+        return;
+      }
+    }
 
     String comment = tag.getComment().trim();
 
@@ -446,8 +484,8 @@ public class ConditionTranslator {
     comment = normalizeComment(comment, method);
 
     // Remove commas from the comment if enabled. (Do not remove commas when dealing with @return.)
-    if (Toradocu.configuration != null
-        && Toradocu.configuration.removeCommas()
+    if (configuration != null
+        && configuration.removeCommas()
         && !tag.getKind().equals(Tag.Kind.RETURN)) {
       comment = comment.replace(",", " ");
     }
@@ -459,7 +497,7 @@ public class ConditionTranslator {
 
     // Comment preprocessing for @param tags.
     if (tag.getKind() == Tag.Kind.PARAM) {
-      //We're not interested on "may be null" conditions.
+      // We're not interested on "may be null" conditions.
       if (comment.contains("may be null")) {
         comment = comment.replaceAll("may be null", "");
       }
@@ -489,7 +527,7 @@ public class ConditionTranslator {
       };
       java.util.regex.Matcher matcher = Pattern.compile("\\(.*").matcher(comment);
       String separator = matcher.find() ? " " : ".";
-      boolean noReplacedYet = true; //Tells if there was already a replacement in the phrase
+      boolean noReplacedYet = true; // Tells if there was already a replacement in the phrase
       for (String pattern : patterns) {
         if (comment.contains(pattern)) {
           String replacement = separator + parameterName + " " + pattern;
@@ -499,7 +537,7 @@ public class ConditionTranslator {
       }
 
       String[] patternsWithoutVerb = {"not null"};
-      if (noReplacedYet) { //Looks for the other patterns.
+      if (noReplacedYet) { // Looks for the other patterns.
         for (String pattern : patternsWithoutVerb) {
           String replacement = ". " + parameterName + " is " + pattern;
           comment = comment.replace(pattern, replacement);
@@ -554,7 +592,8 @@ public class ConditionTranslator {
         } else {
           translation = manageArithmeticOperation(method, commentToTranslate);
           if (translation.equals("")) {
-            // All the previous attempts failed: try the last strategies (e.g. search for missing subjects)
+            // All the previous attempts failed: try the last strategies (e.g. search for missing
+            // subjects)
             String match = lastAttemptMatch(method, comment);
             if (match != null) {
               if (match.contains("result")) translation = "true ?" + match;
@@ -678,7 +717,8 @@ public class ConditionTranslator {
 
     if (comment.contains("non-empty")) comment = comment.replace("non-empty", "!=empty");
 
-    // "it" would be translated as a standalone subject, but more probably it is referred to another more meaningful one:
+    // "it" would be translated as a standalone subject, but more probably it is referred to another
+    // more meaningful one:
     // probably a previous mentioned noun.
     if (comment.contains(" it ")) {
       for (SemanticGraph sg : StanfordParser.getSemanticGraphs(comment, method)) {
@@ -701,11 +741,11 @@ public class ConditionTranslator {
    * @return a match if found, otherwise null
    */
   private static String lastAttemptMatch(DocumentedMethod method, String comment) {
-    //Try a match looking at the semantic graph.
+    // Try a match looking at the semantic graph.
     String match = null;
     comment = comment.replace(";", "").replace(",", "");
     for (SemanticGraph sg : StanfordParser.getSemanticGraphs(comment, method)) {
-      //First: search for a verb.
+      // First: search for a verb.
       List<IndexedWord> verbs = sg.getAllNodesByPartOfSpeechPattern("VB(.*)");
       if (!verbs.isEmpty()) {
         List<PropositionSeries> extractedPropositions = getPropositionSeries(comment, method);
@@ -756,7 +796,7 @@ public class ConditionTranslator {
       for (int i = 0; i < splittedText.length; i++) {
         int index = searchForCode(splittedText[i], method);
         if (index != -1) return "result == args[" + index + "]";
-        //the empty String was found
+        // the empty String was found
         else if (splittedText[i].equals("\"\"")) return "result.equals(\"\")";
       }
     }
@@ -817,7 +857,7 @@ public class ConditionTranslator {
           }
         }
     }
-    //TODO: Change the exception with one more meaningful.
+    // TODO: Change the exception with one more meaningful.
     //    throw new IllegalArgumentException(text + " cannot be translated: Pattern not supported");
     return match;
   }
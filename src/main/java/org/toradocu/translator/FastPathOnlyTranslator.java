@@ -0,0 +1,30 @@
+package org.toradocu.translator;
+
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.Tag;
+
+/**
+ * A cheap {@code Translator}, named "fastpath", that translates only the common comment shapes
+ * recognized by the fast-path rules and leaves the other comments untranslated. Typically followed
+ * by the "toradocu" translator in a chain.
+ */
+public final class FastPathOnlyTranslator implements Translator {
+
+  @Override
+  public String getName() {
+    return "fastpath";
+  }
+
+  @Override
+  public void translate(Tag tag, DocumentedMethod method) {
+    String condition = FastPathTranslator.translate(tag, method);
+    if (condition != null) {
+      tag.setCondition(condition);
+    }
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+}
@@ -0,0 +1,314 @@
+package org.toradocu.translator;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.toradocu.SessionMonitor;
+import org.toradocu.Toradocu;
+import org.toradocu.conf.Configuration;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.ParamTag;
+import org.toradocu.extractor.Parameter;
+import org.toradocu.extractor.Tag;
+
+/**
+ * {@code FastPathTranslator} recognizes a few very common comment shapes (e.g., "if x is null", "x
+ * must not be null", "if x &lt; 0") and translates them directly into Java conditions, without
+ * running the Stanford parser. Rules are compiled once and match only comments that mention a
+ * parameter of the documented method, so that a comment either matches a rule entirely or falls
+ * back to the standard translation.
+ *
+ * <p>Comments not matched by any rule are looked up among the {@code ConditionTemplate}s mined from
+ * goal files (see {@code ConditionTemplates}), if a template file is given with the command line
+ * option {@code --condition-templates}. No templates are used by default: templates mined from the
+ * goal files used to measure precision and recall would just reproduce the goal conditions.
+ */
+final class FastPathTranslator {
+
+  /** Numeric primitive types, for which comparisons with integer literals are meaningful. */
+  private static final List<String> NUMERIC_TYPES =
+      Arrays.asList("byte", "short", "int", "long", "float", "double");
+
+  /** Optional words that may appear between "if the" and the parameter name. */
+  private static final String SUBJECT = "(?:[Ii]f )(?:the )?(?<param>[\\w$]+)";
+
+  /** Optional type words that may appear after the parameter name (e.g., "if the x array"). */
+  private static final String SUBJECT_KIND =
+      "(?: (?:array|collection|list|map|set|object|argument|parameter))?";
+
+  /** Words that mark a description preceding a nullness constraint as a constraint itself. */
+  private static final Pattern CONSTRAINT_WORDS =
+      Pattern.compile(
+          "\\b(?:be|is|are|must|should|may|cannot|can't|not|null|empty|nonempty|non-empty|negative"
+              + "|positive|zero|greater|less|larger|smaller|equal|if|unless|only|contain|contains)\\b",
+          Pattern.CASE_INSENSITIVE);
+
+  /** Kinds of parameters a rule applies to. */
+  private enum Applicability {
+    /** Rule applies to parameters of reference type (arrays included). */
+    REFERENCE,
+    /** Rule applies to parameters of numeric primitive type. */
+    NUMERIC,
+    /** Rule applies to parameters of array type. */
+    ARRAY
+  }
+
+  /** A fast-path rule: a pattern over a tag comment and the condition it stands for. */
+  private static final class Rule {
+    /** Name of the rule, used to report hit counts. */
+    private final String name;
+    /** Kind of tag this rule applies to. */
+    private final Tag.Kind kind;
+    /** Kind of parameter this rule applies to. */
+    private final Applicability applicability;
+    /** Pattern that must match the whole comment. */
+    private final Pattern pattern;
+    /** Condition template: "{arg}" is replaced by "args[i]", "{op}" and "{num}" by groups. */
+    private final String condition;
+
+    Rule(String name, Tag.Kind kind, Applicability applicability, String regex, String condition) {
+      this.name = name;
+      this.kind = kind;
+      this.applicability = applicability;
+      this.pattern = Pattern.compile(regex);
+      this.condition = condition;
+    }
+  }
+
+  /** The compiled rule set. Rules are tried in order and the first match wins. */
+  private static final List<Rule> RULES =
+      Collections.unmodifiableList(
+          Arrays.asList(
+              new Rule(
+                  "throws-null",
+                  Tag.Kind.THROWS,
+                  Applicability.REFERENCE,
+                  SUBJECT + SUBJECT_KIND + " is null\\.?",
+                  "{arg}==null"),
+              new Rule(
+                  "throws-negative",
+                  Tag.Kind.THROWS,
+                  Applicability.NUMERIC,
+                  SUBJECT + " is negative\\.?",
+                  "{arg}<0"),
+              new Rule(
+                  "throws-comparison",
+                  Tag.Kind.THROWS,
+                  Applicability.NUMERIC,
+                  SUBJECT + " ?(?<op><=|>=|<|>|==|!=) ?(?<num>-?[0-9]+)\\.?",
+                  "{arg}{op}{num}"),
+              new Rule(
+                  "throws-empty-array",
+                  Tag.Kind.THROWS,
+                  Applicability.ARRAY,
+                  SUBJECT + SUBJECT_KIND + " is empty\\.?",
+                  "{arg}.length==0"),
+              new Rule(
+                  "param-not-null",
+                  Tag.Kind.PARAM,
+                  Applicability.REFERENCE,
+                  "(?:(?<param>[\\w$]+) |(?<description>[\\w\\s,'-]*?) ?[,;(] ?)?"
+                      + "(?:(?:must|may|should|will) not|shouldn't|cannot|can't|can not) be null"
+                      + "\\)?\\.?",
+                  "({arg}==null) == false"),
+              new Rule(
+                  "param-not-null-short",
+                  Tag.Kind.PARAM,
+                  Applicability.REFERENCE,
+                  "(?<description>[\\w\\s,'-]*?) ?[,;(] ?not null\\)?\\.?",
+                  "({arg}==null) == false")));
+
+  /** Name under which the outcomes of the fast path are reported to the session monitor. */
+  private static final String FAST_PATH = "fastPath";
+  /** Name under which hits of the templates mined from goal files are counted. */
+  private static final String LEARNED_TEMPLATES = "learned-templates";
+  /** Name under which comments neither a rule nor a template could translate are counted. */
+  private static final String MISSES = "misses";
+  /**
+   * Templates mined from goal files, by the file they have been loaded from. Sessions using the
+   * same file share the templates, which are never modified once loaded.
+   */
+  private static final Map<File, ConditionTemplates> templates = new ConcurrentHashMap<>();
+
+  /**
+   * Attempts to translate the comment of the given {@code tag} using the fast-path rules and, if no
+   * rule matches, the templates mined from goal files.
+   *
+   * @param tag the tag whose comment has to be translated
+   * @param method the method the tag belongs to
+   * @return the translation of the comment, or null if neither a rule nor a template matches the
+   *     comment
+   */
+  static String translate(Tag tag, DocumentedMethod method) {
+    final String comment = tag.getComment().trim();
+    final List<Parameter> parameters = method.getParameters();
+    for (Rule rule : RULES) {
+      if (rule.kind != tag.getKind()) {
+        continue;
+      }
+      java.util.regex.Matcher matcher = rule.pattern.matcher(comment);
+      if (!matcher.matches()) {
+        continue;
+      }
+      final int index = parameterIndex(rule, matcher, tag, parameters);
+      if (index == -1 || !isApplicable(rule.applicability, parameters.get(index))) {
+        continue;
+      }
+      String condition = rule.condition.replace("{arg}", "args[" + index + "]");
+      if (rule.condition.contains("{op}")) {
+        condition =
+            condition.replace("{op}", matcher.group("op")).replace("{num}", matcher.group("num"));
+      }
+      SessionMonitor.recordEvent(event(rule.name));
+      SessionMonitor.recordCacheAccess(FAST_PATH, true);
+      return condition;
+    }
+    final String condition = getTemplates().translate(tag, method);
+    if (condition != null) {
+      SessionMonitor.recordEvent(event(LEARNED_TEMPLATES));
+      SessionMonitor.recordCacheAccess(FAST_PATH, true);
+      return condition;
+    }
+    SessionMonitor.recordEvent(event(MISSES));
+    SessionMonitor.recordCacheAccess(FAST_PATH, false);
+    return null;
+  }
+
+  /**
+   * Returns the templates stored in the file specified with the command line option {@code
+   * --condition-templates}. Each file is loaded only once.
+   *
+   * @return the templates to consult when no rule matches a comment
+   */
+  private static ConditionTemplates getTemplates() {
+    final Configuration configuration = Toradocu.getConfiguration();
+    final File file = configuration == null ? null : configuration.getConditionTemplates();
+    if (file == null) {
+      return ConditionTemplates.EMPTY;
+    }
+    // Avoids computeIfAbsent, which locks even if the templates have been loaded already.
+    final ConditionTemplates loaded = templates.get(file);
+    return loaded != null ? loaded : templates.computeIfAbsent(file, ConditionTemplates::load);
+  }
+
+  /**
+   * Returns the index of the parameter the matched comment refers to, or -1 if the comment does not
+   * refer to any parameter of the method. @param comments always refer to the documented parameter;
+   * an explicit parameter name in such comments must be the documented one.
+   *
+   * @param rule the matching rule
+   * @param matcher the matcher of the rule against the comment
+   * @param tag the tag whose comment has been matched
+   * @param parameters the parameters of the method the tag belongs to
+   * @return the index of the parameter the comment refers to, or -1 if there is none
+   */
+  private static int parameterIndex(
+      Rule rule, java.util.regex.Matcher matcher, Tag tag, List<Parameter> parameters) {
+    if (rule.kind == Tag.Kind.PARAM) {
+      final String documented = ((ParamTag) tag).parameter().getName();
+      final String mentioned = group(matcher, "param");
+      if (mentioned != null && !mentioned.equals(documented)) {
+        return -1;
+      }
+      final String description = group(matcher, "description");
+      if (description != null && CONSTRAINT_WORDS.matcher(description).find()) {
+        return -1;
+      }
+      return ConditionTemplate.indexOf(documented, parameters);
+    }
+    return ConditionTemplate.indexOf(matcher.group("param"), parameters);
+  }
+
+  /**
+   * Returns the value of the named group, or null if the pattern has no such group or the group did
+   * not participate in the match.
+   *
+   * @param matcher a matcher that matched a comment
+   * @param name the name of the group
+   * @return the value of the named group, or null
+   */
+  private static String group(java.util.regex.Matcher matcher, String name) {
+    try {
+      return matcher.group(name);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns true if a rule with the given applicability can be applied to {@code parameter}.
+   *
+   * @param applicability the applicability of a rule
+   * @param parameter the parameter the rule would be applied to
+   * @return true if the rule can be applied to the given parameter
+   */
+  private static boolean isApplicable(Applicability applicability, Parameter parameter) {
+    final org.toradocu.extractor.Type type = parameter.getType();
+    switch (applicability) {
+      case REFERENCE:
+        return type.isArray() || !isPrimitive(type.getQualifiedName());
+      case NUMERIC:
+        return !type.isArray() && NUMERIC_TYPES.contains(type.getQualifiedName());
+      case ARRAY:
+        return type.isArray();
+      default:
+        throw new IllegalStateException("Unsupported applicability " + applicability);
+    }
+  }
+
+  /**
+   * Returns true if the given type name is the name of a primitive type.
+   *
+   * @param typeName a fully qualified type name
+   * @return true if the given type name is the name of a primitive type
+   */
+  private static boolean isPrimitive(String typeName) {
+    return NUMERIC_TYPES.contains(typeName)
+        || typeName.equals("boolean")
+        || typeName.equals("char");
+  }
+
+  /**
+   * Returns the name under which the given outcome of the fast path is reported to the session
+   * monitor.
+   *
+   * @param outcome the name of a rule, {@code LEARNED_TEMPLATES}, or {@code MISSES}
+   * @return the name of the event reporting the outcome
+   */
+  private static String event(String outcome) {
+    return FAST_PATH + "." + outcome;
+  }
+
+  /**
+   * Returns the number of comments translated by each rule in the session running on the current
+   * thread, keyed by rule name.
+   *
+   * @return the number of comments translated by each rule, all 0 if there is no session
+   */
+  static Map<String, Long> getHitCounts() {
+    final SessionMonitor monitor = SessionMonitor.current();
+    Map<String, Long> counts = new LinkedHashMap<>();
+    for (Rule rule : RULES) {
+      counts.put(rule.name, monitor == null ? 0 : monitor.getEventCount(event(rule.name)));
+    }
+    counts.put(
+        LEARNED_TEMPLATES, monitor == null ? 0 : monitor.getEventCount(event(LEARNED_TEMPLATES)));
+    return counts;
+  }
+
+  /**
+   * Returns the number of comments that no rule could translate in the session running on the
+   * current thread.
+   *
+   * @return the number of comments that no rule could translate, 0 if there is no session
+   */
+  static long getMisses() {
+    final SessionMonitor monitor = SessionMonitor.current();
+    return monitor == null ? 0 : monitor.getEventCount(event(MISSES));
+  }
+}
@@ -18,6 +18,8 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import org.toradocu.extractor.DocumentedMethod;
 import org.toradocu.extractor.ParamTag;
+import org.toradocu.util.Profiler;
+import org.toradocu.util.Profiler.Stage;
 import org.toradocu.util.Reflection;
 
 /**
@@ -34,6 +36,17 @@ public class JavaElementsCollector {
    * @return the collected code elements
    */
   public static Set<CodeElement<?>> collect(DocumentedMethod documentedMethod) {
+    return Profiler.measure(
+        Stage.CODE_ELEMENTS_COLLECTION, () -> collectElements(documentedMethod));
+  }
+
+  /**
+   * Collects the Java code elements of the given method, as {@code collect} does.
+   *
+   * @param documentedMethod the method from which to start to collect the code elements
+   * @return the collected code elements
+   */
+  private static Set<CodeElement<?>> collectElements(DocumentedMethod documentedMethod) {
     Set<CodeElement<?>> collectedElements = new LinkedHashSet<>();
     Class<?> containingClass =
         Reflection.getClass(documentedMethod.getContainingClass().getQualifiedName());
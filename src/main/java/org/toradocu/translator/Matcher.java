@@ -17,20 +17,17 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.toradocu.Toradocu;
 import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.util.Profiler;
+import org.toradocu.util.Profiler.Stage;
 import org.toradocu.util.Reflection;
 
 /**
  * The {@code Matcher} class translates subjects and predicates in Javadoc comments to Java
- * expressions containing Java code elements.
+ * expressions containing Java code elements. Each subject match is recorded as a {@code
+ * org.toradocu.SubjectMatch} event by the JDK Flight Recorder, if a recording is running.
  */
 class Matcher {
 
-  /**
-   * Represents the threshold for the edit distance above which {@code CodeElement}s are considered
-   * to be not matching.
-   */
-  private static final int EDIT_DISTANCE_THRESHOLD = Toradocu.configuration.getDistanceThreshold();
-
   /**
    * Takes the subject of a proposition in a Javadoc comment and the {@code DocumentedMethod} that
    * subject was extracted from. Then returns all {@code CodeElement}s that match (i.e. have a
@@ -41,8 +38,32 @@ class Matcher {
    * @return a set of {@code CodeElement}s that have a similar name to the subject
    */
   static Set<CodeElement<?>> subjectMatch(String subject, DocumentedMethod method) {
+    SubjectMatchEvent event = new SubjectMatchEvent();
+    event.begin();
+    Set<CodeElement<?>> matches =
+        Profiler.measure(Stage.SUBJECT_MATCHING, () -> matchSubject(subject, method, event));
+    if (event.shouldCommit()) {
+      event.method = method.getContainingClass().getQualifiedName() + "." + method.getSignature();
+      event.subject = subject;
+      event.matches = matches.size();
+      event.commit();
+    }
+    return matches;
+  }
+
+  /**
+   * Returns the {@code CodeElement}s that match the given subject, as {@code subjectMatch} does.
+   *
+   * @param subject the subject of a proposition from a Javadoc comment
+   * @param method the {@code DocumentedMethod} that the subject was extracted from
+   * @param event the event recording the match, updated with the number of candidates
+   * @return a set of {@code CodeElement}s that have a similar name to the subject
+   */
+  private static Set<CodeElement<?>> matchSubject(
+      String subject, DocumentedMethod method, SubjectMatchEvent event) {
     // Extract every CodeElement associated with the method and the containing class of the method.
     Set<CodeElement<?>> codeElements = JavaElementsCollector.collect(method);
+    event.candidates = codeElements.size();
 
     // Clean the subject string by removing words and characters not related to its identity so that
     // they do not influence string matching.
@@ -84,7 +105,8 @@ class Matcher {
       String filter, Set<CodeElement<?>> codeElements) {
     Set<CodeElement<?>> minCodeElements = new LinkedHashSet<>();
     // Only consider elements with a minimum distance <= the threshold distance.
-    int minDistance = EDIT_DISTANCE_THRESHOLD;
+    // Code elements farther than the configured edit distance threshold are not matching.
+    int minDistance = Toradocu.getConfiguration().getDistanceThreshold();
     // Returns the CodeElement(s) with the smallest distance.
     for (CodeElement<?> codeElement : codeElements) {
       int distance = codeElement.getEditDistanceFrom(filter);
@@ -112,6 +134,22 @@ class Matcher {
    */
   static String predicateMatch(
       DocumentedMethod method, CodeElement<?> subject, String predicate, boolean negate) {
+    return Profiler.measure(
+        Stage.PREDICATE_MATCHING, () -> matchPredicate(method, subject, predicate, negate));
+  }
+
+  /**
+   * Returns the translation of the given subject and predicate, as {@code predicateMatch} does.
+   *
+   * @param method the method whose comment (and predicate) is being translated
+   * @param subject the subject of the proposition to translate
+   * @param predicate the predicate of the proposition to translate
+   * @param negate true if the given predicate should be negated, false otherwise
+   * @return the translation (to a Java expression) of the predicate with the given subject and
+   *     predicate, or null if no translation found
+   */
+  private static String matchPredicate(
+      DocumentedMethod method, CodeElement<?> subject, String predicate, boolean negate) {
 
     // Special case to handle predicates about arrays' length. We need a more general solution.
     if (subject.getJavaCodeElement().toString().contains("[]")) {
@@ -263,11 +301,12 @@ class Matcher {
       for (int j = 0; j < paramForMatch.size() - 1; j++) match += paramForMatch.get(j) + ",";
       match += paramForMatch.get(paramForMatch.size() - 1) + ")";
     } else if (!paramMatch
-        .isEmpty()) { //the method is supposed to take params but we haven't find a match: does it have to take null?
+        .isEmpty()) { // the method is supposed to take params but we haven't find a match: does it
+      // have to take null?
       final java.util.regex.Matcher nullPattern =
           Pattern.compile("[has|have|contain(s?)] null").matcher(predicate);
 
-      final java.util.regex.Matcher equalPattern = //or is it the equals() method?
+      final java.util.regex.Matcher equalPattern = // or is it the equals() method?
           Pattern.compile("[is|are] equal(s?)").matcher(predicate);
       if (firstMatch == null) firstMatch = sortedCodeElements.stream().findFirst().get();
       if (nullPattern.find()) {
@@ -284,7 +323,7 @@ class Matcher {
                 .replace("s", "");
         for (int i = 0; i < myParams.length && !foundMatch; i++) {
           Parameter p = myParams[i];
-          if (p.getName().equals(receiver)) { //found the receiver, who is the Object of same type?
+          if (p.getName().equals(receiver)) { // found the receiver, who is the Object of same type?
             String type = p.getParameterizedType().getTypeName();
             for (int j = 0; j < myParams.length; j++) {
               if (j != i && myParams[j].getParameterizedType().getTypeName().equals(type)) {
@@ -467,7 +506,7 @@ class Matcher {
     float floatNumber = 0;
     boolean isIntNumber = false;
 
-    if (!numberString.contains(".")) { //the number is an int
+    if (!numberString.contains(".")) { // the number is an int
       intNumber =
           (!numberWord.equals(""))
               ? intNumber = Integer.parseInt(numberWord)
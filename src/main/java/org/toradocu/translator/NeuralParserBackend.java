@@ -0,0 +1,41 @@
+package org.toradocu.translator;
+
+import edu.stanford.nlp.ling.TaggedWord;
+import edu.stanford.nlp.parser.nndep.DependencyParser;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import edu.stanford.nlp.tagger.maxent.MaxentTagger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser backend based on the transition-based neural {@code DependencyParser} of Stanford CoreNLP,
+ * which produces dependencies directly. Parsing time is linear in the sentence length, so the
+ * timeout is ignored. The parser requires every word to be tagged: words without a tag are tagged
+ * by the {@code MaxentTagger}.
+ */
+final class NeuralParserBackend implements ParserBackend {
+
+  /** Model producing Stanford dependencies, like the conversion used by the PCFG backend. */
+  private static final String MODEL = "edu/stanford/nlp/models/parser/nndep/english_SD.gz";
+
+  /** The only instance of this backend, initialized (and the models loaded) on first use. */
+  static final NeuralParserBackend INSTANCE = new NeuralParserBackend();
+
+  private final MaxentTagger tagger;
+  private final DependencyParser dependencyParser;
+
+  private NeuralParserBackend() {
+    tagger = new MaxentTagger(MaxentTagger.DEFAULT_JAR_PATH);
+    dependencyParser = DependencyParser.loadFromModelFile(MODEL);
+  }
+
+  @Override
+  public SemanticGraph parse(List<TaggedWord> sentence, long timeout) {
+    List<TaggedWord> tagged = tagger.tagSentence(sentence);
+    List<TaggedWord> words = new ArrayList<>(sentence.size());
+    for (int i = 0; i < sentence.size(); i++) {
+      words.add(sentence.get(i).tag() == null ? tagged.get(i) : sentence.get(i));
+    }
+    return new SemanticGraph(dependencyParser.predict(words).typedDependenciesCCprocessed());
+  }
+}
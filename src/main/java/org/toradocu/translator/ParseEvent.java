@@ -0,0 +1,31 @@
+package org.toradocu.translator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for the parsing of a sentence (or of a clause) by a Stanford parser
+ * backend. Fields are set only if the event is recorded.
+ */
+@Name("org.toradocu.Parse")
+@Label("Parse")
+@Category({"Toradocu", "Translator"})
+@Description("Parsing of a sentence by a Stanford parser backend")
+final class ParseEvent extends Event {
+
+  @Label("Parser")
+  String parser;
+
+  @Label("Sentence")
+  String sentence;
+
+  @Label("Sentence Length")
+  @Description("Number of words of the sentence")
+  int length;
+
+  @Label("Timed Out")
+  boolean timedOut;
+}
@@ -0,0 +1,23 @@
+package org.toradocu.translator;
+
+import edu.stanford.nlp.ling.TaggedWord;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import java.util.List;
+
+/**
+ * A {@code ParserBackend} produces the semantic graph (Stanford dependencies, collapsed and
+ * CC-processed) of a sentence. The semantic graph is then analyzed by {@code SentenceParser}. The
+ * backend in use is selected with the command line option {@code --parser}.
+ */
+interface ParserBackend {
+
+  /**
+   * Parses the given sentence. Words with a tag keep it; the backend tags the other words.
+   *
+   * @param sentence the words of the sentence, partially tagged
+   * @param timeout the maximum time in milliseconds to parse the sentence, 0 for no limit. Backends
+   *     whose parsing time is linear in the sentence length may ignore the limit.
+   * @return the semantic graph of the sentence, or null if the parsing timed out
+   */
+  SemanticGraph parse(List<TaggedWord> sentence, long timeout);
+}
@@ -0,0 +1,123 @@
+package org.toradocu.translator;
+
+import edu.stanford.nlp.ling.TaggedWord;
+import edu.stanford.nlp.parser.common.ParserQuery;
+import edu.stanford.nlp.parser.common.ParserUtils;
+import edu.stanford.nlp.parser.lexparser.LexicalizedParser;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import edu.stanford.nlp.trees.GrammaticalStructure;
+import edu.stanford.nlp.trees.GrammaticalStructureFactory;
+import edu.stanford.nlp.trees.Tree;
+import edu.stanford.nlp.trees.TreebankLanguagePack;
+import edu.stanford.nlp.util.RuntimeInterruptedException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parser backend based on the englishPCFG {@code LexicalizedParser}: sentences are parsed into
+ * constituency trees, which are then converted into dependencies. This is the most accurate
+ * backend, but parsing time grows roughly with the cube of the sentence length.
+ */
+final class PcfgParserBackend implements ParserBackend {
+
+  /** The only instance of this backend, initialized (and the model loaded) on first use. */
+  static final PcfgParserBackend INSTANCE = new PcfgParserBackend();
+
+  private final LexicalizedParser lexicalizedParser;
+  private final GrammaticalStructureFactory gsf;
+
+  /** Interrupts parses that exceed the time budget. */
+  private static final ScheduledExecutorService WATCHDOG =
+      Executors.newSingleThreadScheduledExecutor(
+          r -> {
+            Thread thread = new Thread(r, "stanford-parser-watchdog");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /**
+   * State of a parse with a time budget. Accessed while holding its lock, so that the watchdog
+   * cannot interrupt the parsing thread after the parse is over.
+   */
+  private static final class ParseState {
+    /** Whether the parse is over. */
+    private boolean done;
+    /** Whether the watchdog interrupted the parse. */
+    private boolean expired;
+  }
+
+  private PcfgParserBackend() {
+    lexicalizedParser = LexicalizedParser.loadModel();
+    // tlp is the PennTreebankLanguagePack for English.
+    TreebankLanguagePack tlp = lexicalizedParser.treebankLanguagePack();
+    if (!tlp.supportsGrammaticalStructures()) {
+      throw new RuntimeException(
+          "Error in the Stanford Parser configuration. Are models available?");
+    }
+    gsf = tlp.grammaticalStructureFactory();
+  }
+
+  @Override
+  public SemanticGraph parse(List<TaggedWord> sentence, long timeout) {
+    Tree tree = parseTree(sentence, timeout);
+    if (tree == null) {
+      return null;
+    }
+    GrammaticalStructure gs = gsf.newGrammaticalStructure(tree);
+    return new SemanticGraph(gs.typedDependenciesCCprocessed());
+  }
+
+  /**
+   * Parses the given tagged words. Like {@code LexicalizedParser#parse}, returns a flat tree if the
+   * parser fails. Returns null if parsing takes longer than {@code timeout} milliseconds: the
+   * parser is interrupted by {@link #WATCHDOG} when the time is up.
+   *
+   * @param words the tagged words to parse
+   * @param timeout the maximum time in milliseconds to parse the words, 0 for no limit
+   * @return the parse tree, or null if the parsing timed out
+   */
+  private Tree parseTree(List<TaggedWord> words, long timeout) {
+    if (timeout <= 0) {
+      return lexicalizedParser.parse(words);
+    }
+
+    final Thread parsingThread = Thread.currentThread();
+    final ParseState state = new ParseState();
+    ScheduledFuture<?> watchdog =
+        WATCHDOG.schedule(
+            () -> {
+              synchronized (state) {
+                if (!state.done) {
+                  state.expired = true;
+                  parsingThread.interrupt();
+                }
+              }
+            },
+            timeout,
+            TimeUnit.MILLISECONDS);
+    try {
+      // LexicalizedParser#parse would catch the interruption and return a flat tree.
+      ParserQuery parserQuery = lexicalizedParser.parserQuery();
+      return parserQuery.parse(words) ? parserQuery.getBestParse() : ParserUtils.xTree(words);
+    } catch (RuntimeInterruptedException e) {
+      synchronized (state) {
+        if (!state.expired) {
+          throw e;
+        }
+      }
+      return null;
+    } finally {
+      watchdog.cancel(false);
+      synchronized (state) {
+        state.done = true;
+        if (state.expired) {
+          // Clear the interrupt status set by the watchdog.
+          Thread.interrupted();
+        }
+      }
+    }
+  }
+}
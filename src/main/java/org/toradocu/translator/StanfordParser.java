@@ -3,43 +3,49 @@ package org.toradocu.translator;
 import static java.util.stream.Collectors.toList;
 
 import edu.stanford.nlp.ling.HasWord;
-import edu.stanford.nlp.parser.lexparser.LexicalizedParser;
 import edu.stanford.nlp.process.DocumentPreprocessor;
 import edu.stanford.nlp.semgraph.SemanticGraph;
-import edu.stanford.nlp.trees.GrammaticalStructure;
-import edu.stanford.nlp.trees.GrammaticalStructureFactory;
-import edu.stanford.nlp.trees.Tree;
-import edu.stanford.nlp.trees.TreebankLanguagePack;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.toradocu.SessionMonitor;
 import org.toradocu.Toradocu;
+import org.toradocu.conf.Configuration;
 import org.toradocu.extractor.DocumentedMethod;
 import org.toradocu.extractor.Parameter;
+import org.toradocu.util.Profiler;
+import org.toradocu.util.Profiler.Stage;
 
 /**
- * This class provides a method to get the semantic graph of a sentence produced by the Stanford
- * parser. To optimize execution time, the Stanford parser is initialized once in the static block
- * to ensure that its initialization phase is done only once.
+ * This class provides a method to get the semantic graph of a sentence produced by a Stanford
+ * parser. The parser backend is selected with the command line option {@code --parser}; each
+ * backend is initialized once, on first use, to ensure that its initialization phase (loading the
+ * models) is done only once.
+ *
+ * <p>The parsing time of the PCFG parser grows roughly with the cube of the sentence length.
+ * Sentences longer than {@code --parser-max-length} words, or whose parsing takes longer than
+ * {@code --parser-timeout} milliseconds (no limit by default), are split into clauses at ";" and
+ * ", or" and each clause is parsed separately. The time limit is a budget for the whole sentence,
+ * shared by its clauses. If no clause can be parsed within the limits, the sentence is skipped.
+ *
+ * <p>Each call to a parser backend is recorded as a {@code org.toradocu.Parse} event by the JDK
+ * Flight Recorder, if a recording is running.
  */
 class StanfordParser {
 
-  private static final LexicalizedParser LEXICALIZED_PARSER;
-  private static final GrammaticalStructureFactory GSF;
   private static final Logger log = LoggerFactory.getLogger(StanfordParser.class);
 
-  static {
-    LEXICALIZED_PARSER = LexicalizedParser.loadModel();
-    // tlp is the PennTreebankLanguagePack for English.
-    TreebankLanguagePack tlp = LEXICALIZED_PARSER.treebankLanguagePack();
-    if (!tlp.supportsGrammaticalStructures()) {
-      throw new RuntimeException(
-          "Error in the Stanford Parser configuration. Are models available?");
-    }
-    GSF = tlp.grammaticalStructureFactory();
-  }
+  /** Event recorded for each sentence longer than the maximum length. */
+  private static final String TOO_LONG = "parser.tooLong";
+  /** Event recorded for each sentence whose parsing exceeded the time budget. */
+  private static final String TIMED_OUT = "parser.timedOut";
+  /** Event recorded for each sentence that neither itself nor its clauses could be parsed. */
+  private static final String SKIPPED = "parser.skipped";
 
   /**
    * Takes some text and returns {@code SemanticGraph}s for each sentence in the text.
@@ -53,13 +59,52 @@ class StanfordParser {
 
   /**
    * Before asking for the SemanticGraph to the parser, manually tag code elements as NN and
-   * inequalities placeholders as JJ.
+   * inequalities placeholders as JJ. Sentences are parsed within the limits set by {@code
+   * --parser-max-length} and {@code --parser-timeout}; there are no limits if Toradocu has not been
+   * configured.
    *
    * @param comment the String comment of the condition
    * @param method the DocumentedMethod under analysis
    * @return the list of SemanticGraphs produced by the parser
    */
   static List<SemanticGraph> getSemanticGraphs(String comment, DocumentedMethod method) {
+    int maxLength = 0;
+    long timeout = 0;
+    final Configuration configuration = Toradocu.getConfiguration();
+    if (configuration != null) {
+      maxLength = configuration.getParserMaxLength();
+      timeout = configuration.getParserTimeout();
+    }
+    return getSemanticGraphs(comment, method, maxLength, timeout);
+  }
+
+  /**
+   * Before asking for the SemanticGraph to the parser, manually tag code elements as NN and
+   * inequalities placeholders as JJ.
+   *
+   * @param comment the String comment of the condition
+   * @param method the DocumentedMethod under analysis
+   * @param maxLength the maximum number of words of a sentence parsed as a whole, 0 for no limit
+   * @param timeout the maximum time in milliseconds to parse a sentence, 0 for no limit
+   * @return the list of SemanticGraphs produced by the parser
+   */
+  static List<SemanticGraph> getSemanticGraphs(
+      String comment, DocumentedMethod method, int maxLength, long timeout) {
+    return Profiler.measure(
+        Stage.PARSING, () -> parseSentences(comment, method, maxLength, timeout));
+  }
+
+  /**
+   * Splits the given comment into sentences and parses them, as {@code getSemanticGraphs} does.
+   *
+   * @param comment the String comment of the condition
+   * @param method the DocumentedMethod under analysis
+   * @param maxLength the maximum number of words of a sentence parsed as a whole, 0 for no limit
+   * @param timeout the maximum time in milliseconds to parse a sentence, 0 for no limit
+   * @return the list of SemanticGraphs produced by the parser
+   */
+  private static List<SemanticGraph> parseSentences(
+      String comment, DocumentedMethod method, int maxLength, long timeout) {
     Iterable<List<HasWord>> hasWordComment = new DocumentPreprocessor(new StringReader(comment));
 
     ArrayList<List<HasWord>> sentences = new ArrayList<>();
@@ -79,23 +124,204 @@ class StanfordParser {
         }
       }
 
-      result.add(getSemanticGraph(sentence, codeElements));
+      result.addAll(getSemanticGraphs(sentence, codeElements, maxLength, timeout));
     }
     return result;
   }
 
+  /**
+   * Returns the semantic graph of the given sentence or, if the sentence exceeds the parser limits,
+   * the semantic graphs of its clauses that do not.
+   *
+   * @param sentence the sentence to parse
+   * @param codeElements the words of the sentence to be tagged as code elements
+   * @param maxLength the maximum number of words of a sentence parsed as a whole, 0 for no limit
+   * @param timeout the maximum time in milliseconds to parse the sentence, including its clauses, 0
+   *     for no limit
+   * @return the semantic graphs of the sentence or of its clauses; empty if the sentence is skipped
+   */
+  private static List<SemanticGraph> getSemanticGraphs(
+      List<HasWord> sentence, List<HasWord> codeElements, int maxLength, long timeout) {
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+    if (maxLength > 0 && sentence.size() > maxLength) {
+      SessionMonitor.recordEvent(TOO_LONG);
+      log.debug("Sentence longer than {} words: {}", maxLength, sentence);
+    } else {
+      SemanticGraph semanticGraph = getSemanticGraph(sentence, codeElements, timeout);
+      if (semanticGraph != null) {
+        return Collections.singletonList(semanticGraph);
+      }
+      SessionMonitor.recordEvent(TIMED_OUT);
+      log.debug("Parsing took longer than {} ms: {}", timeout, sentence);
+    }
+
+    List<SemanticGraph> result = new ArrayList<>();
+    List<List<HasWord>> clauses = splitClauses(sentence);
+    if (clauses.size() > 1) {
+      for (List<HasWord> clause : clauses) {
+        // Clauses share what is left of the time budget of the sentence.
+        long remaining =
+            timeout > 0 ? TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) : 0;
+        if (timeout > 0 && remaining <= 0) {
+          break;
+        }
+        if (maxLength <= 0 || clause.size() <= maxLength) {
+          SemanticGraph semanticGraph = getSemanticGraph(clause, codeElements, remaining);
+          if (semanticGraph != null) {
+            result.add(semanticGraph);
+          }
+        }
+      }
+    }
+    if (result.isEmpty()) {
+      SessionMonitor.recordEvent(SKIPPED);
+      log.debug("Sentence skipped: {}", sentence);
+    }
+    return result;
+  }
+
+  /**
+   * Splits a sentence into clauses at semicolons and at commas followed by "or". Separators are not
+   * part of the clauses.
+   *
+   * @param sentence the sentence to split
+   * @return the clauses of the sentence, or a list containing only the sentence if there are none
+   */
+  static List<List<HasWord>> splitClauses(List<HasWord> sentence) {
+    List<List<HasWord>> clauses = new ArrayList<>();
+    List<HasWord> clause = new ArrayList<>();
+    for (int i = 0; i < sentence.size(); i++) {
+      final String word = sentence.get(i).word();
+      int separatorLength = 0;
+      if (word.equals(";")) {
+        separatorLength = 1;
+      } else if (word.equals(",")
+          && i + 1 < sentence.size()
+          && sentence.get(i + 1).word().equalsIgnoreCase("or")) {
+        separatorLength = 2;
+      }
+      if (separatorLength == 0) {
+        clause.add(sentence.get(i));
+      } else {
+        if (!clause.isEmpty()) {
+          clauses.add(clause);
+        }
+        clause = new ArrayList<>();
+        i += separatorLength - 1;
+      }
+    }
+    if (!clause.isEmpty()) {
+      clauses.add(clause);
+    }
+    return clauses;
+  }
+
+  /**
+   * Returns the semantic graph of the given sentence, or null if parsing the sentence takes longer
+   * than {@code timeout} milliseconds.
+   *
+   * @param sentence the sentence to parse
+   * @param codeElements the words of the sentence to be tagged as code elements
+   * @param timeout the maximum time in milliseconds to parse the sentence, 0 for no limit
+   * @return the semantic graph of the sentence, or null if the parsing timed out
+   */
   private static SemanticGraph getSemanticGraph(
-      List<HasWord> sentence, List<HasWord> codeElements) {
-    // Parse the sentence.
-    Tree tree = LEXICALIZED_PARSER.parse(new POSTagger().tagWords(sentence, codeElements));
-    GrammaticalStructure gs = GSF.newGrammaticalStructure(tree);
-    // Build the semantic graph.
-    SemanticGraph semanticGraph = new SemanticGraph(gs.typedDependenciesCCprocessed());
-
-    if (Toradocu.configuration != null && Toradocu.configuration.debug()) {
-      log.debug("Input sentence: " + sentence + "\nSemantic Graph:\n" + semanticGraph);
+      List<HasWord> sentence, List<HasWord> codeElements, long timeout) {
+    final ParserBackend backend = getBackend();
+    final SessionMonitor monitor = SessionMonitor.current();
+    if (monitor != null) {
+      monitor.startParsing(toText(sentence));
+    }
+    ParseEvent event = new ParseEvent();
+    event.begin();
+    SemanticGraph semanticGraph;
+    try {
+      semanticGraph = backend.parse(new POSTagger().tagWords(sentence, codeElements), timeout);
+    } finally {
+      if (monitor != null) {
+        monitor.endParsing();
+      }
+    }
+    if (event.shouldCommit()) {
+      event.parser = backend == NeuralParserBackend.INSTANCE ? "NNDEP" : "PCFG";
+      event.sentence = toText(sentence);
+      event.length = sentence.size();
+      event.timedOut = semanticGraph == null;
+      event.commit();
+    }
+
+    final Configuration configuration = Toradocu.getConfiguration();
+    if (semanticGraph != null && configuration != null && configuration.debug()) {
+      log.debug("Input sentence: {}\nSemantic Graph:\n{}", sentence, semanticGraph);
     }
 
     return semanticGraph;
   }
+
+  /**
+   * Returns the text of the given sentence, with words separated by spaces.
+   *
+   * @param sentence a sentence
+   * @return the text of {@code sentence}
+   */
+  private static String toText(List<HasWord> sentence) {
+    return sentence.stream().map(HasWord::word).collect(Collectors.joining(" "));
+  }
+
+  /**
+   * Returns the parser backend selected with the command line option {@code --parser}, or the PCFG
+   * backend if Toradocu has not been configured.
+   *
+   * @return the parser backend to use
+   */
+  private static ParserBackend getBackend() {
+    final Configuration configuration = Toradocu.getConfiguration();
+    if (configuration != null && configuration.getParser() == Configuration.Parser.NNDEP) {
+      return NeuralParserBackend.INSTANCE;
+    }
+    return PcfgParserBackend.INSTANCE;
+  }
+
+  /**
+   * Returns the number of sentences longer than the maximum length in the session running on the
+   * current thread.
+   *
+   * @return the number of sentences longer than the maximum length, 0 if there is no session
+   */
+  static long getTooLongCount() {
+    return getEventCount(TOO_LONG);
+  }
+
+  /**
+   * Returns the number of sentences whose parsing exceeded the time budget in the session running
+   * on the current thread.
+   *
+   * @return the number of sentences whose parsing exceeded the time budget, 0 if there is no
+   *     session
+   */
+  static long getTimedOutCount() {
+    return getEventCount(TIMED_OUT);
+  }
+
+  /**
+   * Returns the number of sentences skipped because neither they nor their clauses could be parsed
+   * within the limits, in the session running on the current thread.
+   *
+   * @return the number of skipped sentences, 0 if there is no session
+   */
+  static long getSkippedCount() {
+    return getEventCount(SKIPPED);
+  }
+
+  /**
+   * Returns the number of occurrences of the given event in the session running on the current
+   * thread.
+   *
+   * @param event the name of the event
+   * @return the number of occurrences of the event, 0 if there is no session
+   */
+  private static long getEventCount(String event) {
+    final SessionMonitor monitor = SessionMonitor.current();
+    return monitor == null ? 0 : monitor.getEventCount(event);
+  }
 }
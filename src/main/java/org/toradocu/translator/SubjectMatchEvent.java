@@ -0,0 +1,32 @@
+package org.toradocu.translator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for the matching of a subject to the code elements of a method. Fields are
+ * set only if the event is recorded.
+ */
+@Name("org.toradocu.SubjectMatch")
+@Label("Subject Match")
+@Category({"Toradocu", "Translator"})
+@Description("Matching of the subject of a proposition to code elements")
+final class SubjectMatchEvent extends Event {
+
+  @Label("Method")
+  String method;
+
+  @Label("Subject")
+  String subject;
+
+  @Label("Candidates")
+  @Description("Number of code elements the subject is compared to")
+  int candidates;
+
+  @Label("Matches")
+  @Description("Number of code elements matching the subject")
+  int matches;
+}
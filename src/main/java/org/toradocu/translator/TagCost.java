@@ -0,0 +1,53 @@
+package org.toradocu.translator;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.Tag;
+
+/**
+ * Estimates the cost of translating the comments of tags, so that {@code TranslatorChain} can start
+ * the most expensive tags first when it translates tags in parallel. The parser takes time
+ * superlinear in the length of a sentence, and the subjects of each proposition are matched against
+ * all the code elements that are candidates for the method: the cost of a tag is the sum of the
+ * squared numbers of words of its sentences, plus the number of its words times the number of
+ * candidate code elements.
+ */
+final class TagCost {
+
+  /** Ends of sentences. */
+  private static final Pattern SENTENCE_END = Pattern.compile("[.;:](\\s+|$)");
+  /** Separators of words. */
+  private static final Pattern WORD_SEPARATOR = Pattern.compile("\\s+");
+
+  /** Number of candidate code elements of the methods estimated so far. */
+  private final Map<DocumentedMethod, Integer> codeElements = new IdentityHashMap<>();
+
+  /**
+   * Returns the estimated cost of translating the comment of the given tag.
+   *
+   * @param tag a tag
+   * @param method the method the tag belongs to
+   * @return the estimated cost of translating the comment of {@code tag}
+   */
+  long estimate(Tag tag, DocumentedMethod method) {
+    final String comment = tag.getComment().trim();
+    if (comment.isEmpty()) {
+      return 0;
+    }
+    long words = 0;
+    long cost = 0;
+    for (String sentence : SENTENCE_END.split(comment)) {
+      String trimmed = sentence.trim();
+      if (!trimmed.isEmpty()) {
+        long sentenceWords = WORD_SEPARATOR.split(trimmed).length;
+        words += sentenceWords;
+        cost += sentenceWords * sentenceWords;
+      }
+    }
+    int candidates =
+        codeElements.computeIfAbsent(method, m -> JavaElementsCollector.collect(m).size());
+    return cost + words * candidates;
+  }
+}
@@ -0,0 +1,36 @@
+package org.toradocu.translator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for the translation of a tag by a translator of the chain. Fields are set
+ * only if the event is recorded.
+ */
+@Name("org.toradocu.TagTranslation")
+@Label("Tag Translation")
+@Category({"Toradocu", "Translator"})
+@Description("Translation of a Javadoc tag by a translator of the chain")
+final class TagTranslationEvent extends Event {
+
+  @Label("Method")
+  String method;
+
+  @Label("Tag Kind")
+  String kind;
+
+  @Label("Comment")
+  String comment;
+
+  @Label("Translator")
+  String translator;
+
+  @Label("Translated")
+  boolean translated;
+
+  @Label("Condition")
+  String condition;
+}
@@ -0,0 +1,32 @@
+package org.toradocu.translator;
+
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.Tag;
+
+/**
+ * The standard Toradocu translator ({@code ConditionTranslator}), available as the {@code
+ * Translator} named "toradocu". Comments are parsed with the Stanford parser, unless the fast-path
+ * rules translate them directly.
+ */
+public final class ToradocuTranslator implements Translator {
+
+  @Override
+  public String getName() {
+    return "toradocu";
+  }
+
+  @Override
+  public void translate(Tag tag, DocumentedMethod method) {
+    ConditionTranslator.processTag(tag, method);
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  @Override
+  public void finish() {
+    ConditionTranslator.logStatistics();
+  }
+}
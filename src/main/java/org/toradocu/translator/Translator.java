@@ -0,0 +1,47 @@
+package org.toradocu.translator;
+
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.Tag;
+
+/**
+ * A {@code Translator} translates the comments of Javadoc tags into Java conditions. Translators
+ * are discovered with {@code java.util.ServiceLoader}: implementations are listed in the resource
+ * {@code META-INF/services/org.toradocu.translator.Translator} and must have a public no-argument
+ * constructor. Translators are selected by name with the command line option {@code --translators}
+ * and run in chain by {@code TranslatorChain}: each translator receives only the tags that the
+ * previous translators left untranslated.
+ */
+public interface Translator {
+
+  /**
+   * Returns the name of this translator, used to select it with {@code --translators}.
+   *
+   * @return the name of this translator
+   */
+  String getName();
+
+  /**
+   * Translates the comment of the given tag, setting the condition of the tag. A tag is left
+   * untranslated by not setting its condition, or by setting it to the empty string.
+   *
+   * @param tag the tag whose comment has to be translated
+   * @param method the method the tag belongs to
+   */
+  void translate(Tag tag, DocumentedMethod method);
+
+  /**
+   * Invoked once all the tags have been handled by this translator, e.g., to report statistics.
+   * Does nothing by default.
+   */
+  default void finish() {}
+
+  /**
+   * Returns whether this translator can translate many tags at the same time, on different
+   * threads (see {@code --translation-threads}). Returns false by default.
+   *
+   * @return true if {@code translate} can be invoked concurrently, false otherwise
+   */
+  default boolean isThreadSafe() {
+    return false;
+  }
+}
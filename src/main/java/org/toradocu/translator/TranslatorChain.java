@@ -0,0 +1,389 @@
+package org.toradocu.translator;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.toradocu.SessionMonitor;
+import org.toradocu.Toradocu;
+import org.toradocu.ToradocuSession;
+import org.toradocu.conf.Configuration;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.Tag;
+import org.toradocu.util.Profiler;
+
+/**
+ * {@code TranslatorChain} runs a sequence of {@code Translator}s over the tags of documented
+ * methods. The first translator handles all the tags; every following translator handles only the
+ * tags that are still untranslated. This way cheap translators can run first and leave to the
+ * expensive ones only the comments they cannot translate.
+ *
+ * <p>With {@code --translation-threads}, translators that are thread-safe translate many tags at
+ * the same time, starting from the tags whose comments are estimated to be the most expensive to
+ * translate. The statistics of each translator report its makespan and throughput.
+ *
+ * <p>Each translation of a tag is recorded as a {@code org.toradocu.TagTranslation} event by the
+ * JDK Flight Recorder, if a recording is running.
+ */
+public final class TranslatorChain {
+
+  private static final Logger log = LoggerFactory.getLogger(TranslatorChain.class);
+
+  /** Statistics about the execution of a translator in a chain. */
+  public static final class TranslatorStats {
+    /** The name of the translator. */
+    private final String name;
+    /** Number of tags given to the translator. */
+    private int handled;
+    /** Number of tags the translator translated. */
+    private int translated;
+    /** Wall time spent by the translator (its makespan), in nanoseconds. */
+    private long time;
+    /** Longest time spent by the translator on a single tag, in nanoseconds. */
+    private long longestTag;
+
+    private TranslatorStats(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Returns the name of the translator.
+     *
+     * @return the name of the translator
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the number of tags given to the translator.
+     *
+     * @return the number of tags given to the translator
+     */
+    public int getHandled() {
+      return handled;
+    }
+
+    /**
+     * Returns the number of tags the translator translated.
+     *
+     * @return the number of tags the translator translated
+     */
+    public int getTranslated() {
+      return translated;
+    }
+
+    /**
+     * Returns the wall time spent by the translator, in milliseconds. When tags are translated in
+     * parallel, this is the makespan of the translation: the time until the last tag is done.
+     *
+     * @return the wall time spent by the translator, in milliseconds
+     */
+    public long getTimeMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(time);
+    }
+
+    /**
+     * Returns the number of tags handled by the translator per second.
+     *
+     * @return the number of tags handled per second, or 0 if no time has been spent
+     */
+    public double getThroughput() {
+      return time == 0 ? 0 : handled / (time / 1e9);
+    }
+
+    /**
+     * Returns the longest time spent by the translator on a single tag, in milliseconds. The
+     * makespan of a parallel translation cannot be shorter than this.
+     *
+     * @return the longest time spent on a single tag, in milliseconds
+     */
+    public long getLongestTagMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(longestTag);
+    }
+
+    @Override
+    public String toString() {
+      return name
+          + ": "
+          + handled
+          + " tags handled, "
+          + translated
+          + " translated, makespan "
+          + getTimeMillis()
+          + " ms, "
+          + String.format("%.1f", getThroughput())
+          + " tags/s, longest tag "
+          + getLongestTagMillis()
+          + " ms";
+    }
+  }
+
+  private TranslatorChain() {}
+
+  /**
+   * Returns the translators with the given names, in the same order, among those available through
+   * {@code java.util.ServiceLoader}.
+   *
+   * @param names the names of the translators
+   * @return the translators with the given names
+   * @throws UnknownTranslatorException if there is no translator with one of the given names
+   */
+  public static List<Translator> load(List<String> names) {
+    Map<String, Translator> available = new LinkedHashMap<>();
+    for (Translator translator : ServiceLoader.load(Translator.class)) {
+      available.putIfAbsent(translator.getName(), translator);
+    }
+
+    List<Translator> translators = new ArrayList<>();
+    for (String name : names) {
+      Translator translator = available.get(name);
+      if (translator == null) {
+        throw new UnknownTranslatorException(name, available.keySet());
+      }
+      translators.add(translator);
+    }
+    return translators;
+  }
+
+  /**
+   * Translates the @throws, @param, and @return tags of the given methods with the given chain of
+   * translators.
+   *
+   * @param methods the methods whose tags have to be translated
+   * @param translators the chain of translators
+   * @return statistics about the execution of each translator, in chain order
+   */
+  public static List<TranslatorStats> translate(
+      List<DocumentedMethod> methods, List<Translator> translators) {
+    return translate(methods, translators, method -> {});
+  }
+
+  /**
+   * Translates the @throws, @param, and @return tags of the given methods with the given chain of
+   * translators, and hands each method to {@code onTranslated} as soon as the chain is done with
+   * all its tags (methods without tags are handed over first).
+   *
+   * @param methods the methods whose tags have to be translated
+   * @param translators the chain of translators
+   * @param onTranslated consumer of the methods whose tags have all been handled
+   * @return statistics about the execution of each translator, in chain order
+   */
+  public static List<TranslatorStats> translate(
+      List<DocumentedMethod> methods,
+      List<Translator> translators,
+      Consumer<DocumentedMethod> onTranslated) {
+    // Tags still to be translated, paired with the method they belong to. (Tags are not used as
+    // map keys: tags of different methods can be equal.)
+    List<Map.Entry<Tag, DocumentedMethod>> pending = new ArrayList<>();
+    // Number of tags still to be handled, for each method with tags.
+    Map<DocumentedMethod, Integer> remainingTags = new IdentityHashMap<>();
+    for (DocumentedMethod method : methods) {
+      final int before = pending.size();
+      for (Tag tag : method.throwsTags()) pending.add(new SimpleImmutableEntry<>(tag, method));
+      for (Tag tag : method.paramTags()) pending.add(new SimpleImmutableEntry<>(tag, method));
+      if (method.returnTag() != null) {
+        pending.add(new SimpleImmutableEntry<>(method.returnTag(), method));
+      }
+      if (pending.size() == before) {
+        onTranslated.accept(method);
+      } else {
+        remainingTags.put(method, pending.size() - before);
+      }
+    }
+
+    final SessionMonitor monitor = SessionMonitor.current();
+    if (monitor != null) {
+      monitor.startTranslation(methods);
+    }
+    final Configuration configuration = Toradocu.getConfiguration();
+    final int threads = configuration == null ? 1 : configuration.getTranslationThreads();
+    List<TranslatorStats> statistics = new ArrayList<>();
+    for (int i = 0; i < translators.size(); i++) {
+      final Translator translator = translators.get(i);
+      final boolean last = i == translators.size() - 1;
+      // Handles a tag once the translator is done with it. Invoked by one thread at a time.
+      final Consumer<Map.Entry<Tag, DocumentedMethod>> onHandled =
+          entry -> {
+            final boolean translated = isTranslated(entry.getKey());
+            if (translated || last) {
+              final DocumentedMethod method = entry.getValue();
+              if (monitor != null) {
+                monitor.tagProcessed(method, translated);
+              }
+              if (remainingTags.merge(method, -1, Integer::sum) == 0) {
+                remainingTags.remove(method);
+                onTranslated.accept(method);
+              }
+            }
+          };
+
+      TranslatorStats stats = new TranslatorStats(translator.getName());
+      final long start = System.nanoTime();
+      final long[] tagTimes =
+          threads > 1 && translator.isThreadSafe() && pending.size() > 1
+              ? translateInParallel(translator, pending, threads, onHandled)
+              : translateSequentially(translator, pending, onHandled);
+      translator.finish();
+      stats.time = System.nanoTime() - start;
+
+      List<Map.Entry<Tag, DocumentedMethod>> untranslated = new ArrayList<>();
+      for (int j = 0; j < pending.size(); j++) {
+        stats.handled++;
+        stats.longestTag = Math.max(stats.longestTag, tagTimes[j]);
+        if (isTranslated(pending.get(j).getKey())) {
+          stats.translated++;
+        } else {
+          untranslated.add(pending.get(j));
+        }
+      }
+      log.info(stats.toString());
+      statistics.add(stats);
+      pending = untranslated;
+    }
+    if (monitor != null) {
+      monitor.endTranslation();
+    }
+    return Collections.unmodifiableList(statistics);
+  }
+
+  /**
+   * Translates the given tags with the given translator, one after the other.
+   *
+   * @param translator the translator
+   * @param tags the tags to translate, paired with the method they belong to
+   * @param onHandled invoked on each tag once the translator is done with it
+   * @return the time spent on each tag in nanoseconds, in the order of {@code tags}
+   */
+  private static long[] translateSequentially(
+      Translator translator,
+      List<Map.Entry<Tag, DocumentedMethod>> tags,
+      Consumer<Map.Entry<Tag, DocumentedMethod>> onHandled) {
+    final long[] times = new long[tags.size()];
+    for (int i = 0; i < tags.size(); i++) {
+      times[i] = translateTag(translator, tags.get(i));
+      onHandled.accept(tags.get(i));
+    }
+    return times;
+  }
+
+  /**
+   * Returns the order in which the given tags are dispatched to the worker threads: from the most
+   * expensive to the least expensive (see {@code TagCost}). Tags with the same cost keep their
+   * order.
+   *
+   * @param tags the tags to translate, paired with the method they belong to
+   * @return the indexes of {@code tags}, in dispatch order
+   */
+  static List<Integer> dispatchOrder(List<Map.Entry<Tag, DocumentedMethod>> tags) {
+    final TagCost tagCost = new TagCost();
+    final long[] costs = new long[tags.size()];
+    final List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < tags.size(); i++) {
+      costs[i] = tagCost.estimate(tags.get(i).getKey(), tags.get(i).getValue());
+      order.add(i);
+    }
+    order.sort(Comparator.comparingLong((Integer i) -> costs[i]).reversed());
+    return order;
+  }
+
+  /**
+   * Translates the given tags with the given (thread-safe) translator on a work-stealing pool of
+   * the given number of threads. Tags are dispatched from the most expensive (see {@code
+   * TagCost}), so that long comments do not straggle at the end of the translation. The worker
+   * threads take part in the session of the calling thread, if any.
+   *
+   * @param translator the translator
+   * @param tags the tags to translate, paired with the method they belong to
+   * @param threads the number of threads
+   * @param onHandled invoked on each tag once the translator is done with it
+   * @return the time spent on each tag in nanoseconds, in the order of {@code tags}
+   */
+  private static long[] translateInParallel(
+      Translator translator,
+      List<Map.Entry<Tag, DocumentedMethod>> tags,
+      int threads,
+      Consumer<Map.Entry<Tag, DocumentedMethod>> onHandled) {
+    final List<Integer> order = dispatchOrder(tags);
+    final ToradocuSession session = ToradocuSession.current();
+    final long[] times = new long[tags.size()];
+    final ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      List<ForkJoinTask<?>> tasks = new ArrayList<>();
+      for (int index : order) {
+        final Map.Entry<Tag, DocumentedMethod> entry = tags.get(index);
+        Runnable translation =
+            () -> {
+              times[index] = translateTag(translator, entry);
+              synchronized (onHandled) {
+                onHandled.accept(entry);
+              }
+            };
+        Runnable task =
+            session == null
+                ? translation
+                : () ->
+                    session.call(
+                        () -> {
+                          translation.run();
+                          return null;
+                        });
+        tasks.add(pool.submit(task));
+      }
+      for (ForkJoinTask<?> task : tasks) {
+        task.join();
+      }
+    } finally {
+      pool.shutdown();
+    }
+    return times;
+  }
+
+  /**
+   * Translates the given tag with the given translator, recording the translation as a {@code
+   * org.toradocu.TagTranslation} event.
+   *
+   * @param translator the translator
+   * @param entry the tag to translate, paired with the method it belongs to
+   * @return the time spent on the tag in nanoseconds
+   */
+  private static long translateTag(Translator translator, Map.Entry<Tag, DocumentedMethod> entry) {
+    final Tag tag = entry.getKey();
+    final DocumentedMethod method = entry.getValue();
+    final long start = System.nanoTime();
+    TagTranslationEvent event = new TagTranslationEvent();
+    event.begin();
+    Profiler.measureTag(method, tag, () -> translator.translate(tag, method));
+    if (event.shouldCommit()) {
+      event.method = method.getContainingClass().getQualifiedName() + "." + method.getSignature();
+      event.kind = tag.getKind().toString();
+      event.comment = tag.getComment();
+      event.translator = translator.getName();
+      event.translated = isTranslated(tag);
+      event.condition = tag.getCondition().orElse("");
+      event.commit();
+    }
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Returns true if the given tag has a non-empty condition.
+   *
+   * @param tag a tag
+   * @return true if the given tag has been translated
+   */
+  private static boolean isTranslated(Tag tag) {
+    return !tag.getCondition().orElse("").isEmpty();
+  }
+}
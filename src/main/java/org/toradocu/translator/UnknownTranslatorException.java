@@ -0,0 +1,30 @@
+package org.toradocu.translator;
+
+/** Thrown when a chain of translators names a translator that is not available. */
+public class UnknownTranslatorException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  /** The name of the unknown translator. */
+  private final String name;
+
+  /**
+   * Creates a new exception for the translator with the given name.
+   *
+   * @param name the name of the unknown translator
+   * @param available the names of the available translators
+   */
+  public UnknownTranslatorException(String name, Iterable<String> available) {
+    super("Unknown translator: " + name + ". Available translators: " + available);
+    this.name = name;
+  }
+
+  /**
+   * Returns the name of the unknown translator.
+   *
+   * @return the name of the unknown translator
+   */
+  public String getName() {
+    return name;
+  }
+}
@@ -0,0 +1,88 @@
+package org.toradocu.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.toradocu.SessionMonitor;
+
+/**
+ * Class loaders for binaries specified with option --class-dir, created once for each list of
+ * paths. Each {@code ToradocuSession} has a cache of its own by default; runners evaluating many
+ * sessions on the same binaries can share a cache among the sessions, so that classes are loaded
+ * only once, and close it when the sessions are over.
+ *
+ * <p>Class loaders are never refreshed: binaries must not change while the cache is in use.
+ */
+public final class ClassLoaderCache implements Closeable {
+
+  /** {@code Logger} for this class. */
+  private static final Logger log = LoggerFactory.getLogger(ClassLoaderCache.class);
+
+  /** Class loaders by list of paths. */
+  private final Map<List<String>, URLClassLoader> classLoaders = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the class loader that loads classes from the given paths, creating it if it is not in
+   * this cache.
+   *
+   * @param binariesPaths paths to binaries (directories or jar files)
+   * @return the class loader that loads classes from {@code binariesPaths}
+   */
+  public ClassLoader get(List<String> binariesPaths) {
+    List<String> key = new ArrayList<>(binariesPaths);
+    ClassLoader classLoader = classLoaders.get(key);
+    SessionMonitor.recordCacheAccess("classLoaders", classLoader != null);
+    return classLoader != null
+        ? classLoader
+        : classLoaders.computeIfAbsent(key, ClassLoaderCache::createClassLoader);
+  }
+
+  /**
+   * Closes the class loaders in this cache, releasing the binaries they opened, and empties the
+   * cache. Classes already loaded remain usable; failures to close a class loader are logged.
+   */
+  @Override
+  public void close() {
+    for (Map.Entry<List<String>, URLClassLoader> entry : classLoaders.entrySet()) {
+      try {
+        entry.getValue().close();
+      } catch (IOException e) {
+        log.warn("Unable to close the class loader of " + entry.getKey(), e);
+      }
+    }
+    classLoaders.clear();
+  }
+
+  /**
+   * Returns a new class loader that loads classes from the given paths.
+   *
+   * @param binariesPaths paths to binaries (directories or jar files)
+   * @return a new class loader that loads classes from {@code binariesPaths}
+   */
+  static URLClassLoader createClassLoader(List<String> binariesPaths) {
+    URL[] urls = new URL[binariesPaths.size()];
+    for (int i = 0; i < urls.length; i++) {
+      try {
+        urls[i] = Paths.get(binariesPaths.get(i)).toUri().toURL();
+      } catch (MalformedURLException e) {
+        // TODO Move this check in the configuration to validate the input from the beginning.
+        // TODO Notice that we don't take any particular action if any provided path is wrong.
+        log.error(
+            "Impossible to load binaries from "
+                + binariesPaths.get(i)
+                + ". Check the correctness of the path provided with option --class-dir.",
+            e);
+      }
+    }
+    return URLClassLoader.newInstance(urls, ClassLoader.getSystemClassLoader());
+  }
+}
@@ -24,7 +24,7 @@ public class Distance {
    *     deletions
    */
   public static int editDistance(String s0, String s1) {
-    return editDistance(Toradocu.configuration.getWordRemovalCost(), s0, s1);
+    return editDistance(Toradocu.getConfiguration().getWordRemovalCost(), s0, s1);
   }
 
   /**
@@ -174,9 +174,9 @@ public class Distance {
       m = right.length();
     }
 
-    int[] p = new int[n + 1]; //'previous' cost array, horizontally
+    int[] p = new int[n + 1]; // 'previous' cost array, horizontally
     int[] d = new int[n + 1]; // cost array, horizontally
-    int[] tempD; //placeholder to assist in swapping p and d
+    int[] tempD; // placeholder to assist in swapping p and d
 
     // indexes into strings left and right
     int i; // iterates through left
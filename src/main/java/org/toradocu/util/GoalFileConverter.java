@@ -4,6 +4,7 @@ import com.google.gson.reflect.TypeToken;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -14,7 +15,7 @@ import java.nio.file.Paths;
 import java.util.List;
 import java.util.Objects;
 import java.util.StringJoiner;
-import org.toradocu.Toradocu;
+import org.toradocu.ToradocuSession;
 import org.toradocu.conf.Configuration;
 import org.toradocu.extractor.DocumentedMethod;
 import org.toradocu.extractor.ThrowsTag;
@@ -42,9 +43,10 @@ public class GoalFileConverter {
     // Path to the binaries from which load information with reflection.
     final String binPath = args[2];
 
-    // We use Toradocu code to load reflection information.
-    Toradocu.configuration = new Configuration();
-    Toradocu.configuration.classDirs = binPath;
+    // We use Toradocu code, in a session with the given binaries, to load reflection information.
+    final Configuration configuration = new Configuration();
+    configuration.classDirs = binPath;
+    final ToradocuSession session = new ToradocuSession(configuration);
 
     java.lang.reflect.Type listType = new TypeToken<List<DocumentedMethod>>() {}.getType();
 
@@ -52,35 +54,15 @@ public class GoalFileConverter {
         BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputFilePath))) {
 
       List<DocumentedMethod> methods = GsonInstance.gson().fromJson(reader, listType);
-      for (DocumentedMethod method : methods) {
-        final Executable executable = method.getExecutable();
-        if (executable == null) {
-          System.err.println("Reflection error: Impossible to load method " + method.getName());
-          continue;
-        }
-
-        // Ignore private and inherited executable members.
-        if (Modifier.isPrivate(executable.getModifiers())
-            || executable.isSynthetic()
-            || !method.getTargetClass().equals(method.getContainingClass().getQualifiedName())) {
-          continue;
-        }
-
-        StringBuilder methodId = new StringBuilder(methodIdOf(executable));
-        for (ThrowsTag throwsTag : method.throwsTags()) {
-          String commentTranslation =
-              methodId
-                  + " throws "
-                  + throwsTag.exceptionType().getQualifiedName()
-                  + " "
-                  + throwsTag.getComment()
-                  + " ==> ["
-                  + throwsTag.getCondition().orElse("").replace(" ", "")
-                  + "]";
-          writer.write(commentTranslation);
-          writer.newLine();
-        }
-      }
+      session.call(
+          () -> {
+            try {
+              convert(methods, writer);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            return null;
+          });
       System.out.println("Output file: " + outputFilePath);
     }
 
@@ -96,7 +78,52 @@ public class GoalFileConverter {
     }
   }
 
-  private static boolean isConversionCorrect(String actualOutputFile, String expectedOutputFile)
+  /**
+   * Writes the conditions of the @throws tags of the given methods in the old format used by
+   * Toradocu v 0.1, one tag per line. Private and inherited methods are ignored. The binaries of
+   * the methods are loaded from the class directories of the configuration in use on the current
+   * thread (see {@code Toradocu.getConfiguration}).
+   *
+   * @param methods the methods to convert
+   * @param writer the writer where to save the conversion
+   * @throws IOException if the conversion cannot be written
+   */
+  static void convert(List<DocumentedMethod> methods, BufferedWriter writer) throws IOException {
+    for (DocumentedMethod method : methods) {
+      // Ignore inherited executable members (before loading them with reflection).
+      if (!method.getTargetClass().equals(method.getContainingClass().getQualifiedName())) {
+        continue;
+      }
+
+      final Executable executable = method.getExecutable();
+      if (executable == null) {
+        System.err.println("Reflection error: Impossible to load method " + method.getName());
+        continue;
+      }
+
+      // Ignore private executable members.
+      if (Modifier.isPrivate(executable.getModifiers()) || executable.isSynthetic()) {
+        continue;
+      }
+
+      StringBuilder methodId = new StringBuilder(methodIdOf(executable));
+      for (ThrowsTag throwsTag : method.throwsTags()) {
+        String commentTranslation =
+            methodId
+                + " throws "
+                + throwsTag.exceptionType().getQualifiedName()
+                + " "
+                + throwsTag.getComment()
+                + " ==> ["
+                + throwsTag.getCondition().orElse("").replace(" ", "")
+                + "]";
+        writer.write(commentTranslation);
+        writer.newLine();
+      }
+    }
+  }
+
+  static boolean isConversionCorrect(String actualOutputFile, String expectedOutputFile)
       throws IOException {
     final List<String> actualResult = Files.readAllLines(Paths.get(actualOutputFile));
     final List<String> expectedResult = Files.readAllLines(Paths.get(expectedOutputFile));
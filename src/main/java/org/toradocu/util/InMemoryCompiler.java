@@ -0,0 +1,241 @@
+package org.toradocu.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles Java source code in memory with the system Java compiler. All the sources given to
+ * {@code compile} are compiled by a single compiler task, so the cost of starting the compiler is
+ * paid once per batch of sources. Class files are kept in memory, and can be loaded with the class
+ * loader returned by {@code Result#getClassLoader}.
+ */
+public final class InMemoryCompiler {
+
+  /** Disables construction of this class. */
+  private InMemoryCompiler() {}
+
+  /**
+   * Compiles the given sources against the given classpath.
+   *
+   * @param sources the source code of top-level classes, by fully qualified class name
+   * @param classpath the classpath to compile against
+   * @return the result of the compilation
+   * @throws NullPointerException if {@code sources} or {@code classpath} is null
+   * @throws IllegalStateException if no system Java compiler is available (e.g., on a JRE)
+   */
+  public static Result compile(Map<String, String> sources, String classpath) {
+    Checks.nonNullParameter(sources, "sources");
+    Checks.nonNullParameter(classpath, "classpath");
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      throw new IllegalStateException("No system Java compiler is available: a JDK is required.");
+    }
+    List<JavaFileObject> sourceFiles = new ArrayList<>();
+    for (Map.Entry<String, String> source : sources.entrySet()) {
+      sourceFiles.add(new SourceFile(source.getKey(), source.getValue()));
+    }
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    Map<String, ByteArrayOutputStream> classFiles = new ConcurrentHashMap<>();
+    StandardJavaFileManager standardFileManager =
+        compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+    JavaFileManager fileManager =
+        new ForwardingJavaFileManager<JavaFileManager>(standardFileManager) {
+          @Override
+          public JavaFileObject getJavaFileForOutput(
+              Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+            return new ClassFile(className, classFiles);
+          }
+        };
+    List<String> options = Arrays.asList("-classpath", classpath, "-nowarn", "-proc:none");
+    boolean successful =
+        compiler.getTask(null, fileManager, diagnostics, options, null, sourceFiles).call();
+    try {
+      fileManager.close();
+    } catch (IOException e) {
+      // Nothing is written to disk: there is nothing to release.
+    }
+    return new Result(successful, diagnostics.getDiagnostics(), classFiles);
+  }
+
+  /**
+   * Returns the classpath from which the given class loader, and its ancestors, load classes. The
+   * classpath of the application is included as well.
+   *
+   * @param loader a class loader
+   * @return the classpath of {@code loader}
+   */
+  public static String getClassPath(ClassLoader loader) {
+    Set<String> entries = new LinkedHashSet<>();
+    for (ClassLoader current = loader; current != null; current = current.getParent()) {
+      if (current instanceof URLClassLoader) {
+        for (URL url : ((URLClassLoader) current).getURLs()) {
+          if (url.getProtocol().equals("file")) {
+            try {
+              entries.add(Paths.get(url.toURI()).toString());
+            } catch (URISyntaxException e) {
+              entries.add(url.getPath());
+            }
+          }
+        }
+      }
+    }
+    entries.addAll(Arrays.asList(System.getProperty("java.class.path").split(File.pathSeparator)));
+    return String.join(File.pathSeparator, entries);
+  }
+
+  /** The result of a compilation: diagnostics, and class files if the compilation succeeded. */
+  public static final class Result {
+
+    /** Whether the compilation succeeded. */
+    private final boolean successful;
+    /** Compilation errors. */
+    private final List<Diagnostic<? extends JavaFileObject>> errors;
+    /** Contents of the class files, by fully qualified class name. */
+    private final Map<String, ByteArrayOutputStream> classFiles;
+
+    private Result(
+        boolean successful,
+        List<Diagnostic<? extends JavaFileObject>> diagnostics,
+        Map<String, ByteArrayOutputStream> classFiles) {
+      this.successful = successful;
+      this.errors =
+          diagnostics
+              .stream()
+              .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+              .collect(Collectors.toList());
+      this.classFiles = classFiles;
+    }
+
+    /**
+     * Returns true if all the sources compiled without errors.
+     *
+     * @return true if the compilation succeeded
+     */
+    public boolean isSuccessful() {
+      return successful;
+    }
+
+    /**
+     * Returns the compilation errors.
+     *
+     * @return the compilation errors, in the order they were reported
+     */
+    public List<Diagnostic<? extends JavaFileObject>> getErrors() {
+      return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Returns the compilation errors in the source of the given class.
+     *
+     * @param className the fully qualified name of a compiled top-level class
+     * @return the compilation errors in the source of {@code className}
+     */
+    public List<Diagnostic<? extends JavaFileObject>> getErrors(String className) {
+      return errors
+          .stream()
+          .filter(
+              d ->
+                  d.getSource() instanceof SourceFile
+                      && ((SourceFile) d.getSource()).className.equals(className))
+          .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a class loader that loads the compiled classes. Other classes are loaded by {@code
+     * parent}.
+     *
+     * @param parent the parent of the returned class loader
+     * @return a class loader for the compiled classes
+     * @throws IllegalStateException if the compilation did not succeed
+     */
+    public ClassLoader getClassLoader(ClassLoader parent) {
+      if (!successful) {
+        throw new IllegalStateException("Classes that do not compile cannot be loaded.");
+      }
+      return new ClassLoader(parent) {
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+          ByteArrayOutputStream classFile = classFiles.get(name);
+          if (classFile == null) {
+            throw new ClassNotFoundException(name);
+          }
+          byte[] bytes = classFile.toByteArray();
+          return defineClass(name, bytes, 0, bytes.length);
+        }
+      };
+    }
+  }
+
+  /** A source file held in memory. */
+  private static final class SourceFile extends SimpleJavaFileObject {
+
+    /** The fully qualified name of the class declared in this file. */
+    private final String className;
+    /** The source code. */
+    private final String source;
+
+    SourceFile(String className, String source) {
+      super(
+          URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension),
+          Kind.SOURCE);
+      this.className = className;
+      this.source = source;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return source;
+    }
+  }
+
+  /** A class file held in memory. */
+  private static final class ClassFile extends SimpleJavaFileObject {
+
+    /** The fully qualified name of the class in this file. */
+    private final String className;
+    /** Where to store the contents of the class file, by class name. */
+    private final Map<String, ByteArrayOutputStream> classFiles;
+
+    ClassFile(String className, Map<String, ByteArrayOutputStream> classFiles) {
+      super(
+          URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+      this.className = className;
+      this.classFiles = classFiles;
+    }
+
+    @Override
+    public OutputStream openOutputStream() {
+      ByteArrayOutputStream classFile = new ByteArrayOutputStream();
+      classFiles.put(className, classFile);
+      return classFile;
+    }
+  }
+}
@@ -7,8 +7,12 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.toradocu.extractor.DocumentedMethod;
@@ -20,7 +24,8 @@ import org.toradocu.extractor.ThrowsTag;
  * Given two Toradocu specs JSON files F1 and F2, this program copies the condition translations
  * present in F1 to F2 (for the comments present in both F1 and F2).
  *
- * <p>Output is in JSON format and it is printed on the standard output.
+ * <p>Output is in JSON format and it is printed on the standard output. See {@code SpecsTool} to
+ * update all the specs files of a directory at once.
  */
 public class JsonUpdater {
 
@@ -46,15 +51,36 @@ public class JsonUpdater {
       newSpecs = GsonInstance.gson().fromJson(newSpecsFile, collectionType);
     }
 
+    update(oldJSONSpecs, oldSpecs, newSpecs);
+
+    // Print the JSON on the standard output.
+    System.out.println(GsonInstance.gson().toJson(newSpecs, collectionType));
+  }
+
+  /**
+   * Copies the condition translations of the methods in {@code oldSpecs} to the corresponding
+   * methods (i.e., the methods with the same signature) in {@code newSpecs}.
+   *
+   * @param oldJSONSpecs the name of the file of the old specs, used in error messages
+   * @param oldSpecs the old specs
+   * @param newSpecs the new specs, which are updated
+   * @throws AssertionError if a method or a comment in {@code newSpecs} is not present in {@code
+   *     oldSpecs}, or is present more than once
+   */
+  static void update(
+      String oldJSONSpecs, List<DocumentedMethod> oldSpecs, List<DocumentedMethod> newSpecs) {
+    // Index old specs by signature.
+    final Map<String, List<DocumentedMethod>> oldMethods = new HashMap<>();
+    for (DocumentedMethod oldMethod : oldSpecs) {
+      oldMethods.computeIfAbsent(oldMethod.getSignature(), s -> new ArrayList<>()).add(oldMethod);
+    }
+
     // Copy goal translations from old specs to new specs.
     for (DocumentedMethod newMethod : newSpecs) {
 
       // Find in old specs the method corresponding to newMethod in new specs.
       List<DocumentedMethod> matchingMethods =
-          oldSpecs
-              .stream()
-              .filter(m -> m.getSignature().equals(newMethod.getSignature()))
-              .collect(Collectors.toList());
+          oldMethods.getOrDefault(newMethod.getSignature(), Collections.emptyList());
       // Sanity checks.
       if (matchingMethods.size() == 0) {
         throw new AssertionError("Method " + newMethod + " not present in " + oldJSONSpecs);
@@ -71,9 +97,6 @@ public class JsonUpdater {
       updateReturnTag(oldMethod, newMethod);
       updateThrowsTags(oldJSONSpecs, oldMethod, newMethod);
     }
-
-    // Print the JSON on the standard output.
-    System.out.println(GsonInstance.gson().toJson(newSpecs, collectionType));
   }
 
   private static void updateReturnTag(DocumentedMethod oldMethod, DocumentedMethod newMethod) {
@@ -0,0 +1,463 @@
+package org.toradocu.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.toradocu.ToradocuSession;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.Tag;
+
+/**
+ * Measures the resources used by the stages of a Toradocu run (see {@code --profile}): wall time,
+ * CPU time, and allocated bytes, taken per thread through {@code ThreadMXBean}. Measures are
+ * exclusive: the time spent in a stage nested in another one (e.g., parsing a comment while
+ * collecting code elements) is counted for the nested stage only. Resources used by different
+ * threads for the same stage add up, wall time included.
+ *
+ * <p>The stages executed while a tag is translated are also counted for that tag, and for the
+ * method the tag belongs to.
+ *
+ * <p>Components measure their stages with the static method {@code measure}, which uses the
+ * profiler of the {@code ToradocuSession} running on the current thread, if any.
+ */
+public final class Profiler {
+
+  /** Stages of a Toradocu run. */
+  public enum Stage {
+    /** Execution of the javadoc tool. */
+    JAVADOC,
+    /** Extraction of the documented methods from the output of the javadoc tool. */
+    EXTRACTION,
+    /** Parsing of comments by the Stanford parser. */
+    PARSING,
+    /** Analysis of semantic graphs by {@code SentenceParser}. */
+    SENTENCE_PARSING,
+    /** Matching of subjects to code elements. */
+    SUBJECT_MATCHING,
+    /** Matching of predicates to Java expressions. */
+    PREDICATE_MATCHING,
+    /** Collection of the code elements of a method by {@code JavaElementsCollector}. */
+    CODE_ELEMENTS_COLLECTION,
+    /** Serialization of documented methods to JSON. */
+    JSON_SERIALIZATION,
+    /** Export of the specifications to Randoop. */
+    RANDOOP_EXPORT,
+    /** Generation of the aspects. */
+    ORACLE_GENERATION
+  }
+
+  /**
+   * A task measured by the profiler.
+   *
+   * @param <T> the type of the result of the task
+   * @param <E> the type of the exception thrown by the task
+   */
+  @FunctionalInterface
+  public interface Task<T, E extends Exception> {
+    /**
+     * Runs the task.
+     *
+     * @return the result of the task
+     * @throws E if the task fails
+     */
+    T run() throws E;
+  }
+
+  /** Resources used by the executions of a stage. */
+  public static final class Usage {
+    /** Number of executions. */
+    private long count;
+    /** Wall time, in nanoseconds. */
+    private long wallTime;
+    /** CPU time, in nanoseconds. */
+    private long cpuTime;
+    /** Allocated bytes. */
+    private long allocatedBytes;
+
+    /**
+     * Returns the number of executions.
+     *
+     * @return the number of executions
+     */
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * Returns the wall time, in microseconds.
+     *
+     * @return the wall time, in microseconds
+     */
+    public long getWallMicros() {
+      return TimeUnit.NANOSECONDS.toMicros(wallTime);
+    }
+
+    /**
+     * Returns the CPU time, in microseconds.
+     *
+     * @return the CPU time, in microseconds
+     */
+    public long getCpuMicros() {
+      return TimeUnit.NANOSECONDS.toMicros(cpuTime);
+    }
+
+    /**
+     * Returns the number of allocated bytes.
+     *
+     * @return the number of allocated bytes
+     */
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+
+    private void add(long count, long wallTime, long cpuTime, long allocatedBytes) {
+      this.count += count;
+      this.wallTime += wallTime;
+      this.cpuTime += cpuTime;
+      this.allocatedBytes += allocatedBytes;
+    }
+
+    private void add(Usage usage) {
+      add(usage.count, usage.wallTime, usage.cpuTime, usage.allocatedBytes);
+    }
+
+    /**
+     * Returns this usage as a map from measure name to value, for the JSON report.
+     *
+     * @return this usage as a map
+     */
+    private Map<String, Long> asMap() {
+      Map<String, Long> map = new LinkedHashMap<>();
+      map.put("count", count);
+      map.put("wallMicros", getWallMicros());
+      map.put("cpuMicros", getCpuMicros());
+      map.put("allocatedBytes", allocatedBytes);
+      return map;
+    }
+  }
+
+  /** Resources used to translate a tag, overall and by stage. */
+  private static final class TagProfile {
+    private final String method;
+    private final String tag;
+    private final Usage total = new Usage();
+    private final Map<Stage, Usage> stages = new EnumMap<>(Stage.class);
+
+    private TagProfile(String method, String tag) {
+      this.method = method;
+      this.tag = tag;
+    }
+  }
+
+  /** A stage running on a thread. */
+  private static final class Frame {
+    private final Measure start = Measure.now();
+    /** Resources used by the stages nested in this one. */
+    private long nestedWallTime, nestedCpuTime, nestedAllocatedBytes;
+  }
+
+  /** Resources used by the current thread up to a point in time. */
+  private static final class Measure {
+    private final long wallTime;
+    private final long cpuTime;
+    private final long allocatedBytes;
+
+    private Measure(long wallTime, long cpuTime, long allocatedBytes) {
+      this.wallTime = wallTime;
+      this.cpuTime = cpuTime;
+      this.allocatedBytes = allocatedBytes;
+    }
+
+    private static Measure now() {
+      long cpuTime =
+          threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : 0;
+      long allocatedBytes = 0;
+      if (threads instanceof com.sun.management.ThreadMXBean) {
+        allocatedBytes =
+            Math.max(
+                0,
+                ((com.sun.management.ThreadMXBean) threads)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId()));
+      }
+      return new Measure(System.nanoTime(), cpuTime, allocatedBytes);
+    }
+  }
+
+  /** Source of the measures of threads. */
+  private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+  /** Stages running on each thread, innermost first. */
+  private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+  /** The tag being translated on each thread, if any. */
+  private final ThreadLocal<TagProfile> currentTag = new ThreadLocal<>();
+  /** Resources used by each stage. Guarded by this profiler. */
+  private final Map<Stage, Usage> stages = new EnumMap<>(Stage.class);
+  /** Resources used to translate each tag. Guarded by this profiler. */
+  private final Map<Tag, TagProfile> tags = new IdentityHashMap<>();
+  /** Profiles of the tags, in translation order. Guarded by this profiler. */
+  private final List<TagProfile> tagOrder = new ArrayList<>();
+
+  /** Creates a new profiler, enabling the measurement of CPU time and allocations if needed. */
+  public Profiler() {
+    if (threads.isThreadCpuTimeSupported() && !threads.isThreadCpuTimeEnabled()) {
+      threads.setThreadCpuTimeEnabled(true);
+    }
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+      if (sunThreads.isThreadAllocatedMemorySupported()
+          && !sunThreads.isThreadAllocatedMemoryEnabled()) {
+        sunThreads.setThreadAllocatedMemoryEnabled(true);
+      }
+    }
+  }
+
+  /**
+   * Runs the given task as an execution of the given stage, measured by the profiler of the session
+   * running on the current thread. If there is no such profiler, the task is just run.
+   *
+   * @param <T> the type of the result of the task
+   * @param <E> the type of the exception thrown by the task
+   * @param stage the stage executed by the task
+   * @param task the task to run
+   * @return the result of {@code task}
+   * @throws E if {@code task} fails
+   */
+  public static <T, E extends Exception> T measure(Stage stage, Task<T, E> task) throws E {
+    Profiler profiler = current();
+    return profiler == null ? task.run() : profiler.time(stage, task);
+  }
+
+  /**
+   * Runs the given translation of {@code tag}, attributing the stages it executes to {@code tag},
+   * with the profiler of the session running on the current thread. If there is no such profiler,
+   * the translation is just run.
+   *
+   * @param method the method {@code tag} belongs to
+   * @param tag the tag being translated
+   * @param translation the translation of {@code tag}
+   */
+  public static void measureTag(DocumentedMethod method, Tag tag, Runnable translation) {
+    Profiler profiler = current();
+    if (profiler == null) {
+      translation.run();
+      return;
+    }
+    TagProfile profile;
+    synchronized (profiler) {
+      profile = profiler.tags.get(tag);
+      if (profile == null) {
+        profile =
+            new TagProfile(
+                method.getContainingClass().getQualifiedName() + "." + method.getSignature(),
+                tag.getKind() + " " + tag.getComment());
+        profiler.tags.put(tag, profile);
+        profiler.tagOrder.add(profile);
+      }
+    }
+    TagProfile previous = profiler.currentTag.get();
+    profiler.currentTag.set(profile);
+    Measure start = Measure.now();
+    try {
+      translation.run();
+    } finally {
+      Measure end = Measure.now();
+      profiler.currentTag.set(previous);
+      synchronized (profiler) {
+        profile.total.add(
+            1,
+            end.wallTime - start.wallTime,
+            end.cpuTime - start.cpuTime,
+            end.allocatedBytes - start.allocatedBytes);
+      }
+    }
+  }
+
+  /**
+   * Returns the profiler of the session running on the current thread.
+   *
+   * @return the profiler of the session running on the current thread, or null if there is none
+   */
+  private static Profiler current() {
+    ToradocuSession session = ToradocuSession.current();
+    return session == null ? null : session.getProfiler();
+  }
+
+  /**
+   * Runs the given task as an execution of the given stage.
+   *
+   * @param <T> the type of the result of the task
+   * @param <E> the type of the exception thrown by the task
+   * @param stage the stage executed by the task
+   * @param task the task to run
+   * @return the result of {@code task}
+   * @throws E if {@code task} fails
+   */
+  private <T, E extends Exception> T time(Stage stage, Task<T, E> task) throws E {
+    Deque<Frame> running = frames.get();
+    Frame frame = new Frame();
+    running.push(frame);
+    try {
+      return task.run();
+    } finally {
+      Measure end = Measure.now();
+      running.pop();
+      long wallTime = end.wallTime - frame.start.wallTime;
+      long cpuTime = end.cpuTime - frame.start.cpuTime;
+      long allocatedBytes = end.allocatedBytes - frame.start.allocatedBytes;
+      Frame enclosing = running.peek();
+      if (enclosing != null) {
+        enclosing.nestedWallTime += wallTime;
+        enclosing.nestedCpuTime += cpuTime;
+        enclosing.nestedAllocatedBytes += allocatedBytes;
+      }
+      wallTime -= frame.nestedWallTime;
+      cpuTime -= frame.nestedCpuTime;
+      allocatedBytes -= frame.nestedAllocatedBytes;
+      TagProfile tag = currentTag.get();
+      synchronized (this) {
+        stages.computeIfAbsent(stage, s -> new Usage()).add(1, wallTime, cpuTime, allocatedBytes);
+        if (tag != null) {
+          tag.stages
+              .computeIfAbsent(stage, s -> new Usage())
+              .add(1, wallTime, cpuTime, allocatedBytes);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the resources used by the given stage so far.
+   *
+   * @param stage a stage
+   * @return a copy of the resources used by {@code stage} so far
+   */
+  public synchronized Usage getUsage(Stage stage) {
+    Usage usage = new Usage();
+    Usage recorded = stages.get(stage);
+    if (recorded != null) {
+      usage.add(recorded);
+    }
+    return usage;
+  }
+
+  /**
+   * Returns the report of the measured resources in JSON format: the usage of each stage, then the
+   * usage of each method and of each tag, overall and by stage. Times are in microseconds.
+   *
+   * @return the report of the measured resources in JSON format
+   */
+  public synchronized String toJson() {
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("stages", asMaps(stages));
+    List<Map<String, Object>> methodReports = new ArrayList<>();
+    for (Map.Entry<String, TagProfile> method : methodProfiles().entrySet()) {
+      Map<String, Object> methodReport = new LinkedHashMap<>();
+      methodReport.put("method", method.getKey());
+      methodReport.put("total", method.getValue().total.asMap());
+      methodReport.put("stages", asMaps(method.getValue().stages));
+      methodReports.add(methodReport);
+    }
+    report.put("methods", methodReports);
+    List<Map<String, Object>> tagReports = new ArrayList<>();
+    for (TagProfile tag : tagOrder) {
+      Map<String, Object> tagReport = new LinkedHashMap<>();
+      tagReport.put("method", tag.method);
+      tagReport.put("tag", tag.tag);
+      tagReport.put("total", tag.total.asMap());
+      tagReport.put("stages", asMaps(tag.stages));
+      tagReports.add(tagReport);
+    }
+    report.put("tags", tagReports);
+    return GsonInstance.gson().toJson(report);
+  }
+
+  /**
+   * Returns the report of the measured resources in CSV format, one row per stage, then per method
+   * and stage, then per tag and stage. Rows of methods and tags whose stage is {@code TOTAL} report
+   * the overall usage of the method or tag. Times are in microseconds.
+   *
+   * @return the report of the measured resources in CSV format
+   */
+  public synchronized String toCsv() {
+    StringBuilder csv =
+        new StringBuilder("scope,method,tag,stage,count,wall_us,cpu_us,allocated_bytes\n");
+    for (Map.Entry<Stage, Usage> stage : stages.entrySet()) {
+      appendRow(csv, "stage", "", "", stage.getKey().name(), stage.getValue());
+    }
+    for (Map.Entry<String, TagProfile> method : methodProfiles().entrySet()) {
+      TagProfile profile = method.getValue();
+      appendRow(csv, "method", method.getKey(), "", "TOTAL", profile.total);
+      for (Map.Entry<Stage, Usage> stage : profile.stages.entrySet()) {
+        appendRow(csv, "method", method.getKey(), "", stage.getKey().name(), stage.getValue());
+      }
+    }
+    for (TagProfile tag : tagOrder) {
+      appendRow(csv, "tag", tag.method, tag.tag, "TOTAL", tag.total);
+      for (Map.Entry<Stage, Usage> stage : tag.stages.entrySet()) {
+        appendRow(csv, "tag", tag.method, tag.tag, stage.getKey().name(), stage.getValue());
+      }
+    }
+    return csv.toString();
+  }
+
+  /**
+   * Returns the usage of each method, summing the usage of its tags, in translation order.
+   *
+   * @return the usage of each method, by method signature
+   */
+  private Map<String, TagProfile> methodProfiles() {
+    Map<String, TagProfile> methods = new LinkedHashMap<>();
+    for (TagProfile tag : tagOrder) {
+      TagProfile method =
+          methods.computeIfAbsent(tag.method, signature -> new TagProfile(signature, ""));
+      method.total.add(tag.total);
+      for (Map.Entry<Stage, Usage> stage : tag.stages.entrySet()) {
+        method.stages.computeIfAbsent(stage.getKey(), s -> new Usage()).add(stage.getValue());
+      }
+    }
+    return methods;
+  }
+
+  private static List<Map<String, Object>> asMaps(Map<Stage, Usage> usages) {
+    List<Map<String, Object>> maps = new ArrayList<>();
+    for (Map.Entry<Stage, Usage> usage : usages.entrySet()) {
+      Map<String, Object> map = new LinkedHashMap<>();
+      map.put("stage", usage.getKey().name());
+      map.putAll(usage.getValue().asMap());
+      maps.add(map);
+    }
+    return maps;
+  }
+
+  private static void appendRow(
+      StringBuilder csv, String scope, String method, String tag, String stage, Usage usage) {
+    csv.append(scope)
+        .append(',')
+        .append(quote(method))
+        .append(',')
+        .append(quote(tag))
+        .append(',')
+        .append(stage)
+        .append(',')
+        .append(usage.count)
+        .append(',')
+        .append(usage.getWallMicros())
+        .append(',')
+        .append(usage.getCpuMicros())
+        .append(',')
+        .append(usage.allocatedBytes)
+        .append('\n');
+  }
+
+  private static String quote(String field) {
+    return "\"" + field.replace("\"", "\"\"").replace('\n', ' ') + "\"";
+  }
+}
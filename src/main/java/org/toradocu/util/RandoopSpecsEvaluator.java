@@ -0,0 +1,606 @@
+package org.toradocu.util;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.TypeVariable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import randoop.condition.specification.Identifiers;
+import randoop.condition.specification.Operation;
+import randoop.condition.specification.OperationSpecification;
+import randoop.condition.specification.PostSpecification;
+import randoop.condition.specification.PreSpecification;
+import randoop.condition.specification.ThrowsSpecification;
+
+/**
+ * Evaluates Randoop specifications (see {@code RandoopSpecs}) at run time, without generating and
+ * weaving aspects. When an evaluator is created, the guards and properties of every operation are
+ * compiled to a class implementing {@code OperationChecks}: all the classes are compiled by a
+ * single in-memory compilation, and evaluating a specification afterwards is a plain method call.
+ *
+ * <p>A condition that does not compile (e.g., because it refers to a type that is not on the
+ * classpath) is ignored, together with the specification it belongs to. A condition whose
+ * evaluation throws a {@code RuntimeException} does not hold.
+ */
+public final class RandoopSpecsEvaluator {
+
+  /** {@code Logger} for this class. */
+  private static final Logger log = LoggerFactory.getLogger(RandoopSpecsEvaluator.class);
+  /** Prefix of the names of the generated classes. */
+  private static final String CLASS_PREFIX = "ToradocuChecks_";
+  /** Name of the parameter of the generated methods holding the receiver. */
+  private static final String RECEIVER = "$receiver";
+  /** Name of the parameter of the generated methods holding the arguments. */
+  private static final String ARGS = "$args";
+  /** Name of the parameter of the generated methods holding the result. */
+  private static final String RESULT = "$result";
+  /** Primitive types, by name. */
+  private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<>();
+
+  static {
+    for (Class<?> type :
+        new Class<?>[] {
+          boolean.class,
+          byte.class,
+          char.class,
+          short.class,
+          int.class,
+          long.class,
+          float.class,
+          double.class,
+          void.class
+        }) {
+      PRIMITIVE_TYPES.put(type.getName(), type);
+    }
+  }
+
+  /** Checks of an operation without specifications: every call is valid and correct. */
+  private static final OperationChecks NO_CHECKS =
+      new OperationChecks() {
+        @Override
+        public boolean checkPre(Object receiver, Object[] args) {
+          return true;
+        }
+
+        @Override
+        public List<Class<?>> expectedThrows(Object receiver, Object[] args) {
+          return Collections.emptyList();
+        }
+
+        @Override
+        public boolean checkPost(Object receiver, Object[] args, Object result) {
+          return true;
+        }
+      };
+
+  /**
+   * The compiled specifications of an operation. Implementations are generated by {@code
+   * RandoopSpecsEvaluator}, are stateless, and can be used by multiple threads.
+   */
+  public interface OperationChecks {
+
+    /**
+     * Returns true if the pre-conditions of the operation hold for the given call.
+     *
+     * @param receiver the receiver of the call, or null for static methods and constructors
+     * @param args the arguments of the call
+     * @return true if all the pre-conditions hold
+     */
+    boolean checkPre(Object receiver, Object[] args);
+
+    /**
+     * Returns the exceptions that the operation is expected to throw for the given call.
+     *
+     * @param receiver the receiver of the call, or null for static methods and constructors
+     * @param args the arguments of the call
+     * @return the expected exception types, or an empty list if no exception is expected
+     */
+    List<Class<?>> expectedThrows(Object receiver, Object[] args);
+
+    /**
+     * Returns true if the post-conditions of the operation hold for the given call.
+     *
+     * @param receiver the receiver of the call, or null for static methods and constructors
+     * @param args the arguments of the call
+     * @param result the value returned by the call (the new object for constructors)
+     * @return true if, for every post-condition whose guard holds, the property holds
+     */
+    boolean checkPost(Object receiver, Object[] args, Object result);
+  }
+
+  /** Compiled checks, by operation. */
+  private final Map<Operation, OperationChecks> checks;
+  /** Compiled checks, by reflection object of the operation. */
+  private final Map<AccessibleObject, OperationChecks> checksByMember = new ConcurrentHashMap<>();
+
+  private RandoopSpecsEvaluator(Map<Operation, OperationChecks> checks) {
+    this.checks = checks;
+  }
+
+  /**
+   * Loads the Randoop specifications in the given JSON file (see option {@code --randoop-specs}),
+   * and compiles them.
+   *
+   * @param specsFile the JSON file containing a list of Randoop operation specifications
+   * @param loader the class loader of the specified classes. It must be able to load the classes of
+   *     Toradocu as well.
+   * @return an evaluator of the specifications
+   * @throws IOException if {@code specsFile} cannot be read
+   */
+  public static RandoopSpecsEvaluator load(Path specsFile, ClassLoader loader) throws IOException {
+    java.lang.reflect.Type listType = new TypeToken<List<OperationSpecification>>() {}.getType();
+    try (BufferedReader reader = Files.newBufferedReader(specsFile)) {
+      List<OperationSpecification> specs = GsonInstance.gson().fromJson(reader, listType);
+      return compile(specs == null ? Collections.emptyList() : specs, loader);
+    }
+  }
+
+  /**
+   * Compiles the given Randoop specifications.
+   *
+   * @param specs the Randoop operation specifications
+   * @param loader the class loader of the specified classes. It must be able to load the classes of
+   *     Toradocu as well.
+   * @return an evaluator of the specifications
+   * @throws NullPointerException if {@code specs} or {@code loader} is null
+   */
+  public static RandoopSpecsEvaluator compile(
+      List<OperationSpecification> specs, ClassLoader loader) {
+    Checks.nonNullParameter(specs, "specs");
+    Checks.nonNullParameter(loader, "loader");
+
+    Map<String, ChecksSource> sources = new LinkedHashMap<>();
+    for (OperationSpecification spec : specs) {
+      Executable executable = getExecutable(spec.getOperation(), loader);
+      if (executable != null && !spec.isEmpty()) {
+        String className = CLASS_PREFIX + (sources.size() + 1);
+        sources.put(className, new ChecksSource(className, spec, executable));
+      }
+    }
+
+    String classpath = InMemoryCompiler.getClassPath(loader);
+    // Conditions that do not compile are removed, and the remaining ones compiled again.
+    InMemoryCompiler.Result result = null;
+    while (!sources.isEmpty()) {
+      Map<String, String> code = new LinkedHashMap<>();
+      for (ChecksSource source : sources.values()) {
+        code.put(source.className, source.generate());
+      }
+      result = InMemoryCompiler.compile(code, classpath);
+      if (result.isSuccessful()) {
+        break;
+      }
+      boolean removed = false;
+      for (ChecksSource source : new ArrayList<>(sources.values())) {
+        List<Diagnostic<? extends JavaFileObject>> errors = result.getErrors(source.className);
+        if (!errors.isEmpty()) {
+          removed = true;
+          if (!source.removeConditions(errors)) {
+            sources.remove(source.className);
+          }
+        }
+      }
+      if (!removed) {
+        log.error("Unable to compile the specifications: " + result.getErrors());
+        sources.clear();
+      }
+    }
+
+    Map<Operation, OperationChecks> checks = new HashMap<>();
+    if (!sources.isEmpty()) {
+      ClassLoader checksLoader = result.getClassLoader(loader);
+      for (ChecksSource source : sources.values()) {
+        try {
+          checks.put(
+              source.spec.getOperation(),
+              (OperationChecks) checksLoader.loadClass(source.className).newInstance());
+        } catch (ReflectiveOperationException | ClassCastException e) {
+          log.error("Unable to load the checks of " + source.spec.getOperation(), e);
+        }
+      }
+    }
+    return new RandoopSpecsEvaluator(checks);
+  }
+
+  /**
+   * Returns the checks of the given operation. Test harnesses checking many calls should retrieve
+   * the checks once per operation.
+   *
+   * @param operation an operation
+   * @return the checks of {@code operation}; if it has no specification, checks that always hold
+   */
+  public OperationChecks getChecks(Operation operation) {
+    return checks.getOrDefault(operation, NO_CHECKS);
+  }
+
+  /**
+   * Returns the checks of the given method or constructor.
+   *
+   * @param member a method or constructor
+   * @return the checks of {@code member}; if it has no specification, checks that always hold
+   */
+  public OperationChecks getChecks(AccessibleObject member) {
+    OperationChecks memberChecks = checksByMember.get(member);
+    if (memberChecks == null) {
+      Operation operation = Operation.getOperation(member);
+      memberChecks = operation == null ? NO_CHECKS : getChecks(operation);
+      checksByMember.put(member, memberChecks);
+    }
+    return memberChecks;
+  }
+
+  /**
+   * Returns true if the pre-conditions of the given method or constructor hold for the given call.
+   *
+   * @param member the called method or constructor
+   * @param receiver the receiver of the call, or null for static methods and constructors
+   * @param args the arguments of the call
+   * @return true if all the pre-conditions hold
+   */
+  public boolean checkPre(AccessibleObject member, Object receiver, Object[] args) {
+    return getChecks(member).checkPre(receiver, args);
+  }
+
+  /**
+   * Returns the exceptions that the given method or constructor is expected to throw for the given
+   * call.
+   *
+   * @param member the called method or constructor
+   * @param receiver the receiver of the call, or null for static methods and constructors
+   * @param args the arguments of the call
+   * @return the expected exception types, or an empty list if no exception is expected
+   */
+  public List<Class<?>> expectedThrows(AccessibleObject member, Object receiver, Object[] args) {
+    return getChecks(member).expectedThrows(receiver, args);
+  }
+
+  /**
+   * Returns true if the post-conditions of the given method or constructor hold for the given call.
+   *
+   * @param member the called method or constructor
+   * @param receiver the receiver of the call, or null for static methods and constructors
+   * @param args the arguments of the call
+   * @param result the value returned by the call (the new object for constructors)
+   * @return true if, for every post-condition whose guard holds, the property holds
+   */
+  public boolean checkPost(AccessibleObject member, Object receiver, Object[] args, Object result) {
+    return getChecks(member).checkPost(receiver, args, result);
+  }
+
+  /**
+   * Returns the method or constructor described by the given operation.
+   *
+   * @param operation an operation
+   * @param loader the class loader of the declaring class of {@code operation}
+   * @return the method or constructor, or null if it cannot be loaded
+   */
+  private static Executable getExecutable(Operation operation, ClassLoader loader) {
+    if (operation == null) {
+      return null;
+    }
+    try {
+      Class<?> declaringClass = Class.forName(operation.getClassname(), false, loader);
+      List<String> typeNames = operation.getParameterTypeNames();
+      Class<?>[] parameterTypes = new Class<?>[typeNames.size()];
+      for (int i = 0; i < parameterTypes.length; i++) {
+        Class<?> primitiveType = PRIMITIVE_TYPES.get(typeNames.get(i));
+        parameterTypes[i] =
+            primitiveType != null ? primitiveType : Class.forName(typeNames.get(i), false, loader);
+      }
+      return operation.isConstructor()
+          ? declaringClass.getDeclaredConstructor(parameterTypes)
+          : declaringClass.getDeclaredMethod(operation.getName(), parameterTypes);
+    } catch (ReflectiveOperationException | LinkageError e) {
+      log.warn("Unable to load operation " + operation + ": its specifications are ignored.", e);
+      return null;
+    }
+  }
+
+  /**
+   * Returns the name of the given type as it must appear in source code. Type arguments are kept
+   * unless they refer to type variables, which are not in scope in the generated classes.
+   *
+   * @param type a type
+   * @return the source name of {@code type}, or null if it has no name (e.g., anonymous classes)
+   */
+  private static String getSourceName(java.lang.reflect.Type type) {
+    if (type instanceof Class) {
+      return ((Class<?>) type).getCanonicalName();
+    }
+    if (type instanceof GenericArrayType) {
+      String component = getSourceName(((GenericArrayType) type).getGenericComponentType());
+      return component == null ? null : component + "[]";
+    }
+    if (type instanceof ParameterizedType) {
+      ParameterizedType parameterized = (ParameterizedType) type;
+      String raw = getSourceName(parameterized.getRawType());
+      List<String> arguments = new ArrayList<>();
+      for (java.lang.reflect.Type argument : parameterized.getActualTypeArguments()) {
+        String argumentName = getSourceName(argument);
+        if (argumentName == null) {
+          return raw;
+        }
+        arguments.add(argumentName);
+      }
+      return raw + "<" + String.join(", ", arguments) + ">";
+    }
+    // Type variables and wildcards.
+    return null;
+  }
+
+  /** The source code of the checks of an operation. */
+  private static final class ChecksSource {
+
+    /** The name of the generated class. */
+    private final String className;
+    /** The specifications of the operation. */
+    private final OperationSpecification spec;
+    /** Declarations of the variables that conditions can refer to, by identifier. */
+    private final Map<String, String> variables = new LinkedHashMap<>();
+    /** Conditions of the specifications that compile, by condition text. */
+    private final Map<String, Integer> conditions = new LinkedHashMap<>();
+    /** Identifiers of the conditions, by line of the generated source. */
+    private final Map<Long, Integer> conditionLines = new HashMap<>();
+    /** Conditions that do not compile. */
+    private final Set<String> removedConditions = new TreeSet<>();
+
+    ChecksSource(String className, OperationSpecification spec, Executable executable) {
+      this.className = className;
+      this.spec = spec;
+
+      Identifiers identifiers = spec.getIdentifiers();
+      java.lang.reflect.Type[] parameterTypes = executable.getGenericParameterTypes();
+      List<String> parameters = identifiers.getParameterNames();
+      for (int i = 0; i < parameters.size() && i < parameterTypes.length; i++) {
+        addVariable(parameters.get(i), parameterTypes[i], ARGS + "[" + i + "]");
+      }
+      Class<?> declaringClass = executable.getDeclaringClass();
+      if (executable instanceof Constructor) {
+        addVariable(identifiers.getReturnName(), declaringClass, RESULT);
+      } else {
+        if (!Modifier.isStatic(executable.getModifiers())) {
+          addVariable(identifiers.getReceiverName(), declaringClass, RECEIVER);
+        }
+        java.lang.reflect.Type returnType = ((Method) executable).getGenericReturnType();
+        if (returnType != void.class) {
+          addVariable(identifiers.getReturnName(), returnType, RESULT);
+        }
+      }
+    }
+
+    /**
+     * Registers the declaration of the variable with the given identifier, which conditions refer
+     * to.
+     *
+     * @param identifier the identifier of the variable in the specifications
+     * @param type the type of the variable
+     * @param value the source code of the value of the variable
+     */
+    private void addVariable(String identifier, java.lang.reflect.Type type, String value) {
+      String typeName = getSourceName(type);
+      if (typeName == null) {
+        typeName = getSourceName(erase(type));
+      }
+      if (identifier != null) {
+        variables.put(
+            identifier, typeName + " " + identifier + " = (" + typeName + ") " + value + ";");
+      }
+    }
+
+    /**
+     * Returns the erasure of the given type, or {@code Object} if the erasure has no name.
+     *
+     * @param type a type
+     * @return the erasure of {@code type}
+     */
+    private static Class<?> erase(java.lang.reflect.Type type) {
+      if (type instanceof ParameterizedType) {
+        return erase(((ParameterizedType) type).getRawType());
+      }
+      if (type instanceof GenericArrayType) {
+        Class<?> component = erase(((GenericArrayType) type).getGenericComponentType());
+        return Array.newInstance(component, 0).getClass();
+      }
+      if (type instanceof TypeVariable) {
+        return erase(((TypeVariable<?>) type).getBounds()[0]);
+      }
+      if (type instanceof Class && ((Class<?>) type).getCanonicalName() != null) {
+        return (Class<?>) type;
+      }
+      return Object.class;
+    }
+
+    /**
+     * Removes the conditions with the given compilation errors.
+     *
+     * @param errors compilation errors in the source of this class
+     * @return false if an error is not in a condition, i.e., the class cannot be compiled
+     */
+    boolean removeConditions(List<Diagnostic<? extends JavaFileObject>> errors) {
+      for (Diagnostic<? extends JavaFileObject> error : errors) {
+        Integer id = conditionLines.get(error.getLineNumber());
+        if (id == null) {
+          log.warn(
+              "Specifications of "
+                  + spec.getOperation()
+                  + " are ignored: "
+                  + error.getMessage(null));
+          return false;
+        }
+        for (Map.Entry<String, Integer> condition : conditions.entrySet()) {
+          if (condition.getValue().equals(id) && removedConditions.add(condition.getKey())) {
+            log.warn(
+                "Condition \""
+                    + condition.getKey()
+                    + "\" is ignored, together with its specification: "
+                    + error.getMessage(null));
+          }
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Generates the source code of the class implementing the checks.
+     *
+     * @return the source code of the class
+     */
+    String generate() {
+      conditions.clear();
+      conditionLines.clear();
+      StringBuilder checks = new StringBuilder();
+      List<String> exceptions = new ArrayList<>();
+
+      checks.append("public boolean checkPre(Object $receiver, Object[] $args) {\n");
+      for (PreSpecification pre : spec.getPreSpecifications()) {
+        String guard = pre.getGuard().getConditionText();
+        if (isValid(guard)) {
+          checks.append("if (!").append(call(guard, false)).append(") return false;\n");
+        }
+      }
+      checks.append("return true;\n}\n");
+
+      checks.append("public java.util.List<Class<?>> expectedThrows(");
+      checks.append("Object $receiver, Object[] $args) {\n");
+      checks.append("java.util.List<Class<?>> $expected = java.util.Collections.emptyList();\n");
+      for (ThrowsSpecification throwsSpec : spec.getThrowsSpecifications()) {
+        String guard = throwsSpec.getGuard().getConditionText();
+        if (isValid(guard)) {
+          exceptions.add(throwsSpec.getExceptionTypeName());
+          checks.append("if (").append(call(guard, false)).append(") ");
+          checks.append("$expected = add($expected, EXCEPTION_").append(exceptions.size());
+          checks.append(");\n");
+        }
+      }
+      checks.append("return $expected;\n}\n");
+
+      checks.append(
+          "public boolean checkPost(Object $receiver, Object[] $args, Object $result) {\n");
+      for (PostSpecification post : spec.getPostSpecifications()) {
+        String guard = post.getGuard().getConditionText();
+        String property = post.getProperty().getConditionText();
+        if (isValid(guard) && isValid(property)) {
+          checks.append("if (").append(call(guard, true)).append(" && !");
+          checks.append(call(property, true));
+          checks.append(") return false;\n");
+        }
+      }
+      checks.append("return true;\n}\n");
+
+      StringBuilder source = new StringBuilder();
+      source.append("public final class ").append(className);
+      source.append(" implements ").append(OperationChecks.class.getCanonicalName()).append(" {\n");
+      for (int i = 1; i <= exceptions.size(); i++) {
+        source.append("private static final Class<?> EXCEPTION_").append(i);
+        source.append(" = loadClass(\"").append(exceptions.get(i - 1)).append("\");\n");
+      }
+      source.append(checks);
+      source.append(
+          "private static java.util.List<Class<?>> add(java.util.List<Class<?>> expected, "
+              + "Class<?> exception) {\n"
+              + "if (exception == null) return expected;\n"
+              + "if (expected.isEmpty()) expected = new java.util.ArrayList<Class<?>>();\n"
+              + "expected.add(exception);\n"
+              + "return expected;\n}\n");
+      source.append(
+          "private static Class<?> loadClass(String name) {\n"
+              + "try {\n"
+              + "return Class.forName(name, false, "
+              + className
+              + ".class.getClassLoader());\n"
+              + "} catch (ClassNotFoundException e) {\n"
+              + "return null;\n}\n}\n");
+      // Each condition is on a line of its own, so that compilation errors identify it.
+      long line = source.toString().chars().filter(c -> c == '\n').count() + 1;
+      for (Map.Entry<String, Integer> condition : conditions.entrySet()) {
+        conditionLines.put(line++, condition.getValue());
+        source.append(generateCondition(condition.getKey(), condition.getValue())).append("\n");
+      }
+      return source.append("}\n").toString();
+    }
+
+    /**
+     * Returns true if the given condition is not empty, and compiles.
+     *
+     * @param condition the text of a condition
+     * @return true if {@code condition} can be evaluated
+     */
+    private boolean isValid(String condition) {
+      return condition != null && !condition.isEmpty() && !removedConditions.contains(condition);
+    }
+
+    /**
+     * Returns the call to the method evaluating the given condition, registering the condition if
+     * needed. Conditions shared by multiple specifications are evaluated by the same method.
+     *
+     * @param condition the text of a condition
+     * @param afterCall whether the condition is evaluated after the call, i.e., can refer to the
+     *     result
+     * @return a call to the method evaluating {@code condition}
+     */
+    private String call(String condition, boolean afterCall) {
+      Integer id = conditions.computeIfAbsent(condition, c -> conditions.size() + 1);
+      return "condition_" + id + "($receiver, $args, " + (afterCall ? "$result" : "null") + ")";
+    }
+
+    /**
+     * Generates the method evaluating the given condition. The method declares the variables the
+     * condition refers to, and returns false if the evaluation throws a {@code RuntimeException}.
+     *
+     * @param condition the text of a condition
+     * @param id the identifier of the condition
+     * @return the source code of the method, on a single line
+     */
+    private String generateCondition(String condition, int id) {
+      StringBuilder method = new StringBuilder();
+      method.append("private static boolean condition_").append(id);
+      method.append("(Object $receiver, Object[] $args, Object $result) { try { ");
+      for (Map.Entry<String, String> variable : variables.entrySet()) {
+        if (refersTo(condition, variable.getKey())) {
+          method.append(variable.getValue()).append(" ");
+        }
+      }
+      method.append("return (").append(condition.replaceAll("[\r\n]", " ")).append(");");
+      method.append(" } catch (RuntimeException $e) { return false; } }");
+      return method.toString();
+    }
+
+    /**
+     * Returns true if the given condition refers to the given identifier.
+     *
+     * @param condition the text of a condition
+     * @param identifier an identifier
+     * @return true if {@code identifier} occurs in {@code condition}, not as a member name
+     */
+    private static boolean refersTo(String condition, String identifier) {
+      Matcher matcher =
+          Pattern.compile("(?<![\\w$.])" + Pattern.quote(identifier) + "(?![\\w$])")
+              .matcher(condition);
+      return matcher.find();
+    }
+  }
+}
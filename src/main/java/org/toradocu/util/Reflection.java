@@ -1,14 +1,11 @@
 package org.toradocu.util;
 
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
-import java.nio.file.Paths;
 import java.util.Collections;
-import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.toradocu.Toradocu;
+import org.toradocu.ToradocuSession;
+import org.toradocu.conf.Configuration;
 import org.toradocu.extractor.Parameter;
 import org.toradocu.extractor.Type;
 
@@ -72,29 +69,19 @@ public class Reflection {
   }
 
   /**
-   * Returns a new class loader that load classes from paths specified with option --class-dir.
+   * Returns the class loader that loads classes from paths specified with option --class-dir. Class
+   * loaders are taken from the cache of the session running on the current thread (see {@code
+   * ToradocuSession#getClassLoaders}); outside sessions, a new class loader is created each time.
    *
-   * @return a new class loader that load classes from paths specified with option --class-dir
+   * @return the class loader that loads classes from paths specified with option --class-dir
    */
   private static ClassLoader getClassLoader() {
-    List<String> binariesPaths =
-        Toradocu.configuration == null
-            ? Collections.emptyList()
-            : Toradocu.configuration.getClassDir();
-    URL[] urls = new URL[binariesPaths.size()];
-    for (int i = 0; i < urls.length; i++) {
-      try {
-        urls[i] = Paths.get(binariesPaths.get(i)).toUri().toURL();
-      } catch (MalformedURLException e) {
-        // TODO Move this check in the configuration to validate the input from the beginning.
-        // TODO Notice that we don't take any particular action if any provided path is wrong.
-        log.error(
-            "Impossible to load binaries from "
-                + binariesPaths.get(i)
-                + ". Check the correctness of the path provided with option --class-dir.",
-            e);
-      }
+    ToradocuSession session = ToradocuSession.current();
+    if (session != null) {
+      return session.getClassLoaders().get(session.getConfiguration().getClassDir());
     }
-    return URLClassLoader.newInstance(urls, ClassLoader.getSystemClassLoader());
+    Configuration configuration = Toradocu.getConfiguration();
+    return ClassLoaderCache.createClassLoader(
+        configuration == null ? Collections.emptyList() : configuration.getClassDir());
   }
 }
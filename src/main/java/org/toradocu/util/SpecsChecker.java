@@ -6,6 +6,7 @@ import com.google.gson.reflect.TypeToken;
 import java.io.BufferedReader;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -13,6 +14,10 @@ import org.toradocu.extractor.DocumentedMethod;
 import org.toradocu.extractor.ParamTag;
 import org.toradocu.extractor.ThrowsTag;
 
+/**
+ * Checks the consistency of the specifications in a Toradocu JSON specs file. See {@code SpecsTool}
+ * to check all the specs files of a directory at once.
+ */
 public class SpecsChecker {
 
   public static void main(String[] args) throws Exception {
@@ -29,12 +34,24 @@ public class SpecsChecker {
     try (BufferedReader reader = Files.newBufferedReader(Paths.get(inputFilePath))) {
       System.out.println("Checking specs from " + inputFilePath);
       List<DocumentedMethod> methods = GsonInstance.gson().fromJson(reader, listType);
-      checkThrowsConsistency(methods);
-      checkParamThrowsConsistency(methods);
+      check(methods).forEach(System.out::println);
     }
   }
 
-  private static void checkThrowsConsistency(List<DocumentedMethod> methods) {
+  /**
+   * Checks the consistency of the specifications of the given methods.
+   *
+   * @param methods the methods whose specifications have to be checked
+   * @return the errors found, one message per conflict
+   */
+  static List<String> check(List<DocumentedMethod> methods) {
+    List<String> errors = new ArrayList<>();
+    checkThrowsConsistency(methods, errors);
+    checkParamThrowsConsistency(methods, errors);
+    return errors;
+  }
+
+  private static void checkThrowsConsistency(List<DocumentedMethod> methods, List<String> errors) {
     for (DocumentedMethod method : methods) {
       final Set<ThrowsTag> throwsTags = method.throwsTags();
       final List<String> postconditions =
@@ -45,7 +62,7 @@ public class SpecsChecker {
               .collect(toList());
       // Check if there are duplicated exceptional postconditions.
       if (new HashSet<>(postconditions).size() != postconditions.size()) {
-        System.out.println(
+        errors.add(
             "\tERROR: Found conflicting specs! Duplicated exceptional postconditions in method "
                 + method
                 + ": "
@@ -54,7 +71,8 @@ public class SpecsChecker {
     }
   }
 
-  private static void checkParamThrowsConsistency(List<DocumentedMethod> methods) {
+  private static void checkParamThrowsConsistency(
+      List<DocumentedMethod> methods, List<String> errors) {
     for (DocumentedMethod method : methods) {
       final Set<ParamTag> paramTags = method.paramTags();
       final Set<ThrowsTag> throwsTags = method.throwsTags();
@@ -72,7 +90,7 @@ public class SpecsChecker {
                 .filter(postcondition -> postcondition.equals(precondition))
                 .collect(toList());
         if (!conflictingSpecs.isEmpty()) {
-          System.out.println(
+          errors.add(
               "\tERROR: Found conflicting specs! Precondition "
                   + precondition
                   + " has a conflict with exceptional postconditions: "
@@ -3,12 +3,21 @@ package org.toradocu.util;
 import com.google.gson.reflect.TypeToken;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.toradocu.extractor.DocumentedMethod;
 import org.toradocu.extractor.ReturnTag;
 
@@ -22,6 +31,15 @@ import org.toradocu.extractor.ReturnTag;
  */
 public class SpecsCount {
 
+  /** Name used for the constructors in {@code privateMembers}. */
+  private static final String CONSTRUCTOR = "<init>";
+
+  /**
+   * Names of the private methods and constructors declared in each class, by class name. A method
+   * is looked up with reflection only when its class declares a private member with its name.
+   */
+  private static final Map<String, Set<String>> privateMembers = new ConcurrentHashMap<>();
+
   public static void main(String[] args) throws IOException {
     if (args.length != 1) {
       throw new IllegalArgumentException("Please provide a Toradocu JSON file.");
@@ -34,19 +52,30 @@ public class SpecsCount {
       specs = GsonInstance.gson().fromJson(file, collectionType);
     }
 
-    int pre = 0, post = 0, exc = 0;
+    count(specs).print();
+  }
+
+  /**
+   * Counts the specifications of the given methods, ignoring inherited specs and specs of private
+   * methods.
+   *
+   * @param specs the methods whose specifications have to be counted
+   * @return the number of specifications of {@code specs}
+   */
+  static Counts count(List<DocumentedMethod> specs) {
+    Counts counts = new Counts();
 
     for (DocumentedMethod method : specs) {
       if (method.getTargetClass().equals(method.getContainingClass().getQualifiedName())
-          || !Modifier.isPrivate(method.getExecutable().getModifiers())) {
-        pre +=
+          || !isPrivate(method)) {
+        counts.pre +=
             method
                 .paramTags()
                 .stream()
                 .map(t -> t.getCondition())
                 .filter(c -> c.isPresent() && !c.get().isEmpty())
                 .count();
-        exc +=
+        counts.exc +=
             method
                 .throwsTags()
                 .stream()
@@ -57,14 +86,82 @@ public class SpecsCount {
         if (returnTag != null) {
           final String condition = returnTag.getCondition().orElse("");
           if (!condition.isEmpty()) {
-            post += 1;
+            counts.post += 1;
           }
         }
       }
     }
+    return counts;
+  }
+
+  /**
+   * Returns true if the given method is private. A method whose class or executable cannot be
+   * loaded is not considered private.
+   *
+   * @param method a method
+   * @return true if {@code method} is private
+   */
+  private static boolean isPrivate(DocumentedMethod method) {
+    Set<String> names =
+        privateMembers.computeIfAbsent(
+            method.getContainingClass().getQualifiedName(), SpecsCount::privateMembersOf);
+    if (!names.contains(method.isConstructor() ? CONSTRUCTOR : method.getName())) {
+      return false;
+    }
+    Executable executable = method.getExecutable();
+    return executable != null && Modifier.isPrivate(executable.getModifiers());
+  }
+
+  /**
+   * Returns the names of the private methods and constructors declared in the given class.
+   *
+   * @param className the fully qualified name of a class
+   * @return the names of the private members of {@code className}, or an empty set if the class
+   *     cannot be loaded
+   */
+  private static Set<String> privateMembersOf(String className) {
+    Class<?> type = Reflection.getClass(className);
+    if (type == null) {
+      return Collections.emptySet();
+    }
+    Set<String> names =
+        Stream.of(type.getDeclaredMethods())
+            .filter(m -> Modifier.isPrivate(m.getModifiers()))
+            .map(Method::getName)
+            .collect(Collectors.toCollection(HashSet::new));
+    if (Stream.of(type.getDeclaredConstructors())
+        .anyMatch(c -> Modifier.isPrivate(c.getModifiers()))) {
+      names.add(CONSTRUCTOR);
+    }
+    return names;
+  }
+
+  /**
+   * Number of preconditions, postconditions, and exceptional postconditions. Counts are mutable
+   * and not thread-safe: parallel streams must sum them with a mutable reduction ({@code
+   * collect}).
+   */
+  static final class Counts {
+    long pre, post, exc;
+
+    /**
+     * Adds the given counts to these counts.
+     *
+     * @param other the counts to add
+     * @return these counts
+     */
+    Counts add(Counts other) {
+      pre += other.pre;
+      post += other.post;
+      exc += other.exc;
+      return this;
+    }
 
-    System.out.println("PRE " + pre);
-    System.out.println("POST " + post);
-    System.out.println("EXC " + exc);
+    /** Prints these counts on the standard output, in the format of {@code SpecsCount}. */
+    void print() {
+      System.out.println("PRE " + pre);
+      System.out.println("POST " + post);
+      System.out.println("EXC " + exc);
+    }
   }
 }
@@ -0,0 +1,365 @@
+package org.toradocu.util;
+
+import static java.util.stream.Collectors.toList;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.toradocu.ToradocuSession;
+import org.toradocu.conf.Configuration;
+import org.toradocu.extractor.DocumentedMethod;
+
+/**
+ * Maintenance tool for Toradocu JSON specs files. Unlike {@code SpecsChecker}, {@code SpecsCount},
+ * {@code GoalFileConverter}, and {@code JsonUpdater}, which handle a single file per JVM, this tool
+ * handles whole directories of specs files (the files named {@code *_goal.json}) in a single JVM,
+ * processing the files in parallel. Specs files are read and written as streams of methods. The
+ * tool is invoked with one of the following commands:
+ *
+ * <ul>
+ *   <li>{@code check FILE|DIR...}: checks the consistency of the specs (see {@code SpecsChecker});
+ *   <li>{@code count FILE|DIR...}: prints the total number of specs (see {@code SpecsCount});
+ *   <li>{@code convert OUTPUT_DIR FILE|DIR...}: converts the specs into the old format used by
+ *       Toradocu v 0.1 (see {@code GoalFileConverter});
+ *   <li>{@code update OLD_DIR NEW_DIR OUTPUT_DIR}: copies the condition translations of the specs
+ *       in {@code OLD_DIR} to the specs with the same file name in {@code NEW_DIR} (see {@code
+ *       JsonUpdater}).
+ * </ul>
+ *
+ * The option {@code --class-dir PATHS} sets the binaries of the classes of the specs, which are
+ * needed by {@code count} (if the classes are not in the classpath) and by {@code convert}.
+ */
+public class SpecsTool {
+
+  /** Suffix of the names of the specs files in a directory. */
+  static final String SPECS_FILE_SUFFIX = "_goal.json";
+  /** Suffix of the names of the files converted in the old format. */
+  private static final String CONVERTED_FILE_SUFFIX = "_expected.txt";
+
+  public static void main(String[] args) {
+    List<String> arguments = new ArrayList<>(Arrays.asList(args));
+    final int classDirIndex = arguments.indexOf("--class-dir");
+    final boolean success;
+    if (classDirIndex >= 0 && classDirIndex + 1 < arguments.size()) {
+      // We use Toradocu code, in a session with the given binaries, to load reflection information.
+      final Configuration configuration = new Configuration();
+      configuration.classDirs = arguments.remove(classDirIndex + 1);
+      arguments.remove(classDirIndex);
+      success = new ToradocuSession(configuration).call(() -> run(arguments));
+    } else {
+      success = run(arguments);
+    }
+    if (!success) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Runs the command in the given arguments.
+   *
+   * @param arguments the command followed by its arguments
+   * @return true if the command succeeded
+   */
+  private static boolean run(List<String> arguments) {
+    final String command = arguments.isEmpty() ? "" : arguments.remove(0);
+    if (command.equals("check") && !arguments.isEmpty()) {
+      return check(specsFiles(arguments));
+    } else if (command.equals("count") && !arguments.isEmpty()) {
+      count(specsFiles(arguments)).print();
+      return true;
+    } else if (command.equals("convert") && arguments.size() > 1) {
+      convert(specsFiles(arguments.subList(1, arguments.size())), Paths.get(arguments.get(0)));
+      return true;
+    } else if (command.equals("update") && arguments.size() == 3) {
+      final Path oldDir = Paths.get(arguments.get(0));
+      return update(oldDir, Paths.get(arguments.get(1)), Paths.get(arguments.get(2)));
+    }
+    System.out.println("This program must be invoked with one of the following commands:");
+    System.out.println("1) check FILE|DIR...");
+    System.out.println("2) count [--class-dir PATHS] FILE|DIR...");
+    System.out.println("3) convert --class-dir PATHS OUTPUT_DIR FILE|DIR...");
+    System.out.println("4) update OLD_DIR NEW_DIR OUTPUT_DIR");
+    return false;
+  }
+
+  /**
+   * Checks the consistency of the specs in the given files, and prints the conflicts found.
+   *
+   * @param specsFiles the specs files to check
+   * @return true if no conflict has been found
+   */
+  static boolean check(List<Path> specsFiles) {
+    final List<List<String>> errors =
+        specsFiles
+            .parallelStream()
+            .map(
+                file -> {
+                  List<String> fileErrors = new ArrayList<>();
+                  forEachSpec(
+                      file,
+                      m -> fileErrors.addAll(SpecsChecker.check(Collections.singletonList(m))));
+                  return fileErrors;
+                })
+            .collect(toList());
+
+    // Print the results in the order of the files, regardless of the order of completion.
+    int conflicts = 0;
+    for (int i = 0; i < specsFiles.size(); i++) {
+      System.out.println("Checking specs from " + specsFiles.get(i));
+      errors.get(i).forEach(System.out::println);
+      conflicts += errors.get(i).size();
+    }
+    System.out.println(conflicts + " conflicts found in " + specsFiles.size() + " specs files");
+    return conflicts == 0;
+  }
+
+  /**
+   * Counts the specs in the given files. See {@code SpecsCount}.
+   *
+   * @param specsFiles the specs files
+   * @return the total number of specs in {@code specsFiles}
+   */
+  static SpecsCount.Counts count(List<Path> specsFiles) {
+    return specsFiles
+        .parallelStream()
+        .map(
+            inCurrentSession(
+                file -> {
+                  SpecsCount.Counts counts = new SpecsCount.Counts();
+                  forEachSpec(
+                      file, m -> counts.add(SpecsCount.count(Collections.singletonList(m))));
+                  return counts;
+                }))
+        .collect(SpecsCount.Counts::new, SpecsCount.Counts::add, SpecsCount.Counts::add);
+  }
+
+  /**
+   * Converts the specs in the given files into the old format used by Toradocu v 0.1. The specs
+   * in {@code C_goal.json} are saved in {@code outputDir} as {@code S_expected.txt}, where {@code
+   * S} is the simple name of the class {@code C}.
+   *
+   * @param specsFiles the specs files to convert
+   * @param outputDir the directory where to save the converted files
+   * @throws UncheckedIOException if the output directory cannot be created
+   */
+  static void convert(List<Path> specsFiles, Path outputDir) {
+    createDirectories(outputDir);
+    final List<Path> outputFiles =
+        specsFiles
+            .parallelStream()
+            .map(
+                inCurrentSession(
+                    file -> {
+                      String className = classNameOf(file);
+                      Path outputFile =
+                          outputDir.resolve(
+                              className.substring(className.lastIndexOf('.') + 1)
+                                  + CONVERTED_FILE_SUFFIX);
+                      try (BufferedWriter writer = Files.newBufferedWriter(outputFile)) {
+                        GoalFileConverter.convert(readSpecs(file), writer);
+                      } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                      }
+                      return outputFile;
+                    }))
+            .collect(toList());
+
+    for (int i = 0; i < specsFiles.size(); i++) {
+      System.out.println("Converted " + specsFiles.get(i) + " to " + outputFiles.get(i));
+    }
+  }
+
+  /**
+   * Copies the condition translations of the specs files in {@code oldDir} to the specs files with
+   * the same name in {@code newDir}, and saves the updated specs files in {@code outputDir}. The
+   * output directory can be the same as {@code newDir}. See {@code JsonUpdater}.
+   *
+   * @param oldDir the directory of the specs files from which to copy the condition translations
+   * @param newDir the directory of the specs files to update
+   * @param outputDir the directory where to save the updated specs files
+   * @return true if all the specs files have been updated
+   * @throws UncheckedIOException if a directory cannot be read or created
+   */
+  static boolean update(Path oldDir, Path newDir, Path outputDir) {
+    final List<Path> oldFiles = specsFiles(Collections.singletonList(oldDir.toString()));
+    createDirectories(outputDir);
+    final List<String> failures =
+        oldFiles
+            .parallelStream()
+            .map(
+                oldFile -> {
+                  final Path fileName = oldFile.getFileName();
+                  final Path newFile = newDir.resolve(fileName);
+                  if (!Files.exists(newFile)) {
+                    return newFile + " not present";
+                  }
+                  final List<DocumentedMethod> newSpecs = readSpecs(newFile);
+                  try {
+                    JsonUpdater.update(oldFile.toString(), readSpecs(oldFile), newSpecs);
+                  } catch (AssertionError e) {
+                    return e.getMessage();
+                  }
+                  writeSpecs(outputDir.resolve(fileName), newSpecs);
+                  return null;
+                })
+            .collect(toList());
+
+    boolean success = true;
+    for (int i = 0; i < oldFiles.size(); i++) {
+      if (failures.get(i) == null) {
+        System.out.println(
+            "Updated specs saved to: " + outputDir.resolve(oldFiles.get(i).getFileName()));
+      } else {
+        System.out.println("ERROR: Unable to update " + oldFiles.get(i) + ": " + failures.get(i));
+        success = false;
+      }
+    }
+    return success;
+  }
+
+  /**
+   * Returns the specs files denoted by the given paths. A directory denotes all the files named
+   * {@code *_goal.json} it contains, in alphabetical order.
+   *
+   * @param paths paths to specs files or to directories containing specs files
+   * @return the specs files denoted by {@code paths}
+   * @throws UncheckedIOException if a directory cannot be read
+   */
+  static List<Path> specsFiles(List<String> paths) {
+    List<Path> specsFiles = new ArrayList<>();
+    for (String path : paths) {
+      final Path file = Paths.get(path);
+      if (!Files.isDirectory(file)) {
+        specsFiles.add(file);
+        continue;
+      }
+      try (Stream<Path> files = Files.list(file)) {
+        files
+            .filter(f -> f.getFileName().toString().endsWith(SPECS_FILE_SUFFIX))
+            .sorted()
+            .forEach(specsFiles::add);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return specsFiles;
+  }
+
+  /**
+   * Reads the given specs file one method at a time, passing each method to {@code action}, so
+   * that the methods of the file are never all in memory at once.
+   *
+   * @param specsFile a specs file, i.e., a JSON array of {@code DocumentedMethod}
+   * @param action the action to perform on each method of the file
+   * @throws UncheckedIOException if the specs file cannot be read
+   * @throws JsonParseException if the specs file is malformed
+   */
+  static void forEachSpec(Path specsFile, Consumer<DocumentedMethod> action) {
+    try (BufferedReader file = Files.newBufferedReader(specsFile);
+        JsonReader reader = new JsonReader(file)) {
+      reader.beginArray();
+      while (reader.hasNext()) {
+        action.accept(GsonInstance.gson().fromJson(reader, DocumentedMethod.class));
+      }
+      reader.endArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (IllegalStateException e) {
+      // Thrown by JsonReader when the file is not an array.
+      throw new JsonParseException("Malformed specs file " + specsFile, e);
+    }
+  }
+
+  /**
+   * Reads all the methods in the given specs file.
+   *
+   * @param specsFile a specs file, i.e., a JSON array of {@code DocumentedMethod}
+   * @return the methods in {@code specsFile}
+   * @throws UncheckedIOException if the specs file cannot be read
+   * @throws JsonParseException if the specs file is malformed
+   */
+  static List<DocumentedMethod> readSpecs(Path specsFile) {
+    List<DocumentedMethod> methods = new ArrayList<>();
+    forEachSpec(specsFile, methods::add);
+    return methods;
+  }
+
+  /**
+   * Writes the given methods in a specs file, one method at a time, in the same format used by
+   * Toradocu.
+   *
+   * @param specsFile the specs file to write
+   * @param methods the methods to write in {@code specsFile}
+   * @throws UncheckedIOException if the specs file cannot be written
+   */
+  static void writeSpecs(Path specsFile, List<DocumentedMethod> methods) {
+    try (BufferedWriter file = Files.newBufferedWriter(specsFile)) {
+      JsonWriter writer = new JsonWriter(file);
+      writer.setIndent("  ");
+      writer.beginArray();
+      for (DocumentedMethod method : methods) {
+        GsonInstance.gson().toJson(method, DocumentedMethod.class, writer);
+      }
+      writer.endArray();
+      writer.flush();
+      file.newLine();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns a function applying {@code task} in the {@code ToradocuSession} of the calling thread,
+   * if any, so that the worker threads of a parallel stream load classes from the binaries of the
+   * session.
+   *
+   * @param <T> the type of the result of {@code task}
+   * @param task the task to apply to each specs file
+   * @return {@code task}, taking part in the session of the calling thread
+   */
+  private static <T> Function<Path, T> inCurrentSession(Function<Path, T> task) {
+    final ToradocuSession session = ToradocuSession.current();
+    return session == null ? task : file -> session.call(() -> task.apply(file));
+  }
+
+  /**
+   * Creates the given directory, and its parent directories, if it does not exist.
+   *
+   * @param dir the directory to create
+   * @throws UncheckedIOException if the directory cannot be created
+   */
+  private static void createDirectories(Path dir) {
+    try {
+      Files.createDirectories(dir);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the name of the class whose specs are in the given specs file.
+   *
+   * @param specsFile a specs file named {@code C_goal.json}
+   * @return the name {@code C} of the class
+   */
+  private static String classNameOf(Path specsFile) {
+    final String fileName = specsFile.getFileName().toString();
+    return fileName.endsWith(SPECS_FILE_SUFFIX)
+        ? fileName.substring(0, fileName.length() - SPECS_FILE_SUFFIX.length())
+        : fileName;
+  }
+}
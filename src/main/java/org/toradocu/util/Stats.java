@@ -248,9 +248,9 @@ public class Stats {
         + identifier
         + "\""
         + SEPARATOR
-        + Toradocu.configuration.getDistanceThreshold()
+        + Toradocu.getConfiguration().getDistanceThreshold()
         + SEPARATOR
-        + Toradocu.configuration.getWordRemovalCost()
+        + Toradocu.getConfiguration().getWordRemovalCost()
         + SEPARATOR
         + correctTranslationsThrows
         + SEPARATOR
@@ -424,7 +424,7 @@ public class Stats {
           && expectedTag.getCondition() != null) {
 
         String expectedCondition = expectedTag.getCondition().get().replace(" ", "");
-        if (Toradocu.configuration.useTComment()
+        if (Toradocu.getConfiguration().useTComment()
             && actualTag.getKind().equals(Tag.Kind.RETURN)
             && !actualTag.getCondition().isPresent()) {
           continue; // Ignore not translated @return tags when using @tComment engine.
@@ -0,0 +1,121 @@
+package org.toradocu.util;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.Tag;
+import org.toradocu.translator.ConditionTemplate;
+
+/**
+ * Mines {@code ConditionTemplate}s from JSON goal files. Every comment/condition pair in the goal
+ * files is generalized over the parameters of its method; templates generalizing at least {@link
+ * #MIN_SUPPORT} distinct pairs are kept, unless the same comment shape is translated into different
+ * conditions somewhere in the goal files. The output file can be given to Toradocu with the command
+ * line option {@code --condition-templates}: the condition translator consults the templates before
+ * parsing comments.
+ */
+public class TemplateMiner {
+
+  /** Minimum number of distinct comment/condition pairs a template must generalize. */
+  private static final int MIN_SUPPORT = 2;
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.out.println("This program must be invoked with the following parameters:");
+      System.out.println("1) Path to the file where to save the mined templates.");
+      System.out.println("2...n) Goal files or directories containing goal files.");
+      System.exit(1);
+    }
+
+    List<Path> goalFiles = new ArrayList<>();
+    for (int i = 1; i < args.length; i++) {
+      try (Stream<Path> files = Files.walk(Paths.get(args[i]))) {
+        goalFiles.addAll(
+            files
+                .filter(f -> f.toString().endsWith("_goal.json"))
+                .sorted()
+                .collect(Collectors.toList()));
+      }
+    }
+
+    List<ConditionTemplate> templates = mine(goalFiles);
+    try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(args[0]))) {
+      writer.write(GsonInstance.gson().toJson(templates));
+    }
+    System.out.println(
+        "Mined " + templates.size() + " templates from " + goalFiles.size() + " goal files.");
+    System.out.println("Output file: " + args[0]);
+  }
+
+  /**
+   * Mines condition templates from the given goal files.
+   *
+   * @param goalFiles the goal files to mine
+   * @return the mined templates, sorted by decreasing support
+   * @throws IOException if a goal file cannot be read
+   */
+  public static List<ConditionTemplate> mine(List<Path> goalFiles) throws IOException {
+    java.lang.reflect.Type listType = new TypeToken<List<DocumentedMethod>>() {}.getType();
+
+    // Candidate templates, keyed by themselves to accumulate support.
+    Map<ConditionTemplate, ConditionTemplate> candidates = new LinkedHashMap<>();
+    // Pairs already considered. Goal files may list the same (inherited) method more than once.
+    Set<String> seenPairs = new HashSet<>();
+
+    for (Path goalFile : goalFiles) {
+      List<DocumentedMethod> methods;
+      try (BufferedReader reader = Files.newBufferedReader(goalFile)) {
+        methods = GsonInstance.gson().fromJson(reader, listType);
+      }
+      for (DocumentedMethod method : methods) {
+        List<Tag> tags = new ArrayList<>(method.paramTags());
+        tags.addAll(method.throwsTags());
+        for (Tag tag : tags) {
+          final String pair =
+              method.getContainingClass()
+                  + "."
+                  + method.getSignature()
+                  + tag.getKind()
+                  + tag.getComment()
+                  + tag.getCondition().orElse("");
+          if (!seenPairs.add(pair)) {
+            continue;
+          }
+          ConditionTemplate template = ConditionTemplate.generalize(tag, method);
+          if (template == null) {
+            continue;
+          }
+          ConditionTemplate candidate = candidates.putIfAbsent(template, template);
+          if (candidate != null) {
+            candidate.incrementSupport();
+          }
+        }
+      }
+    }
+
+    // Discard shapes translated into different conditions, and templates with low support.
+    List<ConditionTemplate> all = new ArrayList<>(candidates.keySet());
+    return all.stream()
+        .filter(t -> all.stream().noneMatch(o -> o != t && o.hasSameShape(t)))
+        .filter(t -> t.getSupport() >= MIN_SUPPORT)
+        .sorted(
+            Comparator.comparingInt(ConditionTemplate::getSupport)
+                .reversed()
+                .thenComparing(ConditionTemplate::toString))
+        .collect(Collectors.toList());
+  }
+}
@@ -2,6 +2,7 @@ package tcomment
 
 import org.toradocu.extractor.DocumentedMethod
 import org.toradocu.extractor.ParamTag
+import org.toradocu.extractor.Tag
 import org.toradocu.extractor.ThrowsTag
 
 /**
@@ -84,3 +85,20 @@ private fun mustBeNotNull(comment: String): Boolean {
 }
 
 private fun getWords(sentence: String) = sentence.toLowerCase().replace(",", " ").split(" ")
+
+/**
+ * The @tComment algorithm as a [org.toradocu.translator.Translator], named "tcomment". @tComment
+ * translates only @param and @throws tags: @return tags are left untranslated.
+ */
+class TcommentTranslator : org.toradocu.translator.Translator {
+
+  override fun getName() = "tcomment"
+
+  override fun translate(tag: Tag, method: DocumentedMethod) {
+    val parameters = method.parameters.map { it.name }
+    when (tag) {
+      is ParamTag -> translateTagComment(tag, parameters)
+      is ThrowsTag -> translateTagComment(tag, parameters)
+    }
+  }
+}
@@ -1,8 +1,10 @@
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.fail;
 
+import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -11,13 +13,11 @@ import org.aspectj.lang.annotation.Aspect;
 public class Aspect_Template {
 
   public Object advice(ProceedingJoinPoint jp) throws Throwable {
-    String output =
-        "Triggered aspect: " + this.getClass().getName() + " (" + jp.getSourceLocation() + ")";
     Object target = jp.getTarget();
     Object[] args = jp.getArgs();
 
     if (!paramTagsSatisfied(target, args)) {
-      System.err.println(output + " -> Ignored test case: inputs violate pre-conditions");
+      System.err.println(describe(jp) + " -> Ignored test case: inputs violate pre-conditions");
       throw new TestCaseAspect.InvalidParamException();
     } else {
       List<Class<?>> expectedExceptions = getExpectedExceptions(target, args);
@@ -30,17 +30,17 @@ public class Aspect_Template {
         } catch (Throwable e) {
           if (!expectedExceptions.contains(e.getClass())) {
             fail(
-                output
+                describe(jp)
                     + " -> Failure: Unexpected exception thrown: "
                     + e.getClass().getCanonicalName());
           } else {
-            System.err.println(output + " -> Success: Expected exception caught");
-            throw new TestCaseAspect.ExpectedException();
+            System.err.println(describe(jp) + " -> Success: Expected exception caught");
+            throw TestCaseAspect.ExpectedException.INSTANCE;
           }
         }
       }
       fail(
-          output
+          describe(jp)
               + " -> Failure: Expected exception not thrown. Expected exceptions were: "
               + getExpectedExceptionAsString(expectedExceptions));
       return null;
@@ -52,7 +52,35 @@ public class Aspect_Template {
   private Object checkResult(Object result, Object target, Object[] args) {}
 
   private List<Class<?>> getExpectedExceptions(Object target, Object[] args) {
-    List<Class<?>> expectedExceptions = new ArrayList<Class<?>>();
+    List<Class<?>> expectedExceptions = Collections.emptyList();
+  }
+
+  // Diagnostic messages are built only when needed.
+  private String describe(JoinPoint jp) {
+    return "Triggered aspect: " + this.getClass().getName() + " (" + jp.getSourceLocation() + ")";
+  }
+
+  // Expected exceptions are collected in a list allocated only when an exception is expected.
+  private static List<Class<?>> addExpectedException(
+      List<Class<?>> expectedExceptions, Class<?> exception) {
+    if (exception == null) {
+      return expectedExceptions;
+    }
+    if (expectedExceptions.isEmpty()) {
+      expectedExceptions = new ArrayList<Class<?>>();
+    }
+    expectedExceptions.add(exception);
+    return expectedExceptions;
+  }
+
+  // Exception types that are not on the classpath are ignored.
+  private static Class<?> loadClass(String name) {
+    try {
+      return Class.forName(name);
+    } catch (ClassNotFoundException e) {
+      System.err.println("Class not found!" + e);
+      return null;
+    }
   }
 
   private String getExpectedExceptionAsString(List<Class<?>> expectedExceptions) {
@@ -0,0 +1,149 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.fail;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.CodeSignature;
+import org.aspectj.lang.reflect.ConstructorSignature;
+
+@Aspect
+public class Aspect_Template {
+
+  // Indexes of the specified members, by signature.
+  private static final Map<String, Integer> MEMBERS = new HashMap<String, Integer>();
+
+  static {}
+
+  // Indexes of the specified members, by join point. Signatures are computed once per join point.
+  private static final Map<JoinPoint.StaticPart, Integer> JOIN_POINTS =
+      new ConcurrentHashMap<JoinPoint.StaticPart, Integer>();
+
+  public Object advice(ProceedingJoinPoint jp) throws Throwable {
+    int member = getMember(jp.getStaticPart());
+    if (member == 0) {
+      return jp.proceed();
+    }
+
+    Object target = jp.getTarget();
+    Object[] args = jp.getArgs();
+
+    if (!paramTagsSatisfied(member, target, args)) {
+      System.err.println(describe(jp) + " -> Ignored test case: inputs violate pre-conditions");
+      throw new TestCaseAspect.InvalidParamException();
+    } else {
+      List<Class<?>> expectedExceptions = getExpectedExceptions(member, target, args);
+      if (expectedExceptions.isEmpty()) {
+        Object result = jp.proceed(args);
+        return checkResult(member, result, target, args);
+      } else {
+        try {
+          jp.proceed(args);
+        } catch (Throwable e) {
+          if (!expectedExceptions.contains(e.getClass())) {
+            fail(
+                describe(jp)
+                    + " -> Failure: Unexpected exception thrown: "
+                    + e.getClass().getCanonicalName());
+          } else {
+            System.err.println(describe(jp) + " -> Success: Expected exception caught");
+            throw TestCaseAspect.ExpectedException.INSTANCE;
+          }
+        }
+      }
+      fail(
+          describe(jp)
+              + " -> Failure: Expected exception not thrown. Expected exceptions were: "
+              + getExpectedExceptionAsString(expectedExceptions));
+      return null;
+    }
+  }
+
+  private static int getMember(JoinPoint.StaticPart joinPoint) {
+    Integer member = JOIN_POINTS.get(joinPoint);
+    if (member == null) {
+      CodeSignature signature = (CodeSignature) joinPoint.getSignature();
+      StringBuilder name =
+          new StringBuilder(
+              signature instanceof ConstructorSignature ? "new" : signature.getName());
+      name.append("(");
+      for (Class<?> parameterType : signature.getParameterTypes()) {
+        if (name.charAt(name.length() - 1) != '(') {
+          name.append(", ");
+        }
+        name.append(parameterType.getCanonicalName());
+      }
+      name.append(")");
+      member = findMember(signature.getDeclaringType(), name.toString());
+      JOIN_POINTS.put(joinPoint, member);
+    }
+    return member;
+  }
+
+  // Calls can refer to a member through a subtype of the type declaring it.
+  private static int findMember(Class<?> type, String name) {
+    if (type == null) {
+      return 0;
+    }
+    Integer member = MEMBERS.get(type.getCanonicalName() + "." + name);
+    if (member != null) {
+      return member;
+    }
+    int inherited = findMember(type.getSuperclass(), name);
+    for (Class<?> superInterface : type.getInterfaces()) {
+      if (inherited == 0) {
+        inherited = findMember(superInterface, name);
+      }
+    }
+    return inherited;
+  }
+
+  private boolean paramTagsSatisfied(int member, Object target, Object[] args) {}
+
+  private Object checkResult(int member, Object result, Object target, Object[] args) {}
+
+  private List<Class<?>> getExpectedExceptions(int member, Object target, Object[] args) {}
+
+  // Diagnostic messages are built only when needed.
+  private String describe(JoinPoint jp) {
+    return "Triggered aspect: " + this.getClass().getName() + " (" + jp.getSourceLocation() + ")";
+  }
+
+  // Expected exceptions are collected in a list allocated only when an exception is expected.
+  private static List<Class<?>> addExpectedException(
+      List<Class<?>> expectedExceptions, Class<?> exception) {
+    if (exception == null) {
+      return expectedExceptions;
+    }
+    if (expectedExceptions.isEmpty()) {
+      expectedExceptions = new ArrayList<Class<?>>();
+    }
+    expectedExceptions.add(exception);
+    return expectedExceptions;
+  }
+
+  // Exception types that are not on the classpath are ignored.
+  private static Class<?> loadClass(String name) {
+    try {
+      return Class.forName(name);
+    } catch (ClassNotFoundException e) {
+      System.err.println("Class not found!" + e);
+      return null;
+    }
+  }
+
+  private String getExpectedExceptionAsString(List<Class<?>> expectedExceptions) {
+    String listAsString = "";
+    for (Class<?> exception : expectedExceptions) {
+      listAsString += exception.getName() + " ";
+    }
+    return listAsString;
+  }
+}
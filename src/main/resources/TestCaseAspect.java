@@ -1,3 +1,8 @@
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -16,7 +21,118 @@ public class TestCaseAspect {
     }
   }
 
-  public static class InvalidParamException extends IllegalArgumentException {}
+  // Control-flow signals, thrown on every ignored test case: created without stack trace.
+  public static class InvalidParamException extends IllegalArgumentException {
+    // Not preallocated: suppressed exceptions cannot be disabled for IllegalArgumentException.
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;
+    }
+  }
+
+  public static class ExpectedException extends RuntimeException {
+    public static final ExpectedException INSTANCE = new ExpectedException();
+
+    public ExpectedException() {
+      super(null, null, false, false);
+    }
+  }
+
+  // Sampled checking, and counters of checked calls, for aspects generated with --oracle-sampling.
+  public static final class Sampling {
+    // Check 1 in RATE calls of each join point.
+    private static final int RATE = Integer.getInteger("toradocu.sampling.rate", 1);
+
+    // Maximum fraction of the run time spent in checked calls.
+    private static final double BUDGET =
+        Double.parseDouble(System.getProperty("toradocu.sampling.budget", "1"));
+
+    private static final long START = System.nanoTime();
+
+    private static final ConcurrentMap<JoinPoint.StaticPart, AtomicLong> CALLS =
+        new ConcurrentHashMap<JoinPoint.StaticPart, AtomicLong>();
+
+    private static final AtomicLong CHECKED = new AtomicLong();
+
+    private static final AtomicLong SKIPPED = new AtomicLong();
+
+    private static final AtomicLong FAILED = new AtomicLong();
+
+    private static final AtomicLong CHECK_TIME = new AtomicLong();
+
+    static {
+      if (Boolean.getBoolean("toradocu.sampling.report")) {
+        Runtime.getRuntime()
+            .addShutdownHook(
+                new Thread() {
+                  @Override
+                  public void run() {
+                    System.err.println(report());
+                  }
+                });
+      }
+    }
+
+    private Sampling() {}
 
-  public static class ExpectedException extends RuntimeException {}
+    public static boolean isChecked(JoinPoint.StaticPart joinPoint) {
+      boolean checked = RATE <= 1 || getCalls(joinPoint).getAndIncrement() % RATE == 0;
+      if (checked && BUDGET < 1) {
+        checked = CHECK_TIME.get() <= BUDGET * (System.nanoTime() - START);
+      }
+      if (!checked) {
+        SKIPPED.incrementAndGet();
+      }
+      return checked;
+    }
+
+    public static long start() {
+      return BUDGET < 1 ? System.nanoTime() : 0;
+    }
+
+    public static void checked(long start) {
+      CHECKED.incrementAndGet();
+      if (BUDGET < 1) {
+        CHECK_TIME.addAndGet(System.nanoTime() - start);
+      }
+    }
+
+    public static void failed() {
+      FAILED.incrementAndGet();
+    }
+
+    public static long getChecked() {
+      return CHECKED.get();
+    }
+
+    public static long getSkipped() {
+      return SKIPPED.get();
+    }
+
+    public static long getFailed() {
+      return FAILED.get();
+    }
+
+    public static String report() {
+      return "Toradocu oracles: "
+          + getChecked()
+          + " checked calls, "
+          + getSkipped()
+          + " skipped calls, "
+          + getFailed()
+          + " failed calls";
+    }
+
+    private static AtomicLong getCalls(JoinPoint.StaticPart joinPoint) {
+      AtomicLong calls = CALLS.get(joinPoint);
+      if (calls == null) {
+        calls = new AtomicLong();
+        AtomicLong previous = CALLS.putIfAbsent(joinPoint, calls);
+        if (previous != null) {
+          calls = previous;
+        }
+      }
+      return calls;
+    }
+  }
 }
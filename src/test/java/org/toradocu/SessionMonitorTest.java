@@ -0,0 +1,146 @@
+package org.toradocu;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.beust.jcommander.JCommander;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Test;
+import org.toradocu.conf.Configuration;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.Tag;
+import org.toradocu.extractor.ThrowsTag;
+import org.toradocu.extractor.Type;
+import org.toradocu.translator.Translator;
+import org.toradocu.translator.TranslatorChain;
+
+public class SessionMonitorTest {
+
+  private final Type npe = new Type("java.lang.NullPointerException");
+
+  @Test
+  public void progressOfTranslation() {
+    ThrowsTag nullTag = new ThrowsTag(npe, "if x is null");
+    ThrowsTag otherTag = new ThrowsTag(npe, "if x is wrong");
+    ThrowsTag lastTag = new ThrowsTag(npe, "if y is null");
+    List<DocumentedMethod> methods =
+        Arrays.asList(
+            createMethod("foo", nullTag, otherTag),
+            createMethod("bar", lastTag),
+            createMethod("baz"));
+    ToradocuSession session = new ToradocuSession(configure());
+    SessionMonitor monitor = session.getMonitor();
+    Translator translator =
+        new Translator() {
+          @Override
+          public String getName() {
+            return "nulls";
+          }
+
+          @Override
+          public void translate(Tag tag, DocumentedMethod method) {
+            // Progress is visible while the chain runs.
+            if (tag == lastTag) {
+              assertThat(monitor.getProcessedMethods(), is(2));
+              assertThat(monitor.getRemainingTags(), is(1));
+            }
+            if (tag.getComment().endsWith("is null")) {
+              tag.setCondition("args[0]==null");
+            }
+          }
+        };
+    session.call(() -> TranslatorChain.translate(methods, Collections.singletonList(translator)));
+
+    assertThat(monitor.getMethods(), is(3));
+    assertThat(monitor.getProcessedMethods(), is(3));
+    assertThat(monitor.getRemainingMethods(), is(0));
+    assertThat(monitor.getTags(), is(3));
+    assertThat(monitor.getProcessedTags(), is(3));
+    assertThat(monitor.getTranslatedTags(), is(2));
+    assertThat(monitor.getCurrentSentence() == null, is(true));
+  }
+
+  @Test
+  public void sentencesParsedAtOnce() throws Exception {
+    SessionMonitor monitor = new SessionMonitor("example.Foo");
+    monitor.startParsing("first sentence");
+    Thread other = new Thread(() -> monitor.startParsing("second sentence"));
+    other.start();
+    other.join();
+
+    // The sentence parsed for the longest time is reported, until its parsing is over.
+    assertThat(monitor.getCurrentSentence(), is("first sentence"));
+    monitor.endParsing();
+    assertThat(monitor.getCurrentSentence(), is("second sentence"));
+
+    Thread end = new Thread(monitor::endParsing);
+    end.start();
+    end.join();
+    assertThat(monitor.getCurrentSentence(), is("second sentence"));
+  }
+
+  @Test
+  public void registration() throws Exception {
+    ToradocuSession session = new ToradocuSession(configure());
+    SessionMonitor monitor = session.getMonitor();
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName pattern = new ObjectName("org.toradocu:type=Session,target=example.Foo,*");
+
+    monitor.register();
+    monitor.startStage(SessionMonitor.Stage.TRANSLATION);
+    session.call(
+        () -> {
+          SessionMonitor.recordCacheAccess("fastPath", true);
+          SessionMonitor.recordCacheAccess("fastPath", false);
+          SessionMonitor.recordEvent("parser.skipped");
+          return null;
+        });
+    Set<ObjectName> names = server.queryNames(pattern, null);
+    assertThat(names.size(), is(1));
+    ObjectName name = names.iterator().next();
+    assertThat(server.getAttribute(name, "TargetClass"), is("example.Foo"));
+    assertThat(server.getAttribute(name, "Stage"), is("TRANSLATION"));
+    assertThat(monitor.getCacheHitRates().get("fastPath"), is(0.5));
+    assertThat(monitor.getEventCounts(), is(Collections.singletonMap("parser.skipped", 1L)));
+
+    monitor.unregister();
+    assertThat(server.queryNames(pattern, null).isEmpty(), is(true));
+  }
+
+  private DocumentedMethod createMethod(String name, ThrowsTag... throwsTags) {
+    return new DocumentedMethod(
+        new Type("example.Foo"),
+        name,
+        Type.VOID,
+        null,
+        null,
+        false,
+        Arrays.asList(throwsTags),
+        null);
+  }
+
+  /**
+   * Returns an initialized configuration for the class example.Foo.
+   *
+   * @return the configuration
+   */
+  private static Configuration configure() {
+    Configuration configuration = new Configuration();
+    new JCommander(
+        configuration,
+        "--target-class",
+        "example.Foo",
+        "--class-dir",
+        "build/classes",
+        "--source-dir",
+        "src/test/resources");
+    configuration.initialize();
+    return configuration;
+  }
+}
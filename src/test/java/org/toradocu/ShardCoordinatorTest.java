@@ -0,0 +1,108 @@
+package org.toradocu;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+public class ShardCoordinatorTest {
+
+  private final Path guavaSources = Paths.get("src/test/resources/src/guava-19.0-sources");
+
+  @Test
+  public void shardsAreBalancedByCost() {
+    Map<String, Long> costs = new LinkedHashMap<>();
+    costs.put("a.A", 1L);
+    costs.put("a.B", 10L);
+    costs.put("a.C", 6L);
+    costs.put("a.D", 5L);
+    costs.put("a.E", 2L);
+    List<List<String>> shards = ShardCoordinator.shard(costs, 2);
+    assertThat(shards.get(0), is(Arrays.asList("a.B", "a.E")));
+    assertThat(shards.get(1), is(Arrays.asList("a.C", "a.D", "a.A")));
+
+    // There can be more workers than classes.
+    shards = ShardCoordinator.shard(costs, 6);
+    assertThat(shards.get(5).isEmpty(), is(true));
+  }
+
+  @Test
+  public void costOfClasses() {
+    long multimap =
+        ShardCoordinator.estimateCost(guavaSources, "com.google.common.collect.Multimap");
+    long arrayListMultimap =
+        ShardCoordinator.estimateCost(guavaSources, "com.google.common.collect.ArrayListMultimap");
+    assertThat(multimap > arrayListMultimap, is(true));
+    // Nested classes are estimated from the source file of their outermost class.
+    assertThat(
+        ShardCoordinator.estimateCost(guavaSources, "com.google.common.collect.Multimap.Entry"),
+        is(multimap));
+    assertThat(ShardCoordinator.estimateCost(guavaSources, "com.example.Missing"), is(1L));
+  }
+
+  @Test
+  public void perClassOptionsAreNotShared() {
+    List<String> options =
+        Arrays.asList(
+            "--source-dir",
+            "src",
+            "--target-class",
+            "a.A",
+            "--resume",
+            "--randoop-specs",
+            "specs.json",
+            "--parser",
+            "NNDEP");
+    assertThat(
+        ShardCoordinator.workerOptions(options),
+        is(Arrays.asList("--source-dir", "src", "--parser", "NNDEP")));
+  }
+
+  @Test
+  public void runsStartOverUnlessResumed() throws IOException {
+    final File workDir = Files.createTempDirectory("toradocu-shards").toFile();
+    final List<String> targets = Arrays.asList("a.A", "a.B");
+    final List<String> fastPath = Arrays.asList("--translators", "fastpath");
+    final List<String> toradocu = Arrays.asList("--translators", "toradocu");
+
+    // A first run completes a.A only.
+    ShardCoordinator first = coordinator(targets, workDir, false, fastPath);
+    assertThat(first.prepareWorkDir(), is(true));
+    Files.write(
+        first.marker("a.A", ShardWorker.OUTPUT).toPath(), "[]".getBytes(StandardCharsets.UTF_8));
+    Files.write(first.marker("a.A", ShardWorker.DONE).toPath(), new byte[0]);
+    assertThat(first.remaining(targets), is(Collections.singletonList("a.B")));
+
+    // The first run can be resumed only with its own options.
+    assertThat(coordinator(targets, workDir, true, toradocu).prepareWorkDir(), is(false));
+    ShardCoordinator resumed = coordinator(targets, workDir, true, fastPath);
+    assertThat(resumed.prepareWorkDir(), is(true));
+    assertThat(resumed.remaining(targets), is(Collections.singletonList("a.B")));
+
+    // A second run with other options does not reuse the outputs of the first one.
+    ShardCoordinator second = coordinator(targets, workDir, false, toradocu);
+    assertThat(second.prepareWorkDir(), is(true));
+    assertThat(second.remaining(targets), is(targets));
+    assertThat(second.marker("a.A", ShardWorker.OUTPUT).exists(), is(false));
+
+    FileUtils.deleteDirectory(workDir);
+  }
+
+  private ShardCoordinator coordinator(
+      List<String> targets, File workDir, boolean resume, List<String> toradocuOptions) {
+    return new ShardCoordinator(
+        targets, 1, workDir, 0, resume, Collections.emptyList(), toradocuOptions);
+  }
+}
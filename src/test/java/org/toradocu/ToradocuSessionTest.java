@@ -0,0 +1,112 @@
+package org.toradocu;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.Test;
+import org.toradocu.conf.Configuration;
+import org.toradocu.extractor.DocumentedMethod;
+
+public class ToradocuSessionTest {
+
+  @Test
+  public void concurrentSessions() throws Exception {
+    CompletableFuture<Map<String, String>> perMethod =
+        CompletableFuture.supplyAsync(() -> run("--aspect-granularity", "METHOD"));
+    CompletableFuture<Map<String, String>> perClass =
+        CompletableFuture.supplyAsync(
+            () -> run("--aspect-granularity", "CLASS", "--test-class", "example.MultimapTest"));
+
+    Map<String, String> aspects = perMethod.get();
+    assertThat(aspects.containsKey("TestCaseAspect.java"), is(true));
+    assertThat(aspects.containsKey("aop.xml"), is(true));
+    assertThat(
+        aspects
+            .get("Aspect_1.java")
+            .contains(
+                "@Around(\"call(com.google.common.collect.ArrayListMultimap com.google.common."
+                    + "collect.ArrayListMultimap.create(int, int))\")"),
+        is(true));
+
+    aspects = perClass.get();
+    assertThat(aspects.containsKey("Aspect_2.java"), is(false));
+    assertThat(
+        aspects
+            .get("Aspect_1.java")
+            .contains(
+                "@Around(\"(call(* com.google.common.collect.ArrayListMultimap.*(..)) "
+                    + "&& within(example.MultimapTest))\")"),
+        is(true));
+    assertThat(
+        aspects.get("aop.xml").contains("<include within=\"example.MultimapTest\"/>"), is(true));
+  }
+
+  @Test
+  public void javadocRunsOnTargetSourceFile() {
+    String[] javadocOptions = configure().getJavadocOptions();
+    assertThat(
+        javadocOptions[javadocOptions.length - 1],
+        is(
+            Paths.get(
+                    "src/test/resources/src/guava-19.0-sources",
+                    "com/google/common/collect/ArrayListMultimap.java")
+                .toString()));
+    // Other types of the package are loaded from the source path when needed.
+    List<DocumentedMethod> methods = new ToradocuSession(configure()).extract();
+    String signature = "create(com.google.common.collect.Multimap multimap)";
+    assertThat(methods.stream().anyMatch(m -> m.getSignature().equals(signature)), is(true));
+  }
+
+  @Test
+  public void noSessionOutsideSteps() {
+    Configuration configuration = configure();
+    ToradocuSession session = new ToradocuSession(configuration);
+    assertThat(ToradocuSession.current() == null, is(true));
+    assertThat(session.call(Toradocu::getConfiguration) == configuration, is(true));
+    assertThat(ToradocuSession.current() == null, is(true));
+  }
+
+  @Test(expected = ParameterException.class)
+  public void resumeWithoutCheckpoint() {
+    configure("--resume");
+  }
+
+  /**
+   * Runs a session on ArrayListMultimap with the given options.
+   *
+   * @param options command-line options of the session
+   * @return the generated aspects
+   */
+  private static Map<String, String> run(String... options) {
+    ToradocuSession session = new ToradocuSession(configure(options));
+    List<DocumentedMethod> methods = session.translate(session.extract());
+    return session.generate(methods);
+  }
+
+  /**
+   * Returns an initialized configuration for ArrayListMultimap with the given options.
+   *
+   * @param options command-line options to add to the configuration
+   * @return the configuration
+   */
+  private static Configuration configure(String... options) {
+    String[] args = new String[6 + options.length];
+    args[0] = "--target-class";
+    args[1] = "com.google.common.collect.ArrayListMultimap";
+    args[2] = "--class-dir";
+    args[3] = "src/test/resources/bin/guava-19.0.jar";
+    args[4] = "--source-dir";
+    args[5] = "src/test/resources/src/guava-19.0-sources";
+    System.arraycopy(options, 0, args, 6, options.length);
+    Configuration configuration = new Configuration();
+    new JCommander(configuration, args);
+    configuration.initialize();
+    return configuration;
+  }
+}
@@ -0,0 +1,67 @@
+package org.toradocu;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.junit.Test;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.ThrowsTag;
+import org.toradocu.extractor.Type;
+
+public class TranslationJournalTest {
+
+  private final Type npe = new Type("java.lang.NullPointerException");
+
+  @Test
+  public void resume() throws Exception {
+    File file = File.createTempFile("toradocu", ".checkpoint");
+    file.deleteOnExit();
+    ThrowsTag nullTag = new ThrowsTag(npe, "if x is null");
+    nullTag.setCondition("args[0]==null");
+    try (TranslationJournal journal = TranslationJournal.open(file, false)) {
+      journal.record(createMethod("foo", nullTag));
+      journal.record(createMethod("bar", new ThrowsTag(npe, "if y is null")));
+    }
+    // A run dying while writing leaves a truncated line.
+    Files.write(
+        file.toPath(),
+        "{\"signature\":".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    try (TranslationJournal journal = TranslationJournal.open(file, true)) {
+      ThrowsTag restoredTag = new ThrowsTag(npe, "if x is null");
+      assertThat(journal.restore(createMethod("foo", restoredTag)), is(true));
+      assertThat(restoredTag.getCondition().get(), is("args[0]==null"));
+      // Methods whose comments changed, or that are not in the journal, are translated again.
+      assertThat(journal.restore(createMethod("bar", new ThrowsTag(npe, "if y is 0"))), is(false));
+      assertThat(journal.restore(createMethod("baz")), is(false));
+      journal.record(createMethod("baz"));
+    }
+    // The truncated line has been dropped: entries appended afterwards can be read.
+    try (TranslationJournal journal = TranslationJournal.open(file, true)) {
+      assertThat(journal.restore(createMethod("baz")), is(true));
+    }
+
+    try (TranslationJournal journal = TranslationJournal.open(file, false)) {
+      ThrowsTag tag = new ThrowsTag(npe, "if x is null");
+      assertThat(journal.restore(createMethod("foo", tag)), is(false));
+    }
+  }
+
+  private DocumentedMethod createMethod(String name, ThrowsTag... throwsTags) {
+    return new DocumentedMethod(
+        new Type("example.Foo"),
+        name,
+        Type.VOID,
+        null,
+        null,
+        false,
+        Arrays.asList(throwsTags),
+        null);
+  }
+}
@@ -0,0 +1,262 @@
+package org.toradocu.generator;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.SourceLocation;
+import org.toradocu.Toradocu;
+import org.toradocu.ToradocuSession;
+import org.toradocu.conf.Configuration;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.ParamTag;
+import org.toradocu.extractor.Parameter;
+import org.toradocu.extractor.ThrowsTag;
+import org.toradocu.extractor.Type;
+
+/**
+ * Measures the per-call overhead of the advice of a generated aspect. The aspect is generated for
+ * the method {@code example.Text.repeat(String s, int n)}, compiled, and its advice is invoked
+ * directly (without weaving) on a stub join point, whose {@code proceed} implements the method. The
+ * overhead is the time per call of the advice minus the time per call of the stub alone. Messages
+ * printed by the advice are built, but discarded.
+ *
+ * <p>Run with {@code gradle adviceBenchmark}, optionally passing the number of calls per
+ * measurement as argument (e.g., {@code -Pargs=1000000}).
+ */
+public class AdviceOverheadBenchmark {
+
+  /** Number of measurements per scenario; the fastest one is reported. */
+  private static final int ROUNDS = 5;
+  /** Source location of the join points. */
+  private static final SourceLocation SOURCE_LOCATION =
+      (SourceLocation)
+          Proxy.newProxyInstance(
+              AdviceOverheadBenchmark.class.getClassLoader(),
+              new Class<?>[] {SourceLocation.class},
+              (proxy, method, methodArgs) -> method.getName().equals("getLine") ? 1 : "Text.java");
+  /** Prevents the JIT compiler from removing the measured calls. */
+  private static volatile Object sink;
+
+  public static void main(String[] args) throws Exception {
+    final int calls = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+    Path aspectsDir = Files.createTempDirectory("toradocu-benchmark");
+    Class<?> aspectClass =
+        new ToradocuSession(new Configuration())
+            .call(
+                () -> {
+                  try {
+                    return compileAspect(aspectsDir);
+                  } catch (Exception e) {
+                    throw new IllegalStateException("Unable to generate the aspect", e);
+                  }
+                });
+    Object aspect = aspectClass.newInstance();
+    // A method handle, unlike reflection, does not wrap the exceptions thrown by the advice.
+    MethodHandle advice =
+        MethodHandles.publicLookup()
+            .findVirtual(
+                aspectClass,
+                "advice",
+                MethodType.methodType(Object.class, ProceedingJoinPoint.class))
+            .bindTo(aspect);
+
+    final PrintStream err = System.err;
+    System.setErr(
+        new PrintStream(
+            new OutputStream() {
+              @Override
+              public void write(int b) {}
+            }));
+
+    // Scenarios: name, arguments, and expected outcome of the advice.
+    List<Object[]> scenarios = new ArrayList<>();
+    scenarios.add(new Object[] {"valid call", new Object[] {"abc", 2}, "abcabc"});
+    scenarios.add(new Object[] {"expected exception", new Object[] {"", 2}, "ExpectedException"});
+    scenarios.add(new Object[] {"null argument", new Object[] {null, 2}, "ExpectedException"});
+    for (Object[] scenario : scenarios) {
+      ProceedingJoinPoint jp = createJoinPoint((Object[]) scenario[1]);
+      double direct = measure(() -> jp.proceed(jp.getArgs()), calls);
+      double advised = measure(() -> advice.invoke(jp), calls);
+      String outcome =
+          sink instanceof Throwable ? sink.getClass().getSimpleName() : String.valueOf(sink);
+      if (!outcome.equals(scenario[2])) {
+        System.setErr(err);
+        throw new IllegalStateException(
+            "Unexpected outcome of scenario " + scenario[0] + ": " + outcome);
+      }
+      System.out.printf(
+          "%-20s advice: %8.1f ns/call  direct: %8.1f ns/call  overhead: %8.1f ns/call%n",
+          scenario[0], advised, direct, advised - direct);
+    }
+    System.setErr(err);
+  }
+
+  /**
+   * Generates and compiles the aspect of {@code example.Text.repeat(String s, int n)}, together
+   * with the aspect {@code TestCaseAspect} it depends on.
+   *
+   * @param aspectsDir the directory where to generate and compile the aspects
+   * @return the class of the compiled aspect
+   * @throws Exception if the aspects cannot be generated or compiled
+   */
+  private static Class<?> compileAspect(Path aspectsDir) throws Exception {
+    final Configuration configuration = Toradocu.getConfiguration();
+    CompilationUnit testCaseAspect = parseResource(configuration.getJUnitTestCaseAspect());
+    new JUnitTestCaseAspectChangerVisitor().visit(testCaseAspect, null);
+    CompilationUnit aspect = parseResource(configuration.getAspectTemplate());
+    new MethodChangerVisitor().visit(aspect, createMethod());
+    new ClassChangerVisitor().visit(aspect, "Aspect_1");
+
+    File testCaseAspectFile = aspectsDir.resolve("TestCaseAspect.java").toFile();
+    File aspectFile = aspectsDir.resolve("Aspect_1.java").toFile();
+    Files.write(testCaseAspectFile.toPath(), testCaseAspect.toString().getBytes());
+    Files.write(aspectFile.toPath(), aspect.toString().getBytes());
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      throw new IllegalStateException("A JDK is needed to compile the generated aspects.");
+    }
+    int exitCode =
+        compiler.run(
+            null,
+            null,
+            null,
+            "-cp",
+            System.getProperty("java.class.path"),
+            "-d",
+            aspectsDir.toString(),
+            testCaseAspectFile.toString(),
+            aspectFile.toString());
+    if (exitCode != 0) {
+      throw new IllegalStateException("Unable to compile the generated aspects in " + aspectsDir);
+    }
+    URLClassLoader loader =
+        new URLClassLoader(
+            new URL[] {aspectsDir.toUri().toURL()}, AdviceOverheadBenchmark.class.getClassLoader());
+    return loader.loadClass("Aspect_1");
+  }
+
+  private static CompilationUnit parseResource(String name) throws Exception {
+    try (Reader template =
+        new InputStreamReader(
+            AdviceOverheadBenchmark.class.getResourceAsStream("/" + name),
+            StandardCharsets.UTF_8)) {
+      return JavaParser.parse(template, true);
+    }
+  }
+
+  /**
+   * Creates the documented method {@code example.Text.repeat(String s, int n)}, with translated
+   * throws tags whose conditions dereference an argument that can be null.
+   *
+   * @return the documented method
+   */
+  private static DocumentedMethod createMethod() {
+    Parameter s = new Parameter(new Type("java.lang.String"), "s");
+    Parameter n = new Parameter(new Type("int"), "n");
+    ThrowsTag nullTag = new ThrowsTag(new Type("java.lang.NullPointerException"), "if s is null");
+    nullTag.setCondition("args[0]==null");
+    ThrowsTag emptyTag =
+        new ThrowsTag(new Type("java.lang.IllegalArgumentException"), "if s is empty");
+    emptyTag.setCondition("args[0].isEmpty()");
+    ThrowsTag negativeTag =
+        new ThrowsTag(new Type("java.lang.IllegalArgumentException"), "if n is negative");
+    negativeTag.setCondition("args[1]<0");
+    ParamTag paramTag = new ParamTag(n, "the number of repetitions");
+    paramTag.setCondition("");
+    return new DocumentedMethod(
+        new Type("example.Text"),
+        "repeat",
+        new Type("java.lang.String"),
+        new ArrayList<>(Arrays.asList(s, n)),
+        Arrays.asList(paramTag),
+        false,
+        Arrays.asList(nullTag, emptyTag, negativeTag),
+        null);
+  }
+
+  /**
+   * Creates a join point of a call to {@code example.Text.repeat(String s, int n)} with the given
+   * arguments. The method is implemented by {@code proceed}.
+   *
+   * @param args the arguments of the call
+   * @return the join point
+   */
+  private static ProceedingJoinPoint createJoinPoint(Object[] args) {
+    return (ProceedingJoinPoint)
+        Proxy.newProxyInstance(
+            AdviceOverheadBenchmark.class.getClassLoader(),
+            new Class<?>[] {ProceedingJoinPoint.class},
+            (proxy, method, methodArgs) -> {
+              switch (method.getName()) {
+                case "getArgs":
+                  return args.clone();
+                case "proceed":
+                  Object[] actualArgs = methodArgs == null ? args : (Object[]) methodArgs[0];
+                  String s = (String) actualArgs[0];
+                  if (s.isEmpty()) {
+                    throw new IllegalArgumentException();
+                  }
+                  return new String(new char[(Integer) actualArgs[1]]).replace("\0", s);
+                case "getSourceLocation":
+                  return SOURCE_LOCATION;
+                case "toString":
+                  return "call(String example.Text.repeat(String, int))";
+                default:
+                  return null;
+              }
+            });
+  }
+
+  /** A call whose time is measured. */
+  private interface Call {
+    Object run() throws Throwable;
+  }
+
+  /**
+   * Returns the time per call of {@code call}, in nanoseconds, as the fastest of several
+   * measurements taken after warm-up.
+   *
+   * @param call the call to measure
+   * @param calls the number of calls per measurement
+   * @return the time per call, in nanoseconds
+   */
+  private static double measure(Call call, int calls) {
+    double best = Double.MAX_VALUE;
+    for (int round = 0; round <= ROUNDS; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < calls; i++) {
+        try {
+          sink = call.run();
+        } catch (Throwable e) {
+          sink = e;
+        }
+      }
+      long elapsed = System.nanoTime() - start;
+      // The first round warms up the JIT compiler.
+      if (round > 0) {
+        best = Math.min(best, (double) elapsed / calls);
+      }
+    }
+    return best;
+  }
+}
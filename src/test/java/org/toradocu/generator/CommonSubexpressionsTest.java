@@ -0,0 +1,96 @@
+package org.toradocu.generator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseException;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.junit.Test;
+
+public class CommonSubexpressionsTest {
+
+  @Test
+  public void sharedCasts() throws ParseException {
+    assertThat(
+        share(
+            "if (((int) args[0]) < 0 || ((int) args[0]) > ((int) args[1])) {return false;}",
+            "if (((java.lang.Integer) target) != null) {return true;}"),
+        is(
+            block(
+                "int arg0 = (int) args[0];",
+                "if (arg0 < 0 || arg0 > ((int) args[1])) {return false;}",
+                "if (((java.lang.Integer) target) != null) {return true;}")));
+  }
+
+  @Test
+  public void sharedAccessors() throws ParseException {
+    assertThat(
+        share(
+            "if (((java.util.List) args[0]) != null && ((java.util.List) args[0]).size() > 1) {",
+            "  return false;",
+            "}",
+            "if (((java.util.List) args[0]) == null || ((java.util.List) args[0]).size() == 0) {",
+            "  return true;",
+            "}",
+            "if (((java.util.List) args[0]).size() == 2) {return true;}"),
+        is(
+            block(
+                "java.util.List arg0 = (java.util.List) args[0];",
+                "int arg0Size = arg0 == null ? 0 : arg0.size();",
+                "if (arg0 != null && arg0Size > 1) {return false;}",
+                "if (arg0 == null || arg0Size == 0) {return true;}",
+                // The receiver could be null: the accessor is not shared.
+                "if (arg0.size() == 2) {return true;}")));
+  }
+
+  @Test
+  public void accessorsOfUnknownTypes() throws ParseException {
+    String[] statements = {
+      "if (((org.example.Foo) target) != null && ((org.example.Foo) target).size() > 1) {",
+      "  return false;",
+      "}",
+      "if (((org.example.Foo) target) != null && ((org.example.Foo) target).size() == 0) {",
+      "  return true;",
+      "}"
+    };
+    assertThat(
+        share(statements),
+        is(
+            block(
+                "org.example.Foo targetValue = (org.example.Foo) target;",
+                "if (targetValue != null && targetValue.size() > 1) {return false;}",
+                "if (targetValue != null && targetValue.size() == 0) {return true;}")));
+  }
+
+  @Test
+  public void castsNotShared() throws ParseException {
+    // The value is cast to different types.
+    String[] statements = {
+      "if (((java.lang.Integer) args[0]) != null) {return false;}",
+      "if (((java.lang.Number) args[0]) != null) {return false;}"
+    };
+    assertThat(share(statements), is(block(statements)));
+    // The name of the local variable is already used.
+    statements =
+        new String[] {
+          "if (java.util.Arrays.stream(args).anyMatch(arg0 -> arg0 == null)) {return false;}",
+          "if (((int) args[0]) > 0 || ((int) args[0]) < -1) {return false;}"
+        };
+    assertThat(share(statements), is(block(statements)));
+  }
+
+  private static String share(String... statements) throws ParseException {
+    MethodDeclaration method =
+        (MethodDeclaration)
+            JavaParser.parseClassBodyDeclaration(
+                "private boolean paramTagsSatisfied(Object target, Object[] args) "
+                    + block(statements));
+    CommonSubexpressions.share(method);
+    return method.getBody().toString();
+  }
+
+  private static String block(String... statements) throws ParseException {
+    return JavaParser.parseBlock("{" + String.join("", statements) + "}").toString();
+  }
+}
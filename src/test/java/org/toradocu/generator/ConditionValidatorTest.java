@@ -0,0 +1,87 @@
+package org.toradocu.generator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.ParamTag;
+import org.toradocu.extractor.Parameter;
+import org.toradocu.extractor.ReturnTag;
+import org.toradocu.extractor.ThrowsTag;
+import org.toradocu.extractor.Type;
+
+public class ConditionValidatorTest {
+
+  @Test
+  public void validate() {
+    Parameter begin = new Parameter(new Type("int"), "beginIndex");
+    Parameter end = new Parameter(new Type("int"), "endIndex");
+    ParamTag validParam = new ParamTag(begin, "must not be negative");
+    validParam.setCondition("args[0]>=0");
+    ParamTag invalidParam = new ParamTag(end, "must not be null");
+    invalidParam.setCondition("args[1].isEmpty()");
+    ThrowsTag validThrows =
+        new ThrowsTag(
+            new Type("java.lang.IndexOutOfBoundsException"), "if endIndex is out of bounds");
+    validThrows.setCondition("args[1]>target.length()");
+    ReturnTag invalidReturn = new ReturnTag("a string of length endIndex - beginIndex");
+    invalidReturn.setCondition("true ? result.size()==args[1]-args[0]");
+    DocumentedMethod substring =
+        new DocumentedMethod(
+            new Type("java.lang.String"),
+            "substring",
+            new Type("java.lang.String"),
+            Arrays.asList(begin, end),
+            Arrays.asList(validParam, invalidParam),
+            false,
+            Collections.singletonList(validThrows),
+            invalidReturn);
+
+    ReturnTag validReturn = new ReturnTag("true if this list contains no elements");
+    validReturn.setCondition("true ? result==target.isEmpty()");
+    DocumentedMethod isEmpty =
+        new DocumentedMethod(
+            new Type("java.util.List"),
+            "isEmpty",
+            new Type("boolean"),
+            new ArrayList<>(),
+            new ArrayList<>(),
+            false,
+            new ArrayList<>(),
+            validReturn);
+
+    assertThat(
+        ConditionValidator.validate(Arrays.asList(substring, isEmpty), new ArrayList<>()), is(2));
+    assertThat(validParam.getCondition().get(), is("args[0]>=0"));
+    assertThat(invalidParam.getCondition().get(), is(""));
+    assertThat(validThrows.getCondition().get(), is("args[1]>target.length()"));
+    assertThat(invalidReturn.getCondition().get(), is(""));
+    assertThat(validReturn.getCondition().get(), is("true ? result==target.isEmpty()"));
+  }
+
+  @Test
+  public void validConditions() {
+    ThrowsTag tag = new ThrowsTag(new Type("java.lang.NullPointerException"), "if c is null");
+    tag.setCondition("args[0]==null");
+    List<Parameter> parameters =
+        Collections.singletonList(new Parameter(new Type("java.util.Collection"), "c"));
+    DocumentedMethod addAll =
+        new DocumentedMethod(
+            new Type("java.util.List"),
+            "addAll",
+            new Type("boolean"),
+            parameters,
+            new ArrayList<>(),
+            false,
+            Collections.singletonList(tag),
+            null);
+    assertThat(
+        ConditionValidator.validate(Collections.singletonList(addAll), new ArrayList<>()), is(0));
+    assertThat(tag.getCondition().get(), is("args[0]==null"));
+  }
+}
@@ -0,0 +1,107 @@
+package org.toradocu.generator;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseException;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import org.junit.Test;
+
+public class ContainmentPredicatesTest {
+
+  private final ContainmentPredicates predicates = new ContainmentPredicates();
+
+  @Test
+  public void arrayPredicate() throws ParseException {
+    assertThat(
+        rewrite(
+            "((java.lang.String[]) args[0]) == null "
+                + "|| java.util.Arrays.stream(((java.lang.String[]) args[0])).anyMatch(e -> e==null)"),
+        is("((java.lang.String[]) args[0]) == null || anyMatch_1(((java.lang.String[]) args[0]))"));
+    String predicate = getPredicates();
+    assertThat(
+        predicate,
+        containsString("private static boolean anyMatch_1(java.lang.String[] container) {"));
+    assertThat(predicate, containsString("if (container == null) {"));
+    assertThat(predicate, containsString("for (int i = 0; i < container.length; i++) {"));
+    assertThat(predicate, containsString("java.lang.String e = container[i];"));
+    assertThat(predicate, containsString("if (e == null) {"));
+  }
+
+  @Test
+  public void collectionPredicate() throws ParseException {
+    assertThat(
+        rewrite("((java.util.List<java.lang.String>) args[0]).stream().anyMatch(s -> s.isEmpty())"),
+        is("anyMatch_1(((java.util.List<java.lang.String>) args[0]))"));
+    assertThat(
+        rewrite("((java.util.Set) args[0]).stream().anyMatch(s -> s.equals(args[1]))"),
+        is("anyMatch_2(((java.util.Set) args[0]), args)"));
+    String predicate = getPredicates();
+    assertThat(
+        predicate,
+        containsString(
+            "private static boolean anyMatch_1(java.util.List<java.lang.String> container) {"));
+    assertThat(
+        predicate,
+        containsString(
+            "for (java.util.Iterator<java.lang.String> iterator = container.iterator(); "
+                + "iterator.hasNext(); ) {"));
+    assertThat(predicate, containsString("java.lang.String s = iterator.next();"));
+    // Elements are checked for null before being dereferenced.
+    assertThat(predicate, containsString("if (s != null && s.isEmpty()) {"));
+    assertThat(
+        predicate,
+        containsString(
+            "private static boolean anyMatch_2(java.util.Set container, Object[] args) {"));
+    assertThat(
+        predicate,
+        containsString(
+            "for (java.util.Iterator<?> iterator = container.iterator(); iterator.hasNext(); ) {"));
+    assertThat(predicate, containsString("Object s = iterator.next();"));
+    assertThat(predicate, containsString("catch (java.lang.NullPointerException npe)"));
+  }
+
+  @Test
+  public void asListPredicate() throws ParseException {
+    assertThat(
+        rewrite(
+            "java.util.Arrays.asList(((java.lang.Object[]) args[0])).stream()"
+                + ".anyMatch(e -> e==null)"),
+        is("anyMatch_1(((java.lang.Object[]) args[0]))"));
+    // Arrays.asList of a primitive array is a list containing the array.
+    String condition = "java.util.Arrays.asList(((int[]) args[0])).stream().anyMatch(e -> e==null)";
+    assertThat(rewrite(condition), is(JavaParser.parseExpression(condition).toString()));
+  }
+
+  @Test
+  public void samePredicates() throws ParseException {
+    assertThat(
+        rewrite(
+            "java.util.Arrays.stream(((int[]) args[0])).anyMatch(e -> e<0) "
+                + "|| java.util.Arrays.stream(((int[]) args[1])).anyMatch(e -> e<0)"),
+        is("anyMatch_1(((int[]) args[0])) || anyMatch_1(((int[]) args[1]))"));
+  }
+
+  @Test
+  public void unsupportedConditions() throws ParseException {
+    // The type of the container is not known.
+    String condition = "java.util.Arrays.stream(args[0]).anyMatch(e -> e==null)";
+    assertThat(rewrite(condition), is(JavaParser.parseExpression(condition).toString()));
+    condition = "((java.util.List) args[0]).stream().allMatch(e -> e==null)";
+    assertThat(rewrite(condition), is(JavaParser.parseExpression(condition).toString()));
+    assertThat(getPredicates().contains("anyMatch_"), is(false));
+  }
+
+  private String rewrite(String condition) throws ParseException {
+    return predicates.rewrite(JavaParser.parseExpression(condition)).toString();
+  }
+
+  private String getPredicates() {
+    ClassOrInterfaceDeclaration aspect = new ClassOrInterfaceDeclaration();
+    aspect.setName("Aspect_1");
+    predicates.addPredicates(aspect);
+    return aspect.toString();
+  }
+}
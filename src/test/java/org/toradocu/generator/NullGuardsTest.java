@@ -0,0 +1,81 @@
+package org.toradocu.generator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseException;
+import com.github.javaparser.ast.expr.Expression;
+import org.junit.Test;
+
+public class NullGuardsTest {
+
+  @Test
+  public void noDereference() throws ParseException {
+    assertThat(
+        guard("((int) args[0]) < 0 || ((int) args[1]) < 0"),
+        is("((int) args[0]) < 0 || ((int) args[1]) < 0"));
+    assertThat(
+        guard("((java.lang.String) args[0]) == null"), is("((java.lang.String) args[0]) == null"));
+    assertThat(guard("args.length == 0"), is("args.length == 0"));
+    assertThat(
+        guard("((int) args[0]) > Integer.MAX_VALUE"), is("((int) args[0]) > Integer.MAX_VALUE"));
+  }
+
+  @Test
+  public void dereferences() throws ParseException {
+    assertThat(
+        guard("((java.lang.String) args[0]).isEmpty()"),
+        is("args[0] != null && ((java.lang.String) args[0]).isEmpty()"));
+    assertThat(
+        guard("((long[]) args[0]).length < 0"),
+        is("args[0] != null && (((long[]) args[0]).length < 0)"));
+    assertThat(
+        guard("((java.lang.String) args[0]).trim().isEmpty() == ((C) target).isEmpty()"),
+        is(
+            "args[0] != null && ((java.lang.String) args[0]).trim() != null && target != null && (((java.lang.String) args[0]).trim().isEmpty() == ((C) target).isEmpty())"));
+    assertThat(
+        guard("((java.util.List) result).size() == 0"),
+        is("result != null && (((java.util.List) result).size() == 0)"));
+  }
+
+  @Test
+  public void unboxing() throws ParseException {
+    assertThat(
+        guard("((java.lang.Integer) args[0]) < 0"),
+        is("args[0] != null && (((java.lang.Integer) args[0]) < 0)"));
+    assertThat(
+        guard("((java.lang.Integer) args[0]) == null"),
+        is("((java.lang.Integer) args[0]) == null"));
+    assertThat(
+        guard("((java.lang.Integer) args[0]) == ((java.lang.Integer) args[1])"),
+        is("((java.lang.Integer) args[0]) == ((java.lang.Integer) args[1])"));
+  }
+
+  @Test
+  public void checkedDereferences() throws ParseException {
+    // Dereferences in the left operand of conditional operators guard the right operand.
+    assertThat(
+        guard(
+            "((java.lang.String) args[0]).isEmpty() || ((java.lang.String) args[0]).length() > 5"),
+        is(
+            "args[0] != null && (((java.lang.String) args[0]).isEmpty() || ((java.lang.String) args[0]).length() > 5)"));
+  }
+
+  @Test
+  public void unguardableConditions() throws ParseException {
+    assertThat(
+        guard("((double[]) args[0]).length == 0 || ((double[]) args[1]).length == 0"),
+        is(nullValue()));
+    assertThat(
+        guard("((int) args[0]) > 0 ? ((java.lang.String) args[1]).isEmpty() : false"),
+        is(nullValue()));
+    assertThat(guard("((java.util.List) args[0]).contains(args[1])"), is(nullValue()));
+  }
+
+  private static String guard(String condition) throws ParseException {
+    Expression guarded = NullGuards.guard(JavaParser.parseExpression(condition));
+    return guarded == null ? null : guarded.toString();
+  }
+}
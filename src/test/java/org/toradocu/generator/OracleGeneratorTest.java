@@ -24,7 +24,7 @@ public class OracleGeneratorTest {
           "src/test/resources/src/guava-19.0-sources"
         });
 
-    String outputDir = Toradocu.configuration.getAspectsOutputDir();
+    String outputDir = Toradocu.getConfiguration().getAspectsOutputDir();
     File actualOutput = Paths.get(outputDir, "Aspect_1.java").toFile();
     File expectedOutput =
         Paths.get(getClass().getClassLoader().getResource("aspects/Aspect_1.java").toURI())
@@ -32,8 +32,113 @@ public class OracleGeneratorTest {
     assertThat(FileUtils.contentEquals(actualOutput, expectedOutput), is(true));
   }
 
+  @Test
+  public void dispatchingAspectTest() throws Exception {
+    Toradocu.main(
+        new String[] {
+          "--target-class",
+          "com.google.common.collect.ArrayListMultimap",
+          "--class-dir",
+          "src/test/resources/bin/guava-19.0.jar",
+          "--source-dir",
+          "src/test/resources/src/guava-19.0-sources",
+          "--aspect-granularity",
+          "CLASS"
+        });
+
+    String outputDir = Toradocu.getConfiguration().getAspectsOutputDir();
+    assertThat(Paths.get(outputDir, "Aspect_2.java").toFile().exists(), is(false));
+    String aspect = FileUtils.readFileToString(Paths.get(outputDir, "Aspect_1.java").toFile());
+    assertThat(
+        aspect.contains("@Around(\"call(* com.google.common.collect.ArrayListMultimap.*(..))\")"),
+        is(true));
+    assertThat(
+        aspect.contains(
+            "MEMBERS.put(\"com.google.common.collect.ArrayListMultimap.create(int, int)\", 1);"),
+        is(true));
+    assertThat(aspect.contains("case 1:"), is(true));
+    assertThat(aspect.contains("private boolean paramTagsSatisfied_1("), is(true));
+  }
+
+  @Test
+  public void samplingAspectTest() throws Exception {
+    Toradocu.main(
+        new String[] {
+          "--target-class",
+          "com.google.common.collect.ArrayListMultimap",
+          "--class-dir",
+          "src/test/resources/bin/guava-19.0.jar",
+          "--source-dir",
+          "src/test/resources/src/guava-19.0-sources",
+          "--oracle-sampling"
+        });
+
+    String outputDir = Toradocu.getConfiguration().getAspectsOutputDir();
+    String aspect = FileUtils.readFileToString(Paths.get(outputDir, "Aspect_1.java").toFile());
+    // The pointcut moves to the sampling advice, which delegates to the original advice.
+    assertThat(
+        aspect.contains(
+            "@Around(\"call(com.google.common.collect.ArrayListMultimap com.google.common.collect."
+                + "ArrayListMultimap.create(int, int))\")\n    public Object advice("),
+        is(true));
+    assertThat(aspect.contains("TestCaseAspect.Sampling.isChecked(jp.getStaticPart())"), is(true));
+    assertThat(aspect.contains("private Object checkAdvice(ProceedingJoinPoint jp)"), is(true));
+    String testCaseAspect =
+        FileUtils.readFileToString(Paths.get(outputDir, "TestCaseAspect.java").toFile());
+    assertThat(testCaseAspect.contains("public static final class Sampling"), is(true));
+  }
+
+  @Test
+  public void weavingScopeTest() throws Exception {
+    Toradocu.main(
+        new String[] {
+          "--target-class",
+          "com.google.common.collect.ArrayListMultimap",
+          "--class-dir",
+          "src/test/resources/bin/guava-19.0.jar",
+          "--source-dir",
+          "src/test/resources/src/guava-19.0-sources",
+          "--test-packages",
+          "com.example.tests",
+          "--weaver-verbose"
+        });
+
+    String outputDir = Toradocu.getConfiguration().getAspectsOutputDir();
+    String aspect = FileUtils.readFileToString(Paths.get(outputDir, "Aspect_1.java").toFile());
+    assertThat(
+        aspect.contains(
+            "@Around(\"call(com.google.common.collect.ArrayListMultimap com.google.common.collect."
+                + "ArrayListMultimap.create(int, int)) && within(com.example.tests..*)\")"),
+        is(true));
+    String aopXml = FileUtils.readFileToString(Paths.get(outputDir, "aop.xml").toFile());
+    assertThat(aopXml.contains("<weaver options=\"-verbose -showWeaveInfo\">"), is(true));
+    assertThat(aopXml.contains("<include within=\"com.example.tests..*\"/>"), is(true));
+    assertThat(aopXml.contains("<include within=\"TestCaseAspect\"/>"), is(true));
+    assertThat(aopXml.contains("<include within=\"Aspect_*\"/>"), is(true));
+  }
+
+  @Test
+  public void aopXmlTest() throws Exception {
+    Toradocu.main(
+        new String[] {
+          "--target-class",
+          "com.google.common.collect.ArrayListMultimap",
+          "--class-dir",
+          "src/test/resources/bin/guava-19.0.jar",
+          "--source-dir",
+          "src/test/resources/src/guava-19.0-sources"
+        });
+
+    String outputDir = Toradocu.getConfiguration().getAspectsOutputDir();
+    String aopXml = FileUtils.readFileToString(Paths.get(outputDir, "aop.xml").toFile());
+    assertThat(aopXml.contains("<weaver>"), is(true));
+    assertThat(aopXml.contains("<include"), is(false));
+    assertThat(aopXml.contains("<exclude within=\"org.junit..*\"/>"), is(true));
+    assertThat(aopXml.contains("<aspect name=\"Aspect_1\"/>"), is(true));
+  }
+
   @After
   public void deleteToradocuOutputDir() {
-    FileUtils.deleteQuietly(new File(Toradocu.configuration.getAspectsOutputDir()));
+    FileUtils.deleteQuietly(new File(Toradocu.getConfiguration().getAspectsOutputDir()));
   }
 }
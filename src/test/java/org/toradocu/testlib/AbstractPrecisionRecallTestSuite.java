@@ -5,10 +5,8 @@ import static org.junit.Assert.assertThat;
 
 import java.io.File;
 import java.io.IOException;
-import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
-import org.toradocu.Toradocu;
 import org.toradocu.extractor.Tag;
 import org.toradocu.util.Stats;
 
@@ -37,7 +35,7 @@ public abstract class AbstractPrecisionRecallTestSuite {
   static final String OUTPUT_DIR = "build/test-results";
 
   /** Keeps track of statistics on currently run tests. */
-  private static final TestSuiteStats testSuiteStats = new TestSuiteStats();
+  static final TestSuiteStats testSuiteStats = new TestSuiteStats();
   /** The directory containing the source files on which to run tests. */
   private final String sourceDirPath;
   /** The directory containing the binaries on which to run tests. */
@@ -84,12 +82,9 @@ public abstract class AbstractPrecisionRecallTestSuite {
             + "\nAverage precision on @throws: "
             + String.format("%.2f", testSuiteStats.getPrecision(Tag.Kind.THROWS))
             + "\nAverage recall on @throws: "
-            + String.format("%.2f", testSuiteStats.getRecall(Tag.Kind.THROWS)));
-  }
-
-  @After
-  public void clearToradocuMethods() {
-    Toradocu.clearMethods();
+            + String.format("%.2f", testSuiteStats.getRecall(Tag.Kind.THROWS))
+            + "\nTime per class:\n"
+            + testSuiteStats.getTimesReport());
   }
 
   /**
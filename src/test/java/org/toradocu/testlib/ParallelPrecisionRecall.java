@@ -0,0 +1,152 @@
+package org.toradocu.testlib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.internal.TextListener;
+import org.junit.runner.Computer;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.Runner;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+import org.junit.runners.model.RunnerScheduler;
+
+/**
+ * Runs the precision/recall test suites in one JVM, evaluating target classes concurrently: the
+ * test methods of all the suites are run by a shared pool of workers. Each target class is
+ * translated in a {@code ToradocuSession} of its own, while the parsers and the classes loaded for
+ * reflection are shared among all the sessions. Statistics are aggregated as when the suites run
+ * one after another, and the wall-clock time spent on each class is reported, slowest first.
+ *
+ * <p>Run with {@code gradle precisionRecall}, optionally passing the number of workers and the
+ * suites to run as arguments (e.g., {@code -Pargs="--workers 4
+ * org.toradocu.PrecisionRecallGuava19"}). By default, all the suites are run with one worker per
+ * available processor.
+ */
+public class ParallelPrecisionRecall {
+
+  /** The precision/recall test suites run by default. */
+  private static final List<String> SUITES =
+      Arrays.asList(
+          "org.toradocu.PrecisionRecallCommonsCollections4",
+          "org.toradocu.PrecisionRecallCommonsMath3",
+          "org.toradocu.PrecisionRecallFreeCol",
+          "org.toradocu.PrecisionRecallGraphStream",
+          "org.toradocu.PrecisionRecallGuava19",
+          "org.toradocu.PrecisionRecallJGraphT",
+          "org.toradocu.PrecisionRecallPlumeLib");
+
+  public static void main(String[] args) throws Exception {
+    int workers = Runtime.getRuntime().availableProcessors();
+    List<String> suiteNames = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--workers") && i + 1 < args.length) {
+        workers = Integer.parseInt(args[++i]);
+      } else {
+        suiteNames.add(args[i]);
+      }
+    }
+    if (suiteNames.isEmpty()) {
+      suiteNames = SUITES;
+    }
+    List<Class<?>> suites = new ArrayList<>();
+    for (String suiteName : suiteNames) {
+      suites.add(Class.forName(suiteName));
+    }
+
+    // Suites run on threads of their own, which only wait for their test methods to be run by the
+    // workers.
+    ExecutorService suiteThreads = Executors.newCachedThreadPool();
+    ExecutorService workerThreads = Executors.newFixedThreadPool(workers);
+    JUnitCore junit = new JUnitCore();
+    junit.addListener(new TextListener(System.out));
+    final long start = System.nanoTime();
+    Result result;
+    try {
+      result =
+          junit.run(
+              new WorkerPoolComputer(suiteThreads, workerThreads), suites.toArray(new Class<?>[0]));
+    } finally {
+      suiteThreads.shutdownNow();
+      workerThreads.shutdownNow();
+      PrecisionRecallTest.classLoaders.close();
+    }
+    System.out.println(
+        "=== Evaluation ===\nWorkers: "
+            + workers
+            + "\nWall-clock time: "
+            + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)
+            + " s\nTime per class:\n"
+            + AbstractPrecisionRecallTestSuite.testSuiteStats.getTimesReport());
+    System.exit(result.wasSuccessful() ? 0 : 1);
+  }
+
+  /** Runs the suites concurrently, and the test methods of all the suites on a pool of workers. */
+  private static final class WorkerPoolComputer extends Computer {
+
+    /** Threads running the suites. */
+    private final ExecutorService suiteThreads;
+    /** Threads running the test methods. */
+    private final ExecutorService workerThreads;
+
+    WorkerPoolComputer(ExecutorService suiteThreads, ExecutorService workerThreads) {
+      this.suiteThreads = suiteThreads;
+      this.workerThreads = workerThreads;
+    }
+
+    @Override
+    public Runner getSuite(RunnerBuilder builder, Class<?>[] classes) throws InitializationError {
+      Runner suite = super.getSuite(builder, classes);
+      ((ParentRunner<?>) suite).setScheduler(new ExecutorScheduler(suiteThreads));
+      return suite;
+    }
+
+    @Override
+    protected Runner getRunner(RunnerBuilder builder, Class<?> testClass) throws Throwable {
+      Runner runner = super.getRunner(builder, testClass);
+      if (runner instanceof ParentRunner) {
+        ((ParentRunner<?>) runner).setScheduler(new ExecutorScheduler(workerThreads));
+      }
+      return runner;
+    }
+  }
+
+  /** Schedules the children of a runner on an executor, and waits for all of them to finish. */
+  private static final class ExecutorScheduler implements RunnerScheduler {
+
+    /** The executor running the children. */
+    private final ExecutorService executor;
+    /** The scheduled children. */
+    private final List<Future<?>> children = new ArrayList<>();
+
+    ExecutorScheduler(ExecutorService executor) {
+      this.executor = executor;
+    }
+
+    @Override
+    public void schedule(Runnable child) {
+      children.add(executor.submit(child));
+    }
+
+    @Override
+    public void finished() {
+      try {
+        for (Future<?> child : children) {
+          child.get();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        // Failures are reported to JUnit by the children themselves.
+        throw new IllegalStateException(e.getCause());
+      }
+    }
+  }
+}
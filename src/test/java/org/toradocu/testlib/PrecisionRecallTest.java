@@ -2,6 +2,7 @@ package org.toradocu.testlib;
 
 import static org.junit.Assert.fail;
 
+import com.beust.jcommander.JCommander;
 import com.google.gson.reflect.TypeToken;
 import java.io.BufferedReader;
 import java.io.File;
@@ -13,8 +14,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.toradocu.Toradocu;
+import org.toradocu.ToradocuSession;
+import org.toradocu.conf.Configuration;
 import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.util.ClassLoaderCache;
 import org.toradocu.util.GsonInstance;
 import org.toradocu.util.Stats;
 
@@ -23,6 +28,17 @@ import org.toradocu.util.Stats;
  */
 class PrecisionRecallTest {
 
+  /**
+   * Class loaders shared by the sessions evaluating the target classes, so that the binaries of each
+   * suite are loaded only once. Binaries do not change during an evaluation.
+   */
+  static final ClassLoaderCache classLoaders = new ClassLoaderCache();
+
+  static {
+    // Suppress non-error messages from Stanford parser, as Toradocu.main does.
+    System.setProperty(org.slf4j.impl.SimpleLogger.LOG_KEY_PREFIX + "edu.stanford", "error");
+  }
+
   /**
    * Runs Toradocu on the given class and collects data on its precision and recall.
    *
@@ -65,17 +81,35 @@ class PrecisionRecallTest {
     }
 
     final String translator = System.getProperty("org.toradocu.translator");
+    final String parser = System.getProperty("org.toradocu.parser");
     if (translator != null && translator.equals("tcomment")) {
       argsList.add("--tcomment");
       argsList.add("--stats-file");
       argsList.add("tcomment_results.csv");
+    } else if (parser != null) {
+      // Use the specified parser, e.g., to compare the precision/recall of different parsers.
+      argsList.add("--parser");
+      argsList.add(parser.toUpperCase());
+      argsList.add("--stats-file");
+      argsList.add(parser.toLowerCase() + "_results.csv");
     } else {
       argsList.add("--stats-file");
       argsList.add("results.csv");
     }
 
-    Toradocu.main(argsList.toArray(new String[0]));
-    return compare(targetClass, actualOutputFile, goalOutputFile, message);
+    // Each class runs in a session of its own, so that classes can be evaluated concurrently.
+    Configuration configuration = new Configuration();
+    new JCommander(configuration, argsList.toArray(new String[0]));
+    configuration.initialize();
+    ToradocuSession session = new ToradocuSession(configuration, classLoaders);
+    final long start = System.nanoTime();
+    Toradocu.run(session);
+    final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    AbstractPrecisionRecallTestSuite.testSuiteStats.addTime(targetClass, millis);
+    return session.call(
+        () ->
+            compare(
+                targetClass, actualOutputFile, goalOutputFile, message + " (" + millis + " ms)"));
   }
 
   /**
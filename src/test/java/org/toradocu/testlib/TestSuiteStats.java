@@ -1,19 +1,24 @@
 package org.toradocu.testlib;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 import org.toradocu.extractor.Tag;
 import org.toradocu.util.Stats;
 
 /**
  * TestSuiteStats computes the mean and standard deviation of the precision and recall of a
- * collection of testStats.
+ * collection of testStats, and keeps track of the time spent on each class. Statistics can be added
+ * by concurrently running tests.
  */
 class TestSuiteStats {
 
   /** A list of statistics for individual test cases in a test suite. */
-  private final List<Stats> testStats = Collections.synchronizedList(new ArrayList<>());
+  private final List<Stats> testStats = new CopyOnWriteArrayList<>();
+  /** Wall-clock time in milliseconds spent running Toradocu on each class, by class name. */
+  private final Map<String, Long> times = new ConcurrentHashMap<>();
 
   /**
    * Adds a test case to the list of test cases used to compute statistics for the test suite. Added
@@ -25,6 +30,30 @@ class TestSuiteStats {
     testStats.add(stats);
   }
 
+  /**
+   * Records the wall-clock time spent running Toradocu on the given class.
+   *
+   * @param targetClass the qualified name of a class
+   * @param millis the wall-clock time in milliseconds
+   */
+  void addTime(String targetClass, long millis) {
+    times.merge(targetClass, millis, Long::sum);
+  }
+
+  /**
+   * Returns a report of the wall-clock time spent on each class, slowest classes first.
+   *
+   * @return the report of the time spent on each class, one class per line
+   */
+  String getTimesReport() {
+    return times
+        .entrySet()
+        .stream()
+        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+        .map(e -> String.format("%8d ms  %s", e.getValue(), e.getKey()))
+        .collect(Collectors.joining("\n"));
+  }
+
   /**
    * Returns the average precision of the testStats.
    *
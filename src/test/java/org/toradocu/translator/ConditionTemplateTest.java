@@ -0,0 +1,104 @@
+package org.toradocu.translator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.ParamTag;
+import org.toradocu.extractor.Parameter;
+import org.toradocu.extractor.ThrowsTag;
+import org.toradocu.extractor.Type;
+import org.toradocu.translator.ConditionTemplate.SlotType;
+
+public class ConditionTemplateTest {
+
+  private final Type iae = new Type("java.lang.IllegalArgumentException");
+  private final Parameter name = new Parameter(new Type("java.lang.String"), "name");
+  private final Parameter from = new Parameter(new Type("int"), "from");
+  private final Parameter to = new Parameter(new Type("int"), "to");
+
+  @Test
+  public void testGeneralize() {
+    DocumentedMethod method = createMethod(name, from, to);
+    ConditionTemplate template =
+        ConditionTemplate.generalize(throwsTag("if to < from.", "args[2]<args[1]"), method);
+    assertThat(template.getTokens(), is(Arrays.asList("if", "{0}", "<", "{1}")));
+    assertThat(template.getSlotTypes(), is(Arrays.asList(SlotType.NUMERIC, SlotType.NUMERIC)));
+    assertThat(template.getCondition(), is("{0}<{1}"));
+
+    template =
+        ConditionTemplate.generalize(
+            paramTag(name, "the name to use, may not be null", "(args[0]==null) == false"), method);
+    assertThat(
+        template.getTokens(),
+        is(Arrays.asList("the", "{param}", "to", "use", ",", "may", "not", "be", "null")));
+    assertThat(template.getSlotTypes(), is(Collections.singletonList(SlotType.REFERENCE)));
+    assertThat(template.getCondition(), is("({param}==null) == false"));
+  }
+
+  @Test
+  public void testUnsafeConditions() {
+    DocumentedMethod method = createMethod(name, from, to);
+    // Method calls depend on the type of the receiver.
+    assertThat(
+        ConditionTemplate.generalize(throwsTag("if name is empty", "args[0].isEmpty()"), method),
+        is(nullValue()));
+    // Conditions referring to parameters not named in the comment.
+    assertThat(
+        ConditionTemplate.generalize(
+            throwsTag("if the range is empty", "args[1]==args[2]"), method),
+        is(nullValue()));
+  }
+
+  @Test
+  public void testLookup() {
+    DocumentedMethod source = createMethod(name, from, to);
+    ConditionTemplates templates =
+        new ConditionTemplates(
+            Arrays.asList(
+                ConditionTemplate.generalize(throwsTag("if to < from.", "args[2]<args[1]"), source),
+                ConditionTemplate.generalize(
+                    paramTag(name, "the name to use, may not be null", "(args[0]==null) == false"),
+                    source)));
+
+    // Slots are bound to parameters by name, regardless of their position.
+    DocumentedMethod target = createMethod(to, from, name);
+    assertThat(
+        templates.translate(new ThrowsTag(iae, "If to < from"), target), is("args[0]<args[1]"));
+    assertThat(
+        templates.translate(new ParamTag(name, "the name to use, may not be null."), target),
+        is("(args[2]==null) == false"));
+
+    // Parameter types must match the types the template was mined from.
+    Parameter names = new Parameter(new Type("java.lang.String"), "to");
+    assertThat(
+        templates.translate(new ThrowsTag(iae, "if to < from"), createMethod(names, from)),
+        is(nullValue()));
+    // Unknown comments.
+    assertThat(templates.translate(new ThrowsTag(iae, "if to <= from"), target), is(nullValue()));
+  }
+
+  private ThrowsTag throwsTag(String comment, String condition) {
+    ThrowsTag tag = new ThrowsTag(iae, comment);
+    tag.setCondition(condition);
+    return tag;
+  }
+
+  private ParamTag paramTag(Parameter parameter, String comment, String condition) {
+    ParamTag tag = new ParamTag(parameter, comment);
+    tag.setCondition(condition);
+    return tag;
+  }
+
+  private DocumentedMethod createMethod(Parameter... parameters) {
+    List<Parameter> parameterList = new ArrayList<>(Arrays.asList(parameters));
+    return new DocumentedMethod(
+        new Type("example.Foo"), "bar", Type.VOID, parameterList, null, false, null, null);
+  }
+}
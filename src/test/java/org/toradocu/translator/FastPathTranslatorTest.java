@@ -0,0 +1,77 @@
+package org.toradocu.translator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.ParamTag;
+import org.toradocu.extractor.Parameter;
+import org.toradocu.extractor.ThrowsTag;
+import org.toradocu.extractor.Type;
+
+public class FastPathTranslatorTest {
+
+  private final Type iae = new Type("java.lang.IllegalArgumentException");
+  private final Parameter array = new Parameter(new Type("java.lang.Object[]"), "array");
+  private final Parameter index = new Parameter(new Type("int"), "index");
+  private final DocumentedMethod method = createMethod();
+
+  @Test
+  public void testThrowsTags() {
+    assertThat(translateThrows("if array is null"), is("args[0]==null"));
+    assertThat(translateThrows("If the array array is null."), is("args[0]==null"));
+    assertThat(translateThrows("if index is negative"), is("args[1]<0"));
+    assertThat(translateThrows("if index < 0."), is("args[1]<0"));
+    assertThat(translateThrows("if index >= 10"), is("args[1]>=10"));
+    assertThat(translateThrows("if array is empty"), is("args[0].length==0"));
+  }
+
+  @Test
+  public void testParamTags() {
+    assertThat(translateParam(array, "the array to check, must not be null"), is(notNull(0)));
+    assertThat(translateParam(array, "First value (cannot be null)."), is(notNull(0)));
+    assertThat(translateParam(array, "array must not be null"), is(notNull(0)));
+    assertThat(translateParam(array, "the array to check, cloned, not null"), is(notNull(0)));
+  }
+
+  @Test
+  public void testMisses() {
+    // Comments about unknown identifiers.
+    assertThat(translateThrows("if the collection is null"), is(nullValue()));
+    // Comments whose subject type does not fit the rule.
+    assertThat(translateThrows("if index is null"), is(nullValue()));
+    assertThat(translateThrows("if array is negative"), is(nullValue()));
+    // Comments with more than one constraint.
+    assertThat(translateThrows("if array is null or empty"), is(nullValue()));
+    assertThat(
+        translateParam(array, "the array, must not be empty, must not be null"), is(nullValue()));
+    // Comments naming a parameter other than the documented one.
+    assertThat(translateParam(array, "index must not be null"), is(nullValue()));
+    // Nullness allowed.
+    assertThat(translateParam(array, "the array, may be null"), is(nullValue()));
+  }
+
+  private String translateThrows(String comment) {
+    return FastPathTranslator.translate(new ThrowsTag(iae, comment), method);
+  }
+
+  private String translateParam(Parameter parameter, String comment) {
+    return FastPathTranslator.translate(new ParamTag(parameter, comment), method);
+  }
+
+  private String notNull(int index) {
+    return "(args[" + index + "]==null) == false";
+  }
+
+  private DocumentedMethod createMethod() {
+    List<Parameter> parameters = new ArrayList<>();
+    parameters.add(array);
+    parameters.add(index);
+    return new DocumentedMethod(
+        new Type("example.Foo"), "bar", Type.VOID, parameters, null, false, null, null);
+  }
+}
@@ -0,0 +1,98 @@
+package org.toradocu.translator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import edu.stanford.nlp.ling.HasWord;
+import edu.stanford.nlp.ling.TaggedWord;
+import edu.stanford.nlp.ling.Word;
+import edu.stanford.nlp.semgraph.SemanticGraph;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.toradocu.ToradocuSession;
+import org.toradocu.conf.Configuration;
+
+public class StanfordParserTest {
+
+  private static final String LONG_SENTENCE =
+      "if the given collection contains elements that are not instances of the element type of "
+          + "this list and the list does not allow such elements, or the specified index is not "
+          + "within the bounds of the list; the list is left unmodified in that case";
+
+  @Test
+  public void testSplitClauses() {
+    List<List<HasWord>> clauses =
+        StanfordParser.splitClauses(words("if x is null , or y is negative ; z is empty ."));
+    assertThat(clauses.size(), is(3));
+    assertThat(clauses.get(0).size(), is(4));
+    assertThat(clauses.get(1).size(), is(3));
+    assertThat(clauses.get(2).size(), is(4));
+
+    assertThat(StanfordParser.splitClauses(words("if x , y or z is null")).size(), is(1));
+  }
+
+  @Test
+  public void testMaxLength() {
+    final ToradocuSession session = new ToradocuSession(new Configuration());
+    session.call(
+        () -> {
+          assertThat(StanfordParser.getSemanticGraphs(LONG_SENTENCE, null, 0, 0).size(), is(1));
+
+          // Too long: each clause is parsed separately.
+          assertThat(StanfordParser.getSemanticGraphs(LONG_SENTENCE, null, 25, 0).size(), is(3));
+          assertThat(StanfordParser.getTooLongCount(), is(1L));
+
+          // Too long and no clause short enough: the sentence is skipped.
+          assertThat(
+              StanfordParser.getSemanticGraphs(LONG_SENTENCE, null, 5, 0).isEmpty(), is(true));
+          assertThat(StanfordParser.getTooLongCount(), is(2L));
+          assertThat(StanfordParser.getSkippedCount(), is(1L));
+          return null;
+        });
+
+    // Counts are kept per session.
+    final ToradocuSession other = new ToradocuSession(new Configuration());
+    assertThat(other.call(StanfordParser::getTooLongCount), is(0L));
+    assertThat(StanfordParser.getTooLongCount(), is(0L));
+  }
+
+  @Test
+  public void testTimeout() {
+    final ToradocuSession session = new ToradocuSession(new Configuration());
+    session.call(() -> StanfordParser.getSemanticGraphs(LONG_SENTENCE, null, 0, 1));
+    assertThat(session.call(StanfordParser::getTimedOutCount), is(1L));
+    assertThat(Thread.currentThread().isInterrupted(), is(false));
+  }
+
+  @Test
+  public void testBackends() {
+    final List<TaggedWord> sentence = new ArrayList<>();
+    for (String word : "if the collection is null".split(" ")) {
+      sentence.add(new TaggedWord(word));
+    }
+    sentence.set(2, new TaggedWord("collection", "NN"));
+
+    for (ParserBackend backend :
+        new ParserBackend[] {PcfgParserBackend.INSTANCE, NeuralParserBackend.INSTANCE}) {
+      SemanticGraph semanticGraph = backend.parse(sentence, 0);
+      assertThat(semanticGraph.getFirstRoot().word(), is("null"));
+      assertThat(semanticGraph.getNodeByIndex(3).tag(), is("NN"));
+      assertThat(
+          semanticGraph
+              .getIncomingEdgesSorted(semanticGraph.getNodeByIndex(3))
+              .get(0)
+              .getRelation()
+              .getShortName(),
+          is("nsubj"));
+    }
+  }
+
+  private List<HasWord> words(String sentence) {
+    List<HasWord> words = new ArrayList<>();
+    for (String word : sentence.split(" ")) {
+      words.add(new Word(word));
+    }
+    return words;
+  }
+}
@@ -0,0 +1,276 @@
+package org.toradocu.translator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.beust.jcommander.JCommander;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+import org.toradocu.ToradocuSession;
+import org.toradocu.conf.Configuration;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.ParamTag;
+import org.toradocu.extractor.Parameter;
+import org.toradocu.extractor.Tag;
+import org.toradocu.extractor.ThrowsTag;
+import org.toradocu.extractor.Type;
+import org.toradocu.translator.TranslatorChain.TranslatorStats;
+
+public class TranslatorChainTest {
+
+  private final Type iae = new Type("java.lang.IllegalArgumentException");
+  private final Parameter name = new Parameter(new Type("java.lang.String"), "name");
+
+  @Test
+  public void testLoad() {
+    List<Translator> translators =
+        TranslatorChain.load(Arrays.asList("fastpath", "toradocu", "tcomment"));
+    assertThat(translators.size(), is(3));
+    assertThat(translators.get(0).getName(), is("fastpath"));
+    assertThat(translators.get(1).getName(), is("toradocu"));
+    assertThat(translators.get(2).getName(), is("tcomment"));
+  }
+
+  @Test(expected = UnknownTranslatorException.class)
+  public void testLoadUnknown() {
+    TranslatorChain.load(Arrays.asList("toradocu", "unknown"));
+  }
+
+  @Test
+  public void testTranslate() {
+    final ThrowsTag nullTag = new ThrowsTag(iae, "if name is null");
+    final ThrowsTag emptyTag = new ThrowsTag(iae, "if name is empty");
+    final ParamTag paramTag = new ParamTag(name, "the name");
+    final ParamTag otherTag = new ParamTag(name, "the name");
+    final List<DocumentedMethod> methods =
+        Arrays.asList(
+            createMethod(Arrays.asList(paramTag), Arrays.asList(nullTag, emptyTag)),
+            createMethod(Arrays.asList(otherTag), new ArrayList<>()));
+
+    RecordingTranslator first =
+        new RecordingTranslator("first", "if name is null", "args[0]==null");
+    RecordingTranslator second =
+        new RecordingTranslator("second", "if name is empty", "args[0].isEmpty()");
+    RecordingTranslator third = new RecordingTranslator("third", "the name", "");
+    List<TranslatorStats> stats =
+        TranslatorChain.translate(methods, Arrays.asList(first, second, third));
+
+    assertThat(nullTag.getCondition().get(), is("args[0]==null"));
+    assertThat(emptyTag.getCondition().get(), is("args[0].isEmpty()"));
+    // Later translators handle only the tags left untranslated.
+    assertThat(first.handled.size(), is(4));
+    assertThat(second.handled.size(), is(3));
+    assertThat(third.handled, is(Arrays.asList(paramTag, otherTag)));
+    assertThat(third.finished, is(true));
+
+    assertThat(stats.size(), is(3));
+    assertThat(stats.get(0).getName(), is("first"));
+    assertThat(stats.get(0).getHandled(), is(4));
+    assertThat(stats.get(0).getTranslated(), is(1));
+    assertThat(stats.get(1).getHandled(), is(3));
+    assertThat(stats.get(1).getTranslated(), is(1));
+    // Empty conditions do not count as translations.
+    assertThat(stats.get(2).getHandled(), is(2));
+    assertThat(stats.get(2).getTranslated(), is(0));
+  }
+
+  @Test
+  public void testTranslatedMethods() {
+    final ThrowsTag nullTag = new ThrowsTag(iae, "if name is null");
+    final ParamTag paramTag = new ParamTag(name, "the name");
+    final DocumentedMethod withTags =
+        createMethod(Arrays.asList(paramTag), Arrays.asList(nullTag));
+    final DocumentedMethod withoutTags = createMethod(new ArrayList<>(), new ArrayList<>());
+
+    List<DocumentedMethod> translated = new ArrayList<>();
+    TranslatorChain.translate(
+        Arrays.asList(withTags, withoutTags),
+        Arrays.asList(
+            new RecordingTranslator("first", "if name is null", "args[0]==null"),
+            new RecordingTranslator("second", "the name", "")),
+        translated::add);
+
+    // Methods are handed over once, when all their tags have been handled by the chain.
+    assertThat(translated.size(), is(2));
+    assertThat(translated.get(0) == withoutTags, is(true));
+    assertThat(translated.get(1) == withTags, is(true));
+  }
+
+  @Test
+  public void testParallelTranslation() {
+    final ThrowsTag shortTag = new ThrowsTag(iae, "if name is null");
+    final ThrowsTag longTag =
+        new ThrowsTag(
+            iae, "if name is empty. Or if the name contains characters other than digits");
+    final ThrowsTag mediumTag = new ThrowsTag(iae, "if name contains a white space character");
+    final ParamTag paramTag = new ParamTag(name, "the name");
+    final List<DocumentedMethod> methods =
+        Arrays.asList(
+            createMethod(Arrays.asList(paramTag), Arrays.asList(shortTag)),
+            createMethod(new ArrayList<>(), Arrays.asList(longTag, mediumTag)));
+    Translator translator =
+        new Translator() {
+          @Override
+          public String getName() {
+            return "parallel";
+          }
+
+          @Override
+          public void translate(Tag tag, DocumentedMethod method) {
+            tag.setCondition("true");
+          }
+
+          @Override
+          public boolean isThreadSafe() {
+            return true;
+          }
+        };
+
+    ToradocuSession session = new ToradocuSession(configure("--translation-threads", "2"));
+    List<TranslatorStats> stats =
+        session.call(() -> TranslatorChain.translate(methods, Arrays.asList(translator)));
+
+    assertThat(stats.get(0).getHandled(), is(4));
+    assertThat(stats.get(0).getTranslated(), is(4));
+    assertThat(longTag.getCondition().orElse(""), is("true"));
+    assertThat(paramTag.getCondition().orElse(""), is("true"));
+  }
+
+  @Test
+  public void testDispatchOrder() {
+    final ThrowsTag shortTag = new ThrowsTag(iae, "if name is null");
+    final ThrowsTag longTag =
+        new ThrowsTag(
+            iae, "if name is empty. Or if the name contains characters other than digits");
+    final ThrowsTag mediumTag = new ThrowsTag(iae, "if name contains a white space character");
+    final ParamTag paramTag = new ParamTag(name, "the name");
+    final DocumentedMethod first = createMethod(Arrays.asList(paramTag), Arrays.asList(shortTag));
+    final DocumentedMethod second =
+        createMethod(new ArrayList<>(), Arrays.asList(longTag, mediumTag));
+    final List<Map.Entry<Tag, DocumentedMethod>> tags =
+        Arrays.asList(
+            new AbstractMap.SimpleEntry<>(shortTag, first),
+            new AbstractMap.SimpleEntry<>(paramTag, first),
+            new AbstractMap.SimpleEntry<>(longTag, second),
+            new AbstractMap.SimpleEntry<>(mediumTag, second));
+
+    ToradocuSession session = new ToradocuSession(configure());
+    List<Integer> order = session.call(() -> TranslatorChain.dispatchOrder(tags));
+
+    // The most expensive tags are dispatched first.
+    assertThat(order, is(Arrays.asList(2, 3, 0, 1)));
+  }
+
+  @Test
+  public void testFlightRecorderEvents() throws Exception {
+    final ThrowsTag nullTag = new ThrowsTag(iae, "if name is null");
+    final ParamTag paramTag = new ParamTag(name, "the name");
+    final List<DocumentedMethod> methods =
+        Arrays.asList(createMethod(Arrays.asList(paramTag), Arrays.asList(nullTag)));
+
+    final Path recordingFile = Files.createTempFile("toradocu", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("org.toradocu.TagTranslation");
+      recording.start();
+      TranslatorChain.translate(
+          methods,
+          Arrays.asList(new RecordingTranslator("first", "if name is null", "args[0]==null")));
+      recording.stop();
+      recording.dump(recordingFile);
+    }
+    List<RecordedEvent> events = new ArrayList<>();
+    for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile)) {
+      if (event.getEventType().getName().equals("org.toradocu.TagTranslation")) {
+        events.add(event);
+      }
+    }
+    Files.delete(recordingFile);
+
+    assertThat(events.size(), is(2));
+    RecordedEvent nullEvent = events.get(0);
+    assertThat(nullEvent.getString("method"), is("example.Foo.bar(java.lang.String name)"));
+    assertThat(nullEvent.getString("kind"), is("@throws"));
+    assertThat(nullEvent.getString("comment"), is("if name is null"));
+    assertThat(nullEvent.getString("translator"), is("first"));
+    assertThat(nullEvent.getBoolean("translated"), is(true));
+    assertThat(nullEvent.getString("condition"), is("args[0]==null"));
+    assertThat(events.get(1).getBoolean("translated"), is(false));
+  }
+
+  /** Translates only the tags with a given comment, and records the tags it handles. */
+  private static class RecordingTranslator implements Translator {
+    private final String name;
+    private final String comment;
+    private final String condition;
+    private final List<Tag> handled = new ArrayList<>();
+    private boolean finished;
+
+    RecordingTranslator(String name, String comment, String condition) {
+      this.name = name;
+      this.comment = comment;
+      this.condition = condition;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public void translate(Tag tag, DocumentedMethod method) {
+      handled.add(tag);
+      if (tag.getComment().equals(comment)) {
+        tag.setCondition(condition);
+      }
+    }
+
+    @Override
+    public void finish() {
+      finished = true;
+    }
+  }
+
+  /**
+   * Returns an initialized configuration for the class example.Foo with the given options.
+   *
+   * @param options command-line options to add to the configuration
+   * @return the configuration
+   */
+  private static Configuration configure(String... options) {
+    List<String> args =
+        new ArrayList<>(
+            Arrays.asList(
+                "--target-class",
+                "example.Foo",
+                "--class-dir",
+                "build/classes",
+                "--source-dir",
+                "src/test/resources"));
+    args.addAll(Arrays.asList(options));
+    Configuration configuration = new Configuration();
+    new JCommander(configuration, args.toArray(new String[0]));
+    configuration.initialize();
+    return configuration;
+  }
+
+  private DocumentedMethod createMethod(List<ParamTag> paramTags, List<ThrowsTag> throwsTags) {
+    return new DocumentedMethod(
+        new Type("example.Foo"),
+        "bar",
+        Type.VOID,
+        new ArrayList<>(Arrays.asList(name)),
+        paramTags,
+        false,
+        throwsTags,
+        null);
+  }
+}
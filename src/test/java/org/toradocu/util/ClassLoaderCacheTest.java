@@ -0,0 +1,49 @@
+package org.toradocu.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.toradocu.ToradocuSession;
+import org.toradocu.conf.Configuration;
+
+public class ClassLoaderCacheTest {
+
+  private static final List<String> GUAVA_BIN =
+      Collections.singletonList("src/test/resources/bin/guava-19.0.jar");
+
+  @Test
+  public void classLoadersAreReused() throws Exception {
+    final ClassLoaderCache cache = new ClassLoaderCache();
+    final ClassLoader classLoader = cache.get(GUAVA_BIN);
+    assertThat(cache.get(GUAVA_BIN), is(sameInstance(classLoader)));
+    assertThat(
+        classLoader.loadClass("com.google.common.base.Strings").getClassLoader(),
+        is(sameInstance(classLoader)));
+
+    // Closed caches start over, so that rebuilt binaries are loaded again.
+    cache.close();
+    assertThat(cache.get(GUAVA_BIN), is(not(sameInstance(classLoader))));
+    cache.close();
+  }
+
+  @Test
+  public void sessionsHaveOwnCaches() {
+    final Configuration configuration = new Configuration();
+    configuration.classDirs = GUAVA_BIN.get(0);
+    final ToradocuSession session = new ToradocuSession(configuration);
+    final ToradocuSession other = new ToradocuSession(configuration);
+    final String className = "com.google.common.base.Strings";
+
+    final Class<?> loaded = session.call(() -> Reflection.getClass(className));
+    assertThat(session.call(() -> Reflection.getClass(className)), is(sameInstance(loaded)));
+    assertThat(other.call(() -> Reflection.getClass(className)), is(not(sameInstance(loaded))));
+
+    final ToradocuSession sharing = new ToradocuSession(configuration, session.getClassLoaders());
+    assertThat(sharing.call(() -> Reflection.getClass(className)), is(sameInstance(loaded)));
+  }
+}
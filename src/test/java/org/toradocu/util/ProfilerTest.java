@@ -0,0 +1,113 @@
+package org.toradocu.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.beust.jcommander.JCommander;
+import java.util.Collections;
+import org.junit.Test;
+import org.toradocu.ToradocuSession;
+import org.toradocu.conf.Configuration;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.ThrowsTag;
+import org.toradocu.extractor.Type;
+import org.toradocu.util.Profiler.Stage;
+
+public class ProfilerTest {
+
+  @Test
+  public void nestedStagesAreExclusive() {
+    ToradocuSession session = new ToradocuSession(configure("--profile"));
+    session.call(
+        () ->
+            Profiler.measure(
+                Stage.SUBJECT_MATCHING,
+                () -> {
+                  sleep(20);
+                  Profiler.measure(Stage.CODE_ELEMENTS_COLLECTION, () -> sleep(100));
+                  return null;
+                }));
+
+    Profiler profiler = session.getProfiler();
+    Profiler.Usage matching = profiler.getUsage(Stage.SUBJECT_MATCHING);
+    Profiler.Usage collection = profiler.getUsage(Stage.CODE_ELEMENTS_COLLECTION);
+    assertThat(matching.getCount(), is(1L));
+    assertThat(collection.getCount(), is(1L));
+    assertThat(collection.getWallMicros() >= 100_000, is(true));
+    assertThat(matching.getWallMicros() >= 20_000, is(true));
+    assertThat(matching.getWallMicros() < 100_000, is(true));
+    assertThat(profiler.getUsage(Stage.PARSING).getCount(), is(0L));
+  }
+
+  @Test
+  public void stagesAreCountedForTags() {
+    ToradocuSession session = new ToradocuSession(configure("--profile"));
+    ThrowsTag tag = new ThrowsTag(new Type("java.lang.NullPointerException"), "if x is null");
+    DocumentedMethod method =
+        new DocumentedMethod(
+            new Type("example.Foo"),
+            "bar",
+            new Type("void"),
+            null,
+            null,
+            false,
+            Collections.singletonList(tag),
+            null);
+    session.call(
+        () -> {
+          Profiler.measureTag(method, tag, () -> Profiler.measure(Stage.PARSING, () -> "parsed"));
+          return null;
+        });
+
+    String csv = session.getProfiler().toCsv();
+    assertThat(
+        csv.startsWith("scope,method,tag,stage,count,wall_us,cpu_us,allocated_bytes\n"), is(true));
+    assertThat(csv.contains("\nstage,\"\",\"\",PARSING,1,"), is(true));
+    assertThat(csv.contains("\nmethod,\"example.Foo.bar()\",\"\",PARSING,1,"), is(true));
+    assertThat(
+        csv.contains("\ntag,\"example.Foo.bar()\",\"@throws if x is null\",TOTAL,1,"), is(true));
+    assertThat(session.getProfiler().toJson().contains("\"stage\": \"PARSING\""), is(true));
+  }
+
+  @Test
+  public void noProfilerWithoutOption() {
+    assertThat(new ToradocuSession(configure()).getProfiler() == null, is(true));
+    assertThat(Profiler.measure(Stage.PARSING, () -> "not measured"), is("not measured"));
+  }
+
+  /**
+   * Sleeps for the given time.
+   *
+   * @param millis the time to sleep, in milliseconds
+   * @return null
+   */
+  private static Void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return null;
+  }
+
+  /**
+   * Returns an initialized configuration with the given options.
+   *
+   * @param options command-line options to add to the configuration
+   * @return the configuration
+   */
+  private static Configuration configure(String... options) {
+    String[] args = new String[6 + options.length];
+    args[0] = "--target-class";
+    args[1] = "example.Foo";
+    args[2] = "--class-dir";
+    args[3] = "build/classes";
+    args[4] = "--source-dir";
+    args[5] = "src/test/resources";
+    System.arraycopy(options, 0, args, 6, options.length);
+    Configuration configuration = new Configuration();
+    new JCommander(configuration, args);
+    configuration.initialize();
+    return configuration;
+  }
+}
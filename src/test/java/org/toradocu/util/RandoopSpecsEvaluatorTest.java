@@ -0,0 +1,148 @@
+package org.toradocu.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import randoop.condition.specification.Guard;
+import randoop.condition.specification.Identifiers;
+import randoop.condition.specification.Operation;
+import randoop.condition.specification.OperationSpecification;
+import randoop.condition.specification.PostSpecification;
+import randoop.condition.specification.PreSpecification;
+import randoop.condition.specification.Property;
+import randoop.condition.specification.ThrowsSpecification;
+
+public class RandoopSpecsEvaluatorTest {
+
+  private static Method substring;
+  private static Method abs;
+  private static Constructor<?> arrayList;
+  private static List<OperationSpecification> specs;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    substring = String.class.getMethod("substring", int.class, int.class);
+    abs = Math.class.getMethod("abs", int.class);
+    arrayList = ArrayList.class.getConstructor(int.class);
+    specs = new ArrayList<>();
+
+    OperationSpecification spec =
+        new OperationSpecification(
+            Operation.getOperation(substring),
+            new Identifiers(Arrays.asList("beginIndex", "endIndex"), "target", "result"));
+    spec.addParamSpecifications(
+        Collections.singletonList(
+            new PreSpecification("", new Guard("", "beginIndex>=0 && endIndex>=0"))));
+    spec.addThrowsSpecifications(
+        Arrays.asList(
+            new ThrowsSpecification(
+                "",
+                new Guard("", "beginIndex>endIndex || endIndex>target.length()"),
+                "java.lang.IndexOutOfBoundsException"),
+            // Does not compile: ignored.
+            new ThrowsSpecification(
+                "", new Guard("", "target.noSuchMethod()"), "java.lang.IllegalStateException"),
+            // Not on the classpath: ignored.
+            new ThrowsSpecification(
+                "", new Guard("", "beginIndex==0"), "org.example.NoSuchException")));
+    spec.addReturnSpecifications(
+        Collections.singletonList(
+            new PostSpecification(
+                "",
+                new Guard("", "beginIndex<=endIndex"),
+                new Property("", "result.length()==endIndex-beginIndex"))));
+    specs.add(spec);
+
+    spec =
+        new OperationSpecification(
+            Operation.getOperation(abs), new Identifiers(Collections.singletonList("a")));
+    spec.addReturnSpecifications(
+        Arrays.asList(
+            new PostSpecification("", new Guard("", "a>=0"), new Property("", "result==a")),
+            new PostSpecification("", new Guard("", "a<0"), new Property("", "result==-a"))));
+    specs.add(spec);
+
+    spec =
+        new OperationSpecification(
+            Operation.getOperation(arrayList),
+            new Identifiers(Collections.singletonList("initialCapacity")));
+    spec.addThrowsSpecifications(
+        Collections.singletonList(
+            new ThrowsSpecification(
+                "", new Guard("", "initialCapacity<0"), "java.lang.IllegalArgumentException")));
+    spec.addReturnSpecifications(
+        Collections.singletonList(
+            new PostSpecification(
+                "", new Guard("", "true"), new Property("", "result.isEmpty()"))));
+    specs.add(spec);
+
+    // The class is not on the classpath: the specification is ignored.
+    spec =
+        new OperationSpecification(
+            new Operation("org.example.Foo", "foo", Collections.emptyList()), new Identifiers());
+    spec.addReturnSpecifications(
+        Collections.singletonList(
+            new PostSpecification("", new Guard("", "true"), new Property("", "false"))));
+    specs.add(spec);
+  }
+
+  @Test
+  public void evaluateSpecs() {
+    RandoopSpecsEvaluator evaluator =
+        RandoopSpecsEvaluator.compile(specs, getClass().getClassLoader());
+    checkSpecs(evaluator);
+  }
+
+  @Test
+  public void loadSpecs() throws Exception {
+    Path specsFile = Files.createTempFile("specs", ".json");
+    try {
+      Files.write(specsFile, GsonInstance.gson().toJson(specs).getBytes("UTF-8"));
+      checkSpecs(RandoopSpecsEvaluator.load(specsFile, getClass().getClassLoader()));
+    } finally {
+      Files.delete(specsFile);
+    }
+  }
+
+  private static void checkSpecs(RandoopSpecsEvaluator evaluator) {
+    assertThat(evaluator.checkPre(substring, "abc", new Object[] {1, 2}), is(true));
+    assertThat(evaluator.checkPre(substring, "abc", new Object[] {-1, 2}), is(false));
+    assertThat(evaluator.expectedThrows(substring, "abc", new Object[] {1, 2}).isEmpty(), is(true));
+    assertThat(
+        evaluator.expectedThrows(substring, "abc", new Object[] {0, 4}),
+        is(Collections.<Class<?>>singletonList(IndexOutOfBoundsException.class)));
+    // A condition that throws NullPointerException does not hold.
+    assertThat(evaluator.expectedThrows(substring, null, new Object[] {1, 4}).isEmpty(), is(true));
+    assertThat(evaluator.checkPost(substring, "abc", new Object[] {1, 3}, "bc"), is(true));
+    assertThat(evaluator.checkPost(substring, "abc", new Object[] {1, 3}, "b"), is(false));
+
+    RandoopSpecsEvaluator.OperationChecks absChecks = evaluator.getChecks(abs);
+    assertThat(absChecks.checkPre(null, new Object[] {-2}), is(true));
+    assertThat(absChecks.checkPost(null, new Object[] {-2}, 2), is(true));
+    assertThat(absChecks.checkPost(null, new Object[] {-2}, -2), is(false));
+    assertThat(absChecks.checkPost(null, new Object[] {3}, 3), is(true));
+
+    assertThat(
+        evaluator.expectedThrows(arrayList, null, new Object[] {-1}),
+        is(Collections.<Class<?>>singletonList(IllegalArgumentException.class)));
+    assertThat(
+        evaluator.checkPost(arrayList, null, new Object[] {1}, new ArrayList<Object>()), is(true));
+    assertThat(
+        evaluator.checkPost(arrayList, null, new Object[] {1}, Collections.singletonList(1)),
+        is(false));
+
+    RandoopSpecsEvaluator.OperationChecks fooChecks =
+        evaluator.getChecks(new Operation("org.example.Foo", "foo", Collections.emptyList()));
+    assertThat(fooChecks.checkPost(null, new Object[0], null), is(true));
+  }
+}
@@ -0,0 +1,101 @@
+package org.toradocu.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Test;
+import org.toradocu.ToradocuSession;
+import org.toradocu.conf.Configuration;
+import org.toradocu.extractor.DocumentedMethod;
+import org.toradocu.extractor.Tag;
+
+public class SpecsToolTest {
+
+  private static final String GUAVA_BIN = "src/test/resources/bin/guava-19.0.jar";
+  private static final Path GUAVA_JSON_DIR = Paths.get("src/test/resources/goal-output/guava-19.0");
+
+  @Test
+  public void specsFiles() throws IOException {
+    final List<Path> specsFiles =
+        SpecsTool.specsFiles(Collections.singletonList(GUAVA_JSON_DIR.toString()));
+
+    final List<Path> expected;
+    try (Stream<Path> files = Files.list(GUAVA_JSON_DIR)) {
+      expected =
+          files
+              .filter(f -> f.toString().endsWith(SpecsTool.SPECS_FILE_SUFFIX))
+              .sorted()
+              .collect(Collectors.toList());
+    }
+    assertThat(specsFiles, is(expected));
+  }
+
+  @Test
+  public void readSpecs() throws IOException {
+    final Path specsFile = GUAVA_JSON_DIR.resolve("com.google.common.base.Strings_goal.json");
+    final Type listType = new TypeToken<List<DocumentedMethod>>() {}.getType();
+    final List<DocumentedMethod> expected;
+    try (BufferedReader reader = Files.newBufferedReader(specsFile)) {
+      expected = GsonInstance.gson().fromJson(reader, listType);
+    }
+    assertThat(SpecsTool.readSpecs(specsFile), is(expected));
+  }
+
+  @Test
+  public void count() {
+    final Configuration configuration = new Configuration();
+    configuration.classDirs = GUAVA_BIN;
+    final ToradocuSession session = new ToradocuSession(configuration);
+
+    final List<Path> specsFiles =
+        SpecsTool.specsFiles(Collections.singletonList(GUAVA_JSON_DIR.toString()));
+    final SpecsCount.Counts expected = new SpecsCount.Counts();
+    for (Path specsFile : specsFiles) {
+      expected.add(session.call(() -> SpecsCount.count(SpecsTool.readSpecs(specsFile))));
+    }
+
+    final SpecsCount.Counts counts = session.call(() -> SpecsTool.count(specsFiles));
+    assertThat(counts.pre, is(expected.pre));
+    assertThat(counts.post, is(expected.post));
+    assertThat(counts.exc, is(expected.exc));
+    assertTrue(counts.pre + counts.post + counts.exc > 0);
+  }
+
+  @Test
+  public void update() throws IOException {
+    final String fileName = "com.google.common.base.Strings_goal.json";
+    final Path oldDir = Files.createTempDirectory("toradocu-old-specs");
+    final Path newDir = Files.createTempDirectory("toradocu-new-specs");
+    final Path outputDir = newDir.resolve("updated");
+    Files.copy(GUAVA_JSON_DIR.resolve(fileName), oldDir.resolve(fileName));
+
+    // New specs have the same comments of the old specs, but no translations.
+    final List<DocumentedMethod> newSpecs = SpecsTool.readSpecs(oldDir.resolve(fileName));
+    for (DocumentedMethod method : newSpecs) {
+      Stream.<Tag>concat(method.paramTags().stream(), method.throwsTags().stream())
+          .forEach(t -> t.setCondition(""));
+      Tag returnTag = method.returnTag();
+      if (returnTag != null) {
+        returnTag.setCondition("");
+      }
+    }
+    SpecsTool.writeSpecs(newDir.resolve(fileName), newSpecs);
+
+    assertTrue(SpecsTool.update(oldDir, newDir, outputDir));
+    assertThat(
+        SpecsTool.readSpecs(outputDir.resolve(fileName)),
+        is(SpecsTool.readSpecs(oldDir.resolve(fileName))));
+  }
+}
@@ -1,6 +1,8 @@
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import static org.junit.Assert.fail;
+import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -8,13 +10,14 @@ import org.aspectj.lang.annotation.Aspect;
 @Aspect
 public class Aspect_1 {
 
+    private static final Class<?> EXCEPTION_1 = loadClass("java.lang.IllegalArgumentException");
+
     @Around("call(com.google.common.collect.ArrayListMultimap com.google.common.collect.ArrayListMultimap.create(int, int))")
     public Object advice(ProceedingJoinPoint jp) throws Throwable {
-        String output = "Triggered aspect: " + this.getClass().getName() + " (" + jp.getSourceLocation() + ")";
         Object target = jp.getTarget();
         Object[] args = jp.getArgs();
         if (!paramTagsSatisfied(target, args)) {
-            System.err.println(output + " -> Ignored test case: inputs violate pre-conditions");
+            System.err.println(describe(jp) + " -> Ignored test case: inputs violate pre-conditions");
             throw new TestCaseAspect.InvalidParamException();
         } else {
             List<Class<?>> expectedExceptions = getExpectedExceptions(target, args);
@@ -26,14 +29,14 @@ public class Aspect_1 {
                     jp.proceed(args);
                 } catch (Throwable e) {
                     if (!expectedExceptions.contains(e.getClass())) {
-                        fail(output + " -> Failure: Unexpected exception thrown: " + e.getClass().getCanonicalName());
+                        fail(describe(jp) + " -> Failure: Unexpected exception thrown: " + e.getClass().getCanonicalName());
                     } else {
-                        System.err.println(output + " -> Success: Expected exception caught");
-                        throw new TestCaseAspect.ExpectedException();
+                        System.err.println(describe(jp) + " -> Success: Expected exception caught");
+                        throw TestCaseAspect.ExpectedException.INSTANCE;
                     }
                 }
             }
-            fail(output + " -> Failure: Expected exception not thrown. Expected exceptions were: " + getExpectedExceptionAsString(expectedExceptions));
+            fail(describe(jp) + " -> Failure: Expected exception not thrown. Expected exceptions were: " + getExpectedExceptionAsString(expectedExceptions));
             return null;
         }
     }
@@ -47,21 +50,41 @@ public class Aspect_1 {
     }
 
     private List<Class<?>> getExpectedExceptions(Object target, Object[] args) {
-        List<Class<?>> expectedExceptions = new ArrayList<Class<?>>();
-        try {
-            // @throws java.lang.IllegalArgumentException if expectedKeys or expectedValuesPerKey is negative
-            if (((int) args[0]) < 0 || ((int) args[1]) < 0) {
-                try {
-                    expectedExceptions.add(Class.forName("java.lang.IllegalArgumentException"));
-                } catch (ClassNotFoundException e) {
-                    System.err.println("Class not found!" + e);
-                }
-            }
-        } catch (java.lang.NullPointerException e) {
+        List<Class<?>> expectedExceptions = Collections.emptyList();
+        // @throws java.lang.IllegalArgumentException if expectedKeys or expectedValuesPerKey is negative
+        if (((int) args[0]) < 0 || ((int) args[1]) < 0) {
+            expectedExceptions = addExpectedException(expectedExceptions, EXCEPTION_1);
         }
         return expectedExceptions;
     }
 
+    // Diagnostic messages are built only when needed.
+    private String describe(JoinPoint jp) {
+        return "Triggered aspect: " + this.getClass().getName() + " (" + jp.getSourceLocation() + ")";
+    }
+
+    // Expected exceptions are collected in a list allocated only when an exception is expected.
+    private static List<Class<?>> addExpectedException(List<Class<?>> expectedExceptions, Class<?> exception) {
+        if (exception == null) {
+            return expectedExceptions;
+        }
+        if (expectedExceptions.isEmpty()) {
+            expectedExceptions = new ArrayList<Class<?>>();
+        }
+        expectedExceptions.add(exception);
+        return expectedExceptions;
+    }
+
+    // Exception types that are not on the classpath are ignored.
+    private static Class<?> loadClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            System.err.println("Class not found!" + e);
+            return null;
+        }
+    }
+
     private String getExpectedExceptionAsString(List<Class<?>> expectedExceptions) {
         String listAsString = "";
         for (Class<?> exception : expectedExceptions) {
@@ -37,11 +37,7 @@ numberOfAnalyzedComments() {
     # 1st arg is either "PRE" or "POST" or "EXC".
     # 2nd arg is the path to the folder containing the goal files.
     # 3rd arg is the jar containing the target class.
-    local count=0
-    for goalFile in "$2"/*.json; do
-        count=$((count + $(java -cp "$3":build/libs/toradocu-1.0-all.jar org.toradocu.util.SpecsCount "$goalFile" | fgrep $1 | cut -d ' ' -f 2)))
-    done
-    echo $count
+    java -cp "$3":build/libs/toradocu-1.0-all.jar org.toradocu.util.SpecsTool count "$2" | fgrep $1 | cut -d ' ' -f 2
 }
 
 arraySum() {
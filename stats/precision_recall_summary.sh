@@ -1,7 +1,9 @@
 # This script produces precision/recall stats.
-# It must be invoked with a parameter with value "current" or "tcomment".
+# It must be invoked with a parameter with value "current", "tcomment", or "nndep".
 # "current": statistics about the current Toradocu version.
 # "tcomment": statistics using @tComment as translation engine.
+# "nndep": statistics using the neural dependency parser instead of the PCFG parser. Compare
+#          results_nndep.csv with results_current.csv to choose the parser for a project.
 
 # Parse command line argument and set variables
 TESTS_PREFIX="org.toradocu.PrecisionRecall"
@@ -15,12 +17,16 @@ if [ $# -eq 1 ]; then
 	COMMAND="./gradlew --rerun-tasks -Dorg.toradocu.translator=tcomment test $TESTS"
 	STATS_FILE=tcomment_results.csv
 	STATS_FILE_TO_SAVE=results_tcomment.csv
+    elif [ "$1" = "nndep" ]; then
+	COMMAND="./gradlew --rerun-tasks -Dorg.toradocu.parser=nndep test $TESTS"
+	STATS_FILE=nndep_results.csv
+	STATS_FILE_TO_SAVE=results_nndep.csv
     else
-	echo 'Script must be invoked with one parameter: either "current" or "tcomment"'
+	echo 'Script must be invoked with one parameter: "current", "tcomment", or "nndep"'
 	exit 1
     fi
 else
-    echo 'Script must be invoked with one parameter: either "current" or "tcomment"'
+    echo 'Script must be invoked with one parameter: "current", "tcomment", or "nndep"'
     exit 1
 fi
 
@@ -40,7 +46,9 @@ CORRECT CONDITIONS,WRONG CONDITIONS,MISSING CONDITIONS,PRECISION,RECALL" > $STAT
 fi
 
 # Run Toradocu and collect statistics
+START_TIME=$SECONDS
 $COMMAND
+ELAPSED_TIME=$(($SECONDS - $START_TIME))
 
 echo "TOTAL,,,\
 =SUM(D1:INDIRECT(\"D\" & ROW()-1)),=SUM(E1:INDIRECT(\"E\" & ROW()-1)),=SUM(F1:INDIRECT(\"F\" & ROW()-1)),,,\
@@ -63,4 +71,5 @@ echo "OVERALL RECALL,=INDIRECT(\"S\" & ROW()-13)/INDIRECT(\"B\" & ROW()-2)" >> $
 
 # Rename file and print final message
 mv $STATS_FILE $STATS_FILE_TO_SAVE
+echo "Elapsed time: $ELAPSED_TIME s"
 echo "Open the result file: $STATS_FILE_TO_SAVE"
@@ -16,12 +16,11 @@ TORADOCU_JAR=build/libs/toradocu-1.0-all.jar
 mkdir -p "$4"
 
 for OLD_SPEC in "$1"/*_goal.json; do
-    echo "Updating $OLD_SPEC"
+    echo "Extracting comments for $OLD_SPEC"
     TARGET_CLASS=$(basename "$OLD_SPEC" _goal.json)
     OUTPUT="$4/$TARGET_CLASS"_goal.json
-    OUTPUT_UPDATED="$OUTPUT"_updated
     java -jar $TORADOCU_JAR --target-class $TARGET_CLASS --source-dir "$2" --class-dir "$3" --javadoc-extractor-output "$OUTPUT" --condition-translation false --oracle-generation false
-    java -cp $TORADOCU_JAR org.toradocu.util.JsonUpdater "$OLD_SPEC" "$OUTPUT" > "$OUTPUT_UPDATED"
-    mv "$OUTPUT_UPDATED" "$OUTPUT"
-    echo "Updated specs saved to: $OUTPUT"
 done
+
+# Copy condition translations to all the extracted specs at once.
+java -cp $TORADOCU_JAR org.toradocu.util.SpecsTool update "$1" "$4" "$4"